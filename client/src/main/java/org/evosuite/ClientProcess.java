@@ -21,6 +21,9 @@
 package org.evosuite;
 
 import org.evosuite.classpath.ClassPathHacker;
+import org.evosuite.coverage.exception.ExceptionCoverageFactory;
+import org.evosuite.ga.archive.Archive;
+import org.evosuite.ga.stoppingconditions.RMIStoppingCondition;
 import org.evosuite.junit.writer.TestSuiteWriterUtils;
 import org.evosuite.result.TestGenerationResult;
 import org.evosuite.result.TestGenerationResultBuilder;
@@ -32,6 +35,9 @@ import org.evosuite.runtime.instrumentation.MethodCallReplacementCache;
 import org.evosuite.runtime.mock.MockFramework;
 import org.evosuite.runtime.sandbox.MSecurityManager;
 import org.evosuite.runtime.sandbox.Sandbox;
+import org.evosuite.statistics.MetricsRegistry;
+import org.evosuite.testcase.execution.TestCaseExecutor;
+import org.evosuite.testcase.execution.reset.ClassReInitializer;
 import org.evosuite.utils.LoggingUtils;
 import org.evosuite.utils.Randomness;
 import org.evosuite.utils.SpawnProcessKeepAliveChecker;
@@ -59,12 +65,19 @@ public class ClientProcess {
 
     public static TestGenerationResult result;
 
+    /**
+     * System properties at the start of the client, restored before generating tests for
+     * another class, as the SUT might have changed them
+     */
+    private static java.util.Properties initialSystemProperties = null;
+
     /**
      * <p>
      * run
      * </p>
      */
     public void run() {
+        initialSystemProperties = (java.util.Properties) System.getProperties().clone();
         Properties.getInstance();
         setupRuntimeProperties();
         JDKClassResetter.init();
@@ -136,6 +149,8 @@ public class ClientProcess {
         RuntimeSettings.mockSystemIn = Properties.REPLACE_SYSTEM_IN;
         RuntimeSettings.mockGUI = Properties.REPLACE_GUI;
         RuntimeSettings.sandboxMode = Properties.SANDBOX_MODE;
+        RuntimeSettings.sandboxWithInterception = Properties.SANDBOX
+                && (Properties.SANDBOX_INTERCEPTION || !Sandbox.isSecurityManagerSupported());
         RuntimeSettings.maxNumberOfThreads = Properties.MAX_STARTED_THREADS;
         RuntimeSettings.maxNumberOfIterationsPerLoop = Properties.MAX_LOOP_ITERATIONS;
         RuntimeSettings.useVNET = Properties.VIRTUAL_NET;
@@ -147,6 +162,36 @@ public class ClientProcess {
     }
 
 
+    /**
+     * Reset the state left by the search on the previous class, so that this client can
+     * generate tests for another class: properties are reloaded from the properties file
+     * and the command line, and the class loader, pools and test cluster are replaced
+     *
+     * @param targetClass the next class under test
+     */
+    public static void resetForNextClass(String targetClass) {
+        if (initialSystemProperties != null) {
+            System.setProperties((java.util.Properties) initialSystemProperties.clone());
+        }
+        Properties.getInstance().resetToDefaults();
+        Properties.getInstance().loadProperties(true);
+        try {
+            Properties.getInstance().setValue("TARGET_CLASS", targetClass);
+        } catch (Properties.NoSuchParameterException | IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+
+        TestCaseExecutor.getInstance().newObservers();
+        TestGenerationContext.getInstance().resetContext();
+        ClassReInitializer.resetSingleton();
+        ExceptionCoverageFactory.getGoals().clear();
+        Archive.getArchiveInstance().reset();
+        RMIStoppingCondition.getInstance().reset();
+        MetricsRegistry.reset();
+        TimeController.resetSingleton();
+        setupRuntimeProperties();
+    }
+
     /**
      * Returns the client's identifier.
      */
@@ -307,6 +307,44 @@ public class Properties {
     @Parameter(key = "migrants_communication_rate", group = "Test Creation", description = "Determines amount of migrants per communication step")
     public static int MIGRANTS_COMMUNICATION_RATE = 3;
 
+    @Parameter(key = "parallel_classes", group = "Test Creation", description = "With -target and -prefix, number of classes to generate tests for at the same time, each in its own master and client processes. It is bounded by the available cores")
+    @IntValue(min = 1)
+    public static int PARALLEL_CLASSES = 1;
+
+    @Parameter(key = "parallel_classes_memory", group = "Test Creation", description = "Megabytes of memory shared by the master and client processes of the classes generated at the same time (0 for no bound)")
+    @IntValue(min = 0)
+    public static int PARALLEL_CLASSES_MEMORY = 0;
+
+    @Parameter(key = "client_reuse", group = "Test Creation", description = "With -target and -prefix, max number of classes a client process generates tests for, one after the other, before being replaced by a new one (1 to start a new client for each class). Only used with a single client per class")
+    @IntValue(min = 1)
+    public static int CLIENT_REUSE = 1;
+
+    @Parameter(key = "client_reuse_max_heap", group = "Test Creation", description = "Fraction of the max heap of a reused client that can still be in use after resetting it for the next class, above which the client is replaced by a new one")
+    @DoubleValue(min = 0.0, max = 1.0)
+    public static double CLIENT_REUSE_MAX_HEAP = 0.5;
+
+    @Parameter(key = "results_file", group = "Output", description = "File where the master process serializes the results of the test generation, e.g. to collect them from classes generated at the same time")
+    public static String RESULTS_FILE = "";
+
+    @Parameter(key = "llm_selection_timeout", group = "Test Creation", description = "Milliseconds an LLM-guided insertion waits for the LLM to select an object, before falling back to a random one")
+    @IntValue(min = 0)
+    public static int LLM_SELECTION_TIMEOUT = 50;
+
+    @Parameter(key = "llm_queue_size", group = "Test Creation", description = "Max number of pending LLM object selections. Further requests are not sent to the LLM")
+    @IntValue(min = 1)
+    public static int LLM_QUEUE_SIZE = 64;
+
+    @Parameter(key = "llm_batch_size", group = "Test Creation", description = "Max number of pending LLM object selections sent to the LLM in a single query")
+    @IntValue(min = 1)
+    public static int LLM_BATCH_SIZE = 8;
+
+    @Parameter(key = "llm_cache_size", group = "Test Creation", description = "Max number of LLM responses kept in memory")
+    @IntValue(min = 1)
+    public static int LLM_CACHE_SIZE = 10000;
+
+    @Parameter(key = "llm_cache_file", group = "Test Creation", description = "File in which LLM responses are kept across runs, and shared by the processes using it. If empty, they are only kept in memory")
+    public static String LLM_CACHE_FILE = "";
+
     // ---------------------------------------------------------------
     // Search algorithm
     public enum Algorithm {
@@ -332,6 +370,9 @@ public class Properties {
     @Parameter(key = "ranking_type", group = "Runtime", description = "type of ranking to use in MOSA")
     public static RankingType RANKING_TYPE = RankingType.PREFERENCE_SORTING;
 
+    @Parameter(key = "goal_subsumption", group = "Search Algorithm", description = "In DynaMOSA, only use a line goal as objective once the line goal dominating it in the control flow graph is covered")
+    public static boolean GOAL_SUBSUMPTION = false;
+
     public enum MapElitesChoice {
         ALL,
         SINGLE,
@@ -351,6 +392,13 @@ public class Properties {
     @Parameter(key = "map_elites_ignore_features", group = "Search Algorithm", description = "Enable this to disable feature based mapping")
     public static boolean MAP_ELITES_IGNORE_FEATURES = false;
 
+    @Parameter(key = "map_elites_batch_size", group = "Search Algorithm", description = "Number of offspring generated from the same elites, before their evaluation is used to update the elites")
+    @IntValue(min = 1)
+    public static int MAP_ELITES_BATCH_SIZE = 1;
+
+    @Parameter(key = "map_elites_cell_statistics", group = "Search Algorithm", description = "Write to a file in the report directory the statistics of each cell of the MAP-Elites feature space")
+    public static boolean MAP_ELITES_CELL_STATISTICS = false;
+
     @Parameter(key = "algorithm", group = "Search Algorithm", description = "Search algorithm")
     public static Algorithm ALGORITHM = Algorithm.MOGUL;
 
@@ -577,6 +625,9 @@ public class Properties {
     @Parameter(key = "local_search_primitives", group = "Local Search", description = "Perform local search on primitive values")
     public static boolean LOCAL_SEARCH_PRIMITIVES = true;
 
+    @Parameter(key = "local_search_batch", group = "Local Search", description = "Search the integral primitives of a test together, applying at each step the best of the +1/-1 moves on all of them, rather than one primitive after the other")
+    public static boolean LOCAL_SEARCH_BATCH = false;
+
     @Parameter(key = "local_search_strings", group = "Local Search", description = "Perform local search on primitive values")
     public static boolean LOCAL_SEARCH_STRINGS = true;
 
@@ -681,6 +732,18 @@ public class Properties {
     @Parameter(key = "population_limit", group = "Search Algorithm", description = "What to use as limit for the population size")
     public static PopulationLimit POPULATION_LIMIT = PopulationLimit.INDIVIDUALS;
 
+    @Parameter(key = "novelty_neighbours", group = "Search Algorithm", description = "Number of nearest neighbours, in the population and archive, used to compute the novelty of an individual")
+    @IntValue(min = 1)
+    public static int NOVELTY_NEIGHBOURS = 15;
+
+    @Parameter(key = "novelty_threshold", group = "Search Algorithm", description = "Minimum novelty [0,1] for the behaviour of an individual to be added to the novelty archive")
+    @DoubleValue(min = 0.0, max = 1.0)
+    public static double NOVELTY_THRESHOLD = 0.05;
+
+    @Parameter(key = "novelty_archive_size", group = "Search Algorithm", description = "Max number of behaviours in the novelty archive. The oldest ones are removed first")
+    @IntValue(min = 0)
+    public static int NOVELTY_ARCHIVE_SIZE = 1000;
+
     @Parameter(key = "write_individuals", group = "Search Algorithm",
             description = "Write to a file all fitness values of each individual on each iteration of a GA")
     public static boolean WRITE_INDIVIDUALS = false;
@@ -809,10 +872,18 @@ public class Properties {
     @IntValue(min = 0)
     public static int WRITE_JUNIT_TIMEOUT = 60; //Note: we need it, as we currently first run the tests before we write them
 
+    @Parameter(key = "write_junit_threads", group = "Output", description = "Number of threads used to generate the source code of the test methods when writing the JUnit files")
+    @IntValue(min = 1)
+    public static int WRITE_JUNIT_THREADS = 1;
+
     @Parameter(key = "carving_timeout", group = "Search Algorithm", description = "Seconds allowed for carving JUnit tests")
     @IntValue(min = 0)
     public static int CARVING_TIMEOUT = 120;
 
+    @Parameter(key = "carving_threads", group = "Search Algorithm", description = "Number of threads used to execute the JUnit tests for carving, each with its own carving class loader")
+    @IntValue(min = 1)
+    public static int CARVING_THREADS = 1;
+
     @Parameter(key = "initialization_timeout", group = "Search Algorithm", description = "Seconds allowed for initializing the search")
     @IntValue(min = 0)
     public static int INITIALIZATION_TIMEOUT = 120;
@@ -824,6 +895,13 @@ public class Properties {
     @Parameter(key = "reuse_leftover_time", group = "Search Algorithm", description = "If a phase is ended before its timeout, allow the next phase to run over its timeout")
     public static boolean REUSE_LEFTOVER_TIME = false;
 
+    @Parameter(key = "adaptive_time_budget", group = "Search Algorithm", description = "If a phase is ended before its timeout, give the time left to the remaining phases that have work to do, in proportion to their timeouts")
+    public static boolean ADAPTIVE_TIME_BUDGET = false;
+
+    @Parameter(key = "adaptive_search_stagnation", group = "Search Algorithm", description = "With an adaptive time budget, end the search after this many seconds without covering a new goal, and give its time to the remaining phases (0 to never end it early)")
+    @IntValue(min = 0)
+    public static int ADAPTIVE_SEARCH_STAGNATION = 0;
+
     @Parameter(key = "track_boolean_branches", group = "Search Algorithm", description = "Track branches that have a distance of either 0 or 1")
     public static boolean TRACK_BOOLEAN_BRANCHES = false;
 
@@ -914,6 +992,16 @@ public class Properties {
     @Parameter(key = "ctg_seeds_file_out", group = "Continuous Test Generation", description = "If specified, save serialized tests to that file")
     public static String CTG_SEEDS_FILE_OUT = null;
 
+    public enum SeedsFormat {
+        // see org.evosuite.testsuite.BinaryTestFormat
+        BINARY,
+        // Java serialization of the test chromosomes
+        JAVA
+    }
+
+    @Parameter(key = "ctg_seeds_format", group = "Continuous Test Generation", description = "Format used to save serialized tests. Files in any format can be loaded")
+    public static SeedsFormat CTG_SEEDS_FORMAT = SeedsFormat.BINARY;
+
     @Parameter(key = "ctg_seeds_dir_name", group = "Continuous Test Generation", description = "Name of seed folder where the serialized tests are stored")
     public static String CTG_SEEDS_DIR_NAME = "seeds";
 
@@ -926,6 +1014,16 @@ public class Properties {
     @Parameter(key = "ctg_history_file", group = "Continuous Test Generation", description = "File with the list of new(A)/modified(M)/deleted(D) files")
     public static String CTG_HISTORY_FILE = null;
 
+    @Parameter(key = "ctg_incremental", group = "Continuous Test Generation", description = "If true, only generate tests for classes whose bytecode, or the bytecode of the classes they depend on, changed since the previous CTG run, or whose coverage is below ctg_incremental_coverage")
+    public static boolean CTG_INCREMENTAL = false;
+
+    @Parameter(key = "ctg_incremental_coverage", group = "Continuous Test Generation", description = "When running incremental CTG, unchanged classes are tested again only if the overall coverage of their best test suite is below this value")
+    @DoubleValue(min = 0.0, max = 1.0)
+    public static double CTG_INCREMENTAL_COVERAGE = 0.8;
+
+    @Parameter(key = "ctg_class_hashes", group = "Continuous Test Generation", description = "File which stores the hashes of the classes tested in previous CTG runs")
+    public static String CTG_CLASS_HASHES = "class_hashes.txt";
+
     @Parameter(key = "ctg_selected_cuts", group = "Continuous Test Generation", description = "Comma ',' separated list of CUTs to use in CTG. If none specified, then test all classes")
     public static String CTG_SELECTED_CUTS = null;
 
@@ -942,7 +1040,7 @@ public class Properties {
      * The types of CTG schedules that can be used
      */
     public enum AvailableSchedule {
-        SIMPLE, BUDGET, SEEDING, BUDGET_AND_SEEDING, HISTORY
+        SIMPLE, BUDGET, SEEDING, BUDGET_AND_SEEDING, HISTORY, COVERAGE
     }
 
     /*
@@ -1023,6 +1121,10 @@ public class Properties {
     //this gives quite a few issues. and hopefully the problems it was aimed to fix are no longer
     public static boolean JUNIT_CHECK_ON_SEPARATE_PROCESS = false;
 
+    @Parameter(key = "junit_check_threads", group = "Output", description = "Number of threads used to compile the single-test suites of the JUnit stability check. Each test is then loaded in its own class loader")
+    @IntValue(min = 1)
+    public static int JUNIT_CHECK_THREADS = 1;
+
     @Parameter(key = "junit_suffix", group = "Output", description = "Suffix that is appended at each generated JUnit file name")
     public static String JUNIT_SUFFIX = "_ESTest";
 
@@ -1090,6 +1192,9 @@ public class Properties {
     @Parameter(key = "lm_src", description = "Text file for the language model.")
     public static String LM_SRC = "ukwac_char_lm";
 
+    @Parameter(key = "lm_cache_dir", description = "Directory where the language model is compiled, to be memory-mapped by all clients. If empty, each client compiles it in memory.")
+    public static String LM_CACHE_DIR = OUTPUT_DIR + File.separator + "lm";
+
     @Parameter(key = "lm_iterations", description = "Number of 1+1EA generations PER STRING PRIMITIVE for language model optimiser.")
     public static int LM_ITERATIONS = 1000;
 
@@ -1221,6 +1326,20 @@ public class Properties {
     @Parameter(key = "timeline_interval", group = "Output", description = "Time interval in milliseconds for timeline statistics")
     public static long TIMELINE_INTERVAL = 60 * 1000;
 
+    @Parameter(key = "telemetry_interval", group = "Output", description = "Time interval in milliseconds at which the client sends search telemetry to master (0 to disable it)")
+    @IntValue(min = 0)
+    public static int TELEMETRY_INTERVAL = 0;
+
+    @Parameter(key = "telemetry_file", group = "Output", description = "File where master writes the search telemetry, in the Prometheus text format (default: telemetry.prom in the report directory)")
+    public static String TELEMETRY_FILE = "";
+
+    @Parameter(key = "phase_metrics_sampling", group = "Output", description = "Measure the CPU time and the allocated bytes of one in every N executions of each phase (0 to only measure the elapsed time)")
+    @IntValue(min = 0)
+    public static int PHASE_METRICS_SAMPLING = 16;
+
+    @Parameter(key = "phase_metrics_jfr", group = "Output", description = "Emit an event for each measured execution of a phase to Java Flight Recorder, if the JVM supports it")
+    public static boolean PHASE_METRICS_JFR = false;
+
     @Parameter(key = "timeline_interpolation", group = "Output", description = "Interpolate timeline values")
     public static boolean TIMELINE_INTERPOLATION = true;
 
@@ -1258,6 +1377,9 @@ public class Properties {
     @Parameter(key = "sandbox_mode", group = "Sandbox", description = "Mode in which the sandbox is applied")
     public static Sandbox.SandboxMode SANDBOX_MODE = Sandbox.SandboxMode.RECOMMENDED;
 
+    @Parameter(key = "sandbox_interception", group = "Sandbox", description = "Apply the sandbox by checking the sensitive calls in the instrumented SUT code, rather than with a security manager. Always done if the JVM does not support security managers")
+    public static boolean SANDBOX_INTERCEPTION = false;
+
     @Parameter(key = "filter_sandbox_tests", group = "Sandbox", description = "Drop tests that require the sandbox")
     public static boolean FILTER_SANDBOX_TESTS = false;
 
@@ -1287,6 +1409,10 @@ public class Properties {
     @Parameter(key = "cluster_recursion", description = "The maximum level of recursion when calculating the dependencies in the test cluster")
     public static int CLUSTER_RECURSION = 10;
 
+    @Parameter(key = "cluster_threads", description = "Number of threads used to build the test cluster. The additional threads load the dependency classes and their members in the background, while they wait to be added to the cluster")
+    @IntValue(min = 1)
+    public static int CLUSTER_THREADS = 1;
+
     @Parameter(key = "sort_calls", description = "Sort SUT methods by remaining coverage to bias search towards uncovered parts")
     public static boolean SORT_CALLS = false;
 
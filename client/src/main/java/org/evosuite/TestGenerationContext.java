@@ -55,6 +55,8 @@ import org.evosuite.testcase.execution.ExecutionTracer;
 import org.evosuite.testcase.execution.TestCaseExecutor;
 import org.evosuite.testcase.execution.reset.ClassReInitializer;
 import org.evosuite.utils.ArrayUtil;
+import org.evosuite.utils.RegexDistanceUtils;
+import org.evosuite.utils.generic.GenericClassUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -174,6 +176,8 @@ public class TestGenerationContext {
         TestCluster.reset();
         CastClassManager.getInstance().clear();
         ConcreteClassAnalyzer.getInstance().clear();
+        GenericClassUtils.clearCaches();
+        RegexDistanceUtils.clearCaches();
         // This counts the current level of recursion during test generation
         org.evosuite.testcase.TestFactory.getInstance().reset();
 
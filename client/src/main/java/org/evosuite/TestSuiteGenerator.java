@@ -45,6 +45,7 @@ import org.evosuite.seeding.ObjectPoolManager;
 import org.evosuite.setup.DependencyAnalysis;
 import org.evosuite.setup.ExceptionMapGenerator;
 import org.evosuite.setup.TestCluster;
+import org.evosuite.statistics.MetricsRegistry;
 import org.evosuite.statistics.RuntimeVariable;
 import org.evosuite.statistics.StatisticsSender;
 import org.evosuite.strategy.TestGenerationStrategy;
@@ -52,6 +53,7 @@ import org.evosuite.symbolic.dse.DSEStatistics;
 import org.evosuite.testcase.*;
 import org.evosuite.testcase.execution.*;
 import org.evosuite.testcase.execution.reset.ClassReInitializer;
+import org.evosuite.testcase.llm.LLMSelectionService;
 import org.evosuite.testcase.statements.MethodStatement;
 import org.evosuite.testcase.statements.Statement;
 import org.evosuite.testcase.statements.StringPrimitiveStatement;
@@ -229,6 +231,8 @@ public class TestSuiteGenerator {
          * TODO: when we will have several processes running in parallel, we ll
          * need to handle the gathering of the statistics.
          */
+        TimeController.getInstance().trackOutputVariables();
+        MetricsRegistry.trackOutputVariables();
         ClientServices.getInstance().getClientNode().changeState(ClientState.WRITING_STATISTICS);
 
         LoggingUtils.getEvoLogger().info("* " + ClientProcess.getPrettyPrintIdentifier() + "Done!");
@@ -411,7 +415,12 @@ public class TestSuiteGenerator {
                 TestSuiteMinimizer minimizer = new TestSuiteMinimizer(getFitnessFactories());
 
                 LoggingUtils.getEvoLogger().info("* " + ClientProcess.getPrettyPrintIdentifier() + "Minimizing test suite");
-                minimizer.minimize(testSuite, true);
+                MetricsRegistry.Sample sample = MetricsRegistry.start(MetricsRegistry.Phase.MINIMIZATION);
+                try {
+                    minimizer.minimize(testSuite, true);
+                } finally {
+                    sample.stop();
+                }
 
                 double after = testSuite.getFitness();
                 if (after > before + 0.01d) { // assume minimization
@@ -497,7 +506,12 @@ public class TestSuiteGenerator {
                 LoggingUtils.getEvoLogger().info("* " + ClientProcess.getPrettyPrintIdentifier()
                         + "Skipping assertion generation because not enough time is left");
             } else {
-                TestSuiteGeneratorHelper.addAssertions(testSuite);
+                MetricsRegistry.Sample sample = MetricsRegistry.start(MetricsRegistry.Phase.ASSERTION_GENERATION);
+                try {
+                    TestSuiteGeneratorHelper.addAssertions(testSuite);
+                } finally {
+                    sample.stop();
+                }
             }
             StatisticsSender.sendIndividualToMaster(testSuite); // FIXME: can we
             // pass the list
@@ -512,10 +526,16 @@ public class TestSuiteGenerator {
                     + "WARNING: Not including the runtime dependencies is likely to lead to flaky tests!");
         } else if (Properties.JUNIT_TESTS && (Properties.JUNIT_CHECK == Properties.JUnitCheckValues.TRUE ||
                 Properties.JUNIT_CHECK == Properties.JUnitCheckValues.OPTIONAL)) {
-            if (ClassPathHacker.isJunitCheckAvailable())
-                compileAndCheckTests(testSuite);
-            else
+            if (ClassPathHacker.isJunitCheckAvailable()) {
+                MetricsRegistry.Sample sample = MetricsRegistry.start(MetricsRegistry.Phase.JUNIT_CHECK);
+                try {
+                    compileAndCheckTests(testSuite);
+                } finally {
+                    sample.stop();
+                }
+            } else {
                 logger.warn("Cannot run Junit test. Cause {}", ClassPathHacker.getCause());
+            }
         }
     }
 
@@ -560,19 +580,23 @@ public class TestSuiteGenerator {
 
         // compile and run each test one at a time. and keep track of total time
         long start = java.lang.System.currentTimeMillis();
-        Iterator<TestCase> iter = testCases.iterator();
-        while (iter.hasNext()) {
-            if (!TimeController.getInstance().hasTimeToExecuteATestCase()) {
-                break;
-            }
-            TestCase tc = iter.next();
-            List<TestCase> list = new ArrayList<>();
-            list.add(tc);
-            numUnstable += JUnitAnalyzer.handleTestsThatAreUnstable(list);
-            if (list.isEmpty()) {
-                // if the test was unstable and deleted, need to remove it from
-                // final testSuite
-                iter.remove();
+        if (Properties.JUNIT_CHECK_THREADS > 1) {
+            numUnstable += JUnitAnalyzer.handleEachTestThatIsUnstable(testCases);
+        } else {
+            Iterator<TestCase> iter = testCases.iterator();
+            while (iter.hasNext()) {
+                if (!TimeController.getInstance().hasTimeToExecuteATestCase()) {
+                    break;
+                }
+                TestCase tc = iter.next();
+                List<TestCase> list = new ArrayList<>();
+                list.add(tc);
+                numUnstable += JUnitAnalyzer.handleTestsThatAreUnstable(list);
+                if (list.isEmpty()) {
+                    // if the test was unstable and deleted, need to remove it from
+                    // final testSuite
+                    iter.remove();
+                }
             }
         }
         /*
@@ -633,8 +657,15 @@ public class TestSuiteGenerator {
             TestCaseExecutor.getInstance().removeObserver(checker);
         }
 
+        // phases without tests to handle do not need the time left by the search
+        TimeController.getInstance().setExpectedWorkload(ClientState.MINIMIZATION, testSuite.size());
+        TimeController.getInstance().setExpectedWorkload(ClientState.ASSERTION_GENERATION, testSuite.size());
+        TimeController.getInstance().setExpectedWorkload(ClientState.JUNIT_CHECK, testSuite.size());
+
         StatisticsSender.executedAndThenSendIndividualToMaster(testSuite);
         TestSuiteGeneratorHelper.getBytecodeStatistics();
+        LLMSelectionService.trackOutputVariables();
+        LLMSelectionService.shutdownInstance();
 
         ClientServices.getInstance().getClientNode().publishPermissionStatistics();
 
@@ -22,11 +22,16 @@ package org.evosuite;
 import org.evosuite.Properties.StoppingCondition;
 import org.evosuite.Properties.TestFactory;
 import org.evosuite.classpath.ClassPathHacker;
+import org.evosuite.rmi.ClientServices;
 import org.evosuite.rmi.service.ClientState;
 import org.evosuite.runtime.util.Inputs;
+import org.evosuite.statistics.RuntimeVariable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -35,6 +40,11 @@ import java.util.concurrent.ConcurrentHashMap;
  * This class is used to keep track of how long EvoSuite has spent
  * in each of its different phases (eg search, minimization, assertion generation).
  *
+ * <p>
+ * With {@link Properties#ADAPTIVE_TIME_BUDGET}, the time left by a phase that ended
+ * early is given to the remaining phases that have work to do, and the search can be
+ * ended early if it stops covering new goals. Each of these decisions is logged, and
+ * tracked in the statistics.
  *
  * <p>
  * TODO: in the long run, this should replace all the occurrences of time handling in EvoSuite
@@ -79,6 +89,38 @@ public class TimeController {
      */
     private Map<ClientState, Long> timeSpentInEachPhase;
 
+    /**
+     * Map from ClientState phase (key), to the time (value) in milliseconds
+     * given to that phase by the phases that ended early
+     */
+    private Map<ClientState, Long> extraTime;
+
+    /**
+     * Map from ClientState phase (key), to how many tests (value) it is expected to handle
+     */
+    private Map<ClientState, Integer> expectedWorkload;
+
+    /**
+     * Decisions of the adaptive time budget
+     */
+    private final List<String> decisions = new ArrayList<>();
+
+    /**
+     * Time in milliseconds given by phases that ended early to the remaining phases
+     */
+    private long reallocatedTime;
+
+    private volatile int numCoveredGoals;
+
+    private volatile int numGoals;
+
+    /**
+     * When the last goal was covered, or the search started
+     */
+    private volatile long lastCoverageIncrease;
+
+    private volatile boolean searchStagnated;
+
 
     /**
      * Main and only constructor
@@ -91,6 +133,14 @@ public class TimeController {
         state = ClientState.NOT_STARTED;
         clientStartTime = 0;
         timeLeftFromPreviousPhases = 0;
+        reallocatedTime = 0;
+        numCoveredGoals = 0;
+        numGoals = 0;
+        lastCoverageIncrease = 0;
+        searchStagnated = false;
+        synchronized (decisions) {
+            decisions.clear();
+        }
         initializePhaseTimeouts();
     }
 
@@ -141,6 +191,14 @@ public class TimeController {
         } else {
             timeSpentInEachPhase = new ConcurrentHashMap<>();
         }
+
+        if (extraTime != null) {
+            extraTime.clear();
+            expectedWorkload.clear();
+        } else {
+            extraTime = new ConcurrentHashMap<>();
+            expectedWorkload = new ConcurrentHashMap<>();
+        }
     }
 
     /**
@@ -184,7 +242,11 @@ public class TimeController {
                     //just check if phase went over by more than 10%...
                     logger.warn("Phase " + state + " lasted too long, " + (-left / 1000) + " seconds more than allowed.");
                 }
-                if (Properties.REUSE_LEFTOVER_TIME) {
+                if (Properties.ADAPTIVE_TIME_BUDGET) {
+                    if (left > 0) {
+                        reallocate(state, left);
+                    }
+                } else if (Properties.REUSE_LEFTOVER_TIME) {
                     timeLeftFromPreviousPhases += left;
                     logger.info("Time left from previous phases: {}/{} -> {}, {}", left, timeoutInMs, timeLeftFromPreviousPhases, getLeftTimeBeforeEnd());
                 }
@@ -198,6 +260,9 @@ public class TimeController {
         if (state.equals(ClientState.STARTED)) {
             clientStartTime = currentPhaseStartTime;
         }
+        if (state.equals(ClientState.SEARCH)) {
+            lastCoverageIncrease = currentPhaseStartTime;
+        }
 
         if (currentPhaseHasTimeout()) {
             long left = getLeftTimeBeforeEnd();
@@ -217,6 +282,156 @@ public class TimeController {
         }
     }
 
+    /**
+     * Give the time left by a phase to the remaining phases, in proportion to their
+     * timeouts. Phases that are disabled, or that are expected to have nothing to do,
+     * get nothing.
+     */
+    private void reallocate(ClientState finishedPhase, long left) {
+        Map<ClientState, Long> weights = new LinkedHashMap<>();
+        long totalWeight = 0;
+        for (ClientState phase : ClientState.values()) {
+            if (phase.getNumPhase() <= finishedPhase.getNumPhase() || !phaseTimeouts.containsKey(phase)
+                    || !isPhaseEnabled(phase) || expectedWorkload.getOrDefault(phase, 1) == 0) {
+                continue;
+            }
+            long weight = phaseTimeouts.get(phase);
+            if (weight > 0) {
+                weights.put(phase, weight);
+                totalWeight += weight;
+            }
+        }
+        if (totalWeight == 0) {
+            logDecision(finishedPhase + " ended " + (left / 1000) + "s early, no remaining phase needs the time");
+            return;
+        }
+
+        StringBuilder decision = new StringBuilder();
+        decision.append(finishedPhase).append(" ended ").append(left / 1000).append("s early, giving");
+        long given = 0;
+        int i = 0;
+        for (Map.Entry<ClientState, Long> entry : weights.entrySet()) {
+            // the last phase gets the rounding errors
+            long share = ++i == weights.size() ? left - given : left * entry.getValue() / totalWeight;
+            given += share;
+            extraTime.merge(entry.getKey(), share, Long::sum);
+            decision.append(' ').append(entry.getKey()).append(" +").append(share / 1000).append('s');
+        }
+        reallocatedTime += left;
+        logDecision(decision.toString());
+    }
+
+    private boolean isPhaseEnabled(ClientState phase) {
+        switch (phase) {
+            case SEARCH:
+                // other stopping conditions do not depend on the time
+                return Properties.STOPPING_CONDITION == StoppingCondition.MAXTIME;
+            case MINIMIZATION:
+                return Properties.MINIMIZE;
+            case ASSERTION_GENERATION:
+                return Properties.ASSERTIONS;
+            case CARVING:
+                return Properties.TEST_FACTORY == TestFactory.JUNIT;
+            case WRITING_TESTS:
+                return Properties.JUNIT_TESTS;
+            case JUNIT_CHECK:
+                return Properties.JUNIT_TESTS && (Properties.JUNIT_CHECK == Properties.JUnitCheckValues.TRUE || (
+                        Properties.JUNIT_CHECK == Properties.JUnitCheckValues.OPTIONAL && ClassPathHacker.isJunitCheckAvailable()));
+            default:
+                return true;
+        }
+    }
+
+    private void logDecision(String decision) {
+        long elapsed = clientStartTime == 0 ? 0 : System.currentTimeMillis() - clientStartTime;
+        String entry = (elapsed / 1000) + "s: " + decision;
+        logger.info("Time budget: {}", entry);
+        synchronized (decisions) {
+            decisions.add(entry);
+        }
+    }
+
+    /**
+     * Set how many tests a later phase is expected to handle. A phase expected
+     * to handle none does not get the time left by other phases
+     *
+     * @param phase
+     * @param numTests
+     */
+    public void setExpectedWorkload(ClientState phase, int numTests) {
+        expectedWorkload.put(phase, numTests);
+    }
+
+    /**
+     * Report the progress of the search
+     *
+     * @param covered number of goals covered so far
+     * @param total   number of goals
+     */
+    public void reportCoveredGoals(int covered, int total) {
+        if (covered > numCoveredGoals) {
+            lastCoverageIncrease = System.currentTimeMillis();
+        }
+        numCoveredGoals = covered;
+        numGoals = total;
+    }
+
+    /**
+     * Check whether the search should be ended early, as it has covered all goals,
+     * or it has not covered any new goal for {@link Properties#ADAPTIVE_SEARCH_STAGNATION} seconds.
+     * The time left is then given to the remaining phases.
+     *
+     * @return
+     */
+    public boolean isSearchStagnating() {
+        if (searchStagnated) {
+            return true;
+        }
+        if (!Properties.ADAPTIVE_TIME_BUDGET || Properties.ADAPTIVE_SEARCH_STAGNATION <= 0
+                || !state.equals(ClientState.SEARCH) || numGoals == 0) {
+            return false;
+        }
+        long stagnation = System.currentTimeMillis() - lastCoverageIncrease;
+        if (numCoveredGoals < numGoals && stagnation < 1000L * Properties.ADAPTIVE_SEARCH_STAGNATION) {
+            return false;
+        }
+        searchStagnated = true;
+        if (numCoveredGoals < numGoals) {
+            logDecision("SEARCH covered no new goal for " + (stagnation / 1000) + "s, ending it");
+        } else {
+            logDecision("SEARCH covered all " + numGoals + " goals, ending it");
+        }
+        return true;
+    }
+
+    /**
+     * @param phase
+     * @return the time in milliseconds given to the phase by the phases that ended early
+     */
+    public long getExtraTime(ClientState phase) {
+        return extraTime.getOrDefault(phase, 0L);
+    }
+
+    /**
+     * @return the decisions of the adaptive time budget so far
+     */
+    public List<String> getDecisions() {
+        synchronized (decisions) {
+            return new ArrayList<>(decisions);
+        }
+    }
+
+    /**
+     * Track the decisions of the adaptive time budget, if enabled
+     */
+    public void trackOutputVariables() {
+        if (!Properties.ADAPTIVE_TIME_BUDGET) {
+            return;
+        }
+        ClientServices.track(RuntimeVariable.Time_Budget_Decisions, String.join(";", getDecisions()));
+        ClientServices.track(RuntimeVariable.Time_Budget_Reallocated, reallocatedTime / 1000);
+    }
+
     public int calculateForHowLongClientWillRunInSeconds() {
         int time = Properties.EXTRA_TIMEOUT;
 
@@ -312,7 +527,7 @@ public class TimeController {
     }
 
     private long getCurrentPhaseTimeout() {
-        return phaseTimeouts.get(state);
+        return phaseTimeouts.get(state) + getExtraTime(state);
     }
 
     private boolean currentPhaseHasTimeout() {
@@ -111,7 +111,7 @@ public class StrongMutationSuiteFitness extends MutationSuiteFitness {
         double fitness = branchFitness.getFitness(suite);
         Properties.TEST_ARCHIVE = archive;
 
-        Set<Integer> touchedMutants = new LinkedHashSet<>();
+        BitSet touchedMutants = new BitSet();
         Map<Mutation, Double> minMutantFitness = new LinkedHashMap<>();
 
         // For each mutant that is not in the archive:
@@ -137,11 +137,10 @@ public class StrongMutationSuiteFitness extends MutationSuiteFitness {
                 continue;
 
             ExecutionTrace trace = result.getTrace();
-            touchedMutants.addAll(trace.getTouchedMutants());
-            logger.debug("Tests touched " + touchedMutants.size() + " mutants");
+            touchedMutants.or(trace.getTouchedMutantIds());
+            logger.debug("Tests touched " + touchedMutants.cardinality() + " mutants");
 
-            Map<Integer, Double> touchedMutantsDistances = trace.getMutationDistances();
-            if (touchedMutantsDistances.isEmpty()) {
+            if (trace.getTouchedMutantIds().isEmpty()) {
                 // if 'result' does not touch any mutant, no need to continue
                 continue;
             }
@@ -161,19 +160,24 @@ public class StrongMutationSuiteFitness extends MutationSuiteFitness {
                 mutantsChecked++;
 
                 double mutantInfectionDistance = 3.0;
-                boolean hasBeenTouched = touchedMutantsDistances.containsKey(mutantID);
+                boolean hasBeenTouched = trace.wasMutationTouched(mutantID);
 
                 if (hasBeenTouched) {
                     // Infection happened, so we need to check propagation
-                    if (touchedMutantsDistances.get(mutantID) == 0.0) {
+                    double infectionDistance = trace.getMutationDistance(mutantID);
+                    if (infectionDistance == 0.0) {
                         logger.debug("Executing test against mutant " + goal.getMutation());
 
                         mutantInfectionDistance = goal.getFitness(test, result); // archive is updated by the TestFitnessFunction class
                     } else {
                         // We can skip calling the test fitness function since we already know
                         // fitness is 1.0 (for propagation) + infection distance
-                        mutantInfectionDistance = 1.0 + normalize(touchedMutantsDistances.get(mutantID));
+                        mutantInfectionDistance = 1.0 + normalize(infectionDistance);
                     }
+                } else if (minMutantFitness.get(goal.getMutation()) < 2.0) {
+                    // A test not touching the mutant has at least 2.0 (propagation and infection),
+                    // so it cannot improve on a test that touched it
+                    continue;
                 } else {
                     mutantInfectionDistance = goal.getFitness(test, result); // archive is updated by the TestFitnessFunction class
                 }
@@ -321,7 +321,7 @@ public class StrongMutationTestFitness extends MutationTestFitness {
         double executionDistance = diameter;
 
         // Get control flow distance
-        if (!result.getTrace().getTouchedMutants().contains(mutation.getId()))
+        if (!result.getTrace().wasMutationTouched(mutation.getId()))
             executionDistance = normalize(getExecutionDistance(result));
         else
             executionDistance = 0.0;
@@ -337,7 +337,7 @@ public class StrongMutationTestFitness extends MutationTestFitness {
             // Add infection distance
             assert (result.getTrace() != null);
             // assert (result.getTrace().mutantDistances != null);
-            assert (result.getTrace().getTouchedMutants().contains(mutation.getId()));
+            assert (result.getTrace().wasMutationTouched(mutation.getId()));
             infectionDistance = normalize(result.getTrace().getMutationDistance(mutation.getId()));
             logger.debug("Infection distance for mutation = " + infectionDistance);
 
@@ -25,6 +25,7 @@ import org.evosuite.ga.archive.Archive;
 import org.evosuite.testcase.TestChromosome;
 import org.evosuite.testcase.TestFitnessFunction;
 import org.evosuite.testcase.execution.ExecutionResult;
+import org.evosuite.testcase.execution.ExecutionTrace;
 import org.evosuite.testsuite.TestSuiteChromosome;
 
 import java.util.*;
@@ -78,7 +79,7 @@ public class WeakMutationSuiteFitness extends MutationSuiteFitness {
         Properties.TEST_ARCHIVE = archive;
 
         Map<Integer, Double> mutant_distance = new LinkedHashMap<>();
-        Set<Integer> touchedMutants = new LinkedHashSet<>();
+        BitSet touchedMutants = new BitSet();
 
         for (ExecutionResult result : results) {
             // Using private reflection can lead to false positives
@@ -88,10 +89,10 @@ public class WeakMutationSuiteFitness extends MutationSuiteFitness {
                 continue;
             }
 
-            touchedMutants.addAll(result.getTrace().getTouchedMutants());
+            ExecutionTrace trace = result.getTrace();
+            touchedMutants.or(trace.getTouchedMutantIds());
 
-            Map<Integer, Double> touchedMutantsDistances = result.getTrace().getMutationDistances();
-            if (touchedMutantsDistances.isEmpty()) {
+            if (trace.getTouchedMutantIds().isEmpty()) {
                 // if 'result' does not touch any mutant, no need to continue
                 continue;
             }
@@ -106,8 +107,8 @@ public class WeakMutationSuiteFitness extends MutationSuiteFitness {
                 TestFitnessFunction goal = entry.getValue();
 
                 double fit = 0.0;
-                if (touchedMutantsDistances.containsKey(mutantID)) {
-                    fit = touchedMutantsDistances.get(mutantID);
+                if (trace.wasMutationTouched(mutantID)) {
+                    fit = trace.getMutationDistance(mutantID);
 
                     if (!mutant_distance.containsKey(mutantID)) {
                         mutant_distance.put(mutantID, fit);
@@ -130,7 +131,7 @@ public class WeakMutationSuiteFitness extends MutationSuiteFitness {
         }
 
         // Second objective: touch all mutants?
-        fitness += MutationPool.getInstance(TestGenerationContext.getInstance().getClassLoaderForSUT()).getMutantCounter() - touchedMutants.size();
+        fitness += MutationPool.getInstance(TestGenerationContext.getInstance().getClassLoaderForSUT()).getMutantCounter() - touchedMutants.cardinality();
         int covered = removedMutants.size();
 
         for (Double distance : mutant_distance.values()) {
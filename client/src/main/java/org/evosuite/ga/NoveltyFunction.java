@@ -35,4 +35,35 @@ public abstract class NoveltyFunction<T extends Chromosome<T>> {
 
         return distance;
     }
+
+    /**
+     * Reduce the behaviour of an individual to a point, such that the distance between two
+     * individuals is the {@link #getDistance(double[], double[])} of their points. This allows
+     * to compute the behaviour of each individual only once, and to index the points.
+     *
+     * @param individual the individual to describe
+     * @return the behaviour descriptor, or {@code null} if this function does not support them
+     */
+    public double[] getBehaviour(T individual) {
+        return null;
+    }
+
+    /**
+     * Distance between two behaviour descriptors, ie their mean absolute difference.
+     * This is a metric, and so it can be used to index descriptors.
+     *
+     * @param behaviour1 a descriptor
+     * @param behaviour2 a descriptor of the same length
+     * @return the distance, in [0,1] if all the values of the descriptors are in [0,1]
+     */
+    public static double getDistance(double[] behaviour1, double[] behaviour2) {
+        if (behaviour1.length == 0) {
+            return 0.0;
+        }
+        double difference = 0.0;
+        for (int i = 0; i < behaviour1.length; i++) {
+            difference += Math.abs(behaviour1[i] - behaviour2[i]);
+        }
+        return difference / behaviour1.length;
+    }
 }
@@ -20,8 +20,10 @@
 package org.evosuite.ga.archive;
 
 import org.evosuite.Properties;
+import org.evosuite.TimeController;
 import org.evosuite.ga.FitnessFunction;
 import org.evosuite.runtime.util.AtMostOnceLogger;
+import org.evosuite.statistics.MetricsRegistry;
 import org.evosuite.testcase.TestChromosome;
 import org.evosuite.testcase.TestFitnessFunction;
 import org.evosuite.testcase.execution.ExecutionResult;
@@ -70,6 +72,8 @@ public class CoverageArchive extends Archive {
         if (!this.uncovered.contains(target)) {
             logger.debug("Registering new target '" + target + "'");
             this.uncovered.add(target);
+            TimeController.getInstance().reportCoveredGoals(this.covered.size(),
+                    this.covered.size() + this.uncovered.size());
         }
 
         this.registerNonCoveredTargetOfAMethod(target);
@@ -89,6 +93,15 @@ public class CoverageArchive extends Archive {
             return;
         }
 
+        MetricsRegistry.Sample sample = MetricsRegistry.start(MetricsRegistry.Phase.ARCHIVE_UPDATE);
+        try {
+            this.updateCoveredTarget(target, solution);
+        } finally {
+            sample.stop();
+        }
+    }
+
+    private void updateCoveredTarget(TestFitnessFunction target, TestChromosome solution) {
         boolean isNewCoveredTarget = false;
         boolean isNewSolutionBetterThanCurrent = false;
 
@@ -106,6 +119,10 @@ public class CoverageArchive extends Archive {
             // covered targets but it has been considered a better solution
             this.addToArchive(target, solution);
         }
+        if (isNewCoveredTarget) {
+            TimeController.getInstance().reportCoveredGoals(this.covered.size(),
+                    this.covered.size() + this.uncovered.size());
+        }
     }
 
     private void addToArchive(TestFitnessFunction target, TestChromosome solution) {
@@ -23,6 +23,7 @@ import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.apache.commons.lang3.tuple.Pair;
 import org.evosuite.Properties;
 import org.evosuite.ga.FitnessFunction;
+import org.evosuite.statistics.MetricsRegistry;
 import org.evosuite.testcase.TestChromosome;
 import org.evosuite.testcase.TestFitnessFunction;
 import org.evosuite.testcase.execution.ExecutionResult;
@@ -79,6 +80,15 @@ public class MIOArchive extends Archive {
         super.updateArchive(target, solution, fitnessValue);
         assert this.archive.containsKey(target);
 
+        MetricsRegistry.Sample sample = MetricsRegistry.start(MetricsRegistry.Phase.ARCHIVE_UPDATE);
+        try {
+            this.updateTargetPopulation(target, solution, fitnessValue);
+        } finally {
+            sample.stop();
+        }
+    }
+
+    private void updateTargetPopulation(TestFitnessFunction target, TestChromosome solution, double fitnessValue) {
         ExecutionResult executionResult = solution.getLastExecutionResult();
         // remove all statements after an exception
         if (!executionResult.noThrownExceptions()) {
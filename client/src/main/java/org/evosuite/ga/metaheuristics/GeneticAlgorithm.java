@@ -39,6 +39,7 @@ import org.evosuite.ga.populationlimit.IndividualPopulationLimit;
 import org.evosuite.ga.populationlimit.PopulationLimit;
 import org.evosuite.ga.stoppingconditions.MaxGenerationStoppingCondition;
 import org.evosuite.ga.stoppingconditions.StoppingCondition;
+import org.evosuite.statistics.MetricsRegistry;
 import org.evosuite.symbolic.dse.DSEStatistics;
 import org.evosuite.testcase.execution.ExecutionTracer;
 import org.evosuite.testsuite.TestSuiteChromosome;
@@ -581,10 +582,15 @@ public abstract class GeneticAlgorithm<T extends Chromosome<T>> implements Searc
      * @param c
      */
     protected void calculateFitness(T c) {
-        fitnessFunctions.forEach(ff -> {
-            ff.getFitness(c);
-            notifyEvaluation(c);
-        });
+        MetricsRegistry.Sample sample = MetricsRegistry.start(MetricsRegistry.Phase.FITNESS_EVALUATION);
+        try {
+            fitnessFunctions.forEach(ff -> {
+                ff.getFitness(c);
+                notifyEvaluation(c);
+            });
+        } finally {
+            sample.stop();
+        }
     }
 
     /**
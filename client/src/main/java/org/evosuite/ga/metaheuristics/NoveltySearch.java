@@ -23,12 +23,14 @@ import org.evosuite.Properties;
 import org.evosuite.ga.ChromosomeFactory;
 import org.evosuite.ga.ConstructionFailedException;
 import org.evosuite.ga.NoveltyFunction;
+import org.evosuite.novelty.VantagePointTree;
 import org.evosuite.testcase.TestChromosome;
 import org.evosuite.utils.Randomness;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.*;
+import java.util.stream.IntStream;
 
 import static java.util.Collections.reverseOrder;
 import static java.util.Comparator.comparingDouble;
@@ -40,6 +42,11 @@ public class NoveltySearch extends GeneticAlgorithm<TestChromosome> {
 
     private NoveltyFunction<TestChromosome> noveltyFunction;
 
+    /**
+     * Behaviours found novel in previous generations
+     */
+    private final ArrayDeque<double[]> archive = new ArrayDeque<>();
+
     public NoveltySearch(ChromosomeFactory<TestChromosome> factory) {
         super(factory);
 
@@ -60,30 +67,81 @@ public class NoveltySearch extends GeneticAlgorithm<TestChromosome> {
     }
 
     /**
-     * Calculate fitness for all individuals
+     * Calculate novelty for all individuals
      */
     protected void calculateNoveltyAndSortPopulation() {
         logger.debug("Calculating novelty for " + population.size() + " individuals");
 
-        Iterator<TestChromosome> iterator = population.iterator();
+        if (isFinished()) {
+            population.removeIf(TestChromosome::isChanged);
+            return;
+        }
+
         Map<TestChromosome, Double> noveltyMap = new LinkedHashMap<>();
 
-        while (iterator.hasNext()) {
-            TestChromosome c = iterator.next();
-            if (isFinished()) {
-                if (c.isChanged())
-                    iterator.remove();
-            } else {
-                // TODO: This needs to take the archive into account
-                double novelty = noveltyFunction.getNovelty(c, population);
-                noveltyMap.put(c, novelty);
+        List<double[]> behaviours = new ArrayList<>(population.size());
+        for (TestChromosome c : population) {
+            double[] behaviour = noveltyFunction.getBehaviour(c);
+            if (behaviour == null) {
+                behaviours = null;
+                break;
             }
+            behaviours.add(behaviour);
+        }
+
+        if (behaviours == null) {
+            // no behaviour descriptors, compare each pair of individuals
+            for (TestChromosome c : population) {
+                noveltyMap.put(c, noveltyFunction.getNovelty(c, population));
+            }
+        } else {
+            double[] novelty = getNovelty(behaviours);
+            for (int i = 0; i < population.size(); i++) {
+                noveltyMap.put(population.get(i), novelty[i]);
+            }
+            updateArchive(behaviours, novelty);
         }
 
         // Sort population
         sortPopulation(population, noveltyMap);
     }
 
+    /**
+     * The novelty of a behaviour is its mean distance to its nearest neighbours,
+     * among the behaviours of the population and of the archive
+     */
+    private double[] getNovelty(List<double[]> behaviours) {
+        List<double[]> points = new ArrayList<>(behaviours.size() + archive.size());
+        points.addAll(behaviours);
+        points.addAll(archive);
+        VantagePointTree tree = new VantagePointTree(points);
+
+        return IntStream.range(0, behaviours.size()).parallel().mapToDouble(i -> {
+            // the behaviour of the individual itself is at position i
+            double[] distances = tree.getNearestDistances(behaviours.get(i), Properties.NOVELTY_NEIGHBOURS, i);
+            return distances.length == 0 ? 0.0 : Arrays.stream(distances).average().getAsDouble();
+        }).toArray();
+    }
+
+    private void updateArchive(List<double[]> behaviours, double[] novelty) {
+        for (int i = 0; i < behaviours.size(); i++) {
+            if (novelty[i] >= Properties.NOVELTY_THRESHOLD) {
+                archive.addLast(behaviours.get(i));
+            }
+        }
+        while (archive.size() > Properties.NOVELTY_ARCHIVE_SIZE) {
+            archive.removeFirst();
+        }
+        logger.debug("Novelty archive contains " + archive.size() + " behaviours");
+    }
+
+    /**
+     * @return the behaviours kept in the novelty archive, oldest first
+     */
+    public List<double[]> getNoveltyArchive() {
+        return new ArrayList<>(archive);
+    }
+
     @Override
     public void initializePopulation() {
         notifySearchStarted();
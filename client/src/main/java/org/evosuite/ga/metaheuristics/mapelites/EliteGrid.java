@@ -0,0 +1,265 @@
+/**
+ * Copyright (C) 2010-2018 Gordon Fraser, Andrea Arcuri and EvoSuite
+ * contributors
+ * <p>
+ * This file is part of EvoSuite.
+ * <p>
+ * EvoSuite is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ * <p>
+ * EvoSuite is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with EvoSuite. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.evosuite.ga.metaheuristics.mapelites;
+
+import org.evosuite.utils.Randomness;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The elites of MAP-Elites, for each goal and each cell of the feature space.
+ *
+ * <p>
+ * Cells are numbered in order of discovery, through an open-addressing table from the
+ * {@link FeatureVector#getIndex() index} of a feature vector to its cell number. For each
+ * goal, elites and their fitness are kept in arrays indexed by cell number, together with
+ * the list of cells that have an elite, so that no map is involved in selection or insertion.
+ *
+ * @param <T> the type of the elites
+ */
+public class EliteGrid<T> implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * Open-addressing table, with the cell number + 1 of each key (0 for an empty slot)
+     */
+    private long[] keys = new long[INITIAL_CAPACITY];
+    private int[] slots = new int[INITIAL_CAPACITY];
+
+    private int numCells = 0;
+
+    /**
+     * Per cell: a description of it, how many times it was visited, and how many times
+     * one of its elites was replaced
+     */
+    private Object[] descriptions = new Object[INITIAL_CAPACITY];
+    private int[] visits = new int[INITIAL_CAPACITY];
+    private int[] replacements = new int[INITIAL_CAPACITY];
+
+    /**
+     * Per goal: the elite and its fitness in each cell, and the cells with an elite.
+     * Rows of removed goals are {@code null}.
+     */
+    private final Object[][] elites;
+    private final double[][] fitness;
+    private final int[][] filledCells;
+    private final int[] numFilledCells;
+
+    public EliteGrid(int numGoals) {
+        this.elites = new Object[numGoals][];
+        this.fitness = new double[numGoals][];
+        this.filledCells = new int[numGoals][];
+        this.numFilledCells = new int[numGoals];
+        for (int goal = 0; goal < numGoals; goal++) {
+            elites[goal] = new Object[INITIAL_CAPACITY];
+            fitness[goal] = new double[INITIAL_CAPACITY];
+            filledCells[goal] = new int[INITIAL_CAPACITY];
+        }
+    }
+
+    /**
+     * Visit the cell of a feature vector, adding it if it was never visited
+     *
+     * @param vector a feature vector
+     * @return the cell number
+     */
+    public int visit(FeatureVector vector) {
+        return visit(vector.getIndex(), vector);
+    }
+
+    /**
+     * Visit the cell with the given index, adding it if it was never visited
+     *
+     * @param index       the index of the cell in the feature space
+     * @param description how to describe the cell, if it is new
+     * @return the cell number
+     */
+    public int visit(long index, Object description) {
+        int mask = keys.length - 1;
+        int slot = hash(index) & mask;
+        while (slots[slot] != 0) {
+            if (keys[slot] == index) {
+                int cell = slots[slot] - 1;
+                visits[cell]++;
+                return cell;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        int cell = numCells++;
+        keys[slot] = index;
+        slots[slot] = cell + 1;
+        if (cell == descriptions.length) {
+            descriptions = Arrays.copyOf(descriptions, 2 * cell);
+            visits = Arrays.copyOf(visits, 2 * cell);
+            replacements = Arrays.copyOf(replacements, 2 * cell);
+        }
+        descriptions[cell] = description;
+        visits[cell] = 1;
+        if (2 * numCells > keys.length) {
+            rehash();
+        }
+        return cell;
+    }
+
+    private static int hash(long index) {
+        long h = index * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private void rehash() {
+        long[] oldKeys = keys;
+        int[] oldSlots = slots;
+        keys = new long[2 * oldKeys.length];
+        slots = new int[2 * oldSlots.length];
+        int mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldSlots[i] != 0) {
+                int slot = hash(oldKeys[i]) & mask;
+                while (slots[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                slots[slot] = oldSlots[i];
+            }
+        }
+    }
+
+    /**
+     * Make the given individual the elite of a goal in a cell, unless the current elite
+     * has a better fitness
+     *
+     * @param goal       the goal
+     * @param cell       a cell number, from {@link #visit(long, Object)}
+     * @param individual the candidate elite
+     * @param value      its fitness for the goal, to be minimized
+     * @return whether the individual became the elite
+     */
+    public boolean offer(int goal, int cell, T individual, double value) {
+        Object[] row = elites[goal];
+        if (row == null) {
+            return false;
+        }
+        if (cell >= row.length) {
+            int capacity = Math.max(cell + 1, 2 * row.length);
+            row = elites[goal] = Arrays.copyOf(row, capacity);
+            fitness[goal] = Arrays.copyOf(fitness[goal], capacity);
+            filledCells[goal] = Arrays.copyOf(filledCells[goal], capacity);
+        }
+
+        if (row[cell] == null) {
+            filledCells[goal][numFilledCells[goal]++] = cell;
+        } else if (fitness[goal][cell] < value) {
+            return false;
+        }
+        row[cell] = individual;
+        fitness[goal][cell] = value;
+        replacements[cell]++;
+        return true;
+    }
+
+    /**
+     * @return a random elite of the given goal, or {@code null} if it has none
+     */
+    @SuppressWarnings("unchecked")
+    public T getRandomElite(int goal) {
+        if (elites[goal] == null || numFilledCells[goal] == 0) {
+            return null;
+        }
+        return (T) elites[goal][filledCells[goal][Randomness.nextInt(numFilledCells[goal])]];
+    }
+
+    /**
+     * @return the elites of the given goal
+     */
+    @SuppressWarnings("unchecked")
+    public List<T> getElites(int goal) {
+        List<T> result = new ArrayList<>(numFilledCells[goal]);
+        if (elites[goal] != null) {
+            for (int i = 0; i < numFilledCells[goal]; i++) {
+                result.add((T) elites[goal][filledCells[goal][i]]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Release the elites of a goal, which is not considered any more
+     */
+    public void removeGoal(int goal) {
+        elites[goal] = null;
+        fitness[goal] = null;
+        filledCells[goal] = null;
+        numFilledCells[goal] = 0;
+    }
+
+    public boolean hasGoal(int goal) {
+        return elites[goal] != null;
+    }
+
+    /**
+     * @return the number of cells visited so far
+     */
+    public int getNumCells() {
+        return numCells;
+    }
+
+    public int getVisits(int cell) {
+        return visits[cell];
+    }
+
+    public int getReplacements(int cell) {
+        return replacements[cell];
+    }
+
+    /**
+     * @return the number of goals, not removed, that have an elite in the given cell
+     */
+    public int getNumGoals(int cell) {
+        int count = 0;
+        for (Object[] row : elites) {
+            if (row != null && cell < row.length && row[cell] != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Write, for each cell, its description, visits, replacements and number of goals
+     * with an elite, in CSV format
+     */
+    public void writeCellStatistics(Writer writer) throws IOException {
+        PrintWriter out = new PrintWriter(writer);
+        out.println("cell,features,visits,replacements,goals");
+        for (int cell = 0; cell < numCells; cell++) {
+            String description = String.valueOf(descriptions[cell]).replace("\"", "\"\"");
+            out.println(cell + ",\"" + description + "\"," + visits[cell] + "," + replacements[cell]
+                    + "," + getNumGoals(cell));
+        }
+        out.flush();
+    }
+}
@@ -57,6 +57,22 @@ public final class FeatureVector implements Serializable {
             return this.group;
         }
 
+        /**
+         * @return the position of the value among the {@link #getRadix(Class)} possible
+         * ones for its type, with 0 for {@code null}
+         */
+        public int getDigit() {
+            if (value == null) {
+                return 0;
+            } else if (value instanceof Enum) {
+                return 1 + group;
+            } else if (value instanceof Number) {
+                return 2 + Integer.signum(group);
+            } else {
+                return 1 + group;
+            }
+        }
+
         private int calculateGroup() {
             if (value == null) {
                 return 0;
@@ -109,21 +125,38 @@ public final class FeatureVector implements Serializable {
 
     private final Entry[] features;
 
+    /**
+     * Number of the cell of this vector in the feature space, in mixed radix
+     */
+    private final long index;
+
     public FeatureVector(final Inspector[] inspectors, final Object instance) {
         this.features = new Entry[inspectors.length];
 
+        long index = 0;
         for (int i = 0; i < inspectors.length; ++i) {
             this.features[i] = new Entry(inspectors[i], instance);
+            // wraps around only if the feature space has more than 2^64 cells
+            index = index * getRadix(inspectors[i].getReturnType()) + this.features[i].getDigit();
         }
+        this.index = index;
+    }
+
+    /**
+     * @return the number of the cell of this vector in the feature space.
+     * Two vectors are equal if and only if they have the same index.
+     */
+    public long getIndex() {
+        return this.index;
     }
 
     @Override
     public int hashCode() {
-        return Arrays.hashCode(this.features);
+        return Long.hashCode(this.index);
     }
 
     public boolean equals(FeatureVector other) {
-        return Arrays.equals(this.features, other.features);
+        return this.index == other.index;
     }
 
     @Override
@@ -160,6 +193,21 @@ public final class FeatureVector implements Serializable {
         return amount;
     }
 
+    /**
+     * @return the number of distinct values of {@link Entry#getDigit()} for the given type
+     */
+    private static int getRadix(Class<?> type) {
+        final Class<?> wrappedType = ClassUtils.primitiveToWrapper(type);
+
+        if (wrappedType.isEnum()) {
+            return 1 + wrappedType.getEnumConstants().length;
+        } else if (Number.class.isAssignableFrom(wrappedType)) {
+            return 4;
+        } else {
+            return 3;
+        }
+    }
+
     public static int getPossibilityCount(final Inspector[] inspectors) {
         return Arrays
                 .stream(inspectors)
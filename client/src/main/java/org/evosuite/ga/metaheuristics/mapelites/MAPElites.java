@@ -34,16 +34,14 @@ import org.evosuite.testcase.TestFitnessFunction;
 import org.evosuite.testcase.execution.TestCaseExecutor;
 import org.evosuite.testcase.statements.*;
 import org.evosuite.testcase.variable.VariableReference;
-import org.evosuite.utils.IterUtil;
 import org.evosuite.utils.Randomness;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.*;
 import java.util.*;
-import java.util.Map.Entry;
 
 import static java.util.Collections.reverseOrder;
-import static java.util.Comparator.comparing;
 
 /**
  * MAP-Elites implementation
@@ -63,8 +61,12 @@ public class MAPElites extends GeneticAlgorithm<TestChromosome> {
 
     private static final Logger logger = LoggerFactory.getLogger(MAPElites.class);
 
-    private final Map<FitnessFunctionWrapper, Map<FeatureVector, TestChromosome>> populationMap;
-    private final Set<FeatureVector> droppedFeatureVectors;
+    /**
+     * The goals, in the order of the rows of the grid
+     */
+    private final List<FitnessFunctionWrapper> goals;
+
+    private EliteGrid<TestChromosome> grid;
 
     private final int featureVectorPossibilityCount;
     private final int featureCount;
@@ -79,18 +81,17 @@ public class MAPElites extends GeneticAlgorithm<TestChromosome> {
     public MAPElites(ChromosomeFactory<TestChromosome> factory) {
         super(factory);
         this.bestIndividuals = new LinkedList<>();
-        this.droppedFeatureVectors = new LinkedHashSet<>();
         TestResultObserver observer = new TestResultObserver();
         this.featureVectorPossibilityCount = observer.getPossibilityCount();
         this.featureCount = observer.getFeatureVectorLength();
         TestCaseExecutor.getInstance().addObserver(observer);
 
-        this.populationMap = new LinkedHashMap<>();
+        this.goals = new ArrayList<>();
     }
 
     public void addTestFitnessFunctions(List<TestFitnessFunction> functions) {
         for (TestFitnessFunction function : functions) {
-            this.populationMap.put(new FitnessFunctionWrapper(function), new LinkedHashMap<>());
+            this.goals.add(new FitnessFunctionWrapper(function));
             this.addFitnessFunction(function);
         }
     }
@@ -103,15 +104,15 @@ public class MAPElites extends GeneticAlgorithm<TestChromosome> {
     private Set<TestChromosome> getToMutateWithChance() {
         Set<TestChromosome> toMutate = new LinkedHashSet<>(1);
 
-        List<FitnessFunctionWrapper> minima = getMinimalBranches();
+        List<Integer> minima = getMinimalBranches();
 
         final double chance = 1.0 / minima.size();
 
-        for (FitnessFunctionWrapper branch : minima) {
+        for (int branch : minima) {
             if (Randomness.nextDouble() <= chance) {
-                branch.getCounter().increment();
+                this.goals.get(branch).getCounter().increment();
 
-                TestChromosome chromosome = Randomness.choice(this.populationMap.get(branch).values());
+                TestChromosome chromosome = this.grid.getRandomElite(branch);
 
                 if (chromosome != null) {
                     toMutate.add(chromosome);
@@ -129,10 +130,10 @@ public class MAPElites extends GeneticAlgorithm<TestChromosome> {
      * @return The chromosomes to be mutated
      */
     private Set<TestChromosome> getToMutateAll() {
-        Set<TestChromosome> toMutate = new LinkedHashSet<>(populationMap.values().size());
+        Set<TestChromosome> toMutate = new LinkedHashSet<>(goals.size());
 
-        for (Map<FeatureVector, TestChromosome> entry : populationMap.values()) {
-            TestChromosome chromosome = Randomness.choice(entry.values());
+        for (int branch = 0; branch < goals.size(); branch++) {
+            TestChromosome chromosome = this.grid.getRandomElite(branch);
 
             if (chromosome != null) {
                 toMutate.add(chromosome);
@@ -142,9 +143,26 @@ public class MAPElites extends GeneticAlgorithm<TestChromosome> {
         return toMutate;
     }
 
-    private List<FitnessFunctionWrapper> getMinimalBranches() {
-        return IterUtil.minList(this.populationMap.keySet(),
-                comparing(FitnessFunctionWrapper::getCounter));
+    /**
+     * @return the rows of the goals, not yet covered, with the lowest counter
+     */
+    private List<Integer> getMinimalBranches() {
+        List<Integer> minima = new ArrayList<>();
+        int min = Integer.MAX_VALUE;
+        for (int branch = 0; branch < goals.size(); branch++) {
+            if (!this.grid.hasGoal(branch)) {
+                continue;
+            }
+            int value = goals.get(branch).getCounter().getValue();
+            if (value < min) {
+                minima.clear();
+                min = value;
+            }
+            if (value == min) {
+                minima.add(branch);
+            }
+        }
+        return minima;
     }
 
     /**
@@ -155,18 +173,17 @@ public class MAPElites extends GeneticAlgorithm<TestChromosome> {
     private Set<TestChromosome> getToMutateRandom() {
         Set<TestChromosome> toMutate = new LinkedHashSet<>(1);
 
-        List<FitnessFunctionWrapper> minima = getMinimalBranches();
+        List<Integer> minima = getMinimalBranches();
 
-        FitnessFunctionWrapper selectedBranch = Randomness.choice(minima);
+        Integer selectedBranch = Randomness.choice(minima);
 
         if (selectedBranch == null) {
             return toMutate;
         }
 
-        selectedBranch.getCounter().increment();
-        Map<FeatureVector, TestChromosome> entry = this.populationMap.get(selectedBranch);
+        this.goals.get(selectedBranch).getCounter().increment();
 
-        TestChromosome chromosome = Randomness.choice(entry.values());
+        TestChromosome chromosome = this.grid.getRandomElite(selectedBranch);
 
         if (chromosome != null) {
             toMutate.add(chromosome);
@@ -187,7 +204,7 @@ public class MAPElites extends GeneticAlgorithm<TestChromosome> {
         }
     }
 
-    private void applyMutation(TestChromosome chromosome, TestChromosome parent) {
+    private void applyMutation(TestChromosome chromosome, TestChromosome parent, List<TestChromosome> offspring) {
         this.removeUnusedVariables(chromosome);
 
         if (Properties.MAP_ELITES_MOSA_MUTATIONS) {
@@ -198,12 +215,26 @@ public class MAPElites extends GeneticAlgorithm<TestChromosome> {
         }
 
         if (chromosome.isChanged() && !isTooLong(chromosome)) {
-            this.analyzeChromosome(chromosome);
+            offspring.add(chromosome);
         }
     }
 
     @Override
     protected void evolve() {
+        List<TestChromosome> offspring = new ArrayList<>();
+        for (int i = 0; i < Properties.MAP_ELITES_BATCH_SIZE; i++) {
+            this.generateOffspring(offspring);
+        }
+
+        // all the offspring of the batch come from the same elites
+        for (TestChromosome chromosome : offspring) {
+            this.analyzeChromosome(chromosome);
+        }
+
+        ++currentIteration;
+    }
+
+    private void generateOffspring(List<TestChromosome> offspring) {
         Set<TestChromosome> parents1 = this.getToMutate();
         Set<TestChromosome> parents2 = this.getToMutate();
 
@@ -223,17 +254,15 @@ public class MAPElites extends GeneticAlgorithm<TestChromosome> {
                     continue;
                 }
 
-                applyMutation(offspring2, parent2);
+                applyMutation(offspring2, parent2, offspring);
             }
-            applyMutation(offspring1, parent1);
+            applyMutation(offspring1, parent1, offspring);
         }
 
         if ((toMutate.isEmpty() && Properties.MAP_ELITES_CHOICE != Properties.MapElitesChoice.SINGLE_AVG)
                 || Randomness.nextDouble() <= Properties.MAP_ELITES_RANDOM) {
-            this.analyzeChromosome(this.getRandomPopulation(1).get(0));
+            offspring.add(this.getRandomPopulation(1).get(0));
         }
-
-        ++currentIteration;
     }
 
     /**
@@ -336,18 +365,8 @@ public class MAPElites extends GeneticAlgorithm<TestChromosome> {
         return has_deleted;
     }
 
-    private int getFoundVectorCount() {
-        Set<FeatureVector> vectors = new LinkedHashSet<>();
-
-        this.populationMap.values().forEach(entry -> vectors.addAll(entry.keySet()));
-
-        vectors.addAll(this.droppedFeatureVectors);
-
-        return vectors.size();
-    }
-
     private void sendFeatureData() {
-        int foundVectorCount = this.getFoundVectorCount();
+        int foundVectorCount = this.grid.getNumCells();
         double density = this.getDensity(foundVectorCount);
 
         ClientServices.getInstance().getClientNode()
@@ -365,56 +384,84 @@ public class MAPElites extends GeneticAlgorithm<TestChromosome> {
 
     private double getDensity(int foundVectorCount) {
         int n = this.featureVectorPossibilityCount;
-        int z = this.getFoundVectorCount();
+        int z = foundVectorCount;
 
         double density = z / (double) n;
         return density;
     }
 
     private void analyzeChromosome(final TestChromosome chromosome) {
-        final Iterator<Entry<FitnessFunctionWrapper, Map<FeatureVector, TestChromosome>>> it =
-                this.populationMap.entrySet().iterator();
+        int[] cells = null;
 
-        while (it.hasNext()) {
-            final Entry<FitnessFunctionWrapper, Map<FeatureVector, TestChromosome>> entry = it.next();
-            final FitnessFunctionWrapper branchFitness = entry.getKey();
-            final Map<FeatureVector, TestChromosome> featureMap = entry.getValue();
+        for (int branch = 0; branch < goals.size(); branch++) {
+            if (!this.grid.hasGoal(branch)) {
+                continue;
+            }
+            final FitnessFunctionWrapper branchFitness = goals.get(branch);
 
+            // this executes the test, if needed
             final double fitness = branchFitness.getFitness(chromosome);
 
-            final List<FeatureVector> features;
-
-            if (Properties.MAP_ELITES_IGNORE_FEATURES) {
-                features = IGNORE_VECTORS;
-            } else {
-                features = chromosome.getLastExecutionResult().getFeatureVectors();
+            if (cells == null) {
+                cells = this.getCells(chromosome);
             }
 
-            for (FeatureVector feature : features) {
-                TestChromosome old = featureMap.get(feature);
-
-                if (old == null || branchFitness.getFitness(old) >= fitness) {
-                    featureMap.put(feature, chromosome);
+            for (int cell : cells) {
+                if (this.grid.offer(branch, cell, chromosome, fitness)) {
                     branchFitness.getCounter().reset();
                 }
             }
 
             if (branchFitness.isCovered(chromosome)) {
-                // Remove from map. Covering chromosomes are stored in Archive.getArchiveInstance() and this.coveringChromosomes.
-                it.remove();
-
-                this.droppedFeatureVectors.addAll(featureMap.keySet());
+                // Remove from grid. Covering chromosomes are stored in Archive.getArchiveInstance() and this.coveringChromosomes.
+                this.grid.removeGoal(branch);
                 this.bestIndividuals.add(chromosome);
             }
         }
     }
 
+    /**
+     * @return the cells of the feature vectors of the last execution of the chromosome
+     */
+    private int[] getCells(final TestChromosome chromosome) {
+        final List<FeatureVector> features;
+
+        if (Properties.MAP_ELITES_IGNORE_FEATURES) {
+            features = IGNORE_VECTORS;
+        } else {
+            features = chromosome.getLastExecutionResult().getFeatureVectors();
+        }
+
+        int[] cells = new int[features.size()];
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] = this.grid.visit(features.get(i));
+        }
+        return cells;
+    }
+
+    private void writeCellStatistics() {
+        File dir = new File(Properties.REPORT_DIR);
+        if (!dir.exists() && !dir.mkdirs()) {
+            logger.warn("Cannot create report dir: " + Properties.REPORT_DIR);
+            return;
+        }
+
+        File file = new File(dir, "map_elites_cells.csv");
+        try (Writer writer = new BufferedWriter(new FileWriter(file))) {
+            this.grid.writeCellStatistics(writer);
+        } catch (IOException e) {
+            logger.warn("Cannot write MAP-Elites cell statistics: " + e.getMessage());
+        }
+    }
+
 
     @Override
     public void initializePopulation() {
         notifySearchStarted();
         currentIteration = 0;
 
+        this.grid = new EliteGrid<>(this.goals.size());
+
         // Set up initial population
         List<TestChromosome> population = this.getRandomPopulation(Properties.POPULATION);
 
@@ -442,8 +489,8 @@ public class MAPElites extends GeneticAlgorithm<TestChromosome> {
     }
 
     private void updateAndSortBest() {
-        for (Map<FeatureVector, TestChromosome> branch : this.populationMap.values()) {
-            this.bestIndividuals.addAll(branch.values());
+        for (int branch = 0; branch < goals.size(); branch++) {
+            this.bestIndividuals.addAll(this.grid.getElites(branch));
         }
 
         if (isMaximizationFunction()) {
@@ -473,6 +520,11 @@ public class MAPElites extends GeneticAlgorithm<TestChromosome> {
         }
 
         updateAndSortBest();
+
+        if (Properties.MAP_ELITES_CELL_STATISTICS) {
+            this.writeCellStatistics();
+        }
+
         notifySearchFinished();
     }
 
@@ -29,6 +29,7 @@ import org.evosuite.ga.FitnessFunction;
 import org.evosuite.ga.archive.Archive;
 import org.evosuite.ga.comparators.DominanceComparator;
 import org.evosuite.ga.metaheuristics.GeneticAlgorithm;
+import org.evosuite.statistics.MetricsRegistry;
 import org.evosuite.testcase.TestCase;
 import org.evosuite.testcase.TestChromosome;
 import org.evosuite.testcase.TestFitnessFunction;
@@ -486,7 +487,12 @@ public abstract class AbstractMOSA extends GeneticAlgorithm<TestChromosome> {
      */
     @Override
     protected void calculateFitness(TestChromosome c) {
-        this.fitnessFunctions.forEach(fitnessFunction -> fitnessFunction.getFitness(c));
+        MetricsRegistry.Sample sample = MetricsRegistry.start(MetricsRegistry.Phase.FITNESS_EVALUATION);
+        try {
+            this.fitnessFunctions.forEach(fitnessFunction -> fitnessFunction.getFitness(c));
+        } finally {
+            sample.stop();
+        }
 
         // if one of the coverage criterion is Criterion.EXCEPTION, then we have to analyse the results
         // of the execution to look for generated exceptions
@@ -25,6 +25,7 @@ import org.evosuite.ga.FitnessFunction;
 import org.evosuite.ga.comparators.OnlyCrowdingComparator;
 import org.evosuite.ga.metaheuristics.mosa.structural.MultiCriteriaManager;
 import org.evosuite.ga.operators.ranking.CrowdingDistance;
+import org.evosuite.statistics.MetricsRegistry;
 import org.evosuite.testcase.TestChromosome;
 import org.evosuite.testcase.TestFitnessFunction;
 import org.evosuite.utils.LoggingUtils;
@@ -186,8 +187,13 @@ public class DynaMOSA extends AbstractMOSA {
     @Override
     protected void calculateFitness(TestChromosome c) {
         if (!isFinished()) {
-            // this also updates the archive and the targets
-            this.goalsManager.calculateFitness(c, this);
+            MetricsRegistry.Sample sample = MetricsRegistry.start(MetricsRegistry.Phase.FITNESS_EVALUATION);
+            try {
+                // this also updates the archive and the targets
+                this.goalsManager.calculateFitness(c, this);
+            } finally {
+                sample.stop();
+            }
             this.notifyEvaluation(c);
         }
     }
@@ -0,0 +1,211 @@
+/**
+ * Copyright (C) 2010-2018 Gordon Fraser, Andrea Arcuri and EvoSuite
+ * contributors
+ * <p>
+ * This file is part of EvoSuite.
+ * <p>
+ * EvoSuite is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ * <p>
+ * EvoSuite is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with EvoSuite. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.evosuite.ga.metaheuristics.mosa.structural;
+
+import org.evosuite.TestGenerationContext;
+import org.evosuite.coverage.line.LineCoverageTestFitness;
+import org.evosuite.graphs.GraphPool;
+import org.evosuite.graphs.cdg.DominatorTree;
+import org.evosuite.graphs.cfg.ActualControlFlowGraph;
+import org.evosuite.graphs.cfg.BasicBlock;
+import org.evosuite.graphs.cfg.BytecodeInstruction;
+import org.evosuite.graphs.cfg.BytecodeInstructionPool;
+import org.evosuite.testcase.TestFitnessFunction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Serializable;
+import java.util.*;
+
+/**
+ * Subsumption relation among line goals, derived from the dominator tree of the control flow
+ * graph of their methods.
+ * <p>
+ * A line goal is subsumed by another line goal of the same method if the first instruction of the
+ * other line dominates the first instruction of the line, and both lines have the same control
+ * dependencies. Every test reaching the line then also reaches the other one, and since both lines
+ * are released by the same branches, the subsumed line does not need to be an objective until its
+ * representative has been covered. Only the goals that are not subsumed, or whose representative
+ * has been covered, form the frontier of goals that is evaluated against each test.
+ * <p>
+ * As the dominator tree does not know about all the places a line number can appear at, a
+ * subsumed goal is still reported as covered as soon as a test reaches its line (see
+ * {@link #getSubsumedGoalsAtLine(int)}), even if its representative is not.
+ */
+public class GoalSubsumptionGraph implements Serializable {
+
+    private static final long serialVersionUID = 4015784203446361627L;
+
+    private static final Logger logger = LoggerFactory.getLogger(GoalSubsumptionGraph.class);
+
+    /**
+     * Maps each representative to the goals it directly subsumes
+     */
+    private final Map<TestFitnessFunction, Set<TestFitnessFunction>> subsumedGoals = new LinkedHashMap<>();
+
+    /**
+     * Maps each subsumed goal to its representative
+     */
+    private final Map<TestFitnessFunction, TestFitnessFunction> representatives = new LinkedHashMap<>();
+
+    /**
+     * Maps line numbers to the subsumed goals at that line
+     */
+    private final Map<Integer, Set<TestFitnessFunction>> subsumedGoalsByLine = new LinkedHashMap<>();
+
+    public GoalSubsumptionGraph(Collection<? extends TestFitnessFunction> goals) {
+        Map<String, List<LineCoverageTestFitness>> goalsByMethod = new LinkedHashMap<>();
+        for (TestFitnessFunction goal : goals) {
+            if (goal instanceof LineCoverageTestFitness) {
+                LineCoverageTestFitness line = (LineCoverageTestFitness) goal;
+                goalsByMethod.computeIfAbsent(line.getClassName() + "." + line.getMethod(),
+                        k -> new ArrayList<>()).add(line);
+            }
+        }
+
+        ClassLoader loader = TestGenerationContext.getInstance().getClassLoaderForSUT();
+        for (List<LineCoverageTestFitness> methodGoals : goalsByMethod.values()) {
+            if (methodGoals.size() > 1)
+                addSubsumptions(methodGoals, loader);
+        }
+
+        logger.debug("{} line goals are subsumed by other goals", representatives.size());
+    }
+
+    private void addSubsumptions(List<LineCoverageTestFitness> methodGoals, ClassLoader loader) {
+        String className = methodGoals.get(0).getClassName();
+        String methodName = methodGoals.get(0).getMethod();
+
+        BytecodeInstructionPool pool = BytecodeInstructionPool.getInstance(loader);
+        ActualControlFlowGraph cfg = GraphPool.getInstance(loader).getActualCFG(className, methodName);
+        if (cfg == null)
+            return;
+
+        // the first instruction of each line, grouped by basic block
+        Map<LineCoverageTestFitness, BytecodeInstruction> instructions = new LinkedHashMap<>();
+        Map<BasicBlock, List<LineCoverageTestFitness>> goalsByBlock = new LinkedHashMap<>();
+        for (LineCoverageTestFitness goal : methodGoals) {
+            BytecodeInstruction instruction = pool.getFirstInstructionAtLineNumber(className,
+                    methodName, goal.getLine());
+            if (instruction == null || instruction.getBasicBlock() == null)
+                continue;
+            instructions.put(goal, instruction);
+            goalsByBlock.computeIfAbsent(instruction.getBasicBlock(), k -> new ArrayList<>()).add(goal);
+        }
+
+        DominatorTree<BasicBlock> dominators;
+        try {
+            dominators = new DominatorTree<>(cfg);
+        } catch (RuntimeException e) {
+            logger.debug("Cannot compute the dominator tree of {}.{}: {}", className, methodName, e.getMessage());
+            return;
+        }
+
+        for (Map.Entry<LineCoverageTestFitness, BytecodeInstruction> entry : instructions.entrySet()) {
+            TestFitnessFunction representative = findRepresentative(entry.getValue(), instructions,
+                    goalsByBlock, dominators);
+            if (representative != null)
+                addSubsumption(representative, entry.getKey());
+        }
+    }
+
+    /**
+     * Returns the line goal whose first instruction is the closest dominator of the given
+     * instruction, among those with the same control dependencies, or {@code null} if there is
+     * none.
+     */
+    private TestFitnessFunction findRepresentative(BytecodeInstruction instruction,
+                                                   Map<LineCoverageTestFitness, BytecodeInstruction> instructions,
+                                                   Map<BasicBlock, List<LineCoverageTestFitness>> goalsByBlock,
+                                                   DominatorTree<BasicBlock> dominators) {
+        // within a block, an instruction is dominated by the ones before it
+        int before = instruction.getInstructionId();
+        BasicBlock block = instruction.getBasicBlock();
+        Set<BasicBlock> visited = new HashSet<>();
+        while (block != null && visited.add(block)) {
+            TestFitnessFunction closest = null;
+            int closestId = -1;
+            for (LineCoverageTestFitness goal : goalsByBlock.getOrDefault(block, Collections.emptyList())) {
+                BytecodeInstruction other = instructions.get(goal);
+                int id = other.getInstructionId();
+                if (id < before && id > closestId && other.getControlDependencies()
+                        .equals(instruction.getControlDependencies())) {
+                    closest = goal;
+                    closestId = id;
+                }
+            }
+            if (closest != null)
+                return closest;
+
+            block = dominators.getImmediateDominator(block);
+            before = Integer.MAX_VALUE;
+        }
+        return null;
+    }
+
+    private void addSubsumption(TestFitnessFunction representative, TestFitnessFunction goal) {
+        subsumedGoals.computeIfAbsent(representative, k -> new LinkedHashSet<>()).add(goal);
+        representatives.put(goal, representative);
+        subsumedGoalsByLine.computeIfAbsent(((LineCoverageTestFitness) goal).getLine(),
+                k -> new LinkedHashSet<>()).add(goal);
+    }
+
+    /**
+     * Tells whether the given goal is subsumed by another goal, and thus should not be an
+     * objective until that goal is covered.
+     *
+     * @param goal the goal
+     * @return {@code true} if the goal has a representative
+     */
+    public boolean isSubsumed(TestFitnessFunction goal) {
+        return representatives.containsKey(goal);
+    }
+
+    /**
+     * Returns the goals directly subsumed by the given goal, which become objectives once it is
+     * covered.
+     *
+     * @param representative the goal
+     * @return the subsumed goals, possibly empty
+     */
+    public Set<TestFitnessFunction> getSubsumedGoals(TestFitnessFunction representative) {
+        return subsumedGoals.getOrDefault(representative, Collections.emptySet());
+    }
+
+    /**
+     * Returns the subsumed goals at the given line number, which are covered by any test reaching
+     * that line.
+     *
+     * @param line the line number
+     * @return the subsumed goals at that line, possibly empty
+     */
+    public Set<TestFitnessFunction> getSubsumedGoalsAtLine(int line) {
+        return subsumedGoalsByLine.getOrDefault(line, Collections.emptySet());
+    }
+
+    /**
+     * Returns the number of goals that are subsumed by another goal.
+     *
+     * @return the number of subsumed goals
+     */
+    public int getNumberOfSubsumedGoals() {
+        return representatives.size();
+    }
+}
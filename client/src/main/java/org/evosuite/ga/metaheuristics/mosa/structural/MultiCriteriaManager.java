@@ -73,6 +73,11 @@ public class MultiCriteriaManager extends StructuralGoalManager implements Seria
 
     protected Map<BranchCoverageTestFitness, Set<TestFitnessFunction>> dependencies;
 
+    /**
+     * Subsumption among line goals, or {@code null} if goals are not subsumed.
+     */
+    protected GoalSubsumptionGraph subsumption;
+
     /**
      * Maps branch IDs to the corresponding fitness function, only considering branches we want to
      * take.
@@ -103,6 +108,12 @@ public class MultiCriteriaManager extends StructuralGoalManager implements Seria
         // initialize the dependency graph among branches
         this.graph = getControlDependencies4Branches(targets);
 
+        // line goals dominated by another line goal are only released once that goal is covered
+        if (Properties.GOAL_SUBSUMPTION && ArrayUtil.contains(Properties.CRITERION, Criterion.LINE)) {
+            this.subsumption = new GoalSubsumptionGraph(targets);
+            logger.debug("{} goals are subsumed by other goals", subsumption.getNumberOfSubsumedGoals());
+        }
+
         // initialize the dependency graph between branches and other coverage targets (e.g., statements)
         // let's derive the dependency graph between branches and other coverage targets (e.g., statements)
         for (Criterion criterion : Properties.CRITERION) {
@@ -332,6 +343,8 @@ public class MultiCriteriaManager extends StructuralGoalManager implements Seria
         logger.debug("Added dependencies for Lines");
         for (TestFitnessFunction ff : this.getUncoveredGoals()) {
             if (ff instanceof LineCoverageTestFitness) {
+                if (subsumption != null && subsumption.isSubsumed(ff))
+                    continue; // released when the goal subsuming it is covered
                 LineCoverageTestFitness line = (LineCoverageTestFitness) ff;
                 ClassLoader loader = TestGenerationContext.getInstance().getClassLoaderForSUT();
                 BytecodeInstructionPool pool = BytecodeInstructionPool.getInstance(loader);
@@ -406,41 +419,20 @@ public class MultiCriteriaManager extends StructuralGoalManager implements Seria
         LinkedList<TestFitnessFunction> targets = new LinkedList<>(this.currentGoals);
 
         // 1) We update the set of current goals.
-        while (targets.size() > 0 && !ga.isFinished()) {
-            // We evaluate the given test case against all current targets.
-            // (There might have been serendipitous coverage of other targets, though.)
-            TestFitnessFunction target = targets.poll();
-
-            int pastSize = visitedTargets.size();
-            visitedTargets.add(target);
-            if (pastSize == visitedTargets.size())
-                continue;
-
-            double fitness = target.getFitness(c);
-
-            /*
-             * Checks if the current test target has been reached and, in accordance, marks it as
-             * covered or uncovered.
-             */
-            if (fitness == 0.0) { // assume minimization function
-                updateCoveredGoals(target, c); // marks the current goal as covered
+        updateCurrentGoals(c, ga, targets, visitedTargets);
 
-                /*
-                 * If the coverage criterion is branch coverage, we also add structural children
-                 * and control dependencies of the current target to the processing queue. This is
-                 * to see which ones of those goals are already reached by control flow.
-                 */
-                if (target instanceof BranchCoverageTestFitness) {
-                    for (TestFitnessFunction child : graph.getStructuralChildren(target)) {
-                        targets.addLast(child);
-                    }
-                    for (TestFitnessFunction dependentTarget : dependencies.get(target)) {
-                        targets.addLast(dependentTarget);
-                    }
+        /*
+         * Subsumed goals are reported as covered as soon as their line is reached, even if the
+         * goal subsuming them was not covered.
+         */
+        if (subsumption != null) {
+            for (int line : result.getTrace().getCoveredLines()) {
+                for (TestFitnessFunction goal : subsumption.getSubsumedGoalsAtLine(line)) {
+                    if (!visitedTargets.contains(goal) && !isAlreadyCovered(goal))
+                        targets.addLast(goal);
                 }
-            } else {
-                currentGoals.add(target); // marks the goal as uncovered
             }
+            updateCurrentGoals(c, ga, targets, visitedTargets);
         }
 
         // Removes all newly covered goals from the list of currently uncovered goals.
@@ -485,6 +477,64 @@ public class MultiCriteriaManager extends StructuralGoalManager implements Seria
         }
     }
 
+    /**
+     * Evaluates the given chromosome against the targets in the processing queue, marking the
+     * covered ones as such and enqueuing the goals they release. The missed targets become
+     * current goals.
+     *
+     * @param c              the chromosome whose fitness to calculate
+     * @param ga             the search algorithm
+     * @param targets        the processing queue of targets
+     * @param visitedTargets the targets already evaluated against the chromosome
+     */
+    private void updateCurrentGoals(TestChromosome c, GeneticAlgorithm<TestChromosome> ga,
+                                    LinkedList<TestFitnessFunction> targets,
+                                    Set<TestFitnessFunction> visitedTargets) {
+        while (targets.size() > 0 && !ga.isFinished()) {
+            // We evaluate the given test case against all current targets.
+            // (There might have been serendipitous coverage of other targets, though.)
+            TestFitnessFunction target = targets.poll();
+
+            int pastSize = visitedTargets.size();
+            visitedTargets.add(target);
+            if (pastSize == visitedTargets.size())
+                continue;
+
+            double fitness = target.getFitness(c);
+
+            /*
+             * Checks if the current test target has been reached and, in accordance, marks it as
+             * covered or uncovered.
+             */
+            if (fitness == 0.0) { // assume minimization function
+                updateCoveredGoals(target, c); // marks the current goal as covered
+
+                /*
+                 * If the coverage criterion is branch coverage, we also add structural children
+                 * and control dependencies of the current target to the processing queue. This is
+                 * to see which ones of those goals are already reached by control flow.
+                 */
+                if (target instanceof BranchCoverageTestFitness) {
+                    for (TestFitnessFunction child : graph.getStructuralChildren(target)) {
+                        targets.addLast(child);
+                    }
+                    for (TestFitnessFunction dependentTarget : dependencies.get(target)) {
+                        targets.addLast(dependentTarget);
+                    }
+                }
+
+                // The goals subsumed by the current target are now part of the frontier.
+                if (subsumption != null) {
+                    for (TestFitnessFunction subsumedTarget : subsumption.getSubsumedGoals(target)) {
+                        targets.addLast(subsumedTarget);
+                    }
+                }
+            } else {
+                currentGoals.add(target); // marks the goal as uncovered
+            }
+        }
+    }
+
     /**
      * This method analyzes the execution results of a TestChromosome looking for generated exceptions.
      * Such exceptions are converted in instances of the class {@link ExceptionCoverageTestFitness},
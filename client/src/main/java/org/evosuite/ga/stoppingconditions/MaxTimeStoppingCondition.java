@@ -20,8 +20,10 @@
 package org.evosuite.ga.stoppingconditions;
 
 import org.evosuite.Properties;
+import org.evosuite.TimeController;
 import org.evosuite.ga.Chromosome;
 import org.evosuite.ga.metaheuristics.GeneticAlgorithm;
+import org.evosuite.rmi.service.ClientState;
 
 
 /**
@@ -70,7 +72,10 @@ public class MaxTimeStoppingCondition<T extends Chromosome<T>> extends StoppingC
     @Override
     public boolean isFinished() {
         long currentTime = System.currentTimeMillis();
-        return (currentTime - startTime) / 1000 > maxSeconds;
+        // with an adaptive time budget, the search can get the time left by earlier phases, or end early
+        TimeController timeController = TimeController.getInstance();
+        return (currentTime - startTime - timeController.getExtraTime(ClientState.SEARCH)) / 1000 > maxSeconds
+                || timeController.isSearchStagnating();
     }
 
     /**
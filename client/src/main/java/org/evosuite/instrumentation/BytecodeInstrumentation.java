@@ -228,8 +228,8 @@ public class BytecodeInstrumentation {
             cv = handleStaticReset(className, cv);
         }
 
-        // Mock instrumentation (eg File and TCP).
-        if (TestSuiteWriterUtils.needToUseAgent()) {
+        // Mock instrumentation (eg File and TCP), and sandbox checks
+        if (TestSuiteWriterUtils.needToUseAgent() || RuntimeSettings.sandboxWithInterception) {
             cv = new MethodCallReplacementClassAdapter(cv, className);
 
             /*
@@ -268,20 +268,29 @@ public class MutationInstrumentation implements MethodInstrumentation {
             instructions.add(touched);
         }
 
+        // Mutant schemata: a single switch on the active mutation selects the
+        // code of the mutant, or the original instruction if none of them is active
+        List<Mutation> sortedMutations = new ArrayList<>(mutations);
+        sortedMutations.sort(Comparator.comparingInt(Mutation::getId));
+        int[] mutationIds = new int[sortedMutations.size()];
+        LabelNode[] mutationLabels = new LabelNode[sortedMutations.size()];
+        for (int i = 0; i < sortedMutations.size(); i++) {
+            mutationIds[i] = sortedMutations.get(i).getId();
+            mutationLabels[i] = new LabelNode();
+        }
+
         LabelNode endLabel = new LabelNode();
-        for (Mutation mutation : mutations) {
-            LabelNode nextLabel = new LabelNode();
-
-            LdcInsnNode mutationId = new LdcInsnNode(mutation.getId());
-            instructions.add(mutationId);
-            FieldInsnNode activeId = new FieldInsnNode(Opcodes.GETSTATIC,
-                    Type.getInternalName(MutationObserver.class), "activeMutation", "I");
-            instructions.add(activeId);
-            instructions.add(new JumpInsnNode(Opcodes.IF_ICMPNE, nextLabel));
-            instructions.add(mutation.getMutation());
+        LabelNode originalLabel = new LabelNode();
+        FieldInsnNode activeId = new FieldInsnNode(Opcodes.GETSTATIC,
+                Type.getInternalName(MutationObserver.class), "activeMutation", "I");
+        instructions.add(activeId);
+        instructions.add(new LookupSwitchInsnNode(originalLabel, mutationIds, mutationLabels));
+        for (int i = 0; i < sortedMutations.size(); i++) {
+            instructions.add(mutationLabels[i]);
+            instructions.add(sortedMutations.get(i).getMutation());
             instructions.add(new JumpInsnNode(Opcodes.GOTO, endLabel));
-            instructions.add(nextLabel);
         }
+        instructions.add(originalLabel);
 
         mn.instructions.insertBefore(original, instructions);
         mn.instructions.insert(original, endLabel);
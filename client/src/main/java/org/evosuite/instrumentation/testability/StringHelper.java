@@ -32,6 +32,25 @@ import java.util.regex.Pattern;
  */
 public class StringHelper {
 
+    /**
+     * Scratch rows of the dynamic programming in {@link #editDistance(String, String, int)}.
+     * The distances are computed on each execution of the instrumented string comparisons,
+     * so the rows are reused rather than allocated on each call
+     */
+    private static final ThreadLocal<int[][]> editDistanceRows = ThreadLocal.withInitial(() -> new int[2][32]);
+
+    /**
+     * Bit masks of the positions of the characters below 256 in the pattern of
+     * {@link #bitParallelDistance}. The masks are cleared after each computation
+     */
+    private static final ThreadLocal<long[]> patternMasks = ThreadLocal.withInitial(() -> new long[256]);
+
+    /**
+     * Value of the cells outside of the band, large enough to never be the minimum
+     * but small enough to not overflow when incremented
+     */
+    private static final int OUTSIDE_BAND = Integer.MAX_VALUE / 2;
+
     /**
      * <p>
      * editDistance
@@ -42,70 +61,165 @@ public class StringHelper {
      * @return a int.
      */
     public static int editDistance(String s, String t) {
-        //if (s == null || t == null) {
-        //	throw new IllegalArgumentException("Strings must not be null");
-        //}
-
-		/*
-		    The difference between this impl. and the previous is that, rather
-		     than creating and retaining a matrix of size s.length()+1 by t.length()+1,
-		     we maintain two single-dimensional arrays of length s.length()+1.  The first, d,
-		     is the 'current working' distance array that maintains the newest distance cost
-		     counts as we iterate through the characters of String s.  Each time we increment
-		     the index of String t we are comparing, d is copied to p, the second int[].  Doing so
-		     allows us to retain the previous cost counts as required by the algorithm (taking
-		     the minimum of the cost count to the left, up one, and diagonally up and to the left
-		     of the current cost count being calculated).  (Note that the arrays aren't really
-		     copied anymore, just switched...this is clearly much better than cloning an array
-		     or doing a System.arraycopy() each time  through the outer loop.)
-
-		     Effectively, the difference between the two implementations is this one does not
-		     cause an out of memory condition when calculating the LD over two very large strings.
-		 */
-
-        int n = s.length(); // length of s
-        int m = t.length(); // length of t
-
-        if (n == 0) {
-            return m;
+        return editDistance(s, t, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Levenshtein distance of the two strings, computed only as long as it can be at most
+     * the given limit. The common prefix and suffix of the strings are skipped. If the shorter
+     * remaining part has at most 64 characters the distance is computed with the bit-parallel
+     * algorithm of Myers, otherwise only the diagonal band of the cells that can have a
+     * distance within the limit is computed (Ukkonen).
+     *
+     * @param s     a {@link java.lang.String} object.
+     * @param t     a {@link java.lang.String} object.
+     * @param limit the largest distance of interest
+     * @return the edit distance, or limit + 1 if it is larger than the limit
+     */
+    public static int editDistance(String s, String t, int limit) {
+        int n = s.length();
+        int m = t.length();
+
+        int prefix = 0;
+        int min = Math.min(n, m);
+        while (prefix < min && s.charAt(prefix) == t.charAt(prefix)) {
+            prefix++;
+        }
+        int suffix = 0;
+        while (suffix < min - prefix && s.charAt(n - 1 - suffix) == t.charAt(m - 1 - suffix)) {
+            suffix++;
+        }
+        n -= prefix + suffix;
+        m -= prefix + suffix;
+
+        int distance;
+        if (Math.abs(n - m) > limit) {
+            return limit + 1;
+        } else if (n == 0) {
+            distance = m;
         } else if (m == 0) {
-            return n;
+            distance = n;
+        } else if (n <= 64 && n <= m) {
+            distance = bitParallelDistance(s, prefix, n, t, prefix, m, limit);
+        } else if (m <= 64) {
+            distance = bitParallelDistance(t, prefix, m, s, prefix, n, limit);
+        } else {
+            distance = bandedDistance(s, prefix, n, t, prefix, m, limit);
         }
+        return distance > limit ? limit + 1 : distance;
+    }
 
-        int[] p = new int[n + 1]; //'previous' cost array, horizontally
-        int[] d = new int[n + 1]; // cost array, horizontally
-        int[] _d; //placeholder to assist in swapping p and d
+    /**
+     * Edit distance of a pattern of at most 64 characters and a text, with one bit vector
+     * of vertical deltas per column (Myers 1999, in the formulation of Hyyro 2003)
+     */
+    private static int bitParallelDistance(String pattern, int patternStart, int patternLength,
+                                           String text, int textStart, int textLength, int limit) {
+        long[] masks = patternMasks.get();
+        for (int i = 0; i < patternLength; i++) {
+            char c = pattern.charAt(patternStart + i);
+            if (c < masks.length) {
+                masks[c] |= 1L << i;
+            }
+        }
 
-        // indexes into strings s and t
-        int i; // iterates through s
-        int j; // iterates through t
+        long positive = -1L;
+        long negative = 0L;
+        long last = 1L << (patternLength - 1);
+        int score = patternLength;
+
+        for (int j = 0; j < textLength; j++) {
+            char c = text.charAt(textStart + j);
+            long equal;
+            if (c < masks.length) {
+                equal = masks[c];
+            } else {
+                equal = 0L;
+                for (int i = 0; i < patternLength; i++) {
+                    if (pattern.charAt(patternStart + i) == c) {
+                        equal |= 1L << i;
+                    }
+                }
+            }
+
+            long vertical = equal | negative;
+            long horizontal = (((equal & positive) + positive) ^ positive) | equal;
+            long horizontalPositive = negative | ~(horizontal | positive);
+            long horizontalNegative = positive & horizontal;
+            if ((horizontalPositive & last) != 0) {
+                score++;
+            } else if ((horizontalNegative & last) != 0) {
+                score--;
+            }
+            horizontalPositive = (horizontalPositive << 1) | 1L;
+            horizontalNegative = horizontalNegative << 1;
+            positive = horizontalNegative | ~(vertical | horizontalPositive);
+            negative = horizontalPositive & vertical;
+
+            // each remaining column can decrease the score by at most one
+            if (score - (textLength - 1 - j) > limit) {
+                break;
+            }
+        }
+
+        for (int i = 0; i < patternLength; i++) {
+            char c = pattern.charAt(patternStart + i);
+            if (c < masks.length) {
+                masks[c] = 0L;
+            }
+        }
+        return score;
+    }
 
-        char t_j; // jth character of t
+    /**
+     * Edit distance computed row by row on the diagonal band of the cells that can be within
+     * the limit, stopping as soon as a whole row is above it
+     */
+    private static int bandedDistance(String s, int sStart, int n, String t, int tStart, int m, int limit) {
+        int band = Math.min(limit, Math.max(n, m));
 
-        int cost; // cost
+        int[][] rows = editDistanceRows.get();
+        if (rows[0].length < n + 2) {
+            rows[0] = new int[n + 2];
+            rows[1] = new int[n + 2];
+        }
+        int[] p = rows[0]; // 'previous' cost array, horizontally
+        int[] d = rows[1]; // cost array, horizontally
+        int[] _d; // placeholder to assist in swapping p and d
 
-        for (i = 0; i <= n; i++) {
+        int first = Math.min(n, band);
+        for (int i = 0; i <= first; i++) {
             p[i] = i;
         }
+        p[first + 1] = OUTSIDE_BAND;
 
-        for (j = 1; j <= m; j++) {
-            t_j = t.charAt(j - 1);
-            d[0] = j;
+        for (int j = 1; j <= m; j++) {
+            char t_j = t.charAt(tStart + j - 1);
+            int lo = Math.max(1, j - band);
+            int hi = (int) Math.min(n, (long) j + band);
 
-            for (i = 1; i <= n; i++) {
-                cost = s.charAt(i - 1) == t_j ? 0 : 1;
+            d[lo - 1] = lo == 1 && j <= band ? j : OUTSIDE_BAND;
+            int rowMin = d[lo - 1];
+            for (int i = lo; i <= hi; i++) {
+                int cost = s.charAt(sStart + i - 1) == t_j ? 0 : 1;
                 // minimum of cell to the left+1, to the top+1, diagonally left and up +cost
-                d[i] = Math.min(Math.min(d[i - 1] + 1, p[i] + 1), p[i - 1] + cost);
+                int value = Math.min(Math.min(d[i - 1] + 1, p[i] + 1), p[i - 1] + cost);
+                d[i] = value;
+                rowMin = Math.min(rowMin, value);
+            }
+            if (hi < n) {
+                d[hi + 1] = OUTSIDE_BAND;
+            }
+            if (rowMin > limit) {
+                // the minimum of the rows never decreases
+                return limit + 1;
             }
 
-            // copy current distance counts to 'previous row' distance counts
             _d = p;
             p = d;
             d = _d;
         }
 
-        // our last action in the above loop was to switch d and p, so p now
-        // actually has the most recent cost counts
         return p[n];
     }
 
@@ -136,14 +250,37 @@ public class StringHelper {
         if (first.equals(second)) {
             return BooleanHelper.K; // Identical
         } else {
-            ConstantPoolManager.getInstance().addDynamicConstant(first);
-            ConstantPoolManager.getInstance().addDynamicConstant(second);
+            if (Properties.DYNAMIC_POOL > 0.0) {
+                ConstantPoolManager.getInstance().addDynamicConstant(first);
+                ConstantPoolManager.getInstance().addDynamicConstant(second);
+            }
             // return -getDistanceBasedOnLeftAlignment(first, second.toString());
-            double distance = -getDistanceBasedOnLeftAlignmentCharacterDistance(first, second.toString());
-            double d2 = distance / (1.0 + Math.abs(distance));
+            String other = second.toString();
+            return toEqualsDistance(getDistanceBasedOnLeftAlignmentCharacterDistance(first, 0,
+                    first.length(), other, 0, other.length()));
+        }
+    }
 
-            return (int) Math.round(BooleanHelper.K * d2);
+    /**
+     * StringEquals of the region [aStart, aEnd) of a and the region [bStart, bEnd) of b,
+     * without copying the regions unless they are different and added to the dynamic pool
+     */
+    private static int regionEquals(String a, int aStart, int aEnd, String b, int bStart, int bEnd) {
+        if (aEnd - aStart == bEnd - bStart && a.regionMatches(aStart, b, bStart, aEnd - aStart)) {
+            return BooleanHelper.K; // Identical
+        }
+        if (Properties.DYNAMIC_POOL > 0.0) {
+            ConstantPoolManager.getInstance().addDynamicConstant(a.substring(aStart, aEnd));
+            ConstantPoolManager.getInstance().addDynamicConstant(b.substring(bStart, bEnd));
         }
+        return toEqualsDistance(getDistanceBasedOnLeftAlignmentCharacterDistance(a, aStart, aEnd, b, bStart, bEnd));
+    }
+
+    private static int toEqualsDistance(double differences) {
+        double distance = -differences;
+        double d2 = distance / (1.0 + Math.abs(distance));
+
+        return (int) Math.round(BooleanHelper.K * d2);
     }
 
     public static double StringEqualsCharacterDistance(String first, Object second) {
@@ -274,23 +411,30 @@ public class StringHelper {
         } else if (a != null && b == null) {
             return a.length() + 1;
         } else {
-            double differences = 0.0;
-            int min = Math.min(a.length(), b.length());
-            int max = Math.max(a.length(), b.length());
-            differences += (max - min);
-            for (int i = 0; i < min; i++) {
-                /*
-                 * Note: instead of just checking for mismatches, we could use something more sophisticated.
-                 * Eg, "a" is closer to "e" than "!". But maybe, considering the type of local search
-                 * we do, we don't need to do it
-                 */
-                if (a.charAt(i) != b.charAt(i)) {
-                    differences += BooleanHelper.normalize(Math.abs(a.charAt(i) - b.charAt(i)));
-                }
+            return getDistanceBasedOnLeftAlignmentCharacterDistance(a, 0, a.length(), b, 0, b.length());
+        }
+    }
+
+    private static double getDistanceBasedOnLeftAlignmentCharacterDistance(String a, int aStart, int aEnd,
+                                                                           String b, int bStart, int bEnd) {
+        double differences = 0.0;
+        int min = Math.min(aEnd - aStart, bEnd - bStart);
+        int max = Math.max(aEnd - aStart, bEnd - bStart);
+        differences += (max - min);
+        for (int i = 0; i < min; i++) {
+            /*
+             * Note: instead of just checking for mismatches, we could use something more sophisticated.
+             * Eg, "a" is closer to "e" than "!". But maybe, considering the type of local search
+             * we do, we don't need to do it
+             */
+            char ca = a.charAt(aStart + i);
+            char cb = b.charAt(bStart + i);
+            if (ca != cb) {
+                differences += BooleanHelper.normalize(Math.abs(ca - cb));
             }
-            //LoggingUtils.getEvoLogger().info("Distance between " + a + " and " + b  + " is: " + differences);
-            return differences;
         }
+        //LoggingUtils.getEvoLogger().info("Distance between " + a + " and " + b  + " is: " + differences);
+        return differences;
     }
 
     /**
@@ -331,8 +475,14 @@ public class StringHelper {
      */
     public static int StringStartsWith(String value, String prefix, int start) {
         int len = Math.min(prefix.length(), value.length());
-        ConstantPoolManager.getInstance().addDynamicConstant(prefix + value);
-        return StringEquals(value.substring(start, Math.min(start + len, value.length())), prefix);
+        int end = Math.min(start + len, value.length());
+        if (start < 0 || start > end) {
+            throw new StringIndexOutOfBoundsException("begin " + start + ", end " + end + ", length " + value.length());
+        }
+        if (Properties.DYNAMIC_POOL > 0.0) {
+            ConstantPoolManager.getInstance().addDynamicConstant(prefix + value);
+        }
+        return regionEquals(value, start, end, prefix, 0, prefix.length());
     }
 
     /**
@@ -346,9 +496,10 @@ public class StringHelper {
      */
     public static int StringEndsWith(String value, String suffix) {
         int len = Math.min(suffix.length(), value.length());
-        String val1 = value.substring(value.length() - len);
-        ConstantPoolManager.getInstance().addDynamicConstant(value + suffix);
-        return StringEquals(val1, suffix);
+        if (Properties.DYNAMIC_POOL > 0.0) {
+            ConstantPoolManager.getInstance().addDynamicConstant(value + suffix);
+        }
+        return regionEquals(value, value.length() - len, value.length(), suffix, 0, suffix.length());
     }
 
     /**
@@ -419,8 +570,8 @@ public class StringHelper {
             ConstantPoolManager.getInstance().addDynamicConstant(sn2);
         }
 
-        return StringEquals(s1.substring(thisStart, Math.min(length + thisStart, s1.length())),
-                s2.substring(start, Math.min(length + start, s2.length())));
+        return regionEquals(s1, thisStart, Math.min(length + thisStart, s1.length()),
+                s2, start, Math.min(length + start, s2.length()));
     }
 
     public static int StringRegionMatches(String value, int thisStart, String string,
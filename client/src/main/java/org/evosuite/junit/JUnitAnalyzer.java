@@ -49,6 +49,9 @@ import java.io.IOException;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 
 import static org.junit.platform.engine.discovery.ClassNameFilter.includeClassNamePatterns;
@@ -191,93 +194,212 @@ public abstract class JUnitAnalyzer {
             }
 
 
-            failure_loop:
-            for (JUnitFailure failure : result.getFailures()) {
-                String testName = failure.getDescriptionMethodName();//TODO check if correct
-                for (int i = 0; i < tests.size(); i++) {
-                    if (TestSuiteWriterUtils.getNameOfTest(tests, i).equals(testName)) {
-                        if (tests.get(i).isFailing()) {
-                            logger.info("Failure is expected, continuing...");
-                            continue failure_loop;
-                        }
-                    }
+            numUnstable += handleFailures(tests, result);
+        } catch (Exception e) {
+            logger.error("" + e, e);
+            return numUnstable;
+        } finally {
+            //let's be sure we clean up all what we wrote on disk
+
+            if (dir != null) {
+                try {
+                    FileUtils.deleteDirectory(dir);
+                } catch (Exception e) {
+                    logger.warn("Cannot delete tmp dir: " + dir.getName(), e);
                 }
+            }
 
-                if (testName == null) {
-                    /*
-                     * this can happen if there is a failure in the scaffolding (eg @AfterClass/@BeforeClass).
-                     * in such case, everything need to be deleted
-                     */
-                    StringBuilder sb = new StringBuilder();
-                    sb.append("Issue in scaffolding of the test suite: ").append(failure.getMessage()).append("\n");
-                    sb.append("Stack trace:\n");
-                    for (String elem : failure.getExceptionStackTrace()) {
-                        sb.append(elem).append("\n");
-                    }
-                    logger.error(sb.toString());
-                    numUnstable = tests.size();
-                    tests.clear();
-                    return numUnstable;
+        }
+
+        //if we arrive here, then it means at least one test was unstable
+        return numUnstable;
+    }
+
+    /**
+     * Compile and run each test case on its own, and mark as "unstable" all the ones
+     * that fail during execution. This gives the same result as calling
+     * {@link #handleTestsThatAreUnstable(List)} on a list with a single test, one test at a time.
+     *
+     * <p>
+     * The JUnit files are written sequentially (as writing requires executing the tests),
+     * but they are compiled on {@link Properties#JUNIT_CHECK_THREADS} threads. Each test is then
+     * loaded in its own class loader, so tests do not share any static state of the SUT.
+     * The execution itself is still sequential, as the EvoSuite runtime (eg, sandbox and
+     * virtual file system) is shared by all the class loaders.
+     *
+     * @param tests
+     * @return the number of unstable tests
+     */
+    public static int handleEachTestThatIsUnstable(List<TestCase> tests) {
+
+        int numUnstable = 0;
+        logger.info("Going to execute: handleEachTestThatIsUnstable");
+
+        if (tests == null || tests.isEmpty()) { //nothing to do
+            return numUnstable;
+        }
+
+        List<File> dirs = new ArrayList<>();
+        ExecutorService compilers = Executors.newFixedThreadPool(Properties.JUNIT_CHECK_THREADS);
+
+        try {
+            List<Future<List<File>>> compiled = new ArrayList<>();
+            for (TestCase test : tests) {
+                if (!TimeController.getInstance().hasTimeToExecuteATestCase()) {
+                    break;
                 }
 
-                // On the Sheffield cluster, the "well-known fle is not secure" issue is impossible to understand,
-                // so it might be best to ignore it for now.
-                if (testName.equals("initializationError") && failure.getMessage().contains("Failed to attach Java Agent")) {
-                    logger.warn("Likely error with EvoSuite instrumentation, ignoring failure in test execution");
-                    continue failure_loop;
+                File dir = createNewTmpDir();
+                if (dir == null) {
+                    logger.error("Failed to create tmp dir");
+                    break;
                 }
+                dirs.add(dir);
 
+                List<TestCase> singleList = new ArrayList<>();
+                singleList.add(test);
+                List<File> generated = writeTests(singleList, dir);
+                compiled.add(compilers.submit(() -> generated == null ? null : compileFiles(generated)));
+            }
 
-                logger.warn("Found unstable test named " + testName + " -> "
-                        + failure.getExceptionClassName() + ": " + failure.getMessage());
+            Iterator<TestCase> iter = tests.iterator();
+            for (Future<List<File>> future : compiled) {
+                TestCase test = iter.next();
 
-                for (String elem : failure.getExceptionStackTrace()) {
-                    logger.info("Exception trace: {}", elem);
+                List<File> generated = future.get();
+                if (generated == null) {
+                    logger.warn("Failed to compile the test case ");
+                    continue;
                 }
 
-                boolean toRemove = !(failure.isAssertionError());
-
-                for (int i = 0; i < tests.size(); i++) {
-                    if (TestSuiteWriterUtils.getNameOfTest(tests, i).equals(testName)) {
-                        logger.warn("Failing test:\n " + tests.get(i).toCode());
-                        numUnstable++;
-                        /*
-                         * we have a match. should we remove it or mark as unstable?
-                         * When we have an Assert.* failing, we can just comment out
-                         * all the assertions in the test case. If it is an "assert"
-                         * in the SUT that fails, we do want to have the JUnit test fail.
-                         * On the other hand, if a test fail due to an uncaught exception,
-                         * we should delete it, as it would either represent a bug in EvoSuite
-                         * or something we cannot (easily) fix here
-                         */
-                        if (!toRemove) {
-                            logger.debug("Going to mark test as unstable: " + testName);
-                            tests.get(i).setUnstable(true);
-                        } else {
-                            logger.debug("Going to remove unstable test: " + testName);
-                            tests.remove(i);
-                        }
-                        break;
-                    }
+                if (!TimeController.getInstance().hasTimeToExecuteATestCase()) {
+                    logger.error("Ran out of time while checking tests");
+                    break;
+                }
+
+                // Each test gets its own classloader, so that it sees freshly loaded classes
+                Class<?>[] testClasses = loadTests(generated, new NonInstrumentingClassLoader());
+                if (testClasses == null) {
+                    logger.error("Found no classes for compiled tests");
+                    continue;
+                }
+
+                JUnitResult result = runTests(testClasses, generated.get(0).getParentFile());
+                if (result.wasSuccessful()) {
+                    continue;
+                }
+
+                List<TestCase> singleList = new ArrayList<>();
+                singleList.add(test);
+                numUnstable += handleFailures(singleList, result);
+                if (singleList.isEmpty()) {
+                    iter.remove();
                 }
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.warn("Interrupted while compiling the tests");
         } catch (Exception e) {
             logger.error("" + e, e);
-            return numUnstable;
         } finally {
-            //let's be sure we clean up all what we wrote on disk
+            compilers.shutdownNow();
 
-            if (dir != null) {
+            //let's be sure we clean up all what we wrote on disk
+            for (File dir : dirs) {
                 try {
                     FileUtils.deleteDirectory(dir);
                 } catch (Exception e) {
                     logger.warn("Cannot delete tmp dir: " + dir.getName(), e);
                 }
             }
+        }
+
+        return numUnstable;
+    }
+
+    /**
+     * Mark as "unstable" the tests that have an assertion failing in the given JUnit result,
+     * and remove the ones that failed for any other reason
+     *
+     * @param tests
+     * @param result
+     * @return the number of unstable tests
+     */
+    private static int handleFailures(List<TestCase> tests, JUnitResult result) {
+
+        int numUnstable = 0;
+
+        failure_loop:
+        for (JUnitFailure failure : result.getFailures()) {
+            String testName = failure.getDescriptionMethodName();//TODO check if correct
+            for (int i = 0; i < tests.size(); i++) {
+                if (TestSuiteWriterUtils.getNameOfTest(tests, i).equals(testName)) {
+                    if (tests.get(i).isFailing()) {
+                        logger.info("Failure is expected, continuing...");
+                        continue failure_loop;
+                    }
+                }
+            }
+
+            if (testName == null) {
+                /*
+                 * this can happen if there is a failure in the scaffolding (eg @AfterClass/@BeforeClass).
+                 * in such case, everything need to be deleted
+                 */
+                StringBuilder sb = new StringBuilder();
+                sb.append("Issue in scaffolding of the test suite: ").append(failure.getMessage()).append("\n");
+                sb.append("Stack trace:\n");
+                for (String elem : failure.getExceptionStackTrace()) {
+                    sb.append(elem).append("\n");
+                }
+                logger.error(sb.toString());
+                numUnstable = tests.size();
+                tests.clear();
+                return numUnstable;
+            }
+
+            // On the Sheffield cluster, the "well-known fle is not secure" issue is impossible to understand,
+            // so it might be best to ignore it for now.
+            if (testName.equals("initializationError") && failure.getMessage().contains("Failed to attach Java Agent")) {
+                logger.warn("Likely error with EvoSuite instrumentation, ignoring failure in test execution");
+                continue failure_loop;
+            }
+
+
+            logger.warn("Found unstable test named " + testName + " -> "
+                    + failure.getExceptionClassName() + ": " + failure.getMessage());
+
+            for (String elem : failure.getExceptionStackTrace()) {
+                logger.info("Exception trace: {}", elem);
+            }
+
+            boolean toRemove = !(failure.isAssertionError());
 
+            for (int i = 0; i < tests.size(); i++) {
+                if (TestSuiteWriterUtils.getNameOfTest(tests, i).equals(testName)) {
+                    logger.warn("Failing test:\n " + tests.get(i).toCode());
+                    numUnstable++;
+                    /*
+                     * we have a match. should we remove it or mark as unstable?
+                     * When we have an Assert.* failing, we can just comment out
+                     * all the assertions in the test case. If it is an "assert"
+                     * in the SUT that fails, we do want to have the JUnit test fail.
+                     * On the other hand, if a test fail due to an uncaught exception,
+                     * we should delete it, as it would either represent a bug in EvoSuite
+                     * or something we cannot (easily) fix here
+                     */
+                    if (!toRemove) {
+                        logger.debug("Going to mark test as unstable: " + testName);
+                        tests.get(i).setUnstable(true);
+                    } else {
+                        logger.debug("Going to remove unstable test: " + testName);
+                        tests.remove(i);
+                    }
+                    break;
+                }
+            }
         }
 
-        //if we arrive here, then it means at least one test was unstable
         return numUnstable;
     }
 
@@ -306,6 +428,22 @@ public abstract class JUnitAnalyzer {
     private static int NUM = 0;
 
     private static List<File> compileTests(List<TestCase> tests, File dir) {
+        List<File> generated = writeTests(tests, dir);
+        if (generated == null) {
+            return null;
+        }
+        return compileFiles(generated);
+    }
+
+    /**
+     * Write the JUnit source files of the given tests in the given folder.
+     * This requires executing the tests, so it must not be called concurrently.
+     *
+     * @param tests
+     * @param dir
+     * @return the generated files, or {@code null} if any of them could not be written
+     */
+    private static List<File> writeTests(List<TestCase> tests, File dir) {
 
         TestSuiteWriter suite = new TestSuiteWriter();
         suite.insertAllTests(tests);
@@ -315,17 +453,28 @@ public abstract class JUnitAnalyzer {
         String name = Properties.TARGET_CLASS.substring(beginIndex);
         name += "_" + (NUM++) + "_tmp_" + Properties.JUNIT_SUFFIX; //postfix
 
-        try {
-            //now generate the JUnit test case
-            List<File> generated = suite.writeTestSuite(name, dir.getAbsolutePath(), Collections.EMPTY_LIST);
-            for (File file : generated) {
-                if (!file.exists()) {
-                    logger.error("Supposed to generate " + file
-                            + " but it does not exist");
-                    return null;
-                }
+        //now generate the JUnit test case
+        List<File> generated = suite.writeTestSuite(name, dir.getAbsolutePath(), Collections.EMPTY_LIST);
+        for (File file : generated) {
+            if (!file.exists()) {
+                logger.error("Supposed to generate " + file
+                        + " but it does not exist");
+                return null;
             }
+        }
+        return generated;
+    }
 
+    /**
+     * Compile the given JUnit source files in place.
+     * Compiling does not depend on any EvoSuite state, so this can be run on several threads at the same time.
+     *
+     * @param generated
+     * @return the compiled source files, or {@code null} if compilation failed
+     */
+    private static List<File> compileFiles(List<File> generated) {
+
+        try {
             //try to compile the test cases
             JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
             if (compiler == null) {
@@ -421,6 +570,10 @@ public abstract class JUnitAnalyzer {
     }
 
     private static Class<?>[] loadTests(List<File> tests) {
+        return loadTests(tests, loader);
+    }
+
+    private static Class<?>[] loadTests(List<File> tests, NonInstrumentingClassLoader classLoader) {
 
         /*
          * Ideally, when we run a generated test case, it
@@ -434,14 +587,14 @@ public abstract class JUnitAnalyzer {
          * non-instrumenting classloader to re-load the CUT, and so see
          * if the JavaAgent works properly.
          */
-        Class<?>[] testClasses = getClassesFromFiles(tests);
+        Class<?>[] testClasses = getClassesFromFiles(tests, classLoader);
         List<File> otherClasses = listOnlyFiles(tests);
         /*
          * this is important to force the loading of all files generated
          * in the target folder.
          * If we do not do that, then we will miss all the anonymous classes
          */
-        getClassesFromFiles(otherClasses);
+        getClassesFromFiles(otherClasses, classLoader);
 
         return testClasses;
     }
@@ -589,9 +742,10 @@ public abstract class JUnitAnalyzer {
      * assumes the classpath to be correctly set)
      *
      * @param files
+     * @param classLoader
      * @return
      */
-    private static Class<?>[] getClassesFromFiles(Collection<File> files) {
+    private static Class<?>[] getClassesFromFiles(Collection<File> files, NonInstrumentingClassLoader classLoader) {
         /*
          * first load only the scaffolding files
          */
@@ -599,7 +753,7 @@ public abstract class JUnitAnalyzer {
             if (!isScaffolding(file)) {
                 continue;
             }
-            loadClass(file);
+            loadClass(file, classLoader);
         }
 
         List<Class<?>> classes = new ArrayList<>();
@@ -612,7 +766,7 @@ public abstract class JUnitAnalyzer {
             if (isScaffolding(file)) {
                 continue;
             }
-            Class<?> clazz = loadClass(file);
+            Class<?> clazz = loadClass(file, classLoader);
             if (clazz != null) {
                 classes.add(clazz);
             }
@@ -627,7 +781,7 @@ public abstract class JUnitAnalyzer {
                 name.endsWith("_" + Properties.SCAFFOLDING_SUFFIX + CLASS);
     }
 
-    private static Class<?> loadClass(File file) {
+    private static Class<?> loadClass(File file, NonInstrumentingClassLoader classLoader) {
         if (!file.isFile()) {
             return null;
         }
@@ -663,7 +817,7 @@ public abstract class JUnitAnalyzer {
         try {
             logger.info("Loading class " + className);
             //testClass = ((InstrumentingClassLoader) TestGenerationContext.getInstance().getClassLoaderForSUT()).loadClassFromFile(className,
-            testClass = loader.loadClassFromFile(className, fileName);
+            testClass = classLoader.loadClassFromFile(className, fileName);
         } catch (ClassNotFoundException e) {
             logger.error("Failed to load test case " + className + " from file "
                     + file.getAbsolutePath() + " , error " + e, e);
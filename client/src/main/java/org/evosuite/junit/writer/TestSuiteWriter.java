@@ -50,8 +50,16 @@ import org.slf4j.LoggerFactory;
 
 import javax.swing.*;
 import java.io.File;
+import java.io.IOException;
 import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.evosuite.junit.writer.TestSuiteWriterUtils.*;
 
@@ -198,7 +206,6 @@ public class TestSuiteWriter implements Opcodes {
 
         List<File> generated = new ArrayList<>();
         String dir = TestSuiteWriterUtils.makeDirectory(directory);
-        String content = "";
 
         // Execute all tests
         executor.newObservers();
@@ -243,8 +250,7 @@ public class TestSuiteWriter implements Opcodes {
         if (Properties.OUTPUT_GRANULARITY == OutputGranularity.MERGED || testCases.size() == 0) {
             File file = new File(dir + "/" + name + ".java");
             //executor.newObservers();
-            content = getUnitTestsAllInSameFile(name, results);
-            FileIOUtils.writeFile(content, file);
+            writeUnitTestsAllInSameFile(name, results, file);
             generated.add(file);
         } else {
             for (int i = 0; i < testCases.size(); i++) {
@@ -252,7 +258,6 @@ public class TestSuiteWriter implements Opcodes {
                 //executor.newObservers();
                 String testCode = getOneUnitTestInAFile(name, i, results);
                 FileIOUtils.writeFile(testCode, file);
-                content += testCode;
                 generated.add(file);
             }
         }
@@ -264,15 +269,31 @@ public class TestSuiteWriter implements Opcodes {
                     TestSuiteWriterUtils.hasAnySecurityException(results));
             FileIOUtils.writeFile(scaffoldingContent, file);
             generated.add(file);
-            content += scaffoldingContent;
         }
 
         writeCoveredGoalsFile();
 
-        TestGenerationResultBuilder.getInstance().setTestSuiteCode(content);
+        /*
+         * the code is read back once it is all written, rather than collected while writing,
+         * and the result keeps it, as the files may be deleted afterwards
+         */
+        TestGenerationResultBuilder.getInstance().setTestSuiteCode(readCode(generated));
         return generated;
     }
 
+    private static String readCode(List<File> files) {
+        StringBuilder code = new StringBuilder();
+        for (File file : files) {
+            try {
+                code.append(new String(Files.readAllBytes(file.toPath()), Charset.defaultCharset()));
+            } catch (IOException e) {
+                logger.error("Error while reading file " + file.getName() + " , " +
+                        e.getMessage(), e);
+            }
+        }
+        return code.toString();
+    }
+
     /**
      * To avoid having completely empty test classes, a no-op test is created
      *
@@ -312,12 +333,12 @@ public class TestSuiteWriter implements Opcodes {
 
 
     /**
-     * Create JUnit file for given class name
+     * Create JUnit file for given class name, and write it to disk one test at a time
      *
      * @param name Name of the class file
-     * @return String representation of JUnit test file
+     * @param file File the JUnit test file is written to
      */
-    private String getUnitTestsAllInSameFile(String name, List<ExecutionResult> results) {
+    private void writeUnitTestsAllInSameFile(String name, List<ExecutionResult> results, File file) {
 
         /*
          * if there was any security exception, then we need to scaffold the
@@ -325,24 +346,74 @@ public class TestSuiteWriter implements Opcodes {
          */
         boolean wasSecurityException = TestSuiteWriterUtils.hasAnySecurityException(results);
 
-        StringBuilder builder = new StringBuilder();
+        try (Writer writer = Files.newBufferedWriter(file.toPath(), Charset.defaultCharset())) {
 
-        builder.append(getHeader(name, name, results));
+            writer.write(getHeader(name, name, results));
 
-        if (!Properties.TEST_SCAFFOLDING && !Properties.NO_RUNTIME_DEPENDENCY) {
-            builder.append(new Scaffolding().getBeforeAndAfterMethods(name, wasSecurityException, results));
-        }
+            if (!Properties.TEST_SCAFFOLDING && !Properties.NO_RUNTIME_DEPENDENCY) {
+                writer.write(new Scaffolding().getBeforeAndAfterMethods(name, wasSecurityException, results));
+            }
 
-        if (testCases.isEmpty()) {
-            builder.append(getEmptyTest());
-        } else {
-            for (int i = 0; i < testCases.size(); i++) {
-                builder.append(testToString(i, i, results.get(i)));
+            if (testCases.isEmpty()) {
+                writer.write(getEmptyTest());
+            } else if (Properties.WRITE_JUNIT_THREADS <= 1 || testCases.size() == 1) {
+                for (int i = 0; i < testCases.size(); i++) {
+                    writer.write(testToString(i, i, results.get(i)));
+                }
+            } else {
+                ExecutorService generators = Executors.newFixedThreadPool(Properties.WRITE_JUNIT_THREADS);
+                try {
+                    /*
+                     * the code of the tests is generated only a few tests ahead of the writer,
+                     * so that the code of all the tests is not held until the end
+                     */
+                    int window = 2 * Properties.WRITE_JUNIT_THREADS;
+                    Deque<Future<String>> testCodes = new ArrayDeque<>();
+                    int submitted = 0;
+                    for (int i = 0; i < testCases.size(); i++) {
+                        while (submitted < testCases.size() && submitted - i < window) {
+                            testCodes.add(submitTestToString(submitted, results, generators));
+                            submitted++;
+                        }
+                        String testCode = getTestCode(testCodes.poll());
+                        setTestCase(i, i, results.get(i), testCode);
+                        writer.write(testCode);
+                    }
+                } finally {
+                    generators.shutdownNow();
+                }
             }
+            writer.write(getFooter());
+        } catch (IOException e) {
+            logger.error("Error while writing file " + file.getName() + " , " +
+                    e.getMessage(), e);
         }
-        builder.append(getFooter());
+    }
 
-        return builder.toString();
+    /**
+     * Generate the code of a test on the given executor. Each test gets its own visitor,
+     * which starts from the class names that were resolved when determining the imports
+     *
+     * @param id         Index of the test case
+     * @param results    a {@link java.util.List} object.
+     * @param generators executor the code is generated on
+     * @return the code of the test
+     */
+    private Future<String> submitTestToString(int id, List<ExecutionResult> results, ExecutorService generators) {
+        TestCodeVisitor testVisitor = new TestCodeVisitor();
+        testVisitor.addClassNames(visitor);
+        return generators.submit(() -> getTestCode(id, id, results.get(id), testVisitor));
+    }
+
+    private String getTestCode(Future<String> testCode) {
+        try {
+            return testCode.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new Error(e);
+        } catch (ExecutionException e) {
+            throw new Error(e.getCause());
+        }
     }
 
     /**
@@ -621,6 +692,44 @@ public class TestSuiteWriter implements Opcodes {
      * @return String representation of test case
      */
     protected String testToString(int number, int id, ExecutionResult result) {
+        String testCode = getTestCode(number, id, result, visitor);
+        setTestCase(number, id, result, testCode);
+        return testCode;
+    }
+
+    /**
+     * Name of the test method of a test case
+     *
+     * @param number Position of the test case in the suite
+     * @param id     Index of the test case
+     * @return name of the test method
+     */
+    private String getMethodName(int number, int id) {
+        // Get the test method name generated in TestNameGenerator
+        String methodName = nameGenerator.getName(testCases.get(id));
+        if (methodName == null) {
+            // if TestNameGenerator did not generate a name, fall back to original naming
+            methodName = TestSuiteWriterUtils.getNameOfTest(testCases, number);
+        }
+        return methodName;
+    }
+
+    private void setTestCase(int number, int id, ExecutionResult result, String testCode) {
+        TestGenerationResultBuilder.getInstance().setTestCase(getMethodName(number, id), testCode,
+                testCases.get(id), getInformation(id), result);
+    }
+
+    /**
+     * Convert one test case to a Java method with the given visitor.
+     * This does not access any shared state, so tests can be converted concurrently
+     * as long as each of them has its own visitor
+     *
+     * @param id          Index of the test case
+     * @param result      a {@link org.evosuite.testcase.execution.ExecutionResult} object.
+     * @param testVisitor visitor used to generate the code of the test
+     * @return String representation of test case
+     */
+    private String getTestCode(int number, int id, ExecutionResult result, TestCodeVisitor testVisitor) {
 
         boolean wasSecurityException = result.hasSecurityException();
 
@@ -635,12 +744,7 @@ public class TestSuiteWriter implements Opcodes {
             builder.append(NEWLINE);
         }
 
-        // Get the test method name generated in TestNameGenerator
-        String methodName = nameGenerator.getName(testCases.get(id));
-        if (methodName == null) {
-            // if TestNameGenerator did not generate a name, fall back to original naming
-            methodName = TestSuiteWriterUtils.getNameOfTest(testCases, number);
-        }
+        String methodName = getMethodName(number, id);
         builder.append(adapter.getMethodDefinition(methodName));
 
         /*
@@ -689,7 +793,7 @@ public class TestSuiteWriter implements Opcodes {
         }
 
         for (String line : adapter.getTestString(id, test,
-                result.exposeExceptionMapping(), visitor).split("\\r?\\n")) {
+                result.exposeExceptionMapping(), testVisitor).split("\\r?\\n")) {
             builder.append(CODE_SPACE);
             builder.append(line);
             builder.append(NEWLINE);
@@ -728,10 +832,7 @@ public class TestSuiteWriter implements Opcodes {
         builder.append("}");
         builder.append(NEWLINE);
 
-        String testCode = builder.toString();
-        TestGenerationResultBuilder.getInstance().setTestCase(methodName, testCode, test,
-                testInfo, result);
-        return testCode;
+        return builder.toString();
     }
 
     /**
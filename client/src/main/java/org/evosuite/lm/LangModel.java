@@ -19,192 +19,563 @@
  */
 package org.evosuite.lm;
 
+import org.evosuite.Properties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import java.io.*;
-import java.util.Comparator;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.TreeMap;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 /**
  * Represents a language model, a set of bigrams, unigrams and associated
  * log-probabilities.
+ * <p>
+ * The model is read from a text file in ARPA format, and compiled into a binary format:
+ * sorted arrays of unigram symbols and of packed bigrams, with float log-probabilities,
+ * and the table of the most likely symbols to follow each symbol. The binary model is
+ * written once to {@link Properties#LM_CACHE_DIR}, and memory-mapped by every client
+ * using it, so that its pages are shared and nothing has to be parsed again. It records the
+ * length and the last modification time of its source, and is compiled again once they change.
+ * <p>
+ * Symbols are the chars of the strings, plus the sentinel unigrams, and any other unigram
+ * longer than one char, which are numbered from {@link #START_OF_STRING_SYMBOL}. Lookups
+ * by symbol do not allocate, and can be done concurrently.
  */
 public class LangModel {
 
-    // class variables
-    // Hashes storing various Language Model probabilities
+    private static final Logger logger = LoggerFactory.getLogger(LangModel.class);
+
+    //Sentinel unigram values:
+    public static final String START_OF_STRING = "<s>";
+    public static final String END_OF_STRING = "</s>";
+    public static final String START_NEW_WORD = "<w>";
+
+    public static final int START_OF_STRING_SYMBOL = Character.MAX_VALUE + 1;
+    public static final int END_OF_STRING_SYMBOL = START_OF_STRING_SYMBOL + 1;
+    public static final int START_NEW_WORD_SYMBOL = START_OF_STRING_SYMBOL + 2;
+
     /**
-     * Probability of a unigram occurring.
+     * Returned when there is no prediction
      */
-    private final Map<String, Double> unigram_probs = new HashMap<>();
+    public static final int NO_SYMBOL = -1;
+
+    private static final int FIRST_EXTRA_SYMBOL = START_OF_STRING_SYMBOL + 3;
+
     /**
-     * Unigram backoff probabilities (used in bigram probability estimation).
+     * "EVLM", followed by the version of the binary format
      */
-    private final Map<String, Double> unigram_backoff_probs = new HashMap<>();
+    private static final int MAGIC = 0x45564C4D;
+    private static final int VERSION = 2;
+
+    private static final Pattern NGRAM_LEN_PATTERN = Pattern.compile("(\\d+)-grams:");
+    // Match with <floating point number> <one or more chars> <floating point number>
+    //                        |                   |                 +------ backoff probability
+    //                        |                   +------------------------ unigram
+    //                        +-------------------------------------------- unigram probability
+    private static final Pattern UNIGRAM_PATTERN = Pattern.compile("([-0-9\\.]+)\\s*(\\S+)\\s*([-0-9\\.]+)");
+    //Match line with <floating point number> <one or more chars> <one or more chars>
+    //                            |                   |                    +---- end char of bigram
+    //                            |                   +------------------------- start char of bigram
+    //                            +--------------------------------------------- bigram probability
+    private static final Pattern BIGRAM_PATTERN = Pattern.compile("([-0-9\\.]+)\\s*(\\S+) (\\S+)");
+
+    // Maximum number of characters to predict for each bigram
+    private static final int PREDICTED_CHARS = 10;
+
+    private static LangModel instance = null;
+
+    private static String instanceSource = null;
+
     /**
-     * Probability that Unigram2 follows Unigram1, where each key is of the form "Unigram1 Unigram2".
+     * The binary model. Only absolute gets are used, so it can be shared between threads
      */
-    private final Map<String, Double> bigram_probs = new HashMap<>();
+    private final ByteBuffer buffer;
 
-    //Sentinel unigram values:
-    public static final String START_OF_STRING = "<s>";
-    public static final String END_OF_STRING = "</s>";
-    public static final String START_NEW_WORD = "<w>";
+    /**
+     * Length and last modification time of the model this one was compiled from, or 0 if unknown
+     */
+    private final long sourceLength;
+    private final long sourceLastModified;
 
-    private double unknown_char_prob = 0;
+    private final double unknownCharProb;
 
+    private final int predictedChars;
 
-    // Hashes to store most probable next characters in bigram
     /**
-     * Mapping of the nth most likely unigrams to follow each unigram.
-     * Encoded as: <code>(unigram)(n)> -> (unigram)</code>
+     * Unigrams longer than one char, other than the sentinels
      */
-    private final HashMap<String, String> context_char = new HashMap<>();
+    private final String[] extraTokens;
+
     /**
-     * Mapping of the probability of the nth most likely unigram to follow each unigram.
-     * Encoded as: <code>(unigram)(n)> -> (log_probability)</code>
+     * The symbols with a unigram, backoff or prediction, in ascending order. Missing
+     * probabilities are NaN.
      */
-    private final HashMap<String, Double> context_prob = new HashMap<>();
+    private final int numSymbols;
+    private final int symbolsOffset;
+    private final int unigramProbsOffset;
+    private final int backoffProbsOffset;
 
-    // Maximum number of characters to predict for each bigram
-    int predicted_chars = 10;
+    /**
+     * The bigrams, packed as (first symbol, second symbol), in ascending order
+     */
+    private final int numBigrams;
+    private final int bigramsOffset;
+    private final int bigramProbsOffset;
 
-    // Constructors
-    // Read in data from language model to be manipulated later
-    // Takes language model file as argument
+    /**
+     * For each symbol, the predictedChars most likely symbols to follow it, with their
+     * probabilities
+     */
+    private final int predictionsOffset;
+    private final int predictionProbsOffset;
 
     /**
      * Load the language model.
      *
-     * @param lmFileName path to a language model file.
+     * @param lmFileName path to a language model file, in text or binary format,
+     *                   as a resource or in the file system.
      * @throws IOException if the model file can't be found or read.
      */
     public LangModel(String lmFileName) throws IOException {
+        this(ByteBuffer.wrap(readCompiled(lmFileName)));
+    }
+
+    private LangModel(ByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+        if (buffer.capacity() < 24 || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IOException("Not a compiled language model");
+        }
+        int offset = 8;
+        sourceLength = buffer.getLong(offset);
+        offset += 8;
+        sourceLastModified = buffer.getLong(offset);
+        offset += 8;
+        unknownCharProb = buffer.getFloat(offset);
+        offset += 4;
+        predictedChars = buffer.getInt(offset);
+        offset += 4;
+
+        extraTokens = new String[buffer.getInt(offset)];
+        offset += 4;
+        for (int i = 0; i < extraTokens.length; i++) {
+            char[] chars = new char[buffer.getInt(offset)];
+            offset += 4;
+            for (int c = 0; c < chars.length; c++) {
+                chars[c] = buffer.getChar(offset);
+                offset += 2;
+            }
+            extraTokens[i] = new String(chars);
+        }
+
+        numSymbols = buffer.getInt(offset);
+        offset += 4;
+        symbolsOffset = offset;
+        unigramProbsOffset = symbolsOffset + 4 * numSymbols;
+        backoffProbsOffset = unigramProbsOffset + 4 * numSymbols;
+        offset = backoffProbsOffset + 4 * numSymbols;
+
+        numBigrams = buffer.getInt(offset);
+        offset += 4;
+        bigramsOffset = offset;
+        bigramProbsOffset = bigramsOffset + 8 * numBigrams;
+
+        predictionsOffset = bigramProbsOffset + 4 * numBigrams;
+        predictionProbsOffset = predictionsOffset + 4 * numSymbols * predictedChars;
+        if (predictionProbsOffset + 4 * numSymbols * predictedChars != buffer.capacity()) {
+            throw new IOException("Truncated compiled language model");
+        }
+    }
+
+    /**
+     * Returns the model of {@link Properties#LM_SRC}, shared by all the users in this JVM.
+     * It is memory-mapped from {@link Properties#LM_CACHE_DIR}, compiling it there first
+     * if no other client did it.
+     *
+     * @return the language model
+     * @throws IOException if the model file can't be found or read.
+     */
+    public static synchronized LangModel getInstance() throws IOException {
+        if (instance == null || !Properties.LM_SRC.equals(instanceSource)) {
+            instance = load(Properties.LM_SRC, Properties.LM_CACHE_DIR);
+            instanceSource = Properties.LM_SRC;
+        }
+        return instance;
+    }
+
+    private static LangModel load(String lmFileName, String cacheDir) throws IOException {
+        if (cacheDir == null || cacheDir.isEmpty()) {
+            return new LangModel(lmFileName);
+        }
+
+        File compiled = new File(cacheDir, new File(lmFileName).getName() + ".bin");
+        try {
+            try {
+                LangModel model = map(compiled);
+                if (model.isCompiledFrom(getSourceStamp(lmFileName))) {
+                    return model;
+                }
+                logger.debug("Compiling again language model {}, as it changed", lmFileName);
+            } catch (FileNotFoundException | NoSuchFileException e) {
+                logger.debug("Compiling language model {} to {}", lmFileName, compiled);
+            } catch (IOException e) {
+                logger.debug("Compiling again language model {}: {}", lmFileName, e.getMessage());
+            }
+            compile(lmFileName, compiled);
+            return map(compiled);
+        } catch (IOException e) {
+            logger.warn("Cannot use compiled language model {}: {}", compiled, e.getMessage());
+            return new LangModel(lmFileName);
+        }
+    }
+
+    private boolean isCompiledFrom(long[] sourceStamp) {
+        return sourceLength == sourceStamp[0] && sourceLastModified == sourceStamp[1];
+    }
+
+    /**
+     * @return the length and the last modification time of a language model file, as a
+     * resource or in the file system, 0 when unknown
+     */
+    private static long[] getSourceStamp(String lmFileName) throws IOException {
+        URL resource = LangModel.class.getClassLoader().getResource(lmFileName);
+        if (resource == null) {
+            File file = new File(lmFileName);
+            return new long[]{file.length(), file.lastModified()};
+        }
+        URLConnection connection = resource.openConnection();
+        return new long[]{Math.max(0, connection.getContentLengthLong()), connection.getLastModified()};
+    }
+
+    private static LangModel map(File compiled) throws IOException {
+        try (FileChannel channel = FileChannel.open(compiled.toPath(), StandardOpenOption.READ)) {
+            return new LangModel(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Write the binary format of a language model
+     *
+     * @param lmFileName path to a language model file, as a resource or in the file system.
+     * @param target     where to write the compiled model. Concurrent compilations of the
+     *                   same model are safe: the file is replaced atomically.
+     * @throws IOException if the model file can't be read, or the target written.
+     */
+    public static void compile(String lmFileName, File target) throws IOException {
+        // taken before reading, so that a model changed meanwhile is compiled again
+        long[] sourceStamp = getSourceStamp(lmFileName);
+        byte[] compiled = readCompiled(lmFileName);
+        ByteBuffer.wrap(compiled).putLong(8, sourceStamp[0]).putLong(16, sourceStamp[1]);
+
+        File dir = target.getAbsoluteFile().getParentFile();
+        if (!dir.exists() && !dir.mkdirs() && !dir.exists()) {
+            throw new IOException("Cannot create directory " + dir);
+        }
+        File tmp = File.createTempFile(target.getName(), ".tmp", dir);
+        try {
+            Files.write(tmp.toPath(), compiled);
+            try {
+                Files.move(tmp.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tmp.toPath());
+        }
+    }
 
+    private static byte[] readCompiled(String lmFileName) throws IOException {
+        InputStream fstream = LangModel.class.getClassLoader().getResourceAsStream(lmFileName);
+        if (fstream == null) {
+            fstream = new FileInputStream(lmFileName);
+        }
+        try (InputStream in = new BufferedInputStream(fstream)) {
+            in.mark(4);
+            byte[] header = new byte[4];
+            int read = in.read(header);
+            in.reset();
+            if (read == 4 && ByteBuffer.wrap(header).getInt() == MAGIC) {
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                byte[] chunk = new byte[8192];
+                int n;
+                while ((n = in.read(chunk)) > 0) {
+                    out.write(chunk, 0, n);
+                }
+                return out.toByteArray();
+            }
+            return compile(new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8)));
+        }
+    }
 
+    /**
+     * Read the unigrams and bigrams of a language model in ARPA format, and compile them
+     */
+    private static byte[] compile(BufferedReader br) throws IOException {
         // Flag to indicate length of n-grams currently being read (0 == read
         // nothing)
         int ngram_len = 0; //size of the n-grams we're reading (i.e. ngram_len = 5 implies 5-grams).
 
-        InputStream fstream = LangModel.class.getClassLoader().getResourceAsStream(lmFileName);
-        // FileInputStream fstream = new FileInputStream(lmFileName);
+        Map<String, Integer> extraSymbols = new LinkedHashMap<>();
+        Map<Integer, Double> unigramProbs = new HashMap<>();
+        Map<Integer, Double> backoffProbs = new HashMap<>();
+        Map<Long, Double> bigramProbs = new HashMap<>();
+        double unknownCharProb = 0;
 
-        DataInputStream in = new DataInputStream(fstream);
-        BufferedReader br = new BufferedReader(new InputStreamReader(in));
         String strLine;
-
-        double highest_unigram_prob = 0;
-
-        // Read file line by line
         while ((strLine = br.readLine()) != null) {
-            Pattern ngram_len_p = Pattern.compile("(\\d+)-grams:");
-            Matcher match_ngram_len = ngram_len_p.matcher(strLine);
+            Matcher match_ngram_len = NGRAM_LEN_PATTERN.matcher(strLine);
             //does line match (\d+)-grams: ?
             if (match_ngram_len.find()) {
                 ngram_len = Integer.parseInt(match_ngram_len.group(1));
-
             } else if (ngram_len == 1) {
-                //We're looking at unigrams;
-                Pattern unigram_p = Pattern
-                        .compile("([-0-9\\.]+)\\s*(\\S+)\\s*([-0-9\\.]+)");
-                // Match with <floating point number> <one or more chars> <floating point number>
-                //                        |                   |                 +------ backoff probability
-                //                        |                   +------------------------ unigram
-                //                        +-------------------------------------------- unigram probability
-                Matcher match_unigram = unigram_p.matcher(strLine);
+                Matcher match_unigram = UNIGRAM_PATTERN.matcher(strLine);
                 if (match_unigram.find()) {
+                    double unigram_prob = Double.parseDouble(match_unigram.group(1));
+                    int unigram = toSymbol(match_unigram.group(2), extraSymbols);
+                    unigramProbs.put(unigram, unigram_prob);
+                    backoffProbs.put(unigram, Double.parseDouble(match_unigram.group(3)));
+                    unknownCharProb = Math.min(unknownCharProb, unigram_prob);
+                }
+            } else if (ngram_len == 2) {
+                Matcher match_bigram = BIGRAM_PATTERN.matcher(strLine);
+                if (match_bigram.find()) {
+                    int first = toSymbol(match_bigram.group(2), extraSymbols);
+                    int second = toSymbol(match_bigram.group(3), extraSymbols);
+                    bigramProbs.put(pack(first, second), Double.parseDouble(match_bigram.group(1)));
+                }
+            }
+        }
 
-                    double unigram_prob = Double.parseDouble(match_unigram
-                            .group(1));
-                    String unigram = match_unigram.group(2);
-                    double unigram_backoff_prob = Double
-                            .parseDouble(match_unigram.group(3));
+        SortedSet<Integer> symbolSet = new TreeSet<>(unigramProbs.keySet());
+        for (long bigram : bigramProbs.keySet()) {
+            symbolSet.add((int) (bigram >>> 32));
+        }
+        int[] symbols = new int[symbolSet.size()];
+        int s = 0;
+        for (int symbol : symbolSet) {
+            symbols[s++] = symbol;
+        }
 
-                    unigram_probs.put(unigram, unigram_prob);
-                    unigram_backoff_probs.put(unigram, unigram_backoff_prob);
+        long[] bigrams = new long[bigramProbs.size()];
+        int b = 0;
+        for (long bigram : bigramProbs.keySet()) {
+            bigrams[b++] = bigram;
+        }
+        Arrays.sort(bigrams);
 
-                    if (unigram_prob < unknown_char_prob) {
-                        unknown_char_prob = unigram_prob;
-                    } // if
-                    if (unigram_prob > highest_unigram_prob) {
-                        highest_unigram_prob = unigram_prob;
-                    } //if
+        //Go through each bigram in order (most likely first) and build a
+        // table of the PREDICTED_CHARS most likely characters to follow each character.
+        List<Long> byProbability = new ArrayList<>(bigramProbs.keySet());
+        byProbability.sort(Comparator.comparing((Long bigram) -> -bigramProbs.get(bigram))
+                .thenComparing(Comparator.naturalOrder()));
+        int[] predictions = new int[symbols.length * PREDICTED_CHARS];
+        float[] predictionProbs = new float[symbols.length * PREDICTED_CHARS];
+        int[] numPredictions = new int[symbols.length];
+        Arrays.fill(predictions, NO_SYMBOL);
+        for (long bigram : byProbability) {
+            int pre = Arrays.binarySearch(symbols, (int) (bigram >>> 32));
+            if (numPredictions[pre] < PREDICTED_CHARS) {
+                int slot = pre * PREDICTED_CHARS + numPredictions[pre]++;
+                predictions[slot] = (int) bigram;
+                predictionProbs[slot] = bigramProbs.get(bigram).floatValue();
+            }
+        }
 
-                } // if
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        // the source of the model, set when compiled to a file
+        out.writeLong(0);
+        out.writeLong(0);
+        out.writeFloat((float) unknownCharProb);
+        out.writeInt(PREDICTED_CHARS);
+        out.writeInt(extraSymbols.size());
+        for (String token : extraSymbols.keySet()) {
+            out.writeInt(token.length());
+            out.writeChars(token);
+        }
+        out.writeInt(symbols.length);
+        for (int symbol : symbols) {
+            out.writeInt(symbol);
+        }
+        for (int symbol : symbols) {
+            out.writeFloat(unigramProbs.containsKey(symbol) ? unigramProbs.get(symbol).floatValue() : Float.NaN);
+        }
+        for (int symbol : symbols) {
+            out.writeFloat(backoffProbs.containsKey(symbol) ? backoffProbs.get(symbol).floatValue() : Float.NaN);
+        }
+        out.writeInt(bigrams.length);
+        for (long bigram : bigrams) {
+            out.writeLong(bigram);
+        }
+        for (long bigram : bigrams) {
+            out.writeFloat(bigramProbs.get(bigram).floatValue());
+        }
+        for (int prediction : predictions) {
+            out.writeInt(prediction);
+        }
+        for (float prob : predictionProbs) {
+            out.writeFloat(prob);
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
 
-            } else if (ngram_len == 2) {
-                Pattern bigram_p = Pattern.compile("([-0-9\\.]+)\\s*(\\S+) (\\S+)");
-                //Match line with <floating point number> <one or more chars> <one or more chars>
-                //                            |                   |                    +---- end char of bigram
-                //                            |                   +------------------------- start char of bigram
-                //                            +--------------------------------------------- bigram probability
-                Matcher match_bigram = bigram_p.matcher(strLine);
-                if (match_bigram.find()) {
-                    double bigram_prob = Double.parseDouble(match_bigram
-                            .group(1));
-                    String bigram_start = match_bigram.group(2);
-                    String bigram_end = match_bigram.group(3);
-                    String bigram = bigram_start + " " + bigram_end;
+    private static int toSymbol(String token, Map<String, Integer> extraSymbols) {
+        int symbol = getSentinelSymbol(token);
+        if (symbol != NO_SYMBOL) {
+            return symbol;
+        }
+        Integer extra = extraSymbols.get(token);
+        if (extra == null) {
+            extra = FIRST_EXTRA_SYMBOL + extraSymbols.size();
+            extraSymbols.put(token, extra);
+        }
+        return extra;
+    }
 
-                    bigram_probs.put(bigram, bigram_prob);
+    private static int getSentinelSymbol(String token) {
+        if (token.length() == 1) {
+            return token.charAt(0);
+        } else if (token.equals(START_OF_STRING)) {
+            return START_OF_STRING_SYMBOL;
+        } else if (token.equals(END_OF_STRING)) {
+            return END_OF_STRING_SYMBOL;
+        } else if (token.equals(START_NEW_WORD)) {
+            return START_NEW_WORD_SYMBOL;
+        }
+        return NO_SYMBOL;
+    }
 
-                } // if
+    private static long pack(int first, int second) {
+        return ((long) first << 32) | (second & 0xFFFFFFFFL);
+    }
 
-            } // if/else
-        } // while
-        // Close the input stream
-        in.close();
+    /**
+     * @return the symbol of a char of a string
+     */
+    public static int toSymbol(char c) {
+        return c == ' ' ? START_NEW_WORD_SYMBOL : c;
+    }
 
-        ValueComparator bvc = new ValueComparator(bigram_probs);
-        TreeMap<String, Double> sorted_bigram_probs = new TreeMap<>(
-                bvc);
+    /**
+     * @return the symbol of a unigram, or {@link #NO_SYMBOL} if it is not in the model
+     */
+    public int toSymbol(String unigram) {
+        if (unigram.equals(" ")) {
+            return START_NEW_WORD_SYMBOL;
+        }
+        int symbol = getSentinelSymbol(unigram);
+        if (symbol != NO_SYMBOL) {
+            return symbol;
+        }
+        for (int i = 0; i < extraTokens.length; i++) {
+            if (extraTokens[i].equals(unigram)) {
+                return FIRST_EXTRA_SYMBOL + i;
+            }
+        }
+        return NO_SYMBOL;
+    }
 
-        //Store bigrams sorted by probability:
-        sorted_bigram_probs.putAll(bigram_probs);
+    /**
+     * @return the unigram of a symbol
+     */
+    public String toString(int symbol) {
+        if (symbol <= Character.MAX_VALUE) {
+            return String.valueOf((char) symbol);
+        } else if (symbol == START_OF_STRING_SYMBOL) {
+            return START_OF_STRING;
+        } else if (symbol == END_OF_STRING_SYMBOL) {
+            return END_OF_STRING;
+        } else if (symbol == START_NEW_WORD_SYMBOL) {
+            return START_NEW_WORD;
+        }
+        return extraTokens[symbol - FIRST_EXTRA_SYMBOL];
+    }
 
-        // Regular expressions setup
-        Pattern context_p = Pattern.compile("(\\S+) (\\S+)");
+    /**
+     * Append the unigram of a symbol
+     */
+    public void append(StringBuilder sb, int symbol) {
+        if (symbol <= Character.MAX_VALUE) {
+            sb.append((char) symbol);
+        } else {
+            sb.append(toString(symbol));
+        }
+    }
 
-        //Go through each bigram in order (most likely first) and build a
-        // table of the predicted_chars most likely characters to follow each character.
-        for (Map.Entry<String, Double> entry : sorted_bigram_probs.entrySet()) {
-            Matcher match_context = context_p.matcher(entry.getKey());
-            if (match_context.find()) {
-                String pre = match_context.group(1);
-                String middle = match_context.group(2);
-
-                // Add to hash (do this by starting counter at 0 and then
-                // testing hash and
-                // filling first empty slot. If no empty slot found then value
-                // is not stored.
-                for (int c = 0; c < predicted_chars; c++) {
-                    String key = pre + c;
-                    if (!context_char.containsKey(key)) {
-                        context_char.put(key, middle);
-                        context_prob.put(key, entry.getValue());
-                        break;
-                    } // if
-                } // for
-            } // if
-
-        } // for
-
-        // Print out as sanity check
-        //for (Map.Entry<String, String> entry : context_char.entrySet()) {
-        // System.out.println("Key = " + entry.getKey() + ", Value = " +
-        // entry.getValue());
-        //}
-
-    } // LangModel
-
-    // Method which returns language model score for string str Splits
-    // string into bigrams and looks up the probability for each. If
-    // the bigram isn't found then backs off to use the unigram and
-    // backoff probabilities str is string for which score is
-    // computed, verbose is flag indicating whether to print out
-    // details about how this score is computed
+    private int findSymbol(int symbol) {
+        int low = 0;
+        int high = numSymbols - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int value = buffer.getInt(symbolsOffset + 4 * mid);
+            if (value < symbol) {
+                low = mid + 1;
+            } else if (value > symbol) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    private int findBigram(long bigram) {
+        int low = 0;
+        int high = numBigrams - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long value = buffer.getLong(bigramsOffset + 8 * mid);
+            if (value < bigram) {
+                low = mid + 1;
+            } else if (value > bigram) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Look up the log-probability of a bigram. If the bigram isn't in the model, its
+     * probability is estimated from the backoff probability of the first symbol and the
+     * probability of the second.
+     *
+     * @return the log10 probability of second following first
+     */
+    public double getLogProbability(int first, int second) {
+        int bigram = findBigram(pack(first, second));
+        if (bigram >= 0) {
+            return buffer.getFloat(bigramProbsOffset + 4 * bigram);
+        }
+
+        int firstIndex = findSymbol(first);
+        int secondIndex = findSymbol(second);
+        if (firstIndex >= 0 && secondIndex >= 0) {
+            float backoff = buffer.getFloat(backoffProbsOffset + 4 * firstIndex);
+            float unigram = buffer.getFloat(unigramProbsOffset + 4 * secondIndex);
+            if (!Float.isNaN(backoff) && !Float.isNaN(unigram)) {
+                return backoff + unigram;
+            }
+        }
+
+        //Note: we don't penalise strings containing weird (non-printable) characters.
+        return unknownCharProb;
+    }
 
     /**
      * Splits a string into bigrams and calculates the language model score.
@@ -218,128 +589,76 @@ public class LangModel {
      * @param verbose whether to print information
      * @return
      */
-    public double score(String str, boolean verbose) {
-
-        if (verbose == true) {
+    public double score(CharSequence str, boolean verbose) {
+        if (verbose) {
             System.out.println("String is " + str);
-        } // if
+        }
 
         double log_prob = 0;
-
-        // Get length of string
         int no_chars = str.length();
 
-        // Break string down into bigrams
-        for (int i = -1; i < (no_chars - 1); i++) {
-            String first_char;
-            String second_char;
-            if (i == -1) {
-                first_char = "<s>";
-                second_char = str.substring(0, 1);
-            } else {
-                first_char = str.substring(i, i + 1);
-                second_char = str.substring(i + 1, i + 2);
-            } // if/else
-
-            if (first_char.equals(" ")) {
-                first_char = "<w>";
-            } // if
-            if (second_char.equals(" ")) {
-                second_char = "<w>";
-            } // if
-            String bigram = first_char + " " + second_char;
-
-            if (verbose == true) {
-                System.out.println("Bigram is " + bigram);
-            } // if
-
-            // Get negative log likelihood for each bigram
-            // (Either get directly or estimate using backoff)
-            if (bigram_probs.containsKey(bigram)) {
-                // Get direct bigram probabilities
-                double bigram_prob = bigram_probs.get(bigram);
-                log_prob = log_prob + bigram_prob;
-                if (verbose == true) {
-                    System.out.println("Direct bigram prob: "
-                            + Math.pow(10, bigram_prob) + "\n");
-                } // if
-            } else if (unigram_probs.containsKey(second_char) && unigram_backoff_probs.containsKey(first_char)) {
-
-                // Otherwise split into unigrams and do backoff
-                double unigram_backoff_prob = unigram_backoff_probs
-                        .get(first_char);
-                log_prob = log_prob + unigram_backoff_prob;
-                // System.out.println("Unigram ("+first_char+") backoff prob: "+unigram_backoff_prob);
-
-
-                double unigram_prob = unigram_probs.get(second_char);
-                log_prob = log_prob + unigram_prob;
-
-                if (verbose == true) {
-                    double bigram_prob = unigram_backoff_prob + unigram_prob;
-                    System.out.println("Inferred bigram prob: "
-                            + Math.pow(10, bigram_prob)
-                            + " (formed from unigram probs " + first_char
-                            + ": " + Math.pow(10, unigram_backoff_prob)
-                            + " and " + second_char + ": "
-                            + Math.pow(10, unigram_prob) + ")\n");
-                } // if
-            } else {
-                //Note: we don't penalise strings containing weird (non-printable) characters.
-                //If we hit one (this block), just do nothing.
-                //throw new RuntimeException("Language Model can't give predictions for bigram " + bigram);
-
-                log_prob += unknown_char_prob;
-
+        int previous = START_OF_STRING_SYMBOL;
+        for (int i = 0; i < no_chars; i++) {
+            int current = toSymbol(str.charAt(i));
+            double bigram_prob = getLogProbability(previous, current);
+            if (verbose) {
+                System.out.println("Bigram is " + toString(previous) + " " + toString(current)
+                        + ", prob: " + Math.pow(10, bigram_prob) + "\n");
             }
-
-        } // for
+            log_prob += bigram_prob;
+            previous = current;
+        }
 
         // Convert log probs to probs and take geometric mean
-        //TODO: if none of the chars are accepted bigrams or unigrams this function used to return 1.0...
-        //did averaging the prob (rather than exponentiating the average log-prob) break anything?
-        double avg_prob = Math.pow(10, log_prob / ((double) no_chars));
-
-        return avg_prob;
-
-    } // score
+        return Math.pow(10, log_prob / ((double) no_chars));
+    }
 
     /**
-     * Convenience method for {@link #score(String, boolean)} with verbose flag set to false.
+     * Convenience method for {@link #score(CharSequence, boolean)} with verbose flag set to false.
      */
-    public double score(String str) {
-
+    public double score(CharSequence str) {
         return score(str, false);
-
-    } // score
+    }
 
     /**
-     * @return the nth most likely character to follow pre
+     * @return the nth most likely symbol to follow the previous one, or {@link #NO_SYMBOL}
      */
-    public String predict_char(String pre, int n) {
-
-        if (pre.equals(" ")) {
-            pre = "<w>";
+    public int predictSymbol(int previous, int n) {
+        if (n < 0 || n >= predictedChars) {
+            return NO_SYMBOL;
         }
+        int index = findSymbol(previous);
+        if (index < 0) {
+            return NO_SYMBOL;
+        }
+        return buffer.getInt(predictionsOffset + 4 * (index * predictedChars + n));
+    }
 
-        String key = pre + n;
-
-        if (n < 0 || n > predicted_chars) {
-            return null;
-        } else {
-            return context_char.get(key);
-        } // if/else
+    /**
+     * @return the probability of the nth most likely symbol to follow the previous one
+     */
+    public double predictSymbolProbability(int previous, int n) {
+        if (predictSymbol(previous, n) == NO_SYMBOL) {
+            return 0.0;
+        }
+        int index = findSymbol(previous);
+        return Math.pow(10, buffer.getFloat(predictionProbsOffset + 4 * (index * predictedChars + n)));
+    }
 
-    } // predict_char
+    /**
+     * @return the nth most likely character to follow pre
+     */
+    public String predict_char(String pre, int n) {
+        int symbol = predictSymbol(toSymbol(pre), n);
+        return symbol == NO_SYMBOL ? null : toString(symbol);
+    }
 
     /**
      * @return the nth most likely character that a string will start with
      */
     public String predict_char(int n) {
-
-        return predict_char("<s>", n);
-
-    } // predict_char
+        return predict_char(START_OF_STRING, n);
+    }
 
     /**
      * Method which returns the probability of the nth most likely character, given a
@@ -348,26 +667,8 @@ public class LangModel {
      * @return the probability of the nth character that is most likely to appear
      */
     public double predict_char_prob(String pre, int n) {
-
-        if (n < 0 || n > predicted_chars) {
-            return 0;
-        }
-
-        if (pre.equals(" ")) {
-            pre = "<w>";
-        }
-
-        String key = pre + n;
-        Double prob = context_prob.get(key);
-
-        if (prob != null) {
-            prob = Math.pow(10, prob);
-            return prob;
-        } // if
-
-        return 0.0;
-
-    } // predict_char_prob
+        return predictSymbolProbability(toSymbol(pre), n);
+    }
 
     /**
      * Method which returns the probability of the nth most likley character at
@@ -377,13 +678,10 @@ public class LangModel {
      * @return the probability associated with the nth most likely character to start a sentence
      */
     public double predict_char_prob(int n) {
-
-        return predict_char_prob("<s>", n);
-
-    } // predict_char_prob
+        return predict_char_prob(START_OF_STRING, n);
+    }
 
     public boolean isMagicChar(String character) {
-
         return character.equals(START_NEW_WORD) || character.equals(END_OF_STRING) || character.equals(START_OF_STRING);
     }
 
@@ -391,34 +689,8 @@ public class LangModel {
         return character.equals(END_OF_STRING);
     }
 
-
-} // LangModel
-
-/**
- * Compares values based on their values in an associated Map.
- */
-class ValueComparator implements Comparator<String> {
-
-    Map<String, Double> base;
-
-    /**
-     * Create a new comparator using a mapping of probabilities.
-     * The comparator will use the attached probabilities to return the
-     * ordering for two Strings.
-     *
-     * @param base a mapping of probabilities for strings.
-     */
-    public ValueComparator(Map<String, Double> base) {
-        this.base = base;
+    public static boolean isMagicSymbol(int symbol) {
+        return symbol == START_NEW_WORD_SYMBOL || symbol == END_OF_STRING_SYMBOL || symbol == START_OF_STRING_SYMBOL;
     }
 
-    // Note: this comparator imposes orderings that are inconsistent with
-    // equals.
-    public int compare(String a, String b) {
-        if (base.get(a) >= base.get(b)) {
-            return -1;
-        } else {
-            return 1;
-        } // returning 0 would merge keys
-    }
-}
\ No newline at end of file
+} // LangModel
@@ -26,10 +26,7 @@ import org.evosuite.utils.Randomness;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.Arrays;
 import java.util.Comparator;
-import java.util.HashSet;
-import java.util.Set;
 
 /**
  * Created by mat on 07/04/2014.
@@ -54,10 +51,15 @@ public abstract class LanguageModelSearch implements Comparator<Chromosome> {
 
     private int evaluations = 0;
 
+    /**
+     * The ranks of the predictions not yet tried for the next character
+     */
+    private final int[] choices = new int[10];
+
 
     public LanguageModelSearch(ValueMinimizer.Minimization objective, ConstantValue constantValue) {
         try {
-            this.languageModel = new LangModel(Properties.LM_SRC);
+            this.languageModel = LangModel.getInstance();
         } catch (Exception e) {
             //FIXME: remove this garbage
             throw new RuntimeException("Couldn't create language model");
@@ -131,62 +133,80 @@ public abstract class LanguageModelSearch implements Comparator<Chromosome> {
      * Build a random string that is at most maxStringLength characters long.
      */
     public String generateRandomStringFromModel(int maxStringLength, String previousChar) {
-        //Start the string with a random choice from the 10 most likely characters to start a string:
-
+        StringBuilder newString = new StringBuilder(maxStringLength);
+        appendRandomStringFromModel(newString, maxStringLength, toSymbol(previousChar));
+        return newString.toString();
+    }
 
-        String newString = "";
+    private int toSymbol(String previousChar) {
+        return previousChar == null ? LangModel.START_OF_STRING_SYMBOL : languageModel.toSymbol(previousChar);
+    }
 
+    /**
+     * Append random characters from the model, until maxStringLength characters were appended
+     * or the end of the sentence is reached.
+     *
+     * @return the last symbol chosen
+     */
+    private int appendRandomStringFromModel(StringBuilder newString, int maxStringLength, int previous) {
+        //Start the string with a random choice from the 10 most likely characters to start a string:
+        final int start = newString.length();
 
         do {
+            for (int i = 0; i < choices.length; i++) {
+                choices[i] = i;
+            }
+            int numChoices = choices.length;
 
-            Set<Integer> choices = new HashSet<>(Arrays.asList(0, 1, 2, 3, 4, 5, 6, 7, 8, 9));
-
-            boolean foundValidChar = false;
-            String nextChar;
+            boolean foundValidChar;
+            int next;
 
             do {
-                int currentChoice = Randomness.choice(choices);
+                int position = Randomness.nextInt(numChoices);
+                int currentChoice = choices[position];
 
-                choices.remove(currentChoice);
+                numChoices--;
+                System.arraycopy(choices, position + 1, choices, position, numChoices - position);
 
-                if (previousChar == null) {
-                    nextChar = languageModel.predict_char(currentChoice);
-                } else {
-                    nextChar = languageModel.predict_char(previousChar, currentChoice);
-                }
+                next = languageModel.predictSymbol(previous, currentChoice);
 
-                foundValidChar = nextChar != null && !languageModel.isMagicChar(nextChar);
+                foundValidChar = next != LangModel.NO_SYMBOL && !LangModel.isMagicSymbol(next);
 
-            } while (!choices.isEmpty() && !foundValidChar);
+            } while (numChoices > 0 && !foundValidChar);
             //We keep trying until we get an actual char, or we run out of slots. After that, we give up and
             //reuse the input.
 
             if (!foundValidChar) {
-                logger.debug("Couldn't find any bigram or unigram for " + previousChar);
-                nextChar = "a"; //TODO: this is a kludge
+                logger.debug("Couldn't find any bigram or unigram for symbol {}", previous);
+                next = 'a'; //TODO: this is a kludge
             }
 
+            if (next != LangModel.END_OF_STRING_SYMBOL)
+                languageModel.append(newString, next);
 
-            if (!languageModel.isEndOfSentence(nextChar))
-                newString += nextChar;
+            previous = next;
 
-            previousChar = nextChar;
+        } while (newString.length() - start < maxStringLength && previous != LangModel.END_OF_STRING_SYMBOL);
 
-        } while (newString.length() < maxStringLength && !languageModel.isEndOfSentence(previousChar));
-
-        return newString;
+        return previous;
     }
 
     public String generateRandomStringFromModelWithExactLength(int targetStringLength, String previousChar) {
-        String newString = generateRandomStringFromModel(targetStringLength, previousChar);
+        StringBuilder newString = new StringBuilder(targetStringLength);
+        appendRandomStringFromModelWithExactLength(newString, targetStringLength, toSymbol(previousChar));
+        return newString.toString();
+    }
 
-        while (newString.length() < targetStringLength) {
-            newString += generateRandomStringFromModel(targetStringLength - newString.length(), newString.charAt(newString.length() - 1) + "");
-        }
+    private void appendRandomStringFromModelWithExactLength(StringBuilder newString, int targetStringLength, int previous) {
+        final int start = newString.length();
+        appendRandomStringFromModel(newString, targetStringLength, previous);
 
-        assert newString.length() == targetStringLength;
+        while (newString.length() - start < targetStringLength) {
+            appendRandomStringFromModel(newString, targetStringLength - (newString.length() - start),
+                    LangModel.toSymbol(newString.charAt(newString.length() - 1)));
+        }
 
-        return newString;
+        assert newString.length() - start == targetStringLength;
     }
 
     public String generateRandomStringFromModelWithExactLength(int targetStringLength) {
@@ -231,15 +251,15 @@ public abstract class LanguageModelSearch implements Comparator<Chromosome> {
         //substring is start (inclusive) to end (exclusive).
         //e.g. if startPoint is 3
         // output = "abc" at this point
-        String output = input.substring(0, startPoint);
+        StringBuilder output = new StringBuilder(input.length());
+        output.append(input, 0, startPoint);
 
-        String replacementChunk = generateRandomStringFromModelWithExactLength(remainingLength, "" + input.charAt(startPoint));
+        appendRandomStringFromModelWithExactLength(output, remainingLength,
+                LangModel.toSymbol(input.charAt(startPoint)));
 
+        output.append(input, startPoint + remainingLength, input.length());
 
-        output += replacementChunk;
-        output += input.substring(startPoint + remainingLength);
-
-        return output;
+        return output.toString();
 
     }
 
@@ -19,7 +19,6 @@
  */
 package org.evosuite.lm;
 
-import org.evosuite.Properties;
 import org.evosuite.coverage.branch.BranchCoverageSuiteFitness;
 import org.evosuite.testsuite.TestSuiteChromosome;
 import org.evosuite.testsuite.TestSuiteFitnessFunction;
@@ -39,7 +38,7 @@ public class LanguageModelSuiteFitness extends TestSuiteFitnessFunction {
     public LanguageModelSuiteFitness() {
         backingFitness = new BranchCoverageSuiteFitness();
         try {
-            languageModel = new LangModel(Properties.LM_SRC);
+            languageModel = LangModel.getInstance();
         } catch (IOException e) {
             //TODO: what's the policy for showstopper exceptions?
             throw new RuntimeException("Language Model failed to initialise");
@@ -19,7 +19,6 @@
  */
 package org.evosuite.lm;
 
-import org.evosuite.Properties;
 import org.evosuite.testcase.ValueMinimizer;
 import org.evosuite.testcase.variable.ConstantValue;
 
@@ -47,7 +46,7 @@ public class StringLMOptimizer {
         this.originalString = (String) constantValue.getValue();
 
         try {
-            languageModel = new LangModel(Properties.LM_SRC);
+            languageModel = LangModel.getInstance();
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
@@ -22,6 +22,7 @@ package org.evosuite.novelty;
 import org.evosuite.TestGenerationContext;
 import org.evosuite.coverage.branch.Branch;
 import org.evosuite.coverage.branch.BranchPool;
+import org.evosuite.ga.FitnessFunction;
 import org.evosuite.ga.NoveltyFunction;
 import org.evosuite.testcase.TestCase;
 import org.evosuite.testcase.TestChromosome;
@@ -31,24 +32,39 @@ import org.evosuite.testcase.execution.TestCaseExecutor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.LinkedHashSet;
-import java.util.Set;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
+/**
+ * Describes the behaviour of a test by its distance to the true side of each branch
+ * of the CUT, and by which branchless methods it covers.
+ */
 public class BranchNoveltyFunction extends NoveltyFunction<TestChromosome> {
 
     private static final Logger logger = LoggerFactory.getLogger(BranchNoveltyFunction.class);
 
-    private final Set<Integer> branches = new LinkedHashSet<>();
+    /**
+     * Position in the behaviour descriptors of each branch
+     */
+    private final Map<Integer, Integer> branches = new LinkedHashMap<>();
 
-    private final Set<String> branchlessMethods = new LinkedHashSet<>();
+    /**
+     * Position in the behaviour descriptors of each branchless method
+     */
+    private final Map<String, Integer> branchlessMethods = new LinkedHashMap<>();
 
     public BranchNoveltyFunction() {
         for (Branch branch : BranchPool.getInstance(TestGenerationContext.getInstance().getClassLoaderForSUT()).getAllBranches()) {
-            if (!branch.isInstrumented()) {
-                branches.add(branch.getActualBranchId());
+            if (!branch.isInstrumented() && !branches.containsKey(branch.getActualBranchId())) {
+                branches.put(branch.getActualBranchId(), branches.size());
+            }
+        }
+        for (String method : BranchPool.getInstance(TestGenerationContext.getInstance().getClassLoaderForSUT()).getBranchlessMethods()) {
+            if (!branchlessMethods.containsKey(method)) {
+                branchlessMethods.put(method, branches.size() + branchlessMethods.size());
             }
         }
-        branchlessMethods.addAll(BranchPool.getInstance(TestGenerationContext.getInstance().getClassLoaderForSUT()).getBranchlessMethods());
         logger.warn("Number of branches: " + branches.size() + " branches and " + branchlessMethods.size() + " branchless methods");
     }
 
@@ -66,40 +82,37 @@ public class BranchNoveltyFunction extends NoveltyFunction<TestChromosome> {
         return individual.getLastExecutionResult();
     }
 
-
+    /**
+     * For each branch, its normalized true distance, or 1 if it was not reached.
+     * For each branchless method, 1 if it was covered, 0 otherwise.
+     */
     @Override
-    public double getDistance(TestChromosome individual1, TestChromosome individual2) {
-        ExecutionResult result1 = getExecutionResult(individual1);
-        ExecutionResult result2 = getExecutionResult(individual2);
+    public double[] getBehaviour(TestChromosome individual) {
+        ExecutionTrace trace = getExecutionResult(individual).getTrace();
 
-        ExecutionTrace trace1 = result1.getTrace();
-        ExecutionTrace trace2 = result2.getTrace();
+        double[] behaviour = new double[branches.size() + branchlessMethods.size()];
+        Arrays.fill(behaviour, 0, branches.size(), 1.0);
 
-        double difference = 0.0;
-
-        for (Integer branch : branches) {
-            if (trace1.hasTrueDistance(branch) && trace2.hasTrueDistance(branch)) {
-                double distance1 = trace1.getTrueDistance(branch);
-                double distance2 = trace2.getTrueDistance(branch);
-
-                difference += Math.abs(distance1 - distance2);
-
-            } else if (trace1.hasTrueDistance(branch) || trace2.hasTrueDistance(branch)) {
-                difference += 1.0;
+        for (Map.Entry<Integer, Double> entry : trace.getTrueDistances().entrySet()) {
+            Integer position = branches.get(entry.getKey());
+            if (position != null) {
+                behaviour[position] = FitnessFunction.normalize(entry.getValue());
             }
         }
 
-        Set<String> methods1 = trace1.getCoveredBranchlessMethods();
-        Set<String> methods2 = trace2.getCoveredBranchlessMethods();
-        for (String branchlessMethod : branchlessMethods) {
-            if (methods1.contains(branchlessMethod) != methods2.contains(branchlessMethod)) {
-                difference += 1.0;
+        for (String method : trace.getCoveredBranchlessMethods()) {
+            Integer position = branchlessMethods.get(method);
+            if (position != null) {
+                behaviour[position] = 1.0;
             }
         }
 
-        difference /= (branches.size() + branchlessMethods.size());
+        return behaviour;
+    }
 
-        return difference;
+    @Override
+    public double getDistance(TestChromosome individual1, TestChromosome individual2) {
+        return getDistance(getBehaviour(individual1), getBehaviour(individual2));
     }
 
 }
@@ -0,0 +1,232 @@
+/**
+ * Copyright (C) 2010-2018 Gordon Fraser, Andrea Arcuri and EvoSuite
+ * contributors
+ * <p>
+ * This file is part of EvoSuite.
+ * <p>
+ * EvoSuite is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ * <p>
+ * EvoSuite is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with EvoSuite. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.evosuite.novelty;
+
+import org.evosuite.ga.NoveltyFunction;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Vantage-point tree over behaviour descriptors, to find the nearest neighbours of a
+ * descriptor without computing its distance to all the others.
+ *
+ * <p>
+ * Each node splits its points with the median of their distances to a vantage point, and
+ * the triangle inequality of {@link NoveltyFunction#getDistance(double[], double[])} allows
+ * to skip the subtrees that cannot contain a closer neighbour. The tree is immutable, and
+ * so it can be queried by several threads.
+ */
+public class VantagePointTree {
+
+    private final double[][] points;
+
+    /**
+     * Indices of the points, in tree order: the vantage point of the subtree [lo, hi) is
+     * at lo, the points closer than its threshold are in [lo + 1, split[lo]), the others
+     * in [split[lo], hi)
+     */
+    private final int[] order;
+
+    private final int[] split;
+
+    private final double[] threshold;
+
+    public VantagePointTree(List<double[]> points) {
+        this.points = points.toArray(new double[0][]);
+        this.order = new int[this.points.length];
+        this.split = new int[this.points.length];
+        this.threshold = new double[this.points.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        build(0, order.length, new double[order.length]);
+    }
+
+    public int size() {
+        return points.length;
+    }
+
+    /**
+     * @param query   a descriptor
+     * @param k       max number of neighbours
+     * @param exclude index, in the list the tree was built with, of a point to ignore
+     *                (eg the query itself), or -1
+     * @return the distances to the (at most) k nearest points, in increasing order
+     */
+    public double[] getNearestDistances(double[] query, int k, int exclude) {
+        Neighbours neighbours = new Neighbours(k);
+        if (k > 0) {
+            search(0, order.length, query, exclude, neighbours);
+        }
+        return neighbours.sorted();
+    }
+
+    private void build(int lo, int hi, double[] distances) {
+        if (hi - lo <= 1) {
+            return;
+        }
+        double[] vantagePoint = points[order[lo]];
+        for (int i = lo + 1; i < hi; i++) {
+            distances[i] = NoveltyFunction.getDistance(vantagePoint, points[order[i]]);
+        }
+
+        int mid = (lo + 1 + hi) / 2;
+        select(lo + 1, hi, mid, distances);
+        split[lo] = mid;
+        threshold[lo] = distances[mid];
+
+        build(lo + 1, mid, distances);
+        build(mid, hi, distances);
+    }
+
+    /**
+     * Partially sort [lo, hi) by distance, so that position k has its final value,
+     * with no greater distance before it and no smaller one after it
+     */
+    private void select(int lo, int hi, int k, double[] distances) {
+        int left = lo;
+        int right = hi - 1;
+        while (left < right) {
+            double pivot = distances[(left + right) >>> 1];
+            int i = left;
+            int j = right;
+            while (i <= j) {
+                while (distances[i] < pivot) {
+                    i++;
+                }
+                while (distances[j] > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    swap(i, j, distances);
+                    i++;
+                    j--;
+                }
+            }
+            if (k <= j) {
+                right = j;
+            } else if (k >= i) {
+                left = i;
+            } else {
+                break;
+            }
+        }
+    }
+
+    private void swap(int i, int j, double[] distances) {
+        int index = order[i];
+        order[i] = order[j];
+        order[j] = index;
+        double distance = distances[i];
+        distances[i] = distances[j];
+        distances[j] = distance;
+    }
+
+    private void search(int lo, int hi, double[] query, int exclude, Neighbours neighbours) {
+        if (lo >= hi) {
+            return;
+        }
+        double distance = NoveltyFunction.getDistance(query, points[order[lo]]);
+        if (order[lo] != exclude) {
+            neighbours.offer(distance);
+        }
+        if (hi - lo == 1) {
+            return;
+        }
+
+        int mid = split[lo];
+        double t = threshold[lo];
+        if (distance < t) {
+            search(lo + 1, mid, query, exclude, neighbours);
+            if (distance + neighbours.radius() >= t) {
+                search(mid, hi, query, exclude, neighbours);
+            }
+        } else {
+            search(mid, hi, query, exclude, neighbours);
+            if (distance - neighbours.radius() <= t) {
+                search(lo + 1, mid, query, exclude, neighbours);
+            }
+        }
+    }
+
+    /**
+     * Bounded max-heap of the smallest distances found so far
+     */
+    private static class Neighbours {
+
+        private final double[] heap;
+
+        private int size = 0;
+
+        Neighbours(int k) {
+            heap = new double[k];
+        }
+
+        /**
+         * @return the distance within which a point has to be to improve the neighbours
+         */
+        double radius() {
+            return size < heap.length ? Double.POSITIVE_INFINITY : heap[0];
+        }
+
+        void offer(double distance) {
+            if (size < heap.length) {
+                int i = size++;
+                heap[i] = distance;
+                while (i > 0 && heap[(i - 1) / 2] < heap[i]) {
+                    swap(i, (i - 1) / 2);
+                    i = (i - 1) / 2;
+                }
+            } else if (distance < heap[0]) {
+                heap[0] = distance;
+                int i = 0;
+                while (true) {
+                    int largest = i;
+                    int left = 2 * i + 1;
+                    int right = left + 1;
+                    if (left < size && heap[left] > heap[largest]) {
+                        largest = left;
+                    }
+                    if (right < size && heap[right] > heap[largest]) {
+                        largest = right;
+                    }
+                    if (largest == i) {
+                        break;
+                    }
+                    swap(i, largest);
+                    i = largest;
+                }
+            }
+        }
+
+        private void swap(int i, int j) {
+            double tmp = heap[i];
+            heap[i] = heap[j];
+            heap[j] = tmp;
+        }
+
+        double[] sorted() {
+            double[] distances = Arrays.copyOf(heap, size);
+            Arrays.sort(distances);
+            return distances;
+        }
+    }
+}
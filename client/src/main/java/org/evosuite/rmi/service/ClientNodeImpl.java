@@ -34,6 +34,7 @@ import org.evosuite.runtime.sandbox.Sandbox;
 import org.evosuite.setup.DependencyAnalysis;
 import org.evosuite.setup.TestCluster;
 import org.evosuite.statistics.RuntimeVariable;
+import org.evosuite.statistics.Telemetry;
 import org.evosuite.utils.FileIOUtils;
 import org.evosuite.utils.Listener;
 import org.evosuite.utils.LoggingUtils;
@@ -45,6 +46,8 @@ import java.rmi.RemoteException;
 import java.rmi.registry.Registry;
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 public class ClientNodeImpl<T extends Chromosome<T>>
         implements ClientNodeLocal<T>, ClientNodeRemote<T> {
@@ -52,6 +55,12 @@ public class ClientNodeImpl<T extends Chromosome<T>>
     private static final Logger logger = LoggerFactory.getLogger(ClientNodeImpl.class);
     private static final long serialVersionUID = 485858845631346580L;
 
+    /**
+     * Max milliseconds a reused client waits for master to start a search on another class,
+     * before finishing
+     */
+    private static final long REUSE_IDLE_TIMEOUT = 60_000;
+
     /**
      * The current state/phase in which this client process is (eg, search or assertion generation)
      */
@@ -77,6 +86,24 @@ public class ClientNodeImpl<T extends Chromosome<T>>
      */
     protected volatile CountDownLatch finishedLatch;
 
+    /**
+     * A latch used to wait till the current search is done, if the client is reused for
+     * several classes
+     */
+    protected volatile CountDownLatch searchLatch;
+
+    /**
+     * Whether the client is kept alive once its search is done, to generate tests for another class
+     */
+    private volatile boolean reusable = false;
+
+    private volatile long doneTime;
+
+    /**
+     * Number of output variables not sent to master yet
+     */
+    private final AtomicInteger unsentOutputVariables = new AtomicInteger(0);
+
 
     protected Registry registry;
 
@@ -91,6 +118,22 @@ public class ClientNodeImpl<T extends Chromosome<T>>
 
     private Thread statisticsThread;
 
+    /**
+     * Sends the telemetry and the progress of the search to master, if telemetry is enabled
+     */
+    private Thread telemetryThread;
+
+    /**
+     * Latest progress of the current state not yet sent to master. With telemetry enabled,
+     * progress updates are sent with the telemetry rather than on the search thread
+     */
+    private final AtomicReference<ClientStateInformation> pendingProgress = new AtomicReference<>();
+
+    /**
+     * Keeps progress updates from being sent after the change of state that makes them stale
+     */
+    private final Object progressLock = new Object();
+
     //only for testing
     protected ClientNodeImpl() {
     }
@@ -101,6 +144,7 @@ public class ClientNodeImpl<T extends Chromosome<T>>
         clientRmiIdentifier = identifier;
         doneLatch = new CountDownLatch(1);
         finishedLatch = new CountDownLatch(1);
+        searchLatch = new CountDownLatch(1);
         this.bestSolutions = Collections.synchronizedList(new ArrayList<>(Properties.NUM_PARALLEL_CLIENTS));
     }
 
@@ -151,6 +195,10 @@ public class ClientNodeImpl<T extends Chromosome<T>>
                         + Properties.TARGET_CLASS + ": " + t));
             }
 
+            if (reusable) {
+                // master writes the statistics of the class as soon as the search is done
+                waitForOutputVariables();
+            }
             changeState(ClientState.DONE);
 
             if (Properties.SANDBOX) {
@@ -172,6 +220,68 @@ public class ClientNodeImpl<T extends Chromosome<T>>
         });
     }
 
+    @Override
+    public boolean startNextSearch(String targetClass) throws RemoteException {
+        doneTime = System.currentTimeMillis();
+        if (!state.equals(ClientState.NOT_STARTED)) {
+            if (!state.equals(ClientState.DONE)) {
+                throw new IllegalStateException("Search has not finished yet");
+            }
+
+            // on the search thread, once the previous search has been fully wrapped up
+            Future<Boolean> reset = searchExecutor.submit(() -> {
+                ClientProcess.resetForNextClass(targetClass);
+                System.gc();
+                Runtime runtime = Runtime.getRuntime();
+                long used = runtime.totalMemory() - runtime.freeMemory();
+                if (used > Properties.CLIENT_REUSE_MAX_HEAP * runtime.maxMemory()) {
+                    logger.warn(ClientProcess.getPrettyPrintIdentifier() + (used / 1024 / 1024)
+                            + "MB of memory still in use after the reset, the client cannot be reused");
+                    return false;
+                }
+                return true;
+            });
+            try {
+                if (!reset.get()) {
+                    return false;
+                }
+            } catch (InterruptedException | ExecutionException e) {
+                logger.error("Cannot reset the client for " + targetClass, e);
+                return false;
+            }
+            state = ClientState.NOT_STARTED;
+        }
+
+        reusable = true;
+        searchLatch = new CountDownLatch(1);
+        startNewSearch();
+        return true;
+    }
+
+    @Override
+    public boolean waitUntilSearchDone(long timeoutInMs) throws RemoteException, InterruptedException {
+        return searchLatch.await(timeoutInMs, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void release() throws RemoteException {
+        reusable = false;
+        if (state.equals(ClientState.DONE)) {
+            doneLatch.countDown();
+        }
+    }
+
+    private void waitForOutputVariables() {
+        long end = System.currentTimeMillis() + 10_000;
+        try {
+            while (unsentOutputVariables.get() > 0 && System.currentTimeMillis() < end) {
+                Thread.sleep(10);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
     @Override
     public void cancelCurrentSearch() throws RemoteException {
         if (this.state == ClientState.INITIALIZATION) {
@@ -188,7 +298,13 @@ public class ClientNodeImpl<T extends Chromosome<T>>
     @Override
     public void waitUntilDone() {
         try {
-            doneLatch.await();
+            while (!doneLatch.await(1, TimeUnit.SECONDS)) {
+                if (reusable && state.equals(ClientState.DONE)
+                        && System.currentTimeMillis() - doneTime > REUSE_IDLE_TIMEOUT) {
+                    logger.warn(ClientProcess.getPrettyPrintIdentifier() + "No new search started by master, finishing");
+                    return;
+                }
+            }
         } catch (InterruptedException ignored) {
         }
     }
@@ -224,18 +340,30 @@ public class ClientNodeImpl<T extends Chromosome<T>>
             logger.info(ClientProcess.getPrettyPrintIdentifier() + "Client changing state from " + this.state + " to " + state);
         }
 
+        if (telemetryThread != null && this.state == state) {
+            pendingProgress.set(information);
+            return;
+        }
+
         this.state = state;
 
         TimeController.getInstance().updateState(state);
 
-        try {
-            masterNode.evosuite_informChangeOfStateInClient(clientRmiIdentifier, state, information);
-        } catch (RemoteException e) {
-            logger.error("Cannot inform master of change of state", e);
+        synchronized (progressLock) {
+            pendingProgress.set(null);
+            try {
+                masterNode.evosuite_informChangeOfStateInClient(clientRmiIdentifier, state, information);
+            } catch (RemoteException e) {
+                logger.error("Cannot inform master of change of state", e);
+            }
         }
 
         if (this.state.equals(ClientState.DONE)) {
-            doneLatch.countDown();
+            doneTime = System.currentTimeMillis();
+            searchLatch.countDown();
+            if (!reusable) {
+                doneLatch.countDown();
+            }
         }
 
         if (this.state.equals(ClientState.FINISHED)) {
@@ -285,6 +413,7 @@ public class ClientNodeImpl<T extends Chromosome<T>>
          * As this code might be called from unsafe blocks, we just put the values
          * on a queue, and have a privileged thread doing the RMI connection to master
          */
+        unsentOutputVariables.incrementAndGet();
         outputVariableQueue.offer(new OutputVariable(variable, value));
     }
 
@@ -330,7 +459,36 @@ public class ClientNodeImpl<T extends Chromosome<T>>
 
     }
 
+    private void sendProgressAndTelemetry() {
+        synchronized (progressLock) {
+            ClientStateInformation information = pendingProgress.getAndSet(null);
+            if (information != null) {
+                try {
+                    masterNode.evosuite_informChangeOfStateInClient(clientRmiIdentifier, information.getState(), information);
+                } catch (RemoteException e) {
+                    logger.error("Cannot inform master of the progress", e);
+                }
+            }
+        }
+        try {
+            masterNode.evosuite_collectTelemetry(clientRmiIdentifier, Telemetry.snapshot().toBytes());
+        } catch (RemoteException e) {
+            logger.error("Cannot send telemetry to master", e);
+        }
+    }
+
     public void stop() {
+        if (telemetryThread != null) {
+            telemetryThread.interrupt();
+            try {
+                telemetryThread.join(3000);
+            } catch (InterruptedException e) {
+                logger.error("Failed to stop telemetryThread in time");
+            }
+            telemetryThread = null;
+            sendProgressAndTelemetry();
+        }
+
         if (statisticsThread != null) {
             statisticsThread.interrupt();
             List<OutputVariable> vars = new ArrayList<>();
@@ -376,6 +534,10 @@ public class ClientNodeImpl<T extends Chromosome<T>>
                         } catch (RemoteException e) {
                             logger.error("Error when exporting statistics: " + ov.variable + "=" + ov.value, e);
                             break;
+                        } finally {
+                            if (ov != null) {
+                                unsentOutputVariables.decrementAndGet();
+                            }
                         }
                     }
                 }
@@ -384,6 +546,23 @@ public class ClientNodeImpl<T extends Chromosome<T>>
             Sandbox.addPrivilegedThread(statisticsThread);
             statisticsThread.start();
 
+            if (Telemetry.isEnabled()) {
+                telemetryThread = new Thread(() -> {
+                    while (!Thread.currentThread().isInterrupted()) {
+                        try {
+                            Thread.sleep(Properties.TELEMETRY_INTERVAL);
+                        } catch (InterruptedException e) {
+                            break;
+                        }
+                        sendProgressAndTelemetry();
+                    }
+                });
+                telemetryThread.setName("Telemetry sender in client process");
+                telemetryThread.setDaemon(true);
+                Sandbox.addPrivilegedThread(telemetryThread);
+                telemetryThread.start();
+            }
+
         } catch (Exception e) {
             logger.error("Error when connecting to master via RMI", e);
             return false;
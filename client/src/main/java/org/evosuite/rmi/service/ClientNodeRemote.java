@@ -37,6 +37,35 @@ public interface ClientNodeRemote<T extends Chromosome<T>> extends Remote {
 
     void cancelCurrentSearch() throws RemoteException;
 
+    /**
+     * Start a search on the given class, keeping the client alive once the search is done
+     * until {@link #release()} is called. If the client already generated tests for another
+     * class, it is reset first.
+     *
+     * @param targetClass the class under test
+     * @return <code>false</code> if the client cannot be reused, e.g. because too much
+     * memory is still in use after the reset, in which case no search is started
+     * @throws RemoteException
+     */
+    boolean startNextSearch(String targetClass) throws RemoteException;
+
+    /**
+     * @param timeoutInMs maximum amount of time we can wait for the search to be done
+     * @return <code>true</code> if the search is done, and its output variables sent to master
+     * @throws RemoteException
+     * @throws InterruptedException
+     */
+    boolean waitUntilSearchDone(long timeoutInMs) throws RemoteException,
+            InterruptedException;
+
+    /**
+     * Let a client started with {@link #startNextSearch(String)} finish once its
+     * current search is done
+     *
+     * @throws RemoteException
+     */
+    void release() throws RemoteException;
+
     /**
      * @param timeoutInMs maximum amount of time we can wait for the client to finish
      * @return <code>true</code> if client is finished
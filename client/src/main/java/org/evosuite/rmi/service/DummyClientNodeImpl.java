@@ -81,6 +81,21 @@ public class DummyClientNodeImpl<T extends Chromosome<T>> extends ClientNodeImpl
 
     }
 
+    @Override
+    public boolean startNextSearch(String targetClass) throws RemoteException {
+        return false;
+    }
+
+    @Override
+    public boolean waitUntilSearchDone(long timeoutInMs) throws RemoteException,
+            InterruptedException {
+        return false;
+    }
+
+    @Override
+    public void release() throws RemoteException {
+    }
+
     @Override
     public void cancelCurrentSearch() throws RemoteException {
         // TODO Auto-generated method stub
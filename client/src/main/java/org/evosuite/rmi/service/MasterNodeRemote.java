@@ -51,6 +51,11 @@ public interface MasterNodeRemote extends Remote {
 
     void evosuite_collectStatistics(String clientRmiIdentifier, RuntimeVariable variable, Object value) throws RemoteException;
 
+    /**
+     * @param telemetryBatch a {@link org.evosuite.statistics.TelemetryBatch} in binary form
+     */
+    void evosuite_collectTelemetry(String clientRmiIdentifier, byte[] telemetryBatch) throws RemoteException;
+
     void evosuite_collectTestGenerationResult(String clientRmiIdentifier, List<TestGenerationResult> results) throws RemoteException;
 
     void evosuite_flushStatisticsForClassChange(String clientRmiIdentifier) throws RemoteException;
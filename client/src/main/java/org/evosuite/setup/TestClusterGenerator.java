@@ -53,6 +53,9 @@ import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.*;
 import java.util.Map.Entry;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 /**
  * @author Gordon Fraser
@@ -75,6 +78,8 @@ public class TestClusterGenerator {
 
     private final Set<Class<?>> analyzedClasses = new LinkedHashSet<>();
 
+    private final Set<Class<?>> prefetchedClasses = new HashSet<>();
+
     private final InheritanceTree inheritanceTree;
 
     // -------- public methods -----------------
@@ -283,9 +288,41 @@ public class TestClusterGenerator {
      */
     private void resolveDependencies(Set<String> blackList) {
 
+        ExecutorService prefetcher = null;
+        if (Properties.CLUSTER_THREADS > 1) {
+            prefetcher = Executors.newFixedThreadPool(Properties.CLUSTER_THREADS - 1, r -> {
+                Thread thread = new Thread(r, "TestClusterPrefetcher");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        ClassLoader loader = TestGenerationContext.getInstance().getClassLoaderForSUT();
+
+        try {
+            resolveDependencies(blackList, prefetcher, loader);
+        } finally {
+            if (prefetcher != null) {
+                prefetcher.shutdownNow();
+                try {
+                    // no class must be loaded in the background once the cluster is built
+                    if (!prefetcher.awaitTermination(1, TimeUnit.MINUTES))
+                        logger.warn("Test cluster prefetching threads did not terminate");
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+
+    private void resolveDependencies(Set<String> blackList, ExecutorService prefetcher, ClassLoader loader) {
+
         while (!dependencies.isEmpty() && TimeController.getInstance().isThereStillTimeInThisPhase()) {
             logger.debug("Dependencies left: {}", dependencies.size());
 
+            if (prefetcher != null) {
+                prefetchDependencies(prefetcher, blackList);
+            }
+
             Iterator<DependencyPair> iterator = dependencies.iterator();
             DependencyPair dependency = iterator.next();
             iterator.remove();
@@ -309,7 +346,15 @@ public class TestClusterGenerator {
              * addDependencyClass(copy, dependency.getRecursion()); if (success)
              * added = true; } } else
              */
-            added = addDependencyClass(dependency.getDependencyClass(), dependency.getRecursion());
+            if (prefetcher != null) {
+                // The instrumentation of the classes loaded by the prefetching threads holds the
+                // lock of the class loader, and must not interleave with the analysis of a class
+                synchronized (loader) {
+                    added = addDependencyClass(dependency.getDependencyClass(), dependency.getRecursion());
+                }
+            } else {
+                added = addDependencyClass(dependency.getDependencyClass(), dependency.getRecursion());
+            }
             if (!added) {
                 blackList.add(className);
             }
@@ -318,6 +363,43 @@ public class TestClusterGenerator {
 
     }
 
+    /**
+     * Analyzes the pending dependencies in the background, so that their classes, and the classes
+     * of their members, are loaded and their reflection data cached by the time they are added to
+     * the cluster
+     */
+    private void prefetchDependencies(ExecutorService prefetcher, Set<String> blackList) {
+        for (DependencyPair dependency : dependencies) {
+            Class<?> clazz = dependency.getDependencyClass().getRawClass();
+            if (analyzedClasses.contains(clazz) || blackList.contains(clazz.getName()))
+                continue;
+            if (dependency.getRecursion() > Properties.CLUSTER_RECURSION)
+                continue;
+            if (prefetchedClasses.add(clazz))
+                prefetcher.execute(() -> prefetchClass(clazz));
+        }
+    }
+
+    private static void prefetchClass(Class<?> clazz) {
+        if (Thread.currentThread().isInterrupted())
+            return;
+        try {
+            for (Constructor<?> constructor : TestClusterUtils.getConstructors(clazz)) {
+                constructor.getGenericParameterTypes();
+            }
+            for (Method method : TestClusterUtils.getMethods(clazz)) {
+                method.getGenericReturnType();
+                method.getGenericParameterTypes();
+            }
+            for (Field field : TestClusterUtils.getFields(clazz)) {
+                field.getGenericType();
+            }
+        } catch (Throwable t) {
+            // the class is analyzed again when it is added to the cluster, which reports problems
+            logger.debug("Failed to prefetch class {}: {}", clazz.getName(), t.toString());
+        }
+    }
+
     private void addDeclaredClasses(Set<Class<?>> targetClasses, Class<?> currentClass) {
         for (Class<?> c : currentClass.getDeclaredClasses()) {
             logger.info("Adding declared class " + c);
@@ -34,6 +34,7 @@ import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Predicate;
 import java.util.stream.Stream;
 
@@ -54,8 +55,9 @@ public class TestClusterUtils {
 
     private static final List<String> classExceptions = Collections.unmodifiableList(
             Arrays.asList("com.apple.", "apple.", "sun.", "com.sun.", "com.oracle.", "sun.awt."));
-    private final static Map<Class<?>, Set<Field>> accessibleFieldCache = new LinkedHashMap<>();
-    private final static Map<Class<?>, Set<Method>> methodCache = new LinkedHashMap<>();
+    // Concurrent, as classes can be analyzed on several threads by the TestClusterGenerator
+    private final static Map<Class<?>, Set<Field>> accessibleFieldCache = new ConcurrentHashMap<>();
+    private final static Map<Class<?>, Set<Method>> methodCache = new ConcurrentHashMap<>();
 
 
     /**
@@ -237,7 +239,14 @@ public class TestClusterUtils {
      * @return
      */
     public static Set<Field> getAccessibleFields(final Class<?> clazz) {
-        return accessibleFieldCache.computeIfAbsent(clazz, TestClusterUtils::computeAccessibleFields);
+        // Not computeIfAbsent: computing the fields can load classes, and thus wait for the lock
+        // of the class loader while holding the lock of the map
+        Set<Field> fields = accessibleFieldCache.get(clazz);
+        if (fields == null) {
+            fields = computeAccessibleFields(clazz);
+            accessibleFieldCache.putIfAbsent(clazz, fields);
+        }
+        return fields;
     }
 
     private static Set<Field> computeAccessibleFields(final Class<?> clazz) {
@@ -259,8 +268,9 @@ public class TestClusterUtils {
         // As this is expensive, doing some caching here
         // Note that with the change of a class loader the cached values could
         // be thrown away
-        if (methodCache.containsKey(clazz)) {
-            return methodCache.get(clazz);
+        Set<Method> cached = methodCache.get(clazz);
+        if (cached != null) {
+            return cached;
         }
 
         final Map<String, Method> helper = new TreeMap<>();
@@ -0,0 +1,403 @@
+/**
+ * Copyright (C) 2010-2018 Gordon Fraser, Andrea Arcuri and EvoSuite
+ * contributors
+ * <p>
+ * This file is part of EvoSuite.
+ * <p>
+ * EvoSuite is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ * <p>
+ * EvoSuite is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with EvoSuite. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.evosuite.statistics;
+
+import org.evosuite.Properties;
+import org.evosuite.rmi.ClientServices;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Registry of timers for the phases on the hot path of the client, to see where time and
+ * memory go.
+ *
+ * <p>
+ * Each execution of a phase is measured with a {@link Sample}:
+ * <pre>
+ * MetricsRegistry.Sample sample = MetricsRegistry.start(Phase.MINIMIZATION);
+ * try {
+ *     ...
+ * } finally {
+ *     sample.stop();
+ * }
+ * </pre>
+ * The elapsed time is always measured. Reading the CPU time and the allocated bytes of a
+ * thread is more expensive, and is only done for one in every
+ * {@link Properties#PHASE_METRICS_SAMPLING} executions of a phase, from which the totals
+ * are estimated. They only account for the thread that measures the phase: for example,
+ * the fitness evaluation does not include what the test execution thread allocates.
+ * Phases can be nested, and the time of a phase includes the one of its nested phases.
+ *
+ * <p>
+ * With {@link Properties#PHASE_METRICS_JFR}, each measured execution is also emitted as a
+ * {@code org.evosuite.Phase} event to Java Flight Recorder, with the phase, CPU time and
+ * allocated bytes as fields (zero when not sampled). This needs the {@code jdk.jfr.EventFactory} API, which is not
+ * available on all Java 8 JVMs, and is silently skipped when missing.
+ */
+public final class MetricsRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(MetricsRegistry.class);
+
+    public enum Phase {
+        TEST_EXECUTION(RuntimeVariable.Test_Execution_Time, RuntimeVariable.Test_Execution_CPU_Time,
+                RuntimeVariable.Test_Execution_Allocated_Bytes),
+        FITNESS_EVALUATION(RuntimeVariable.Fitness_Evaluation_Time, RuntimeVariable.Fitness_Evaluation_CPU_Time,
+                RuntimeVariable.Fitness_Evaluation_Allocated_Bytes),
+        TEST_MUTATION(RuntimeVariable.Test_Mutation_Time, RuntimeVariable.Test_Mutation_CPU_Time,
+                RuntimeVariable.Test_Mutation_Allocated_Bytes),
+        ARCHIVE_UPDATE(RuntimeVariable.Archive_Update_Time, RuntimeVariable.Archive_Update_CPU_Time,
+                RuntimeVariable.Archive_Update_Allocated_Bytes),
+        MINIMIZATION(RuntimeVariable.Minimization_Time, RuntimeVariable.Minimization_CPU_Time,
+                RuntimeVariable.Minimization_Allocated_Bytes),
+        ASSERTION_GENERATION(RuntimeVariable.Assertion_Generation_Time, RuntimeVariable.Assertion_Generation_CPU_Time,
+                RuntimeVariable.Assertion_Generation_Allocated_Bytes),
+        JUNIT_CHECK(RuntimeVariable.JUnit_Check_Time, RuntimeVariable.JUnit_Check_CPU_Time,
+                RuntimeVariable.JUnit_Check_Allocated_Bytes);
+
+        private final RuntimeVariable time;
+        private final RuntimeVariable cpuTime;
+        private final RuntimeVariable allocatedBytes;
+
+        Phase(RuntimeVariable time, RuntimeVariable cpuTime, RuntimeVariable allocatedBytes) {
+            this.time = time;
+            this.cpuTime = cpuTime;
+            this.allocatedBytes = allocatedBytes;
+        }
+    }
+
+    private static final ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+
+    /**
+     * Whether the allocated bytes of a thread can be read, only on HotSpot-based JVMs
+     */
+    private static final boolean allocationSupported = isAllocationSupported();
+
+    private static final Timer[] timers = new Timer[Phase.values().length];
+
+    static {
+        for (Phase phase : Phase.values()) {
+            timers[phase.ordinal()] = new Timer(phase);
+        }
+    }
+
+    private static volatile FlightRecorderEvents events = Properties.PHASE_METRICS_JFR ? new FlightRecorderEvents() : null;
+
+    private MetricsRegistry() {
+    }
+
+    /**
+     * Start measuring an execution of the given phase
+     *
+     * @param phase the phase
+     * @return the sample to stop once the phase is done
+     */
+    public static Sample start(Phase phase) {
+        return timers[phase.ordinal()].start();
+    }
+
+    public static Timer getTimer(Phase phase) {
+        return timers[phase.ordinal()];
+    }
+
+    /**
+     * Discard all measurements
+     */
+    public static void reset() {
+        for (Timer timer : timers) {
+            timer.reset();
+        }
+    }
+
+    /**
+     * Track the time and allocations of each phase
+     */
+    public static void trackOutputVariables() {
+        for (Timer timer : timers) {
+            ClientServices.track(timer.phase.time, timer.getTotalTime() / 1_000_000);
+            ClientServices.track(timer.phase.cpuTime, timer.getEstimatedCpuTime() / 1_000_000);
+            ClientServices.track(timer.phase.allocatedBytes, timer.getEstimatedAllocatedBytes());
+        }
+    }
+
+    private static boolean isAllocationSupported() {
+        try {
+            return threadBean instanceof com.sun.management.ThreadMXBean
+                    && ((com.sun.management.ThreadMXBean) threadBean).isThreadAllocatedMemorySupported()
+                    && ((com.sun.management.ThreadMXBean) threadBean).isThreadAllocatedMemoryEnabled();
+        } catch (Throwable t) {
+            // not a HotSpot-based JVM
+            return false;
+        }
+    }
+
+    private static long getCurrentThreadAllocatedBytes() {
+        if (!allocationSupported) {
+            return 0;
+        }
+        return ((com.sun.management.ThreadMXBean) threadBean).getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private static long getCurrentThreadCpuTime() {
+        long time = threadBean.isCurrentThreadCpuTimeSupported() ? threadBean.getCurrentThreadCpuTime() : -1;
+        return Math.max(0, time);
+    }
+
+    private static FlightRecorderEvents getEvents() {
+        if (!Properties.PHASE_METRICS_JFR) {
+            return null;
+        }
+        if (events == null) {
+            synchronized (MetricsRegistry.class) {
+                if (events == null) {
+                    events = new FlightRecorderEvents();
+                }
+            }
+        }
+        return events.isAvailable() ? events : null;
+    }
+
+    /**
+     * Measurements of a phase
+     */
+    public static final class Timer {
+
+        private final Phase phase;
+
+        private final AtomicLong numStarted = new AtomicLong(0);
+
+        private final LongAdder count = new LongAdder();
+
+        private final LongAdder totalTime = new LongAdder();
+
+        private final LongAdder numSampled = new LongAdder();
+
+        private final LongAdder sampledCpuTime = new LongAdder();
+
+        private final LongAdder sampledAllocatedBytes = new LongAdder();
+
+        private Timer(Phase phase) {
+            this.phase = phase;
+        }
+
+        /**
+         * Start measuring an execution of the phase
+         *
+         * @return the sample to stop once the phase is done
+         */
+        public Sample start() {
+            int rate = Properties.PHASE_METRICS_SAMPLING;
+            boolean sampled = rate > 0 && numStarted.getAndIncrement() % rate == 0;
+            return new Sample(this, sampled, getEvents());
+        }
+
+        private void record(long time, boolean sampled, long cpuTime, long allocatedBytes) {
+            count.increment();
+            totalTime.add(time);
+            if (sampled) {
+                numSampled.increment();
+                sampledCpuTime.add(cpuTime);
+                sampledAllocatedBytes.add(allocatedBytes);
+            }
+        }
+
+        private void reset() {
+            numStarted.set(0);
+            count.reset();
+            totalTime.reset();
+            numSampled.reset();
+            sampledCpuTime.reset();
+            sampledAllocatedBytes.reset();
+        }
+
+        public Phase getPhase() {
+            return phase;
+        }
+
+        /**
+         * @return the number of measured executions of the phase
+         */
+        public long getCount() {
+            return count.sum();
+        }
+
+        /**
+         * @return the total elapsed nanoseconds
+         */
+        public long getTotalTime() {
+            return totalTime.sum();
+        }
+
+        /**
+         * @return the total CPU nanoseconds, extrapolated from the sampled executions
+         */
+        public long getEstimatedCpuTime() {
+            return extrapolate(sampledCpuTime.sum());
+        }
+
+        /**
+         * @return the total allocated bytes, extrapolated from the sampled executions
+         */
+        public long getEstimatedAllocatedBytes() {
+            return extrapolate(sampledAllocatedBytes.sum());
+        }
+
+        private long extrapolate(long sampledTotal) {
+            long sampled = numSampled.sum();
+            if (sampled == 0) {
+                return 0;
+            }
+            return (long) ((double) sampledTotal * getCount() / sampled);
+        }
+    }
+
+    /**
+     * A running execution of a phase
+     */
+    public static final class Sample {
+
+        private final Timer timer;
+
+        private final boolean sampled;
+
+        private final long startTime;
+
+        private final long startCpuTime;
+
+        private final long startAllocatedBytes;
+
+        private final FlightRecorderEvents events;
+
+        private final Object event;
+
+        private boolean stopped = false;
+
+        private Sample(Timer timer, boolean sampled, FlightRecorderEvents events) {
+            this.timer = timer;
+            this.sampled = sampled;
+            this.events = events;
+            this.event = events == null ? null : events.begin();
+            this.startCpuTime = sampled ? getCurrentThreadCpuTime() : 0;
+            this.startAllocatedBytes = sampled ? getCurrentThreadAllocatedBytes() : 0;
+            this.startTime = System.nanoTime();
+        }
+
+        /**
+         * Stop measuring, only the first call has an effect
+         */
+        public void stop() {
+            if (stopped) {
+                return;
+            }
+            stopped = true;
+            long time = System.nanoTime() - startTime;
+            long cpuTime = sampled ? getCurrentThreadCpuTime() - startCpuTime : 0;
+            long allocatedBytes = sampled ? getCurrentThreadAllocatedBytes() - startAllocatedBytes : 0;
+            timer.record(time, sampled, cpuTime, allocatedBytes);
+            if (event != null) {
+                events.commit(event, timer.phase, cpuTime, allocatedBytes);
+            }
+        }
+    }
+
+    /**
+     * Creates the JFR events through reflection, as the API is missing in older JVMs
+     */
+    private static final class FlightRecorderEvents {
+
+        private Object factory = null;
+
+        private Method newEvent;
+
+        private Method begin;
+
+        private Method end;
+
+        private Method set;
+
+        private Method commit;
+
+        FlightRecorderEvents() {
+            try {
+                Class<?> annotationElementClass = Class.forName("jdk.jfr.AnnotationElement");
+                Class<?> valueDescriptorClass = Class.forName("jdk.jfr.ValueDescriptor");
+                Class<?> factoryClass = Class.forName("jdk.jfr.EventFactory");
+                Class<?> eventClass = Class.forName("jdk.jfr.Event");
+
+                Constructor<?> annotation = annotationElementClass.getConstructor(Class.class, Object.class);
+                Constructor<?> field = valueDescriptorClass.getConstructor(Class.class, String.class);
+                List<Object> annotations = Arrays.asList(
+                        annotation.newInstance(Class.forName("jdk.jfr.Name"), "org.evosuite.Phase"),
+                        annotation.newInstance(Class.forName("jdk.jfr.Label"), "EvoSuite Phase"),
+                        annotation.newInstance(Class.forName("jdk.jfr.Category"), new String[]{"EvoSuite"}));
+                List<Object> fields = Arrays.asList(
+                        field.newInstance(String.class, "phase"),
+                        field.newInstance(long.class, "cpuTime"),
+                        field.newInstance(long.class, "allocatedBytes"));
+
+                Object created = factoryClass.getMethod("create", List.class, List.class)
+                        .invoke(null, annotations, fields);
+                newEvent = factoryClass.getMethod("newEvent");
+                begin = eventClass.getMethod("begin");
+                end = eventClass.getMethod("end");
+                set = eventClass.getMethod("set", int.class, Object.class);
+                commit = eventClass.getMethod("commit");
+                factory = created;
+            } catch (Throwable t) {
+                logger.info("Phase events are not emitted to Java Flight Recorder: {}", t.toString());
+            }
+        }
+
+        boolean isAvailable() {
+            return factory != null;
+        }
+
+        Object begin() {
+            try {
+                Object event = newEvent.invoke(factory);
+                begin.invoke(event);
+                return event;
+            } catch (Exception e) {
+                logger.debug("Cannot create JFR event: {}", e.toString());
+                return null;
+            }
+        }
+
+        void commit(Object event, Phase phase, long cpuTime, long allocatedBytes) {
+            try {
+                end.invoke(event);
+                set.invoke(event, 0, phase.name());
+                set.invoke(event, 1, cpuTime);
+                set.invoke(event, 2, allocatedBytes);
+                commit.invoke(event);
+            } catch (Exception e) {
+                logger.debug("Cannot commit JFR event: {}", e.toString());
+            }
+        }
+    }
+}
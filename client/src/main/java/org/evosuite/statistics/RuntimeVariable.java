@@ -626,7 +626,121 @@ public enum RuntimeVariable {
      */
     QueryCacheSize,
     QueryCacheCalls,
-    QueryCacheHitRate;
+    QueryCacheHitRate,
+
+    /* -------------------------------------------------------------------- */
+    /**
+     * Number of LLM object selections answered from the response cache
+     */
+    LLM_Cache_Hits,
+    /**
+     * Number of LLM object selections not found in the response cache
+     */
+    LLM_Cache_Misses,
+    /**
+     * Number of queries sent to the LLM
+     */
+    LLM_Queries,
+    /**
+     * Average time in milliseconds to get a response from the LLM
+     */
+    LLM_Query_Time,
+
+    /* -------------------------------------------------- */
+    /**
+     * Decisions of the adaptive time budget, separated by ';'
+     */
+    Time_Budget_Decisions,
+    /**
+     * Seconds given by phases that ended early to the remaining phases
+     */
+    Time_Budget_Reallocated,
+
+    /* -------------------------------------------------- */
+    /**
+     * Milliseconds spent executing the statements of tests
+     */
+    Test_Execution_Time,
+    /**
+     * Estimated CPU milliseconds spent executing the statements of tests, by the thread doing it
+     */
+    Test_Execution_CPU_Time,
+    /**
+     * Estimated bytes allocated while executing the statements of tests, by the thread doing it
+     */
+    Test_Execution_Allocated_Bytes,
+    /**
+     * Milliseconds spent computing the fitness of individuals, including the execution of their tests
+     */
+    Fitness_Evaluation_Time,
+    /**
+     * Estimated CPU milliseconds spent computing the fitness of individuals, including the execution of their tests, by the thread doing it
+     */
+    Fitness_Evaluation_CPU_Time,
+    /**
+     * Estimated bytes allocated while computing the fitness of individuals, including the execution of their tests, by the thread doing it
+     */
+    Fitness_Evaluation_Allocated_Bytes,
+    /**
+     * Milliseconds spent mutating tests
+     */
+    Test_Mutation_Time,
+    /**
+     * Estimated CPU milliseconds spent mutating tests, by the thread doing it
+     */
+    Test_Mutation_CPU_Time,
+    /**
+     * Estimated bytes allocated while mutating tests, by the thread doing it
+     */
+    Test_Mutation_Allocated_Bytes,
+    /**
+     * Milliseconds spent updating the archive
+     */
+    Archive_Update_Time,
+    /**
+     * Estimated CPU milliseconds spent updating the archive, by the thread doing it
+     */
+    Archive_Update_CPU_Time,
+    /**
+     * Estimated bytes allocated while updating the archive, by the thread doing it
+     */
+    Archive_Update_Allocated_Bytes,
+    /**
+     * Milliseconds spent minimizing the test suite
+     */
+    Minimization_Time,
+    /**
+     * Estimated CPU milliseconds spent minimizing the test suite, by the thread doing it
+     */
+    Minimization_CPU_Time,
+    /**
+     * Estimated bytes allocated while minimizing the test suite, by the thread doing it
+     */
+    Minimization_Allocated_Bytes,
+    /**
+     * Milliseconds spent generating assertions
+     */
+    Assertion_Generation_Time,
+    /**
+     * Estimated CPU milliseconds spent generating assertions, by the thread doing it
+     */
+    Assertion_Generation_CPU_Time,
+    /**
+     * Estimated bytes allocated while generating assertions, by the thread doing it
+     */
+    Assertion_Generation_Allocated_Bytes,
+    /**
+     * Milliseconds spent compiling and checking the JUnit tests
+     */
+    JUnit_Check_Time,
+    /**
+     * Estimated CPU milliseconds spent compiling and checking the JUnit tests, by the thread doing it
+     */
+    JUnit_Check_CPU_Time,
+    /**
+     * Estimated bytes allocated while compiling and checking the JUnit tests, by the thread doing it
+     */
+    JUnit_Check_Allocated_Bytes;
 
     /* -------------------------------------------------- */
 
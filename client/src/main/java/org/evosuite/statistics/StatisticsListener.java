@@ -98,6 +98,7 @@ public class StatisticsListener<T extends Chromosome<T>> implements SearchListen
 
     @Override
     public void iteration(GeneticAlgorithm<T> algorithm) {
+        Telemetry.GENERATIONS.increment();
 
         long elapsed = System.currentTimeMillis() - timeFromLastGenerationUpdate;
         if (elapsed > Properties.TIMELINE_INTERVAL) {
@@ -158,6 +159,7 @@ public class StatisticsListener<T extends Chromosome<T>> implements SearchListen
     @Override
     public void fitnessEvaluation(T individual) {
         numFitnessEvaluations++;
+        Telemetry.FITNESS_EVALUATIONS.increment();
         if (!(individual instanceof TestSuiteChromosome)) {
             // Statistics expects TestSuiteChromosome individuals
             return;
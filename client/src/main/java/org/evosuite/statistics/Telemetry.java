@@ -0,0 +1,200 @@
+/**
+ * Copyright (C) 2010-2018 Gordon Fraser, Andrea Arcuri and EvoSuite
+ * contributors
+ * <p>
+ * This file is part of EvoSuite.
+ * <p>
+ * EvoSuite is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ * <p>
+ * EvoSuite is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with EvoSuite. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.evosuite.statistics;
+
+import org.evosuite.Properties;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters and histograms of the search, sent to master in batches.
+ *
+ * <p>
+ * Recording a value only updates atomic counters, and never talks to master: the client
+ * node periodically takes a {@link #snapshot()} of what was recorded since the previous one,
+ * and sends it as a {@link TelemetryBatch}. This is enabled with {@link Properties#TELEMETRY_INTERVAL}.
+ */
+public final class Telemetry {
+
+    public static final Counter GENERATIONS = new Counter("evosuite_generations_total");
+
+    public static final Counter FITNESS_EVALUATIONS = new Counter("evosuite_fitness_evaluations_total");
+
+    public static final Counter TEST_EXECUTIONS = new Counter("evosuite_test_executions_total");
+
+    public static final Counter TEST_TIMEOUTS = new Counter("evosuite_test_timeouts_total");
+
+    public static final Histogram TEST_EXECUTION_TIME = new Histogram("evosuite_test_execution_microseconds");
+
+    public static final Histogram EXECUTED_STATEMENTS = new Histogram("evosuite_executed_statements");
+
+    private static final Counter[] COUNTERS = {GENERATIONS, FITNESS_EVALUATIONS, TEST_EXECUTIONS, TEST_TIMEOUTS};
+
+    private static final Histogram[] HISTOGRAMS = {TEST_EXECUTION_TIME, EXECUTED_STATEMENTS};
+
+    private static long lastSnapshotTime = System.currentTimeMillis();
+
+    private static long lastNumExecutions = 0;
+
+    private static long lastGcCount = 0;
+
+    private static long lastGcTime = 0;
+
+    private Telemetry() {
+    }
+
+    public static boolean isEnabled() {
+        return Properties.TELEMETRY_INTERVAL > 0;
+    }
+
+    /**
+     * Record the execution of a test
+     *
+     * @param nanos              how long the execution took
+     * @param executedStatements number of statements executed
+     */
+    public static void recordTestExecution(long nanos, int executedStatements) {
+        TEST_EXECUTIONS.increment();
+        TEST_EXECUTION_TIME.record(nanos / 1000);
+        EXECUTED_STATEMENTS.record(executedStatements);
+    }
+
+    /**
+     * Collect what was recorded since the previous snapshot, together with the
+     * current throughput, heap usage and garbage collection activity
+     *
+     * @return a batch with the changes since the previous snapshot
+     */
+    public static synchronized TelemetryBatch snapshot() {
+        final long now = System.currentTimeMillis();
+        final TelemetryBatch batch = new TelemetryBatch(now);
+
+        for (Counter counter : COUNTERS) {
+            batch.addCounter(counter.name, counter.drain());
+        }
+        for (Histogram histogram : HISTOGRAMS) {
+            long[] buckets = new long[TelemetryBatch.NUM_BUCKETS];
+            long sum = histogram.drain(buckets);
+            batch.addHistogram(histogram.name, buckets, sum);
+        }
+
+        long gcCount = 0;
+        long gcTime = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            gcCount += Math.max(0, gc.getCollectionCount());
+            gcTime += Math.max(0, gc.getCollectionTime());
+        }
+        batch.addCounter("evosuite_gc_collections_total", gcCount - lastGcCount);
+        batch.addCounter("evosuite_gc_pause_milliseconds_total", gcTime - lastGcTime);
+        lastGcCount = gcCount;
+        lastGcTime = gcTime;
+
+        long numExecutions = TEST_EXECUTIONS.reported;
+        long elapsed = now - lastSnapshotTime;
+        if (elapsed > 0) {
+            batch.addGauge("evosuite_test_executions_per_second",
+                    1000.0 * (numExecutions - lastNumExecutions) / elapsed);
+        }
+        lastNumExecutions = numExecutions;
+        lastSnapshotTime = now;
+
+        Runtime runtime = Runtime.getRuntime();
+        batch.addGauge("evosuite_heap_used_bytes", runtime.totalMemory() - runtime.freeMemory());
+        return batch;
+    }
+
+    /**
+     * A monotonic count of events
+     */
+    public static final class Counter {
+
+        private final String name;
+
+        private final LongAdder value = new LongAdder();
+
+        /**
+         * Value at the time of the last snapshot
+         */
+        private long reported = 0;
+
+        private Counter(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void increment() {
+            value.increment();
+        }
+
+        public void add(long delta) {
+            value.add(delta);
+        }
+
+        private long drain() {
+            long current = value.sum();
+            long delta = current - reported;
+            reported = current;
+            return delta;
+        }
+    }
+
+    /**
+     * Distribution of non-negative values, in buckets bounded by powers of two
+     */
+    public static final class Histogram {
+
+        private final String name;
+
+        private final AtomicLongArray buckets = new AtomicLongArray(TelemetryBatch.NUM_BUCKETS);
+
+        private final LongAdder sum = new LongAdder();
+
+        private Histogram(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void record(long value) {
+            buckets.incrementAndGet(TelemetryBatch.getBucket(value));
+            sum.add(value);
+        }
+
+        /**
+         * Move the recorded values to the given array
+         *
+         * @return the sum of the moved values
+         */
+        private long drain(long[] counts) {
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] = buckets.getAndSet(i, 0);
+            }
+            return sum.sumThenReset();
+        }
+    }
+}
@@ -0,0 +1,201 @@
+/**
+ * Copyright (C) 2010-2018 Gordon Fraser, Andrea Arcuri and EvoSuite
+ * contributors
+ * <p>
+ * This file is part of EvoSuite.
+ * <p>
+ * EvoSuite is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ * <p>
+ * EvoSuite is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with EvoSuite. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.evosuite.statistics;
+
+import java.io.*;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The changes of the {@link Telemetry} values over a period of time, in a compact binary
+ * form that can be sent to master in a single call.
+ *
+ * <p>
+ * Counters and histograms hold the increments since the previous batch, gauges hold
+ * the current value. A histogram has {@link #NUM_BUCKETS} buckets: bucket {@code i} counts
+ * the values greater than {@code 2^(i-1)} and at most {@code 2^i}, and the last one counts
+ * all larger values.
+ */
+public class TelemetryBatch {
+
+    public static final int NUM_BUCKETS = 40;
+
+    /**
+     * "EVTM", followed by the version of the binary format
+     */
+    private static final int MAGIC = 0x4556544D;
+    private static final int VERSION = 1;
+
+    private final long timestamp;
+
+    private final Map<String, Long> counters = new LinkedHashMap<>();
+
+    private final Map<String, Double> gauges = new LinkedHashMap<>();
+
+    private final Map<String, long[]> histograms = new LinkedHashMap<>();
+
+    private final Map<String, Long> histogramSums = new LinkedHashMap<>();
+
+    public TelemetryBatch(long timestamp) {
+        this.timestamp = timestamp;
+    }
+
+    /**
+     * @return the bucket of a histogram counting the given value
+     */
+    public static int getBucket(long value) {
+        if (value <= 1) {
+            return 0;
+        }
+        return Math.min(NUM_BUCKETS - 1, 64 - Long.numberOfLeadingZeros(value - 1));
+    }
+
+    /**
+     * @return the largest value counted by the given bucket, or {@link Long#MAX_VALUE} for the last one
+     */
+    public static long getUpperBound(int bucket) {
+        return bucket == NUM_BUCKETS - 1 ? Long.MAX_VALUE : 1L << bucket;
+    }
+
+    public void addCounter(String name, long increment) {
+        counters.merge(name, increment, Long::sum);
+    }
+
+    public void addGauge(String name, double value) {
+        gauges.put(name, value);
+    }
+
+    public void addHistogram(String name, long[] buckets, long sum) {
+        if (buckets.length != NUM_BUCKETS) {
+            throw new IllegalArgumentException("Expected " + NUM_BUCKETS + " buckets, got " + buckets.length);
+        }
+        long[] current = histograms.computeIfAbsent(name, k -> new long[NUM_BUCKETS]);
+        for (int i = 0; i < NUM_BUCKETS; i++) {
+            current[i] += buckets[i];
+        }
+        histogramSums.merge(name, sum, Long::sum);
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public Map<String, Long> getCounters() {
+        return Collections.unmodifiableMap(counters);
+    }
+
+    public Map<String, Double> getGauges() {
+        return Collections.unmodifiableMap(gauges);
+    }
+
+    /**
+     * @return the count of each bucket of each histogram
+     */
+    public Map<String, long[]> getHistograms() {
+        return Collections.unmodifiableMap(histograms);
+    }
+
+    public long getHistogramSum(String name) {
+        return histogramSums.getOrDefault(name, 0L);
+    }
+
+    public byte[] toBytes() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(timestamp);
+
+            out.writeShort(counters.size());
+            for (Map.Entry<String, Long> entry : counters.entrySet()) {
+                out.writeUTF(entry.getKey());
+                out.writeLong(entry.getValue());
+            }
+
+            out.writeShort(gauges.size());
+            for (Map.Entry<String, Double> entry : gauges.entrySet()) {
+                out.writeUTF(entry.getKey());
+                out.writeDouble(entry.getValue());
+            }
+
+            out.writeShort(histograms.size());
+            for (Map.Entry<String, long[]> entry : histograms.entrySet()) {
+                out.writeUTF(entry.getKey());
+                out.writeLong(histogramSums.get(entry.getKey()));
+                // only the buckets with values, most of them are empty
+                long[] buckets = entry.getValue();
+                int numUsed = 0;
+                for (long count : buckets) {
+                    if (count != 0) {
+                        numUsed++;
+                    }
+                }
+                out.writeByte(numUsed);
+                for (int i = 0; i < buckets.length; i++) {
+                    if (buckets[i] != 0) {
+                        out.writeByte(i);
+                        out.writeLong(buckets[i]);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            // cannot happen when writing to memory
+            throw new IllegalStateException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static TelemetryBatch fromBytes(byte[] data) throws IOException {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Not a telemetry batch, or sent by another version");
+            }
+            TelemetryBatch batch = new TelemetryBatch(in.readLong());
+
+            int numCounters = in.readUnsignedShort();
+            for (int i = 0; i < numCounters; i++) {
+                batch.addCounter(in.readUTF(), in.readLong());
+            }
+
+            int numGauges = in.readUnsignedShort();
+            for (int i = 0; i < numGauges; i++) {
+                batch.addGauge(in.readUTF(), in.readDouble());
+            }
+
+            int numHistograms = in.readUnsignedShort();
+            for (int i = 0; i < numHistograms; i++) {
+                String name = in.readUTF();
+                long sum = in.readLong();
+                long[] buckets = new long[NUM_BUCKETS];
+                int numUsed = in.readUnsignedByte();
+                for (int j = 0; j < numUsed; j++) {
+                    int bucket = in.readUnsignedByte();
+                    if (bucket >= NUM_BUCKETS) {
+                        throw new IOException("Invalid bucket " + bucket);
+                    }
+                    buckets[bucket] = in.readLong();
+                }
+                batch.addHistogram(name, buckets, sum);
+            }
+            return batch;
+        }
+    }
+}
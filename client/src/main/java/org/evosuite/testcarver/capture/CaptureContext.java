@@ -0,0 +1,85 @@
+/**
+ * Copyright (C) 2010-2018 Gordon Fraser, Andrea Arcuri and EvoSuite
+ * contributors
+ * <p>
+ * This file is part of EvoSuite.
+ * <p>
+ * EvoSuite is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ * <p>
+ * EvoSuite is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with EvoSuite. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.evosuite.testcarver.capture;
+
+import java.util.ArrayList;
+
+/**
+ * The state of the {@link Capturer} and of the {@link FieldRegistry}.
+ *
+ * <p>
+ * All threads share the same context, unless a thread isolates itself with {@link #isolate()}:
+ * from then on, the thread and the threads it starts (e.g., JUnit timeouts) capture into a
+ * context of their own. This allows tests to be carved concurrently, each worker running
+ * its tests on its own carving class loader.
+ */
+public final class CaptureContext {
+
+    private static final CaptureContext SHARED = new CaptureContext();
+
+    private static final InheritableThreadLocal<CaptureContext> current = new InheritableThreadLocal<CaptureContext>() {
+        @Override
+        protected CaptureContext initialValue() {
+            return SHARED;
+        }
+    };
+
+    volatile CaptureLog currentLog;
+
+    volatile boolean isCaptureStarted = false;
+
+    final ArrayList<CaptureLog> logs = new ArrayList<>();
+
+    final ArrayList<String[]> classesToBeObserved = new ArrayList<>();
+
+    private final FieldRegistry.Registry fieldRegistry = new FieldRegistry.Registry();
+
+    private CaptureContext() {
+    }
+
+    static CaptureContext get() {
+        return current.get();
+    }
+
+    FieldRegistry.Registry getFieldRegistry() {
+        return fieldRegistry;
+    }
+
+    /**
+     * Capture calls of the current thread, and of the threads it starts, into a new context
+     */
+    public static void isolate() {
+        current.set(new CaptureContext());
+    }
+
+    /**
+     * Let the current thread use the shared context again
+     */
+    public static void reset() {
+        current.remove();
+    }
+
+    /**
+     * @return whether the current thread uses a context of its own
+     */
+    public static boolean isIsolated() {
+        return current.get() != SHARED;
+    }
+}
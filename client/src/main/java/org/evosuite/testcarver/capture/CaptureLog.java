@@ -20,17 +20,24 @@
 package org.evosuite.testcarver.capture;
 
 import com.thoughtworks.xstream.XStream;
+import org.apache.commons.lang3.ClassUtils;
 import org.evosuite.PackageInfo;
 import org.evosuite.testcarver.instrument.TransformerUtil;
+import org.evosuite.testcarver.testcase.EvoSuiteXStream;
 import org.objectweb.asm.Type;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
 import java.lang.reflect.Array;
 import java.lang.reflect.Field;
 import java.lang.reflect.Modifier;
 import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 public final class CaptureLog implements Cloneable {
 
@@ -88,20 +95,23 @@ public final class CaptureLog implements Cloneable {
 
     /*
      * FIXME: following lists seem to be aligned
+     *
+     * The ids, names and flags are stored in primitive columns, method names and
+     * descriptors as ids of interned strings.
      */
 
     // rec_no is implied by index
-    public final List<Integer> objectIds;
-    public final List<Integer> captureIds;
-    public final List<String> methodNames;
+    public final IntColumn objectIds;
+    public final IntColumn captureIds;
+    public final StringColumn methodNames;
     /**
      * FIXME: this seems always containing Integer objects, representing either
      * null or an object identifier (oid). should it be <Integer[]> ?
      */
     public final List<Object[]> params;
     public final List<Object> returnValues;
-    public final List<Boolean> isStaticCallList;
-    public final List<String> descList;
+    public final BooleanColumn isStaticCallList;
+    public final StringColumn descList;
 
     //--- OID Info Table
     // OID | INIT_REC_NO | CLASS
@@ -127,18 +137,28 @@ public final class CaptureLog implements Cloneable {
      */
     private final Map<Integer, Integer> oidRecMapping;
 
-    private final XStream xstream;
+    /**
+     * (captureId, oid) -> records of the calls not ended yet, the most recent last
+     */
+    private final Map<Long, IntColumn> openCalls;
 
     /**
      * Main constructor
      */
     public CaptureLog() {
-        this.objectIds = new ArrayList<>();
-        this.methodNames = new ArrayList<>();
+        this(new StringTable());
+    }
+
+    /**
+     * @param strings the table of the method names and descriptors, shared with the clones
+     */
+    private CaptureLog(final StringTable strings) {
+        this.objectIds = new IntColumn();
+        this.methodNames = new StringColumn(strings);
         this.params = new ArrayList<>();
-        this.captureIds = new ArrayList<>();
+        this.captureIds = new IntColumn();
         this.returnValues = new ArrayList<>();
-        this.descList = new ArrayList<>();
+        this.descList = new StringColumn(strings);
 
         this.oidRecMapping = new LinkedHashMap<>();
         this.oidInitRecNo = new ArrayList<>();
@@ -147,11 +167,15 @@ public final class CaptureLog implements Cloneable {
         this.oidFirstInits = new ArrayList<>();
         this.oidDependencies = new ArrayList<>();
 
-        this.isStaticCallList = new ArrayList<>();
+        this.isStaticCallList = new BooleanColumn();
 
         this.oidNamesOfAccessedFields = new LinkedHashMap<>();
 
-        this.xstream = new XStream();
+        this.openCalls = new HashMap<>();
+    }
+
+    private static XStream getXStream() {
+        return EvoSuiteXStream.getXStream();
     }
 
     public String getNameOfAccessedFields(final int captureId) {
@@ -249,7 +273,7 @@ public final class CaptureLog implements Cloneable {
 
     @Override
     public CaptureLog clone() {
-        final CaptureLog log = new CaptureLog();
+        final CaptureLog log = new CaptureLog(this.methodNames.table);
 
         log.objectIds.addAll(this.objectIds);
         log.methodNames.addAll(this.methodNames);
@@ -267,6 +291,12 @@ public final class CaptureLog implements Cloneable {
         log.oidDependencies.addAll(this.oidDependencies);
         log.oidFirstInits.addAll(this.oidFirstInits);
 
+        for (Map.Entry<Long, IntColumn> entry : this.openCalls.entrySet()) {
+            final IntColumn records = new IntColumn();
+            records.addAll(entry.getValue());
+            log.openCalls.put(entry.getKey(), records);
+        }
+
         return log;
     }
 
@@ -287,6 +317,7 @@ public final class CaptureLog implements Cloneable {
         this.isStaticCallList.clear();
 
         this.oidNamesOfAccessedFields.clear();
+        this.openCalls.clear();
     }
 
     private boolean updateInfoTable(final int oid, final Object receiver,
@@ -381,13 +412,44 @@ public final class CaptureLog implements Cloneable {
             handleReturnValue(captureId, receiver, returnValue);
         }
 
-        this.captureIds.add(captureId);
-        this.objectIds.add(System.identityHashCode(receiver));
+        final int oid = System.identityHashCode(receiver);
+        final Long key = getCallKey(captureId, oid);
+        final IntColumn records = this.openCalls.get(key);
+        if (records != null) {
+            records.removeLast();
+            if (records.isEmpty()) {
+                this.openCalls.remove(key);
+            }
+        }
+
+        this.captureIds.addInt(captureId);
+        this.objectIds.addInt(oid);
         this.methodNames.add(END_CAPTURE_PSEUDO_METHOD);
         this.descList.add(EMPTY_DESC);
         this.params.add(NO_ARGS);
         this.returnValues.add(RETURN_TYPE_VOID);
-        this.isStaticCallList.add(Boolean.FALSE);
+        this.isStaticCallList.addBoolean(false);
+    }
+
+    private static long getCallKey(final int captureId, final int oid) {
+        return ((long) captureId << 32) | (oid & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Append a method call record, which stays open until its end record is logged
+     */
+    private void addRecord(final int oid, final int captureId, final String methodName,
+                           final String methodDesc, final Object[] methodParams, final boolean isStaticCall) {
+        this.openCalls.computeIfAbsent(getCallKey(captureId, oid), k -> new IntColumn())
+                .addInt(this.objectIds.size());
+
+        this.objectIds.addInt(oid);
+        this.methodNames.add(methodName);
+        this.descList.add(methodDesc);
+        this.params.add(methodParams);
+        this.returnValues.add(RETURN_TYPE_VOID);
+        this.captureIds.addInt(captureId);
+        this.isStaticCallList.addBoolean(isStaticCall);
     }
 
     /**
@@ -401,12 +463,18 @@ public final class CaptureLog implements Cloneable {
     private int findRecordOfMethodStart(final Object receiver, final int captureId) {
         final int oid = System.identityHashCode(receiver);
 
+        // the most recent call not ended yet, unless the records were not logged here
+        final IntColumn records = this.openCalls.get(getCallKey(captureId, oid));
+        if (records != null && !records.isEmpty()) {
+            return records.getInt(records.size() - 1);
+        }
+
         int currentRecord = captureIds.size() - 1;
 
         int nestedCalls = 0;
         while (true) {
-            if (this.captureIds.get(currentRecord) == captureId
-                    && this.objectIds.get(currentRecord) == oid) {
+            if (this.captureIds.getInt(currentRecord) == captureId
+                    && this.objectIds.getInt(currentRecord) == oid) {
                 if (this.methodNames.get(currentRecord).equals(END_CAPTURE_PSEUDO_METHOD)) {
                     nestedCalls++;
                 } else {
@@ -589,13 +657,7 @@ public final class CaptureLog implements Cloneable {
 
         // save receiver class -> might be reference in later calls e.g. doSth(Person.class)
         if (receiver instanceof Class) {
-            this.objectIds.add(oid);
-            this.descList.add(EMPTY_DESC);
-            this.methodNames.add(PLAIN_INIT);
-            this.params.add(new Object[]{receiver});
-            this.returnValues.add(RETURN_TYPE_VOID);
-            this.captureIds.add(PSEUDO_CAPTURE_ID);
-            this.isStaticCallList.add(Boolean.FALSE);
+            this.addRecord(oid, PSEUDO_CAPTURE_ID, PLAIN_INIT, EMPTY_DESC, new Object[]{receiver}, false);
             this.logEnd(PSEUDO_CAPTURE_ID, receiver, RETURN_TYPE_VOID);
         }
 
@@ -623,8 +685,8 @@ public final class CaptureLog implements Cloneable {
                     // -> this approach is not very efficient but we can always clone an object without the
                     //    the need of the Cloneable interface
                     try {
-                        String xml = xstream.toXML(param);
-                        param = xstream.fromXML(xml);
+                        String xml = getXStream().toXML(param);
+                        param = getXStream().fromXML(xml);
                         paramOID = System.identityHashCode(param);
 
                         logUnobservedInitStmt(param);
@@ -652,13 +714,7 @@ public final class CaptureLog implements Cloneable {
         this.updateInfoTable(oid, receiver, isConstructor);
 
         //--- create method call record
-        this.objectIds.add(oid);
-        this.methodNames.add(methodName);
-        this.descList.add(methodDesc);
-        this.params.add(methodParams);
-        this.returnValues.add(RETURN_TYPE_VOID);
-        this.captureIds.add(captureId);
-        this.isStaticCallList.add(receiver instanceof Class);
+        this.addRecord(oid, captureId, methodName, methodDesc, methodParams, receiver instanceof Class);
 
         this.checkIfInstanceFromInnerInstanceClass(receiver);
     }
@@ -680,14 +736,8 @@ public final class CaptureLog implements Cloneable {
             final boolean isInstrumented = TransformerUtil.isClassConsideredForInstrumentation(param.getClass().getName());
 
             if (isPlain(param) || param instanceof Class) {
-                this.objectIds.add(paramOID);
                 // exemplary output in test code: Integer number = 123;
-                this.methodNames.add(PLAIN_INIT);
-                this.params.add(new Object[]{param});
-                this.descList.add(EMPTY_DESC);
-                this.returnValues.add(RETURN_TYPE_VOID);
-                this.captureIds.add(PSEUDO_CAPTURE_ID);
-                this.isStaticCallList.add(Boolean.FALSE);
+                this.addRecord(paramOID, PSEUDO_CAPTURE_ID, PLAIN_INIT, EMPTY_DESC, new Object[]{param}, false);
                 this.logEnd(PSEUDO_CAPTURE_ID, param, RETURN_TYPE_VOID);
 
             } else if (isCollection && !isInstrumented) {
@@ -709,13 +759,7 @@ public final class CaptureLog implements Cloneable {
                     this.updateInfoTable(paramOID, param, true);
                 }
 
-                this.objectIds.add(paramOID);
-                this.methodNames.add(COLLECTION_INIT);
-                this.params.add(valArray);
-                this.descList.add(EMPTY_DESC);
-                this.returnValues.add(RETURN_TYPE_VOID);
-                this.captureIds.add(PSEUDO_CAPTURE_ID);
-                this.isStaticCallList.add(Boolean.FALSE);
+                this.addRecord(paramOID, PSEUDO_CAPTURE_ID, COLLECTION_INIT, EMPTY_DESC, valArray, false);
                 this.logEnd(PSEUDO_CAPTURE_ID, param, RETURN_TYPE_VOID);
 
             } else if (isMap && !isInstrumented) {
@@ -747,13 +791,7 @@ public final class CaptureLog implements Cloneable {
                     this.updateInfoTable(paramOID, param, true);
                 }
 
-                this.objectIds.add(paramOID);
-                this.methodNames.add(MAP_INIT);
-                this.params.add(valArray);
-                this.descList.add(EMPTY_DESC);
-                this.returnValues.add(RETURN_TYPE_VOID);
-                this.captureIds.add(PSEUDO_CAPTURE_ID);
-                this.isStaticCallList.add(Boolean.FALSE);
+                this.addRecord(paramOID, PSEUDO_CAPTURE_ID, MAP_INIT, EMPTY_DESC, valArray, false);
                 this.logEnd(PSEUDO_CAPTURE_ID, param, RETURN_TYPE_VOID);
 
             } else if (isArray) {
@@ -775,13 +813,7 @@ public final class CaptureLog implements Cloneable {
                     this.updateInfoTable(paramOID, param, true);
                 }
 
-                this.objectIds.add(paramOID);
-                this.methodNames.add(ARRAY_INIT);
-                this.params.add(valArray);
-                this.descList.add(EMPTY_DESC);
-                this.returnValues.add(RETURN_TYPE_VOID);
-                this.captureIds.add(PSEUDO_CAPTURE_ID);
-                this.isStaticCallList.add(Boolean.FALSE);
+                this.addRecord(paramOID, PSEUDO_CAPTURE_ID, ARRAY_INIT, EMPTY_DESC, valArray, false);
                 this.logEnd(PSEUDO_CAPTURE_ID, param, RETURN_TYPE_VOID);
 
             } else {
@@ -803,13 +835,12 @@ public final class CaptureLog implements Cloneable {
             this.updateInfoTable(subjectOID, subject, true);
         }
 
-        this.objectIds.add(subjectOID);
         // create new serialization record for first emersion
         // exemplary output in test code: Person newJoe = (Person) xstream.fromXML(xml);
 
         this.checkIfInstanceFromInnerInstanceClass(subject);
-        this.methodNames.add(NOT_OBSERVED_INIT);
 
+        Object[] serialized;
         try {
             //					this.xstream.toXML(param, sout);
             //					this.sout.flush();
@@ -818,22 +849,232 @@ public final class CaptureLog implements Cloneable {
             //
             //					this.bout.reset();
             // FIXME
-            this.params.add(new Object[]{this.xstream.toXML(subject)});
+            serialized = new Object[]{getXStream().toXML(subject)};
         } catch (final Exception e) {
             logger.info("an error occurred while serializing param '{}' -> adding null as param instead",
                     subject, e);
 
             // param can not be serialized -> add null as param
-            this.params.add(new Object[]{null});
+            serialized = new Object[]{null};
         }
 
-        this.descList.add(EMPTY_DESC);
-        this.returnValues.add(RETURN_TYPE_VOID);
-        this.captureIds.add(PSEUDO_CAPTURE_ID);
-        this.isStaticCallList.add(Boolean.FALSE);
+        this.addRecord(subjectOID, PSEUDO_CAPTURE_ID, NOT_OBSERVED_INIT, EMPTY_DESC, serialized, false);
         this.logEnd(PSEUDO_CAPTURE_ID, subject, RETURN_TYPE_VOID);
     }
 
+    //=============   binary format ===================================================
+
+    private static final int TAG_NULL = 0;
+    private static final int TAG_VOID = 1;
+    private static final int TAG_INT = 2;
+    private static final int TAG_LONG = 3;
+    private static final int TAG_DOUBLE = 4;
+    private static final int TAG_FLOAT = 5;
+    private static final int TAG_SHORT = 6;
+    private static final int TAG_BYTE = 7;
+    private static final int TAG_BOOLEAN = 8;
+    private static final int TAG_CHAR = 9;
+    private static final int TAG_STRING = 10;
+    private static final int TAG_CLASS = 11;
+    private static final int TAG_XML = 12;
+
+    /**
+     * Write this log in a compact binary format: its columns one after the other, with
+     * method names and descriptors as ids of a table of the distinct strings
+     *
+     * @param out where to write
+     * @throws IOException if writing fails
+     */
+    public void write(final DataOutputStream out) throws IOException {
+        final int numRecords = this.objectIds.size();
+
+        // log-local ids of the names and descriptors
+        final Map<Integer, Integer> localIds = new LinkedHashMap<>();
+        for (int i = 0; i < numRecords; i++) {
+            localIds.putIfAbsent(this.methodNames.getId(i), localIds.size());
+            localIds.putIfAbsent(this.descList.getId(i), localIds.size());
+        }
+        out.writeInt(localIds.size());
+        for (int id : localIds.keySet()) {
+            writeValue(out, this.methodNames.table.getString(id));
+        }
+
+        out.writeInt(numRecords);
+        for (int i = 0; i < numRecords; i++) {
+            out.writeInt(this.objectIds.getInt(i));
+            out.writeInt(this.captureIds.getInt(i));
+            out.writeInt(localIds.get(this.methodNames.getId(i)));
+            out.writeInt(localIds.get(this.descList.getId(i)));
+            out.writeBoolean(this.isStaticCallList.getBoolean(i));
+            writeValue(out, this.returnValues.get(i));
+            final Object[] args = this.params.get(i);
+            out.writeInt(args.length);
+            for (Object arg : args) {
+                writeValue(out, arg);
+            }
+        }
+
+        final int numInfoRecords = this.oids.size();
+        out.writeInt(numInfoRecords);
+        for (int i = 0; i < numInfoRecords; i++) {
+            out.writeInt(this.oids.get(i));
+            out.writeInt(this.oidInitRecNo.get(i));
+            writeValue(out, this.oidClassNames.get(i));
+            out.writeInt(this.oidFirstInits.get(i));
+            out.writeInt(this.oidDependencies.get(i));
+        }
+
+        out.writeInt(this.oidNamesOfAccessedFields.size());
+        for (Map.Entry<Integer, String> entry : this.oidNamesOfAccessedFields.entrySet()) {
+            out.writeInt(entry.getKey());
+            writeValue(out, entry.getValue());
+        }
+    }
+
+    /**
+     * Read a log written by {@link #write(DataOutputStream)}
+     *
+     * @param in where to read from
+     * @return the log
+     * @throws IOException if reading fails, or the log is not valid
+     */
+    public static CaptureLog read(final DataInputStream in) throws IOException {
+        final CaptureLog log = new CaptureLog();
+
+        final String[] strings = new String[in.readInt()];
+        for (int i = 0; i < strings.length; i++) {
+            strings[i] = (String) readValue(in);
+        }
+
+        final int numRecords = in.readInt();
+        for (int i = 0; i < numRecords; i++) {
+            log.objectIds.addInt(in.readInt());
+            log.captureIds.addInt(in.readInt());
+            log.methodNames.add(strings[in.readInt()]);
+            log.descList.add(strings[in.readInt()]);
+            log.isStaticCallList.addBoolean(in.readBoolean());
+            log.returnValues.add(readValue(in));
+            final Object[] args = new Object[in.readInt()];
+            for (int j = 0; j < args.length; j++) {
+                args[j] = readValue(in);
+            }
+            log.params.add(args.length == 0 ? NO_ARGS : args);
+        }
+
+        final int numInfoRecords = in.readInt();
+        for (int i = 0; i < numInfoRecords; i++) {
+            final int oid = in.readInt();
+            log.oidRecMapping.put(oid, i);
+            log.oids.add(oid);
+            log.oidInitRecNo.add(in.readInt());
+            log.oidClassNames.add((String) readValue(in));
+            log.oidFirstInits.add(in.readInt());
+            log.oidDependencies.add(in.readInt());
+        }
+
+        final int numAccessedFields = in.readInt();
+        for (int i = 0; i < numAccessedFields; i++) {
+            log.oidNamesOfAccessedFields.put(in.readInt(), (String) readValue(in));
+        }
+        return log;
+    }
+
+    /**
+     * Params and return values are oids, plain values, classes or serialized objects.
+     * Anything else is written as XML.
+     */
+    private static void writeValue(final DataOutputStream out, final Object value) throws IOException {
+        if (value == null) {
+            out.writeByte(TAG_NULL);
+        } else if (value == RETURN_TYPE_VOID) {
+            out.writeByte(TAG_VOID);
+        } else if (value instanceof Integer) {
+            out.writeByte(TAG_INT);
+            out.writeInt((Integer) value);
+        } else if (value instanceof Long) {
+            out.writeByte(TAG_LONG);
+            out.writeLong((Long) value);
+        } else if (value instanceof Double) {
+            out.writeByte(TAG_DOUBLE);
+            out.writeDouble((Double) value);
+        } else if (value instanceof Float) {
+            out.writeByte(TAG_FLOAT);
+            out.writeFloat((Float) value);
+        } else if (value instanceof Short) {
+            out.writeByte(TAG_SHORT);
+            out.writeShort((Short) value);
+        } else if (value instanceof Byte) {
+            out.writeByte(TAG_BYTE);
+            out.writeByte((Byte) value);
+        } else if (value instanceof Boolean) {
+            out.writeByte(TAG_BOOLEAN);
+            out.writeBoolean((Boolean) value);
+        } else if (value instanceof Character) {
+            out.writeByte(TAG_CHAR);
+            out.writeChar((Character) value);
+        } else if (value instanceof String) {
+            out.writeByte(TAG_STRING);
+            writeString(out, (String) value);
+        } else if (value instanceof Class) {
+            out.writeByte(TAG_CLASS);
+            writeString(out, ((Class<?>) value).getName());
+        } else {
+            out.writeByte(TAG_XML);
+            writeString(out, getXStream().toXML(value));
+        }
+    }
+
+    private static Object readValue(final DataInputStream in) throws IOException {
+        final int tag = in.readByte();
+        switch (tag) {
+            case TAG_NULL:
+                return null;
+            case TAG_VOID:
+                return RETURN_TYPE_VOID;
+            case TAG_INT:
+                return in.readInt();
+            case TAG_LONG:
+                return in.readLong();
+            case TAG_DOUBLE:
+                return in.readDouble();
+            case TAG_FLOAT:
+                return in.readFloat();
+            case TAG_SHORT:
+                return in.readShort();
+            case TAG_BYTE:
+                return in.readByte();
+            case TAG_BOOLEAN:
+                return in.readBoolean();
+            case TAG_CHAR:
+                return in.readChar();
+            case TAG_STRING:
+                return readString(in);
+            case TAG_CLASS:
+                final String className = readString(in);
+                try {
+                    return ClassUtils.getClass(className);
+                } catch (final ClassNotFoundException e) {
+                    throw new IOException("Cannot load class " + className, e);
+                }
+            case TAG_XML:
+                return getXStream().fromXML(readString(in));
+            default:
+                throw new IOException("Invalid value tag " + tag);
+        }
+    }
+
+    private static void writeString(final DataOutputStream out, final String value) throws IOException {
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(final DataInputStream in) throws IOException {
+        final byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
     @Override
     public String toString() {
         final String delimiter = "\t|\t";
@@ -877,4 +1118,243 @@ public final class CaptureLog implements Cloneable {
 
         return builder.toString();
     }
+
+    //=============   columns ===================================================
+
+    /**
+     * A growable column of ints. It is a list of integers for the readers of the log,
+     * but records are added and read without boxing.
+     */
+    public static final class IntColumn extends AbstractList<Integer> implements RandomAccess {
+
+        private int[] values = new int[16];
+
+        private int size = 0;
+
+        public int getInt(final int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+            }
+            return values[index];
+        }
+
+        public void addInt(final int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, 2 * size);
+            }
+            values[size++] = value;
+            modCount++;
+        }
+
+        public int setInt(final int index, final int value) {
+            final int old = getInt(index);
+            values[index] = value;
+            return old;
+        }
+
+        public void addAll(final IntColumn other) {
+            if (size + other.size > values.length) {
+                values = Arrays.copyOf(values, Math.max(2 * values.length, size + other.size));
+            }
+            System.arraycopy(other.values, 0, values, size, other.size);
+            size += other.size;
+            modCount++;
+        }
+
+        void removeLast() {
+            size--;
+            modCount++;
+        }
+
+        @Override
+        public Integer get(final int index) {
+            return getInt(index);
+        }
+
+        @Override
+        public Integer set(final int index, final Integer value) {
+            return setInt(index, value);
+        }
+
+        @Override
+        public boolean add(final Integer value) {
+            addInt(value);
+            return true;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public void clear() {
+            size = 0;
+            modCount++;
+        }
+    }
+
+    /**
+     * A growable column of booleans, stored as bits
+     */
+    public static final class BooleanColumn extends AbstractList<Boolean> implements RandomAccess {
+
+        private final BitSet values = new BitSet();
+
+        private int size = 0;
+
+        public boolean getBoolean(final int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+            }
+            return values.get(index);
+        }
+
+        public void addBoolean(final boolean value) {
+            values.set(size++, value);
+            modCount++;
+        }
+
+        public void addAll(final BooleanColumn other) {
+            for (int i = 0; i < other.size; i++) {
+                addBoolean(other.values.get(i));
+            }
+        }
+
+        @Override
+        public Boolean get(final int index) {
+            return getBoolean(index);
+        }
+
+        @Override
+        public Boolean set(final int index, final Boolean value) {
+            final boolean old = getBoolean(index);
+            values.set(index, value);
+            return old;
+        }
+
+        @Override
+        public boolean add(final Boolean value) {
+            addBoolean(value);
+            return true;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public void clear() {
+            values.clear();
+            size = 0;
+            modCount++;
+        }
+    }
+
+    /**
+     * The distinct strings of a log, by id. Logs repeat the same few method names and
+     * descriptors over and over. The table belongs to a log and its clones, so it does
+     * not outlive them.
+     */
+    static final class StringTable {
+
+        private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+
+        private volatile String[] strings = new String[64];
+
+        private int numStrings = 0;
+
+        /**
+         * @return the id of the string, or -1 for {@code null}
+         */
+        int intern(final String value) {
+            if (value == null) {
+                return -1;
+            }
+            Integer id = ids.get(value);
+            if (id != null) {
+                return id;
+            }
+            synchronized (ids) {
+                id = ids.get(value);
+                if (id == null) {
+                    String[] table = strings;
+                    if (numStrings == table.length) {
+                        table = Arrays.copyOf(table, 2 * numStrings);
+                    }
+                    id = numStrings++;
+                    table[id] = value;
+                    strings = table;
+                    ids.put(value, id);
+                }
+            }
+            return id;
+        }
+
+        String getString(final int id) {
+            return id < 0 ? null : strings[id];
+        }
+    }
+
+    /**
+     * A column of strings, stored as the ids of the strings interned in a {@link StringTable}
+     */
+    public static final class StringColumn extends AbstractList<String> implements RandomAccess {
+
+        private final StringTable table;
+
+        private final IntColumn values = new IntColumn();
+
+        public StringColumn() {
+            this(new StringTable());
+        }
+
+        StringColumn(final StringTable table) {
+            this.table = table;
+        }
+
+        /**
+         * @return the id of the string at the given index
+         */
+        public int getId(final int index) {
+            return values.getInt(index);
+        }
+
+        public void addAll(final StringColumn other) {
+            if (other.table == table) {
+                values.addAll(other.values);
+            } else {
+                for (int i = 0; i < other.size(); i++) {
+                    add(other.get(i));
+                }
+            }
+        }
+
+        @Override
+        public String get(final int index) {
+            return table.getString(values.getInt(index));
+        }
+
+        @Override
+        public String set(final int index, final String value) {
+            return table.getString(values.setInt(index, table.intern(value)));
+        }
+
+        @Override
+        public boolean add(final String value) {
+            values.addInt(table.intern(value));
+            return true;
+        }
+
+        @Override
+        public int size() {
+            return values.size();
+        }
+
+        @Override
+        public void clear() {
+            values.clear();
+        }
+    }
 }
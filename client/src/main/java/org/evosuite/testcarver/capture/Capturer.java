@@ -19,13 +19,15 @@
  */
 package org.evosuite.testcarver.capture;
 
-import com.thoughtworks.xstream.XStream;
-import com.thoughtworks.xstream.io.xml.StaxDriver;
 import org.evosuite.TimeController;
 import org.evosuite.testcarver.exception.CapturerException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -34,15 +36,25 @@ import java.util.Arrays;
 import java.util.List;
 
 public final class Capturer {
-    private static CaptureLog currentLog;
-    private static boolean isCaptureStarted = false;
+    /*
+     * The logs being captured are kept in the CaptureContext of the current thread
+     */
+
+    /**
+     * Set while a thread is logging, so that the calls made by the logging itself
+     * (e.g., serializing objects) are not captured. Other threads keep capturing.
+     */
+    private static final ThreadLocal<Boolean> isLogging = ThreadLocal.withInitial(() -> Boolean.FALSE);
+
+    /**
+     * "EVCL", followed by the version of the binary format of saved logs
+     */
+    private static final int MAGIC = 0x4556434C;
+    private static final int VERSION = 1;
     private static final boolean isShutdownHookAdded = false;
-    private static final ArrayList<CaptureLog> logs = new ArrayList<>();
 
     public static final String DEFAULT_SAVE_LOC = "captured.log";
 
-    private static final ArrayList<String[]> classesToBeObserved = new ArrayList<>();
-
     private static final transient Logger logger = LoggerFactory.getLogger(Capturer.class);
 
     /*
@@ -119,26 +131,51 @@ public final class Capturer {
             throw new NullPointerException("given OutputStream must not be null");
         }
 
-        final XStream xstream = new XStream();
-        xstream.toXML(logs, out);
-        out.close();
+        final List<CaptureLog> logs = getCaptureLogs();
+        try (DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out))) {
+            data.writeInt(MAGIC);
+            data.writeInt(VERSION);
+            data.writeInt(logs.size());
+            for (CaptureLog log : logs) {
+                log.write(data);
+            }
+        }
     }
 
-    @SuppressWarnings("unchecked")
-    public static void load(final InputStream in) {
+    public static void load(final InputStream in) throws IOException {
         if (in == null) {
             throw new NullPointerException("given InputStream must not be null");
         }
 
-        final XStream xstream = new XStream(new StaxDriver());
-        logs.addAll((ArrayList<CaptureLog>) xstream.fromXML(in));
+        try (DataInputStream data = new DataInputStream(new BufferedInputStream(in))) {
+            final int magic = data.readInt();
+            if (magic != MAGIC) {
+                if ((magic >>> 24) == '<') {
+                    // the XML written by XStream before the binary format
+                    throw new IOException("Capture log saved as XML by XStream, which is no longer supported: "
+                            + "capture logs are now saved in a binary format, and have to be captured again");
+                }
+                throw new IOException("Not a capture log");
+            }
+            final int version = data.readInt();
+            if (version != VERSION) {
+                throw new IOException("Capture log saved in version " + version
+                        + " of the binary format, but only version " + VERSION + " can be read");
+            }
+            final int numLogs = data.readInt();
+            final List<CaptureLog> logs = CaptureContext.get().logs;
+            for (int i = 0; i < numLogs; i++) {
+                logs.add(CaptureLog.read(data));
+            }
+        }
     }
 
     public static void clear() {
-        currentLog = null;
-        logs.clear();
-        classesToBeObserved.clear();
-        isCaptureStarted = false;
+        final CaptureContext context = CaptureContext.get();
+        context.currentLog = null;
+        context.logs.clear();
+        context.classesToBeObserved.clear();
+        context.isCaptureStarted = false;
 
         FieldRegistry.clear();
     }
@@ -146,12 +183,13 @@ public final class Capturer {
     public static void startCapture() {
         logger.info("Starting Capturer...");
 
-        if (isCaptureStarted) {
+        final CaptureContext context = CaptureContext.get();
+        if (context.isCaptureStarted) {
             throw new IllegalStateException("Capture has already been started");
         }
 
-        currentLog = new CaptureLog();
-        isCaptureStarted = true;
+        context.currentLog = new CaptureLog();
+        context.isCaptureStarted = true;
 
         FieldRegistry.restoreForegoingGETSTATIC();
 
@@ -183,7 +221,8 @@ public final class Capturer {
     public static void startCapture(final List<String> classesToBeObserved) {
         logger.info("Starting Capturer...");
 
-        if (isCaptureStarted) {
+        final CaptureContext context = CaptureContext.get();
+        if (context.isCaptureStarted) {
             throw new IllegalStateException("Capture has already been started");
         }
 
@@ -196,15 +235,15 @@ public final class Capturer {
 			isShutdownHookAdded = true;
 		}
 		 */
-        currentLog = new CaptureLog();
-        isCaptureStarted = true;
+        context.currentLog = new CaptureLog();
+        context.isCaptureStarted = true;
 
         final int size = classesToBeObserved.size();
         final String[] clazzes = new String[size];
         for (int i = 0; i < size; i++) {
             clazzes[i] = classesToBeObserved.get(i);
         }
-        Capturer.classesToBeObserved.add(clazzes);
+        context.classesToBeObserved.add(clazzes);
 
         FieldRegistry.restoreForegoingGETSTATIC();
 
@@ -214,13 +253,17 @@ public final class Capturer {
     public static CaptureLog stopCapture() {
         logger.info("Stopping Capturer...");
 
-        if (isCaptureStarted) {
-            isCaptureStarted = false;
+        final CaptureContext context = CaptureContext.get();
+        if (context.isCaptureStarted) {
+            context.isCaptureStarted = false;
 
-            logs.add(currentLog);
+            final CaptureLog log = context.currentLog;
+            context.currentLog = null;
 
-            final CaptureLog log = currentLog;
-            currentLog = null;
+            // wait for the threads still logging
+            synchronized (log) {
+                context.logs.add(log);
+            }
 
             logger.info("Capturer has been stopped successfully");
 
@@ -233,67 +276,76 @@ public final class Capturer {
         return null;
     }
 
+    /**
+     * @return whether calls of the current thread are captured
+     */
     public static boolean isCapturing() {
-        return isCaptureStarted;
+        return CaptureContext.get().isCaptureStarted && !isLogging.get();
     }
 
     public static void setCapturing(final boolean isCapturing) {
-        Capturer.isCaptureStarted = isCapturing;
+        CaptureContext.get().isCaptureStarted = isCapturing;
     }
 
     public static void capture(final int captureId, final Object receiver,
                                final String methodName, final String methodDesc, final Object[] methodParams) {
+        final CaptureContext context = CaptureContext.get();
+        final CaptureLog log = context.currentLog;
+        if (log == null || !context.isCaptureStarted || isLogging.get()) {
+            return;
+        }
+        isLogging.set(Boolean.TRUE);
         try {
-            if (isCapturing()) {
-                //(currentLog) {
-                setCapturing(false);
-
-                if (logger.isDebugEnabled()) {
-                    logger.debug("Method call captured:  captureId={} receiver={} type={} method={} methodDesc={} params={}",
-                            captureId, System.identityHashCode(receiver),
-                            receiver.getClass().getName(), methodName,
-                            methodDesc, Arrays.toString(methodParams));
-                }
+            if (logger.isDebugEnabled()) {
+                logger.debug("Method call captured:  captureId={} receiver={} type={} method={} methodDesc={} params={}",
+                        captureId, System.identityHashCode(receiver),
+                        receiver.getClass().getName(), methodName,
+                        methodDesc, Arrays.toString(methodParams));
+            }
 
-                currentLog.log(captureId, receiver, methodName, methodDesc, methodParams);
-                if (TimeController.getInstance().isThereStillTimeInThisPhase())
-                    setCapturing(true);
-                //}
+            synchronized (log) {
+                log.log(captureId, receiver, methodName, methodDesc, methodParams);
             }
+            if (!TimeController.getInstance().isThereStillTimeInThisPhase())
+                context.isCaptureStarted = false;
         } catch (Throwable t) {
             // TODO: Handle properly?
             logger.debug(t.toString());
+        } finally {
+            isLogging.set(Boolean.FALSE);
         }
     }
 
     @SuppressWarnings("unchecked")
     public static List<CaptureLog> getCaptureLogs() {
-        return (List<CaptureLog>) logs.clone();
+        return (List<CaptureLog>) CaptureContext.get().logs.clone();
     }
 
     public static void enable(final int captureId, final Object receiver,
                               final Object returnValue) {
+        final CaptureContext context = CaptureContext.get();
+        final CaptureLog log = context.currentLog;
+        if (log == null || !context.isCaptureStarted || isLogging.get()) {
+            return;
+        }
+        isLogging.set(Boolean.TRUE);
         try {
-            if (isCapturing()) {
-                //(currentLog) {
-                setCapturing(false);
-
-                if (logger.isDebugEnabled()) {
-                    logger.debug("enabled: capturedId={}", captureId);
-                    //logger.debug("enabled: capturedId={} receiver={} returnValue={} returnValueOID={}",
-                    //            new Object[] { captureId,
-                    //                   System.identityHashCode(receiver), System.identityHashCode(returnValue),
-                    //                  System.identityHashCode(returnValue) });
-                }
+            if (logger.isDebugEnabled()) {
+                logger.debug("enabled: capturedId={}", captureId);
+                //logger.debug("enabled: capturedId={} receiver={} returnValue={} returnValueOID={}",
+                //            new Object[] { captureId,
+                //                   System.identityHashCode(receiver), System.identityHashCode(returnValue),
+                //                  System.identityHashCode(returnValue) });
+            }
 
-                currentLog.logEnd(captureId, receiver, returnValue);
-                setCapturing(true);
-                //}
+            synchronized (log) {
+                log.logEnd(captureId, receiver, returnValue);
             }
         } catch (Throwable t) {
             // TODO: Handle properly
             logger.debug(t.toString());
-
+        } finally {
+            isLogging.set(Boolean.FALSE);
         }
     }
 }
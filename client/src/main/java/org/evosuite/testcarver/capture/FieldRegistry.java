@@ -30,27 +30,60 @@ import java.lang.reflect.Modifier;
 import java.util.*;
 
 public final class FieldRegistry {
-    private static final Map<String, ReferenceQueue<?>> classRefQueueMapping = new LinkedHashMap<>();
-    private static final Map<String, List<MyWeakRef<?>>> classInstanceMapping = new LinkedHashMap<>();
 
-    private static final Map<Integer, Map<String, WeakReference<?>>> instanceRecentFieldValuesMapping = new LinkedHashMap<>();
+    /**
+     * The state of the registry. Each {@link CaptureContext} has its own, so that
+     * fields of classes loaded by different carving class loaders are not mixed up
+     */
+    static final class Registry {
+        private final Map<String, ReferenceQueue<?>> classRefQueueMapping = new LinkedHashMap<>();
+        private final Map<String, List<MyWeakRef<?>>> classInstanceMapping = new LinkedHashMap<>();
 
-    private static final Map<String, Map<String, Field>> classFieldsMapping = new LinkedHashMap<>();
+        private final Map<Integer, Map<String, WeakReference<?>>> instanceRecentFieldValuesMapping = new LinkedHashMap<>();
 
-    private static final Set<Class<?>> CLASSES = new LinkedHashSet<>();
+        private final Map<String, Map<String, Field>> classFieldsMapping = new LinkedHashMap<>();
 
-    private static final Set<Integer> registeredObjects = new LinkedHashSet<>();
+        private final Set<Class<?>> classes = new LinkedHashSet<>();
 
-    private static final Logger logger = LoggerFactory.getLogger(FieldRegistry.class);
+        private final Set<Integer> registeredObjects = new LinkedHashSet<>();
+
+        private int captureId = Integer.MAX_VALUE;
 
-    private static int captureId = Integer.MAX_VALUE;
+        private ClassLoader carvingClassLoader = null;
+    }
 
-    public static ClassLoader carvingClassLoader = null;
+    private static final Logger logger = LoggerFactory.getLogger(FieldRegistry.class);
 
     private FieldRegistry() {
     }
 
-    synchronized public static void register(final Object instance) {
+    /**
+     * The registry used by the current thread, see {@link CaptureContext}
+     */
+    private static Registry registry() {
+        return CaptureContext.get().getFieldRegistry();
+    }
+
+    /**
+     * Set the loader of the instrumented classes whose fields are observed by the current thread
+     *
+     * @param carvingClassLoader the carving class loader, or {@code null}
+     */
+    public static void setCarvingClassLoader(final ClassLoader carvingClassLoader) {
+        final Registry registry = registry();
+        synchronized (registry) {
+            registry.carvingClassLoader = carvingClassLoader;
+        }
+    }
+
+    public static void register(final Object instance) {
+        final Registry registry = registry();
+        synchronized (registry) {
+            register(registry, instance);
+        }
+    }
+
+    private static void register(final Registry registry, final Object instance) {
         if (!Capturer.isCapturing()) {
             return;
         }
@@ -64,16 +97,16 @@ public final class FieldRegistry {
             }
 
             final String internalClassName = clazz.getName().replace('.', '/');
-            registeredObjects.add(System.identityHashCode(instance));
-            cleanUpReferences(internalClassName);
+            registry.registeredObjects.add(System.identityHashCode(instance));
+            cleanUpReferences(registry, internalClassName);
 
-            Map<String, Field> observedFields = classFieldsMapping.get(internalClassName);
+            Map<String, Field> observedFields = registry.classFieldsMapping.get(internalClassName);
             if (observedFields == null) {
                 // determine observable fields
 
                 observedFields = new LinkedHashMap<>();
 
-                collectAccessibleFields(observedFields, clazz, null);
+                collectAccessibleFields(registry, observedFields, clazz, null);
 
                 //if (observedFields.isEmpty()) {
                 //	logger.debug("Class {} has no observable fields", clazz);
@@ -152,7 +185,7 @@ public final class FieldRegistry {
 //		}
     }
 
-    private static Map<String, Field> collectAccessibleFields(Map<String, Field> accessibleFields,
+    private static Map<String, Field> collectAccessibleFields(final Registry registry, Map<String, Field> accessibleFields,
                                                               final Class<?> clazz, final Package childPackage) {
         if (clazz == null || Object.class.equals(clazz)) {
             logger.debug("Cannot get fields for null class");
@@ -186,51 +219,59 @@ public final class FieldRegistry {
         }
 
         logger.debug("Looking at fields of superclass {}", clazz.getSuperclass().getCanonicalName());
-        Map<String, Field> superFieldMap = collectAccessibleFields(accessibleFields, clazz.getSuperclass(),
+        Map<String, Field> superFieldMap = collectAccessibleFields(registry, accessibleFields, clazz.getSuperclass(),
                 clazz.getPackage());
         currentAccessibleFields.putAll(superFieldMap);
-        classFieldsMapping.put(clazz.getName().replace('.', '/'), currentAccessibleFields);
+        registry.classFieldsMapping.put(clazz.getName().replace('.', '/'), currentAccessibleFields);
         logger.debug("Storing {} field(s) for {}: {}", currentAccessibleFields.size(),
                 clazz.getCanonicalName(), currentAccessibleFields);
         return currentAccessibleFields;
     }
 
-    private static void cleanUpReferences(final String internalClassName) {
-        final List<MyWeakRef<?>> instances = classInstanceMapping.get(internalClassName);
+    private static void cleanUpReferences(final Registry registry, final String internalClassName) {
+        final List<MyWeakRef<?>> instances = registry.classInstanceMapping.get(internalClassName);
 
         if (instances != null) {
-            final ReferenceQueue<?> refQueue = classRefQueueMapping.get(internalClassName);
+            final ReferenceQueue<?> refQueue = registry.classRefQueueMapping.get(internalClassName);
 
             // clean list of instances from garbagge collected references
             Reference<?> ref;
             while ((ref = refQueue.poll()) != null) {
                 instances.remove(ref);
 
-                instanceRecentFieldValuesMapping.remove(((MyWeakRef<?>) ref).oid);
+                registry.instanceRecentFieldValuesMapping.remove(((MyWeakRef<?>) ref).oid);
             }
 
             if (instances.isEmpty()) {
-                classRefQueueMapping.remove(internalClassName);
-                classInstanceMapping.remove(internalClassName);
-                classFieldsMapping.remove(internalClassName);
+                registry.classRefQueueMapping.remove(internalClassName);
+                registry.classInstanceMapping.remove(internalClassName);
+                registry.classFieldsMapping.remove(internalClassName);
             }
         }
     }
 
-    synchronized public static void notifyModification(Object receiver, final int captureId,
-                                                       final String internalClassName, final String fieldName, final String desc) {
-        cleanUpReferences(internalClassName);
+    public static void notifyModification(Object receiver, final int captureId,
+                                          final String internalClassName, final String fieldName, final String desc) {
+        final Registry registry = registry();
+        synchronized (registry) {
+            notifyModification(registry, receiver, captureId, internalClassName, fieldName, desc);
+        }
+    }
+
+    private static void notifyModification(final Registry registry, Object receiver, final int captureId,
+                                           final String internalClassName, final String fieldName, final String desc) {
+        cleanUpReferences(registry, internalClassName);
 
         if (!Capturer.isCapturing()) {
             return;
         }
-        Map<String, Field> observedFields = classFieldsMapping.get(internalClassName);
+        Map<String, Field> observedFields = registry.classFieldsMapping.get(internalClassName);
         if (observedFields == null) {
             // determine observable fields
-            populateFieldMap(internalClassName, fieldName);
+            populateFieldMap(registry, internalClassName, fieldName);
         }
         try {
-            final Map<String, Field> fields = classFieldsMapping.get(internalClassName);
+            final Map<String, Field> fields = registry.classFieldsMapping.get(internalClassName);
             if (fields == null) {
                 logger.error("Fields map for class {} should not be null",
                         internalClassName);
@@ -239,7 +280,7 @@ public final class FieldRegistry {
             }
 
             if (fields.isEmpty()) {
-                logger.debug(classFieldsMapping.toString());
+                logger.debug(registry.classFieldsMapping.toString());
                 logger.debug("Done modify - no fields");
                 return;
             }
@@ -259,7 +300,7 @@ public final class FieldRegistry {
                     if (receiver instanceof Class) {
                         return;
                     }
-                    if (!registeredObjects.contains(System.identityHashCode(receiver))) {
+                    if (!registry.registeredObjects.contains(System.identityHashCode(receiver))) {
                         return;
                     }
 
@@ -354,19 +395,19 @@ public final class FieldRegistry {
 
     }
 
-    private static void populateFieldMap(String internalClassName, String fieldName) {
+    private static void populateFieldMap(final Registry registry, String internalClassName, String fieldName) {
         Map<String, Field> observedFields = new LinkedHashMap<>();
         try {
-            Class<?> clazz = Class.forName(internalClassName.replace('/', '.'), true, carvingClassLoader);
+            Class<?> clazz = Class.forName(internalClassName.replace('/', '.'), true, registry.carvingClassLoader);
 
-            collectAccessibleFields(observedFields, clazz, null);
+            collectAccessibleFields(registry, observedFields, clazz, null);
             if (!observedFields.containsKey(fieldName)) {
                 logger.debug("Field {} not observed", fieldName);
                 return;
             }
             logger.debug("Trying to get field {} for class {}", fieldName, internalClassName);
             if (Modifier.isStatic(observedFields.get(fieldName).getModifiers())) {
-                register(clazz);
+                register(registry, clazz);
             }
 
 //			if (observedFields.isEmpty()) {
@@ -380,7 +421,7 @@ public final class FieldRegistry {
         } catch (ClassNotFoundException e) {
             logger.info("Error loading class " + internalClassName + ": " + e);
         } catch (Throwable e) {
-            logger.debug("Carving classloader: " + carvingClassLoader);
+            logger.debug("Carving classloader: " + registry.carvingClassLoader);
             logger.info("TODO Error loading class " + internalClassName + ": " + e);
             logger.info("TODO Error loading class " + internalClassName + ": " + e.getCause());
             for (StackTraceElement elem : e.getStackTrace()) {
@@ -393,23 +434,31 @@ public final class FieldRegistry {
         }
     }
 
-    synchronized public static void notifyReadAccess(Object receiver, final int captureId,
-                                                     final String internalClassName, final String fieldName, final String desc) {
-        cleanUpReferences(internalClassName);
+    public static void notifyReadAccess(Object receiver, final int captureId,
+                                        final String internalClassName, final String fieldName, final String desc) {
+        final Registry registry = registry();
+        synchronized (registry) {
+            notifyReadAccess(registry, receiver, captureId, internalClassName, fieldName, desc);
+        }
+    }
+
+    private static void notifyReadAccess(final Registry registry, Object receiver, final int captureId,
+                                         final String internalClassName, final String fieldName, final String desc) {
+        cleanUpReferences(registry, internalClassName);
 
         if (!Capturer.isCapturing()) {
             return;
         }
 
 
-        Map<String, Field> observedFields = classFieldsMapping.get(internalClassName);
+        Map<String, Field> observedFields = registry.classFieldsMapping.get(internalClassName);
         if (observedFields == null) {
             // determine observable fields
             logger.debug("Haven't seen {} {} yet", internalClassName, fieldName);
-            populateFieldMap(internalClassName, fieldName);
+            populateFieldMap(registry, internalClassName, fieldName);
         }
         try {
-            final Map<String, Field> fields = classFieldsMapping.get(internalClassName);
+            final Map<String, Field> fields = registry.classFieldsMapping.get(internalClassName);
             if (fields == null) {
                 logger.error("Fields map for class {} should not be null",
                         internalClassName);
@@ -438,7 +487,7 @@ public final class FieldRegistry {
                     logger.debug("WTF read");
                     return;
                 }
-                if (!registeredObjects.contains(System.identityHashCode(receiver))) {
+                if (!registry.registeredObjects.contains(System.identityHashCode(receiver))) {
                     return;
                 }
 
@@ -470,29 +519,50 @@ public final class FieldRegistry {
         }
     }
 
-    synchronized public static void clear() {
-        classInstanceMapping.clear();
-        classFieldsMapping.clear();
-        instanceRecentFieldValuesMapping.clear();
-        classRefQueueMapping.clear();
-        registeredObjects.clear();
-        captureId = Integer.MAX_VALUE;
+    public static void clear() {
+        final Registry registry = registry();
+        synchronized (registry) {
+            clear(registry);
+        }
+    }
+
+    private static void clear(final Registry registry) {
+        registry.classInstanceMapping.clear();
+        registry.classFieldsMapping.clear();
+        registry.instanceRecentFieldValuesMapping.clear();
+        registry.classRefQueueMapping.clear();
+        registry.registeredObjects.clear();
+        registry.captureId = Integer.MAX_VALUE;
     }
 
-    synchronized public static void restoreForegoingGETSTATIC() {
-        for (Class<?> c : CLASSES) {
-            register(c);
+    public static void restoreForegoingGETSTATIC() {
+        final Registry registry = registry();
+        synchronized (registry) {
+            restoreForegoingGETSTATIC(registry);
+        }
+    }
+
+    private static void restoreForegoingGETSTATIC(final Registry registry) {
+        for (Class<?> c : registry.classes) {
+            register(registry, c);
         }
     }
 
     public static String classFieldsMappinString() {
+        final Registry registry = registry();
+        synchronized (registry) {
+            return classFieldsMappinString(registry);
+        }
+    }
+
+    private static String classFieldsMappinString(final Registry registry) {
         final StringBuilder builder = new StringBuilder();
 
         String c;
         Map<String, Field> fieldMap;
         int fieldModifiers;
 
-        for (Map.Entry<String, Map<String, Field>> entry : classFieldsMapping.entrySet()) {
+        for (Map.Entry<String, Map<String, Field>> entry : registry.classFieldsMapping.entrySet()) {
             c = entry.getKey();
             fieldMap = entry.getValue();
 
@@ -510,7 +580,14 @@ public final class FieldRegistry {
     }
 
     public static boolean isKnownObject(Object obj) {
-        return registeredObjects.contains(obj);
+        final Registry registry = registry();
+        synchronized (registry) {
+            return isKnownObject(registry, obj);
+        }
+    }
+
+    private static boolean isKnownObject(final Registry registry, Object obj) {
+        return registry.registeredObjects.contains(obj);
     }
 
     public static class MyWeakRef<T> extends WeakReference<T> {
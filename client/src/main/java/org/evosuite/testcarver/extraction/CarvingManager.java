@@ -23,6 +23,8 @@ import org.evosuite.Properties;
 import org.evosuite.classpath.ResourceList;
 import org.evosuite.rmi.ClientServices;
 import org.evosuite.rmi.service.ClientState;
+import org.evosuite.testcarver.capture.CaptureContext;
+import org.evosuite.testcarver.capture.Capturer;
 import org.evosuite.testcarver.capture.FieldRegistry;
 import org.evosuite.testcarver.testcase.CarvedTestCase;
 import org.evosuite.testcase.TestCase;
@@ -36,6 +38,10 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 public class CarvingManager {
 
@@ -93,20 +99,20 @@ public class CarvingManager {
         }
     }
 
-    private void readTestCases() throws IllegalStateException {
-        ClientServices.getInstance().getClientNode().changeState(ClientState.CARVING);
-        Collection<String> junitTestNames = getListOfJUnitClassNames();
-        LoggingUtils.getEvoLogger().info("* Executing tests from {} test {} for carving",
-                junitTestNames.size(), junitTestNames.size() == 1 ? "class" : "classes");
+    /**
+     * Run the given JUnit classes on a new carving class loader, capturing into the
+     * context of the current thread
+     *
+     * @return the carved tests for each observed class
+     */
+    private Map<Class<?>, List<TestCase>> carveTests(Collection<String> junitTestNames) {
         final JUnitCore runner = new JUnitCore();
         final CarvingRunListener listener = new CarvingRunListener();
         runner.addListener(listener);
 
-
         final List<Class<?>> junitTestClasses = new ArrayList<>();
-        final org.evosuite.testcarver.extraction.CarvingClassLoader classLoader = new org.evosuite.testcarver.extraction.CarvingClassLoader();
-        // TODO: This really needs to be done in a nicer way!
-        FieldRegistry.carvingClassLoader = classLoader;
+        final CarvingClassLoader classLoader = new CarvingClassLoader();
+        FieldRegistry.setCarvingClassLoader(classLoader);
         try {
             // instrument target class
             classLoader.loadClass(Properties.TARGET_CLASS);
@@ -132,8 +138,104 @@ public class CarvingManager {
             logger.info("Failure: {}", failure.getMessage());
             logger.info("Exception: {}", failure.getException());
         }
+        return listener.getTestCases();
+    }
+
+    /**
+     * Carve each partition of the JUnit classes in a thread of its own. Each thread has its
+     * own carving class loader and capture context, so that the static state of the tests
+     * and of the instrumented classes is not shared between threads.
+     *
+     * @return the carved tests of all partitions, in the order of the partitions
+     */
+    private Map<Class<?>, List<TestCase>> carveTestsConcurrently(List<List<String>> partitions) {
+        logger.info("Carving tests with {} threads", partitions.size());
+        final ExecutorService workers = Executors.newFixedThreadPool(partitions.size());
+        final Map<Class<?>, List<TestCase>> testMap = new LinkedHashMap<>();
+        try {
+            List<Future<Map<Class<?>, List<TestCase>>>> carved = new ArrayList<>();
+            for (final List<String> partition : partitions) {
+                carved.add(workers.submit(() -> {
+                    CaptureContext.isolate();
+                    try {
+                        return carveTests(partition);
+                    } finally {
+                        Capturer.clear();
+                        CaptureContext.reset();
+                    }
+                }));
+            }
+
+            for (Future<Map<Class<?>, List<TestCase>>> future : carved) {
+                try {
+                    for (Map.Entry<Class<?>, List<TestCase>> entry : future.get().entrySet()) {
+                        testMap.computeIfAbsent(entry.getKey(), k -> new ArrayList<>()).addAll(entry.getValue());
+                    }
+                } catch (ExecutionException e) {
+                    logger.error("Failed to carve tests: {}", e.getCause().toString());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            workers.shutdownNow();
+        }
+        return testMap;
+    }
+
+    /**
+     * Split the JUnit classes in at most the given number of partitions of similar size.
+     * Classes are sorted first, so that the same classes always end up together
+     */
+    static List<List<String>> partition(Collection<String> junitTestNames, int numPartitions) {
+        List<String> names = new ArrayList<>(junitTestNames);
+        Collections.sort(names);
+        int size = Math.max(1, Math.min(numPartitions, names.size()));
+        List<List<String>> partitions = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            partitions.add(new ArrayList<>());
+        }
+        for (int i = 0; i < names.size(); i++) {
+            partitions.get(i % size).add(names.get(i));
+        }
+        return partitions;
+    }
+
+    /**
+     * Different JUnit tests often carve the same sequence of statements, e.g. when they share
+     * a setup. Only the first test with each sequence is kept, so that duplicates are not
+     * executed again and do not bias the seeding.
+     */
+    static void removeDuplicates(Map<Class<?>, List<TestCase>> testMap) {
+        int numDuplicates = 0;
+        for (List<TestCase> tests : testMap.values()) {
+            Set<String> sequences = new HashSet<>();
+            Iterator<TestCase> iterator = tests.iterator();
+            while (iterator.hasNext()) {
+                if (!sequences.add(iterator.next().toCode())) {
+                    iterator.remove();
+                    numDuplicates++;
+                }
+            }
+        }
+        logger.info("Removed {} duplicate carved tests", numDuplicates);
+    }
+
+    private void readTestCases() throws IllegalStateException {
+        ClientServices.getInstance().getClientNode().changeState(ClientState.CARVING);
+        Collection<String> junitTestNames = getListOfJUnitClassNames();
+        LoggingUtils.getEvoLogger().info("* Executing tests from {} test {} for carving",
+                junitTestNames.size(), junitTestNames.size() == 1 ? "class" : "classes");
+
+        final Map<Class<?>, List<TestCase>> testMap;
+        final List<List<String>> partitions = partition(junitTestNames, Properties.CARVING_THREADS);
+        if (partitions.size() <= 1) {
+            testMap = carveTests(junitTestNames);
+        } else {
+            testMap = carveTestsConcurrently(partitions);
+        }
+        removeDuplicates(testMap);
 
-        Map<Class<?>, List<TestCase>> testMap = listener.getTestCases();
         for (Class<?> targetClass : testMap.keySet()) {
 
             List<TestCase> processedTests = new ArrayList<>();
@@ -197,8 +299,7 @@ public class CarvingManager {
         }
         carvingDone = true;
 
-        // TODO: Argh.
-        FieldRegistry.carvingClassLoader = null;
+        FieldRegistry.setCarvingClassLoader(null);
         // TODO:
         // ClientNodeLocal client = ClientServices.getInstance().getClientNode();
         // client.trackOutputVariable(RuntimeVariable.CarvedTests, totalNumberOfTestsCarved);
@@ -45,6 +45,12 @@ public class CarvingRunListener extends RunListener {
 
     private final static Logger logger = LoggerFactory.getLogger(CarvingRunListener.class);
 
+    /**
+     * Logs are turned into tests one at a time, even when several listeners carve
+     * concurrently, as the code generation works on the shared class loader of the SUT
+     */
+    private static final Object PROCESS_LOCK = new Object();
+
     public Map<Class<?>, List<TestCase>> getTestCases() {
         return carvedTests;
     }
@@ -66,7 +72,9 @@ public class CarvingRunListener extends RunListener {
         final CaptureLog log = Capturer.stopCapture();
         if (TimeController.getInstance().isThereStillTimeInThisPhase()) {
             LoggingUtils.getEvoLogger().info(" - Carving test {}.{}", description.getClassName(), description.getMethodName());
-            this.processLog(description, log);
+            synchronized (PROCESS_LOCK) {
+                this.processLog(description, log);
+            }
         }
         Capturer.clear();
     }
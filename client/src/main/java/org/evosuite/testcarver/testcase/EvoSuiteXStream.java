@@ -21,8 +21,19 @@ package org.evosuite.testcarver.testcase;
 
 import com.thoughtworks.xstream.XStream;
 
+import java.lang.ref.SoftReference;
+import java.util.Map;
+import java.util.WeakHashMap;
+
 public class EvoSuiteXStream {
 
+    /**
+     * XStream is expensive to create, and thread-safe once configured. But it caches the
+     * classes it resolves by name, so an instance can only be shared within a class loader.
+     * The values are soft, as the cached classes keep their class loader reachable
+     */
+    private static final Map<ClassLoader, SoftReference<XStream>> xstreams = new WeakHashMap<>();
+
     /**
      * This wrapper is used to allow use of XStream from the evosuite
      * dependencies rather than making XStream a dependency of the SUT
@@ -31,7 +42,20 @@ public class EvoSuiteXStream {
      * @return
      */
     public static Object fromString(String value) {
-        XStream xstream = new XStream();
-        return xstream.fromXML(value);
+        return getXStream().fromXML(value);
+    }
+
+    /**
+     * @return the XStream instance for the context class loader of the current thread
+     */
+    public static synchronized XStream getXStream() {
+        ClassLoader loader = Thread.currentThread().getContextClassLoader();
+        SoftReference<XStream> reference = xstreams.get(loader);
+        XStream xstream = reference == null ? null : reference.get();
+        if (xstream == null) {
+            xstream = new XStream();
+            xstreams.put(loader, new SoftReference<>(xstream));
+        }
+        return xstream;
     }
 }
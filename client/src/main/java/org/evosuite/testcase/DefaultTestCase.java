@@ -20,6 +20,7 @@
 package org.evosuite.testcase;
 
 import org.apache.commons.lang3.reflect.MethodUtils;
+import org.evosuite.Properties;
 import org.evosuite.assertion.Assertion;
 import org.evosuite.assertion.InspectorAssertion;
 import org.evosuite.assertion.PrimitiveFieldAssertion;
@@ -29,7 +30,7 @@ import org.evosuite.runtime.util.Inputs;
 import org.evosuite.setup.TestClusterUtils;
 import org.evosuite.testcase.execution.CodeUnderTestException;
 import org.evosuite.testcase.execution.Scope;
-import org.evosuite.testcase.llm.LLMService;
+import org.evosuite.testcase.llm.LLMSelectionService;
 import org.evosuite.testcase.statements.*;
 import org.evosuite.testcase.statements.environment.AccessedEnvironment;
 import org.evosuite.testcase.variable.*;
@@ -763,67 +764,73 @@ public class DefaultTestCase implements TestCase, Serializable {
                     + " at position " + position);
         }
 
-        // Use LLM service to select the most appropriate object
-        LLMService llmService = LLMService.getInstance();
+        // Ask the LLM, without waiting for it more than the latency budget
         String context = buildSelectionContext(type, position, variables);
+        int index = -1;
+        try {
+            index = LLMSelectionService.getInstance().select(buildSelectionFingerprint(type, variables),
+                    context, variables.size(), Properties.LLM_SELECTION_TIMEOUT);
+        } catch (Exception e) {
+            logger.debug("LLM selection failed: {}", e.getMessage());
+        }
 
-        int maxRetries = 3;  // 最大重试次数
-        int currentRetry = 0;
-        Exception lastException = null;
-
-        while (currentRetry < maxRetries) {
-            try {
-                String selectedIndex = llmService.queryLLM(context);
-
-                // 尝试解析返回值，去除所有非数字字符
-                String cleanedIndex = selectedIndex.replaceAll("[^0-9]", "").trim();
-                if (cleanedIndex.isEmpty()) {
-                    logger.debug("LLM returned no valid index on attempt {}, response: {}",
-                            currentRetry + 1, selectedIndex);
-                    currentRetry++;
-                    continue;
-                }
+        if (index >= 0) {
+            logger.debug("LLM selected index {}", index);
+            return variables.get(index);
+        }
 
-                int index = Integer.parseInt(cleanedIndex);
+        logger.debug("No LLM selection available in time, falling back to random selection");
+        return Randomness.choice(variables);
+    }
 
-                // 验证索引的有效性
-                if (index >= 0 && index < variables.size()) {
-                    logger.debug("LLM successfully selected index {} on attempt {}",
-                            index, currentRetry + 1);
-                    return variables.get(index);
-                } else {
-                    logger.debug("LLM returned invalid index {} on attempt {}, valid range: [0, {}]",
-                            index, currentRetry + 1, variables.size() - 1);
-                }
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void prefetchLLMSelectedObject(Type type, int position) {
+        Inputs.checkNull(type);
 
-            } catch (Exception e) {
-                lastException = e;
-                logger.debug("LLM selection failed on attempt {}: {}",
-                        currentRetry + 1, e.getMessage());
-            }
+        List<VariableReference> variables = getObjects(type, position);
+        variables.removeIf(ref -> {
+            final Statement statement = this.getStatement(ref.getStPosition());
+            return ref instanceof NullReference || statement instanceof FunctionalMockStatement;
+        });
 
-            currentRetry++;
-            if (currentRetry < maxRetries) {
-                try {
-                    // 在重试之间添加短暂延迟，避免过于频繁的请求
-                    Thread.sleep(100L * currentRetry);  // 递增延迟
-                } catch (InterruptedException ie) {
-                    Thread.currentThread().interrupt();
-                    break;
-                }
-            }
+        // there is nothing to choose from
+        if (variables.size() < 2) {
+            return;
         }
 
-        // 所有重试都失败后，记录详细错误信息并回退到随机选择
-        if (lastException != null) {
-            logger.warn("All {} LLM selection attempts failed, falling back to random selection. Last error: {}",
-                    maxRetries, lastException.getMessage());
-        } else {
-            logger.warn("All {} LLM selection attempts failed to produce valid index, falling back to random selection",
-                    maxRetries);
+        try {
+            LLMSelectionService.getInstance().prefetch(buildSelectionFingerprint(type, variables),
+                    buildSelectionContext(type, position, variables));
+        } catch (Exception e) {
+            logger.debug("LLM prefetch failed: {}", e.getMessage());
         }
+    }
 
-        return Randomness.choice(variables);
+    /**
+     * Normalized description of a selection, used to reuse the answers of the LLM.
+     * Selections among the same kinds of statements share their answer, regardless of
+     * positions and variable names.
+     */
+    private String buildSelectionFingerprint(Type type, List<VariableReference> variables) {
+        StringBuilder fingerprint = new StringBuilder();
+        fingerprint.append(type.getTypeName());
+        for (VariableReference ref : variables) {
+            Statement stmt = this.getStatement(ref.getStPosition());
+            fingerprint.append('|').append(stmt.getClass().getSimpleName());
+            if (stmt instanceof MethodStatement) {
+                MethodStatement methodStmt = (MethodStatement) stmt;
+                fingerprint.append(':').append(methodStmt.getDeclaringClassName())
+                        .append('.').append(methodStmt.getMethodName());
+            } else if (stmt instanceof ConstructorStatement) {
+                fingerprint.append(':').append(((ConstructorStatement) stmt).getDeclaringClassName());
+            }
+            fingerprint.append(':').append(ref.getType().getTypeName())
+                    .append(':').append(stmt.getVariableReferences().size() - 1);
+        }
+        return fingerprint.toString();
     }
 
     /**
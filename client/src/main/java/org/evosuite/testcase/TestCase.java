@@ -267,6 +267,16 @@ public interface TestCase extends Iterable<Statement>, Cloneable, Listenable<Voi
     VariableReference getLLMSelectedObject(Type type, int position)
             throws ConstructionFailedException;
 
+    /**
+     * Ask the LLM in the background which object of the specified type it would
+     * select, so that a later call to {@link #getLLMSelectedObject(Type, int)}
+     * with the same test and arguments does not have to wait for it
+     *
+     * @param type     The type of the object to select
+     * @param position The position in the test case up to which we search
+     */
+    void prefetchLLMSelectedObject(Type type, int position);
+
     /**
      * Get a random object matching type
      *
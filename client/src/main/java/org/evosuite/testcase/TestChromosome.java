@@ -28,6 +28,7 @@ import org.evosuite.ga.localsearch.LocalSearchObjective;
 import org.evosuite.ga.operators.mutation.MutationHistory;
 import org.evosuite.runtime.util.AtMostOnceLogger;
 import org.evosuite.setup.TestCluster;
+import org.evosuite.statistics.MetricsRegistry;
 import org.evosuite.symbolic.BranchCondition;
 import org.evosuite.symbolic.ConcolicMutation;
 import org.evosuite.symbolic.dse.ConcolicExecutorImpl;
@@ -298,6 +299,15 @@ public final class TestChromosome extends AbstractTestChromosome<TestChromosome>
      */
     @Override
     public void mutate() {
+        MetricsRegistry.Sample sample = MetricsRegistry.start(MetricsRegistry.Phase.TEST_MUTATION);
+        try {
+            mutateStatements();
+        } finally {
+            sample.stop();
+        }
+    }
+
+    private void mutateStatements() {
         boolean changed = false;
         mutationHistory.clear();
 
@@ -110,6 +110,17 @@ public class TestCodeVisitor extends TestVisitor {
                 .collect(toCollection(HashSet::new));
     }
 
+    /**
+     * Use the same class names as the given visitor. This is needed when several
+     * visitors generate code for the same test class, as names have to match the
+     * imports that were determined by the other visitor
+     *
+     * @param other a {@link org.evosuite.testcase.TestCodeVisitor} object.
+     */
+    public void addClassNames(TestCodeVisitor other) {
+        classNames.putAll(other.classNames);
+    }
+
     /**
      * <p>
      * clearExceptions
@@ -2320,6 +2320,9 @@ public class TestFactory {
                     }
 
                     addMethodFor(test, callee, m.copyWithNewOwner(callee.getGenericClass()), position);
+
+                    // UUT calls are mostly inserted at the end, so the next selection is likely this one
+                    test.prefetchLLMSelectedObject(target, test.size());
                 } else {
                     addMethod(test, m, position, 0);
                 }
@@ -24,6 +24,7 @@ import org.evosuite.coverage.dataflow.DefUse;
 import org.evosuite.setup.CallContext;
 import org.evosuite.testcase.execution.ExecutionTraceImpl.BranchEval;
 
+import java.util.BitSet;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -308,6 +309,14 @@ public interface ExecutionTrace {
      */
     Set<Integer> getTouchedMutants();
 
+    /**
+     * Retrieve IDs of all executed mutants, without boxing them. The
+     * returned set is the one of the trace, and must not be modified
+     *
+     * @return a {@link java.util.BitSet} object.
+     */
+    BitSet getTouchedMutantIds();
+
     /**
      * Retrieve IDs of all executed mutants with an infection distance == 0.0
      *
@@ -230,7 +230,8 @@ public class ExecutionTraceImpl implements ExecutionTrace, Cloneable {
     public Map<Integer, Object> knownCallerObjects = Collections.synchronizedMap(new HashMap<>());
     // to differentiate between different MethodCalls
     private int methodId = 0;
-    public Map<Integer, Double> mutantDistances = Collections.synchronizedMap(new HashMap<>());
+    // minimal infection distance of each touched mutant, by mutation id
+    private double[] mutantDistances = new double[0];
     // for defuse-coverage it is important to keep track of all the objects that
     // called the ExecutionTracer
     private int objectCounter = 0;
@@ -254,7 +255,8 @@ public class ExecutionTraceImpl implements ExecutionTrace, Cloneable {
     // active calls
     LinkedList<MethodCall> stack = new LinkedList<>();
 
-    public Set<Integer> touchedMutants = Collections.synchronizedSet(new HashSet<>());
+    // ids of the touched mutants
+    private BitSet touchedMutants = new BitSet();
 
     public Map<Integer, Double> trueDistances = Collections.synchronizedMap(new HashMap<>());
 
@@ -545,8 +547,8 @@ public class ExecutionTraceImpl implements ExecutionTrace, Cloneable {
         knownCallerObjects = new HashMap<>();
         trueDistances = new HashMap<>();
         falseDistances = new HashMap<>();
-        mutantDistances = new HashMap<>();
-        touchedMutants = new HashSet<>();
+        mutantDistances = new double[0];
+        touchedMutants = new BitSet();
         coveredMethods = new HashMap<>();
         coveredBranchlessMethods = new HashMap<>();
         coveredPredicates = new HashMap<>();
@@ -599,8 +601,8 @@ public class ExecutionTraceImpl implements ExecutionTrace, Cloneable {
         copy.coveredTrue.putAll(coveredTrue);
         copy.coveredFalse.putAll(coveredFalse);
         copy.coveredDefs.putAll(coveredDefs);
-        copy.touchedMutants.addAll(touchedMutants);
-        copy.mutantDistances.putAll(mutantDistances);
+        copy.touchedMutants.or(touchedMutants);
+        copy.mutantDistances = Arrays.copyOf(mutantDistances, mutantDistances.length);
         copy.passedDefinitions.putAll(passedDefinitions);
         copy.passedUses.putAll(passedUses);
         copy.passedDefinitionObject.putAll(passedDefinitionObject);
@@ -1074,7 +1076,10 @@ public class ExecutionTraceImpl implements ExecutionTrace, Cloneable {
      */
     @Override
     public double getMutationDistance(int mutationId) {
-        return mutantDistances.get(mutationId);
+        if (!touchedMutants.get(mutationId)) {
+            throw new IllegalArgumentException("Mutation " + mutationId + " was not touched");
+        }
+        return mutantDistances[mutationId];
     }
 
     /*
@@ -1088,7 +1093,11 @@ public class ExecutionTraceImpl implements ExecutionTrace, Cloneable {
      */
     @Override
     public Map<Integer, Double> getMutationDistances() {
-        return mutantDistances;
+        Map<Integer, Double> distances = new LinkedHashMap<>();
+        for (int id = touchedMutants.nextSetBit(0); id >= 0; id = touchedMutants.nextSetBit(id + 1)) {
+            distances.put(id, mutantDistances[id]);
+        }
+        return distances;
     }
 
     /*
@@ -1170,15 +1179,27 @@ public class ExecutionTraceImpl implements ExecutionTrace, Cloneable {
      */
     @Override
     public Set<Integer> getTouchedMutants() {
+        Set<Integer> touched = new LinkedHashSet<>();
+        for (int id = touchedMutants.nextSetBit(0); id >= 0; id = touchedMutants.nextSetBit(id + 1)) {
+            touched.add(id);
+        }
+        return touched;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public BitSet getTouchedMutantIds() {
         return touchedMutants;
     }
 
     @Override
     public Set<Integer> getInfectedMutants() {
         Set<Integer> infectedMutants = new LinkedHashSet<>();
-        for (Entry<Integer, Double> entry : mutantDistances.entrySet()) {
-            if (entry.getValue() == 0.0) {
-                infectedMutants.add(entry.getKey());
+        for (int id = touchedMutants.nextSetBit(0); id >= 0; id = touchedMutants.nextSetBit(id + 1)) {
+            if (mutantDistances[id] == 0.0) {
+                infectedMutants.add(id);
             }
         }
         return infectedMutants;
@@ -1489,11 +1510,14 @@ public class ExecutionTraceImpl implements ExecutionTrace, Cloneable {
     @Override
     public void mutationPassed(int mutationId, double distance) {
 
-        touchedMutants.add(mutationId);
-        if (!mutantDistances.containsKey(mutationId)) {
-            mutantDistances.put(mutationId, distance);
+        if (mutationId >= mutantDistances.length) {
+            mutantDistances = Arrays.copyOf(mutantDistances, Math.max(mutationId + 1, 2 * mutantDistances.length));
+        }
+        if (!touchedMutants.get(mutationId)) {
+            touchedMutants.set(mutationId);
+            mutantDistances[mutationId] = distance;
         } else {
-            mutantDistances.put(mutationId, Math.min(distance, mutantDistances.get(mutationId)));
+            mutantDistances[mutationId] = Math.min(distance, mutantDistances[mutationId]);
         }
     }
 
@@ -1749,7 +1773,7 @@ public class ExecutionTraceImpl implements ExecutionTrace, Cloneable {
      */
     @Override
     public boolean wasMutationTouched(int mutationId) {
-        return touchedMutants.contains(mutationId);
+        return touchedMutants.get(mutationId);
     }
 
     /**
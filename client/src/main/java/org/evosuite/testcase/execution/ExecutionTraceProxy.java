@@ -24,6 +24,7 @@ import org.evosuite.coverage.dataflow.DefUse;
 import org.evosuite.setup.CallContext;
 import org.evosuite.testcase.execution.ExecutionTraceImpl.BranchEval;
 
+import java.util.BitSet;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -477,6 +478,14 @@ public class ExecutionTraceProxy implements ExecutionTrace, Cloneable {
         return trace.getTouchedMutants();
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public BitSet getTouchedMutantIds() {
+        return trace.getTouchedMutantIds();
+    }
+
     @Override
     public Set<Integer> getInfectedMutants() {
         return trace.getInfectedMutants();
@@ -30,6 +30,7 @@ import org.evosuite.runtime.sandbox.Sandbox;
 import org.evosuite.runtime.util.JOptionPaneInputs;
 import org.evosuite.runtime.util.SystemInUtil;
 import org.evosuite.setup.TestCluster;
+import org.evosuite.statistics.Telemetry;
 import org.evosuite.testcase.TestCase;
 import org.evosuite.testcase.execution.reset.ClassReInitializer;
 import org.slf4j.Logger;
@@ -293,6 +294,7 @@ public class TestCaseExecutor implements ThreadFactory {
         Runtime.getInstance().resetRuntime();
 
         long startTime = System.currentTimeMillis();
+        long startNanos = System.nanoTime();
 
         TimeoutHandler<ExecutionResult> handler = new TimeoutHandler<>();
 
@@ -343,6 +345,7 @@ public class TestCaseExecutor implements ThreadFactory {
             long endTime = System.currentTimeMillis();
             timeExecuted += endTime - startTime;
             testsExecuted++;
+            Telemetry.recordTestExecution(System.nanoTime() - startNanos, result.getExecutedStatements());
             return result;
         } catch (ThreadDeath t) {
             logger.warn("Caught ThreadDeath during test execution");
@@ -389,6 +392,7 @@ public class TestCaseExecutor implements ThreadFactory {
                 logger.warn("Timeout occurred for " + Properties.TARGET_CLASS);
             }
             logger.info("TimeoutException, need to stop runner", e1);
+            Telemetry.TEST_TIMEOUTS.increment();
             ExecutionTracer.setKillSwitch(true);
             try {
                 handler.getLastTask().get(Properties.SHUTDOWN_TIMEOUT, TimeUnit.MILLISECONDS);
@@ -26,6 +26,7 @@ import org.evosuite.runtime.System.SystemExitException;
 import org.evosuite.runtime.jvm.ShutdownHookHandler;
 import org.evosuite.runtime.thread.KillSwitch;
 import org.evosuite.runtime.thread.ThreadStopper;
+import org.evosuite.statistics.MetricsRegistry;
 import org.evosuite.testcase.TestCase;
 import org.evosuite.testcase.statements.Statement;
 import org.evosuite.utils.LoggingUtils;
@@ -52,6 +53,13 @@ public class TestRunnable implements InterfaceTestRunnable {
 
     private static final ByteArrayOutputStream byteStream = new ByteArrayOutputStream();
 
+    /**
+     * Looked up when this class is loaded by {@link TestCaseExecutor}, so that the registry
+     * is initialized outside of the sandbox
+     */
+    private static final MetricsRegistry.Timer executionTimer =
+            MetricsRegistry.getTimer(MetricsRegistry.Phase.TEST_EXECUTION);
+
     private final TestCase test;
 
     private final Scope scope;
@@ -184,6 +192,7 @@ public class TestRunnable implements InterfaceTestRunnable {
          */
         AtomicInteger num = new AtomicInteger(0);
 
+        MetricsRegistry.Sample sample = executionTimer.start();
         try {
             if (Properties.REPLACE_CALLS) {
                 ShutdownHookHandler.getInstance().initHandler();
@@ -223,6 +232,7 @@ public class TestRunnable implements InterfaceTestRunnable {
             logger.error("Suppressed/ignored exception during test case execution on class "
                     + Properties.TARGET_CLASS + ": " + e.getMessage(), e);
         } finally {
+            sample.stop();
             if (!Properties.PRINT_TO_SYSTEM) {
                 LoggingUtils.restorePreviousOutAndErrStream();
             }
@@ -0,0 +1,253 @@
+package org.evosuite.testcase.llm;
+
+import org.evosuite.utils.MD5;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Two-level cache of LLM responses: a bounded in-memory LRU, backed by an
+ * append-only file that keeps the responses across runs.
+ *
+ * <p>
+ * Keys are hashed, so that they can be arbitrary long fingerprints. Only the position of
+ * each response in the file is kept in memory, and the response is read from disk on a miss
+ * of the LRU. If the same key is written more than once, the last response wins.
+ *
+ * <p>
+ * The file can be shared by several processes: it is locked while read or appended, and the
+ * responses appended by other processes are indexed before appending new ones.
+ */
+public class LLMResponseCache implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(LLMResponseCache.class);
+
+    private final Map<String, String> memory;
+
+    /**
+     * Offset in the file of the line of each hashed key
+     */
+    private final Map<String, Long> index = new HashMap<>();
+
+    private RandomAccessFile file = null;
+
+    /**
+     * Length of the part of the file that was indexed
+     */
+    private long indexed = 0;
+
+    private int numHits = 0;
+
+    private int numMisses = 0;
+
+    /**
+     * @param maxSize max number of responses kept in memory
+     * @param file    where responses are stored, or {@code null} to keep them only in memory
+     */
+    public LLMResponseCache(final int maxSize, File file) {
+        this.memory = new LinkedHashMap<String, String>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                return size() > maxSize;
+            }
+        };
+
+        if (file != null) {
+            try {
+                File parent = file.getAbsoluteFile().getParentFile();
+                if (parent != null && !parent.exists()) {
+                    parent.mkdirs();
+                }
+                this.file = new RandomAccessFile(file, "rw");
+                try (FileLock lock = this.file.getChannel().lock()) {
+                    loadIndex();
+                }
+                logger.debug("Loaded {} LLM responses from cache file", index.size());
+            } catch (IOException e) {
+                logger.warn("Cannot use LLM cache file {}: {}", file, e.getMessage());
+                try {
+                    close();
+                } catch (IOException ignored) {
+                    // not usable anyway
+                }
+                index.clear();
+            }
+        }
+    }
+
+    /**
+     * @param key the fingerprint of the request
+     * @return the cached response, or {@code null} if there is none
+     */
+    public synchronized String get(String key) {
+        String hash = MD5.hash(key);
+        String response = memory.get(hash);
+        if (response == null) {
+            Long offset = index.get(hash);
+            if (offset != null) {
+                try {
+                    String[] entry = readEntry(offset);
+                    if (entry != null) {
+                        response = entry[1];
+                        memory.put(hash, response);
+                    }
+                } catch (IOException e) {
+                    logger.warn("Cannot read LLM cache file: {}", e.getMessage());
+                }
+            }
+        }
+
+        if (response == null) {
+            numMisses++;
+        } else {
+            numHits++;
+        }
+        return response;
+    }
+
+    /**
+     * Check for a response without counting a hit or miss
+     *
+     * @param key the fingerprint of the request
+     * @return whether a response is cached
+     */
+    public synchronized boolean contains(String key) {
+        String hash = MD5.hash(key);
+        return memory.containsKey(hash) || index.containsKey(hash);
+    }
+
+    /**
+     * @param key      the fingerprint of the request
+     * @param response the response to cache
+     */
+    public synchronized void put(String key, String response) {
+        String hash = MD5.hash(key);
+        memory.put(hash, response);
+        if (file == null) {
+            return;
+        }
+        try (FileLock lock = file.getChannel().lock()) {
+            // other processes might have appended responses since the last time
+            loadIndex();
+            long offset = file.length();
+            file.seek(offset);
+            file.write((hash + "\t" + escape(response) + "\n").getBytes(StandardCharsets.UTF_8));
+            index.put(hash, offset);
+            indexed = file.length();
+        } catch (IOException e) {
+            logger.warn("Cannot write LLM cache file: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * @return the number of responses available, in memory or on disk
+     */
+    public synchronized int size() {
+        int size = index.size();
+        for (String hash : memory.keySet()) {
+            if (!index.containsKey(hash)) {
+                size++;
+            }
+        }
+        return size;
+    }
+
+    public synchronized int getNumHits() {
+        return numHits;
+    }
+
+    public synchronized int getNumMisses() {
+        return numMisses;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (file != null) {
+            file.close();
+            file = null;
+        }
+    }
+
+    /**
+     * Index the entries after the part of the file already indexed.
+     * This must be called holding the lock of the file
+     */
+    private void loadIndex() throws IOException {
+        long offset = indexed;
+        long lineStart = indexed;
+        ByteArrayOutputStream hash = new ByteArrayOutputStream();
+        boolean inHash = true;
+        byte[] buffer = new byte[8192];
+        file.seek(indexed);
+        int read;
+        while ((read = file.read(buffer)) > 0) {
+            for (int i = 0; i < read; i++) {
+                byte b = buffer[i];
+                offset++;
+                if (b == '\n') {
+                    if (!inHash) {
+                        index.put(new String(hash.toByteArray(), StandardCharsets.UTF_8), lineStart);
+                    }
+                    hash.reset();
+                    inHash = true;
+                    lineStart = offset;
+                } else if (b == '\t') {
+                    inHash = false;
+                } else if (inHash) {
+                    hash.write(b);
+                }
+            }
+        }
+        if (lineStart < offset) {
+            // truncated by a crash while writing, overwritten by the next entries
+            file.setLength(lineStart);
+        }
+        indexed = lineStart;
+    }
+
+    /**
+     * @return the hashed key and the response of the entry at the given offset,
+     * or {@code null} if the entry is not complete
+     */
+    private String[] readEntry(long offset) throws IOException {
+        file.seek(offset);
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        int b;
+        while ((b = file.read()) != '\n') {
+            if (b < 0) {
+                return null;
+            }
+            line.write(b);
+        }
+        String text = new String(line.toByteArray(), StandardCharsets.UTF_8);
+        int separator = text.indexOf('\t');
+        if (separator < 0) {
+            return null;
+        }
+        return new String[]{text.substring(0, separator), unescape(text.substring(separator + 1))};
+    }
+
+    private static String escape(String s) {
+        return s.replace("\\", "\\\\").replace("\n", "\\n").replace("\r", "\\r");
+    }
+
+    private static String unescape(String s) {
+        StringBuilder sb = new StringBuilder(s.length());
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '\\' && i + 1 < s.length()) {
+                char next = s.charAt(++i);
+                sb.append(next == 'n' ? '\n' : next == 'r' ? '\r' : next);
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,346 @@
+package org.evosuite.testcase.llm;
+
+import org.evosuite.Properties;
+import org.evosuite.rmi.ClientServices;
+import org.evosuite.statistics.RuntimeVariable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Selects objects with the LLM without blocking the search on the network.
+ *
+ * <p>
+ * Selection contexts are put in a bounded queue, and a background thread sends them to the
+ * {@link LLMService}, several at a time in a single query. The search only waits for an answer
+ * up to a small latency budget, after which the caller is expected to fall back to a random
+ * selection. Answers arriving late are kept, and used the next time the same context is
+ * selected or prefetched.
+ *
+ * <p>
+ * Answers are kept in a {@link LLMResponseCache}, under a key given by the caller. Contexts
+ * with the same key are assumed to have the same answer, even if their prompts differ.
+ */
+public class LLMSelectionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(LLMSelectionService.class);
+
+    private static LLMSelectionService instance = null;
+
+    /**
+     * Matches lines like "3: 1" in the answer to a batched query
+     */
+    private static final Pattern BATCH_ANSWER = Pattern.compile("(\\d+)\\s*[:=)\\-]+\\s*(\\d+)");
+
+    private final LLMService service;
+
+    private final int batchSize;
+
+    private final LLMResponseCache cache;
+
+    private final BlockingQueue<String[]> queue;
+
+    private final Map<String, CompletableFuture<Integer>> pending = new ConcurrentHashMap<>();
+
+    private final AtomicInteger numQueries = new AtomicInteger(0);
+
+    private final AtomicLong queryTime = new AtomicLong(0);
+
+    private final AtomicInteger numAnswered = new AtomicInteger(0);
+
+    private final AtomicInteger numTimeouts = new AtomicInteger(0);
+
+    private Thread worker = null;
+
+    /**
+     * @param service   the service used to query the LLM
+     * @param cache     where answers are kept
+     * @param queueSize max number of selections waiting for an answer
+     * @param batchSize max number of selections sent in a single query
+     */
+    public LLMSelectionService(LLMService service, LLMResponseCache cache, int queueSize, int batchSize) {
+        this.service = service;
+        this.cache = cache;
+        this.queue = new ArrayBlockingQueue<>(queueSize);
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Returns the singleton instance, querying {@link LLMService#getInstance()}
+     *
+     * @return LLMSelectionService instance
+     */
+    public static synchronized LLMSelectionService getInstance() {
+        if (instance == null) {
+            File file = Properties.LLM_CACHE_FILE == null || Properties.LLM_CACHE_FILE.isEmpty() ?
+                    null : new File(Properties.LLM_CACHE_FILE);
+            instance = new LLMSelectionService(LLMService.getInstance(),
+                    new LLMResponseCache(Properties.LLM_CACHE_SIZE, file),
+                    Properties.LLM_QUEUE_SIZE, Properties.LLM_BATCH_SIZE);
+        }
+        return instance;
+    }
+
+    /**
+     * Shut down the singleton instance, if any, so that its cache file is closed
+     */
+    public static synchronized void shutdownInstance() {
+        if (instance != null) {
+            instance.shutdown();
+            instance = null;
+        }
+    }
+
+    /**
+     * Track the cache and latency statistics of the LLM selections, if any was made
+     */
+    public static synchronized void trackOutputVariables() {
+        if (instance == null) {
+            return;
+        }
+        ClientServices.track(RuntimeVariable.LLM_Cache_Hits, instance.cache.getNumHits());
+        ClientServices.track(RuntimeVariable.LLM_Cache_Misses, instance.cache.getNumMisses());
+        ClientServices.track(RuntimeVariable.LLM_Queries, instance.getNumQueries());
+        ClientServices.track(RuntimeVariable.LLM_Query_Time, instance.getAverageQueryTime());
+    }
+
+    /**
+     * Select one of the candidates described in the given context
+     *
+     * @param key           fingerprint of the context
+     * @param context       the prompt describing the candidates
+     * @param numCandidates number of candidates in the context
+     * @param timeout       max milliseconds to wait for the LLM
+     * @return the index of the selected candidate, or -1 if no answer is available in time
+     */
+    public int select(String key, String context, int numCandidates, long timeout) {
+        String cached = cache.get(key);
+        Integer index = parseIndex(cached);
+        if (isValid(index, numCandidates)) {
+            numAnswered.incrementAndGet();
+            return index;
+        } else if (cached != null) {
+            // asking again would give the same invalid answer
+            numTimeouts.incrementAndGet();
+            return -1;
+        }
+
+        CompletableFuture<Integer> future = submit(key, context);
+        if (future == null || timeout <= 0) {
+            numTimeouts.incrementAndGet();
+            return -1;
+        }
+
+        try {
+            index = future.get(timeout, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException | ExecutionException e) {
+            index = null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            index = null;
+        }
+
+        if (isValid(index, numCandidates)) {
+            numAnswered.incrementAndGet();
+            return index;
+        }
+        numTimeouts.incrementAndGet();
+        return -1;
+    }
+
+    /**
+     * Ask the LLM about the given context in the background, if not already known
+     *
+     * @param key     fingerprint of the context
+     * @param context the prompt describing the candidates
+     */
+    public void prefetch(String key, String context) {
+        if (!pending.containsKey(key) && !cache.contains(key)) {
+            submit(key, context);
+        }
+    }
+
+    /**
+     * @return the number of queries sent to the LLM so far
+     */
+    public int getNumQueries() {
+        return numQueries.get();
+    }
+
+    /**
+     * @return the average milliseconds spent waiting for a response of the LLM
+     */
+    public double getAverageQueryTime() {
+        int queries = numQueries.get();
+        return queries == 0 ? 0.0 : (double) queryTime.get() / queries;
+    }
+
+    /**
+     * @return the number of selections answered by the LLM within the latency budget
+     */
+    public int getNumAnswered() {
+        return numAnswered.get();
+    }
+
+    /**
+     * @return the number of selections for which no answer was available in time
+     */
+    public int getNumTimeouts() {
+        return numTimeouts.get();
+    }
+
+    /**
+     * Stop the background thread and close the cache. Pending selections are left unanswered
+     */
+    public synchronized void shutdown() {
+        if (worker != null) {
+            worker.interrupt();
+            worker = null;
+        }
+        queue.clear();
+        for (CompletableFuture<Integer> future : pending.values()) {
+            future.complete(null);
+        }
+        pending.clear();
+        try {
+            cache.close();
+        } catch (IOException e) {
+            logger.warn("Cannot close LLM cache file: {}", e.getMessage());
+        }
+    }
+
+    private static boolean isValid(Integer index, int numCandidates) {
+        return index != null && index >= 0 && index < numCandidates;
+    }
+
+    private static Integer parseIndex(String answer) {
+        if (answer == null) {
+            return null;
+        }
+        try {
+            return Integer.parseInt(answer);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private CompletableFuture<Integer> submit(String key, String context) {
+        CompletableFuture<Integer> future = new CompletableFuture<>();
+        CompletableFuture<Integer> existing = pending.putIfAbsent(key, future);
+        if (existing != null) {
+            return existing;
+        }
+        if (!queue.offer(new String[]{key, context})) {
+            logger.debug("Too many pending LLM selections, not sending a new one");
+            pending.remove(key);
+            return null;
+        }
+        startWorker();
+        return future;
+    }
+
+    private synchronized void startWorker() {
+        if (worker != null) {
+            return;
+        }
+        worker = new Thread(this::processQueue, "LLM selection");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    private void processQueue() {
+        List<String[]> batch = new ArrayList<>(batchSize);
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                break;
+            }
+            queue.drainTo(batch, batchSize - 1);
+
+            Map<String, Integer> selected;
+            try {
+                selected = query(batch);
+            } catch (Exception e) {
+                logger.debug("LLM selection failed: {}", e.getMessage());
+                selected = Collections.emptyMap();
+            }
+
+            for (String[] request : batch) {
+                Integer index = selected.get(request[0]);
+                if (index != null) {
+                    cache.put(request[0], index.toString());
+                }
+                // contexts without an answer will be submitted again by the next selection
+                CompletableFuture<Integer> future = pending.remove(request[0]);
+                if (future != null) {
+                    future.complete(index);
+                }
+            }
+            batch.clear();
+        }
+    }
+
+    /**
+     * @return the selected index for the key of each request that got a valid answer
+     */
+    private Map<String, Integer> query(List<String[]> batch) {
+        Map<String, Integer> selected = new HashMap<>();
+
+        if (batch.size() == 1) {
+            String response = timedQuery(batch.get(0)[1]);
+            String cleanedIndex = response.replaceAll("[^0-9]", "").trim();
+            if (!cleanedIndex.isEmpty() && cleanedIndex.length() < 10) {
+                selected.put(batch.get(0)[0], Integer.parseInt(cleanedIndex));
+            } else {
+                logger.debug("LLM returned no valid index, response: {}", response);
+            }
+            return selected;
+        }
+
+        String response = timedQuery(buildBatchPrompt(batch));
+        for (String line : response.split("\n")) {
+            Matcher matcher = BATCH_ANSWER.matcher(line);
+            if (!matcher.find() || matcher.group(1).length() > 9 || matcher.group(2).length() > 9) {
+                continue;
+            }
+            int task = Integer.parseInt(matcher.group(1));
+            if (task >= 0 && task < batch.size()) {
+                selected.put(batch.get(task)[0], Integer.parseInt(matcher.group(2)));
+            }
+        }
+        logger.debug("LLM answered {} of {} selections in a batch", selected.size(), batch.size());
+        return selected;
+    }
+
+    private String timedQuery(String prompt) {
+        long start = System.currentTimeMillis();
+        try {
+            return service.queryLLM(prompt);
+        } finally {
+            numQueries.incrementAndGet();
+            queryTime.addAndGet(System.currentTimeMillis() - start);
+        }
+    }
+
+    private static String buildBatchPrompt(List<String[]> batch) {
+        StringBuilder prompt = new StringBuilder();
+        prompt.append("You are given ").append(batch.size())
+                .append(" independent tasks. Solve each of them separately.\n\n");
+        for (int i = 0; i < batch.size(); i++) {
+            prompt.append("##### Task ").append(i).append(" #####\n");
+            prompt.append(batch.get(i)[1]).append("\n\n");
+        }
+        prompt.append("Return **only** one line per task, in the format '<task number>: <index number>', ")
+                .append("for example '0: 2'.");
+        return prompt.toString();
+    }
+}
@@ -31,16 +31,17 @@ public class LLMService {
      * Private constructor to enforce singleton pattern and load configuration
      */
     private LLMService() {
-        config = new Properties();
-        try (InputStream input = getClass().getResourceAsStream(CONFIG_FILE)) {
-            if (input == null) {
-                throw new RuntimeException("Unable to find " + CONFIG_FILE);
-            }
-            config.load(input);
-        } catch (IOException e) {
-            logger.error("Failed to load LLM configuration", e);
-            throw new RuntimeException("Failed to initialize LLM service", e);
-        }
+        this(loadConfig());
+    }
+
+    /**
+     * Creates a service querying the API described by the given configuration,
+     * with the same keys as in {@code llm.properties}
+     *
+     * @param config the API configuration
+     */
+    public LLMService(Properties config) {
+        this.config = config;
 
         // Initialize OkHttpClient with timeouts
         client = new OkHttpClient.Builder()
@@ -52,12 +53,26 @@ public class LLMService {
         mapper = new ObjectMapper();
     }
 
+    private static Properties loadConfig() {
+        Properties config = new Properties();
+        try (InputStream input = LLMService.class.getResourceAsStream(CONFIG_FILE)) {
+            if (input == null) {
+                throw new RuntimeException("Unable to find " + CONFIG_FILE);
+            }
+            config.load(input);
+        } catch (IOException e) {
+            logger.error("Failed to load LLM configuration", e);
+            throw new RuntimeException("Failed to initialize LLM service", e);
+        }
+        return config;
+    }
+
     /**
      * Returns the singleton instance of LLMService
      *
      * @return LLMService instance
      */
-    public static LLMService getInstance() {
+    public static synchronized LLMService getInstance() {
         if (instance == null) {
             instance = new LLMService();
         }
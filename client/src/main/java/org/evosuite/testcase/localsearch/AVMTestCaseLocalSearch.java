@@ -26,6 +26,8 @@ import org.evosuite.testcase.TestCase;
 import org.evosuite.testcase.TestChromosome;
 import org.evosuite.testcase.statements.Statement;
 
+import java.util.List;
+
 /**
  * Applies the AVM local search algorithm described in
  * http://dx.doi.org/10.1016/j.jss.2014.05.032 at the test case level
@@ -52,6 +54,16 @@ public class AVMTestCaseLocalSearch extends TestCaseLocalSearch<TestChromosome>
         }
         TestCase test = individual.getTestCase();
 
+        // The integral primitives are searched together first, and skipped below
+        boolean batch = Properties.LOCAL_SEARCH_BATCH && Properties.LOCAL_SEARCH_PRIMITIVES;
+        if (batch) {
+            List<Integer> positions = PrimitiveBatchLocalSearch.getSearchablePositions(test, lastPosition);
+            if (new PrimitiveBatchLocalSearch().doSearch(individual, positions, objective)) {
+                improved = true;
+            }
+            test = individual.getTestCase();
+        }
+
         // We count down to make the code work when lines are
         // added during the search (see NullReferenceSearch).
 
@@ -72,6 +84,10 @@ public class AVMTestCaseLocalSearch extends TestCaseLocalSearch<TestChromosome>
 
             final Statement statement = test.getStatement(i);
 
+            if (batch && PrimitiveBatchLocalSearch.isSearchable(statement)) {
+                continue;
+            }
+
             if (!test.hasReferences(statement.getReturnValue()) && !statement.getReturnClass().equals(targetClass)) {
                 logger.info(
                         "Return value of statement " + i + " is not referenced and not SUT, not doing local search");
@@ -0,0 +1,165 @@
+/**
+ * Copyright (C) 2010-2018 Gordon Fraser, Andrea Arcuri and EvoSuite
+ * contributors
+ * <p>
+ * This file is part of EvoSuite.
+ * <p>
+ * EvoSuite is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ * <p>
+ * EvoSuite is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with EvoSuite. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.evosuite.testcase.localsearch;
+
+import org.evosuite.ga.localsearch.LocalSearchBudget;
+import org.evosuite.ga.localsearch.LocalSearchObjective;
+import org.evosuite.testcase.TestCase;
+import org.evosuite.testcase.TestChromosome;
+import org.evosuite.testcase.execution.ExecutionResult;
+import org.evosuite.testcase.statements.Statement;
+import org.evosuite.testcase.statements.numeric.NumericalPrimitiveStatement;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * AVM on several integral primitives of a test case at once. At each step the
+ * +1 and -1 neighbours of all the primitives are evaluated, keeping each one that
+ * improves the objective, and the last of them is followed by exponential pattern
+ * moves in its direction while they improve. The search stops when no neighbour
+ * improves the objective or the local search budget is used up.
+ *
+ * <p>
+ * Unlike {@link IntegerLocalSearch}, which optimizes a primitive until no move
+ * on it improves before moving to the next one, each primitive is moved at most
+ * once per step, so a primitive that does not contribute to the objective costs
+ * two evaluations per step rather than a full search.
+ */
+public class PrimitiveBatchLocalSearch {
+
+    private static final Logger logger = LoggerFactory.getLogger(PrimitiveBatchLocalSearch.class);
+
+    private static final long[] NEIGHBOURS = {1, -1};
+
+    /**
+     * @param statement a statement of a test case
+     * @return whether the statement is searched by this local search
+     */
+    public static boolean isSearchable(Statement statement) {
+        if (!(statement instanceof NumericalPrimitiveStatement<?>)) {
+            return false;
+        }
+        Class<?> type = statement.getReturnClass();
+        return type.equals(Integer.class) || type.equals(int.class)
+                || type.equals(Byte.class) || type.equals(byte.class)
+                || type.equals(Short.class) || type.equals(short.class)
+                || type.equals(Long.class) || type.equals(long.class)
+                || type.equals(Character.class) || type.equals(char.class);
+    }
+
+    /**
+     * @param test         the test case to search
+     * @param lastPosition the position of the last statement to search
+     * @return the positions of the searchable statements whose value is used
+     */
+    public static List<Integer> getSearchablePositions(TestCase test, int lastPosition) {
+        List<Integer> positions = new ArrayList<>();
+        for (int i = 0; i <= lastPosition && i < test.size(); i++) {
+            Statement statement = test.getStatement(i);
+            if (isSearchable(statement) && test.hasReferences(statement.getReturnValue())) {
+                positions.add(i);
+            }
+        }
+        return positions;
+    }
+
+    /**
+     * Apply the search to the primitives at the given positions of the test
+     *
+     * @param test      the test, which is changed in place
+     * @param positions positions of searchable statements of the test
+     * @param objective the objective to improve
+     * @return whether the objective improved
+     */
+    public boolean doSearch(TestChromosome test, List<Integer> positions,
+                            LocalSearchObjective<TestChromosome> objective) {
+        boolean improved = false;
+
+        while (!LocalSearchBudget.getInstance().isFinished() && !objective.isDone()) {
+            int lastPosition = -1;
+            long lastDelta = 0;
+
+            /*
+             * Improving moves are kept as they are found, so that the objective always
+             * compares a neighbour to the test as it is
+             */
+            for (int position : positions) {
+                for (long delta : NEIGHBOURS) {
+                    if (LocalSearchBudget.getInstance().isFinished()) {
+                        break;
+                    }
+                    if (tryMove(test, position, delta, objective)) {
+                        lastPosition = position;
+                        lastDelta = delta;
+                        logger.info("Kept move " + delta + " on " + getStatement(test, position).getCode());
+                        // the opposite move would only undo it
+                        break;
+                    }
+                }
+            }
+
+            if (lastPosition < 0) {
+                break;
+            }
+            improved = true;
+
+            long delta = 2 * lastDelta;
+            while (!LocalSearchBudget.getInstance().isFinished()
+                    && tryMove(test, lastPosition, delta, objective)) {
+                delta = 2 * delta;
+            }
+        }
+
+        logger.info("Finished batch local search, improved: " + improved);
+        return improved;
+    }
+
+    /**
+     * Increment the primitive at the position by delta and evaluate the objective. The move is
+     * undone if it does not improve the objective.
+     *
+     * @return whether the move improves the objective
+     */
+    private <T> boolean tryMove(TestChromosome test, int position, long delta,
+                                LocalSearchObjective<TestChromosome> objective) {
+        NumericalPrimitiveStatement<T> p = getStatement(test, position);
+        T oldValue = p.getValue();
+        ExecutionResult oldResult = test.getLastExecutionResult();
+
+        p.increment(delta);
+        logger.debug("Trying increment " + delta + " of " + p.getCode());
+        if (objective.hasImproved(test)) {
+            return true;
+        }
+
+        p.setValue(oldValue);
+        test.setLastExecutionResult(oldResult);
+        test.setChanged(false);
+        return false;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> NumericalPrimitiveStatement<T> getStatement(TestChromosome test, int position) {
+        return (NumericalPrimitiveStatement<T>) test.getTestCase().getStatement(position);
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright (C) 2010-2018 Gordon Fraser, Andrea Arcuri and EvoSuite
+ * contributors
+ *
+ * This file is part of EvoSuite.
+ *
+ * EvoSuite is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * EvoSuite is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with EvoSuite. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.evosuite.testsuite;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Constants and encoding helpers of the binary format used to serialize tests for seeding.
+ *
+ * <p>
+ * A file starts with {@link #MAGIC} and the format {@link #VERSION}, followed by a sequence of
+ * records and terminated by {@link #END}. Each record is made of its kind, the strings
+ * (class names, method names and descriptors) it introduces in the string table of the file,
+ * and a length-prefixed payload. As the payload length is known, a reader can skip records
+ * it cannot load (eg, because a class does not exist any more) or whose kind it does not know.
+ *
+ * <p>
+ * Integers are written as unsigned LEB128 varints, and signed values are zigzag-encoded first.
+ *
+ * @see BinaryTestWriter
+ * @see BinaryTestReader
+ */
+public final class BinaryTestFormat {
+
+    /**
+     * "EVOT"
+     */
+    public static final int MAGIC = 0x45564F54;
+
+    public static final int VERSION = 1;
+
+    // record kinds
+    static final int END = 0;
+    static final int TEST = 1;
+    static final int SERIALIZED_TEST = 2;
+
+    // statement kinds
+    static final int NULL = 0;
+    static final int BOOLEAN = 1;
+    static final int BYTE = 2;
+    static final int CHAR = 3;
+    static final int SHORT = 4;
+    static final int INT = 5;
+    static final int LONG = 6;
+    static final int FLOAT = 7;
+    static final int DOUBLE = 8;
+    static final int STRING = 9;
+    static final int ENUM = 10;
+    static final int CLASS = 11;
+    static final int CONSTRUCTOR = 12;
+    static final int METHOD = 13;
+    static final int FIELD = 14;
+    static final int ARRAY = 15;
+    static final int ASSIGNMENT = 16;
+
+    // variable reference kinds
+    static final int NO_REFERENCE = 0;
+    static final int VARIABLE = 1;
+    static final int ARRAY_INDEX = 2;
+    static final int FIELD_REFERENCE = 3;
+    static final int CONSTANT = 4;
+    static final int NULL_REFERENCE = 5;
+
+    private BinaryTestFormat() {
+    }
+
+    public static void writeVarInt(DataOutput out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    public static int readVarInt(DataInput in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    public static void writeVarLong(DataOutput out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    public static long readVarLong(DataInput in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 70; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    public static void writeSignedVarLong(DataOutput out, long value) throws IOException {
+        writeVarLong(out, (value << 1) ^ (value >> 63));
+    }
+
+    public static long readSignedVarLong(DataInput in) throws IOException {
+        long value = readVarLong(in);
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * Unlike {@link DataOutput#writeUTF(String)}, this is not limited to 64K bytes
+     */
+    public static void writeText(DataOutput out, String text) throws IOException {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(out, bytes.length);
+        out.write(bytes);
+    }
+
+    public static String readText(DataInput in) throws IOException {
+        byte[] bytes = new byte[readVarInt(in)];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,358 @@
+/*
+ * Copyright (C) 2010-2018 Gordon Fraser, Andrea Arcuri and EvoSuite
+ * contributors
+ *
+ * This file is part of EvoSuite.
+ *
+ * EvoSuite is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * EvoSuite is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with EvoSuite. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.evosuite.testsuite;
+
+import org.evosuite.testcase.DefaultTestCase;
+import org.evosuite.testcase.TestCase;
+import org.evosuite.testcase.TestChromosome;
+import org.evosuite.testcase.statements.*;
+import org.evosuite.testcase.statements.numeric.*;
+import org.evosuite.testcase.variable.*;
+import org.evosuite.utils.generic.GenericClassFactory;
+import org.evosuite.utils.generic.GenericConstructor;
+import org.evosuite.utils.generic.GenericField;
+import org.evosuite.utils.generic.GenericMethod;
+import org.objectweb.asm.Type;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.evosuite.testsuite.BinaryTestFormat.*;
+
+/**
+ * Reads tests written by {@link BinaryTestWriter}, one at a time.
+ *
+ * <p>
+ * Tests that cannot be loaded any more, for example because a class, method or field they use
+ * was removed or changed since they were written, are skipped without affecting the rest of the file.
+ */
+public class BinaryTestReader implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(BinaryTestReader.class);
+
+    private static final Map<String, Class<?>> PRIMITIVES = new HashMap<>();
+
+    static {
+        for (Class<?> clazz : new Class<?>[]{boolean.class, byte.class, char.class, short.class, int.class,
+                long.class, float.class, double.class, void.class}) {
+            PRIMITIVES.put(clazz.getName(), clazz);
+        }
+    }
+
+    private final DataInputStream in;
+
+    private final ClassLoader loader;
+
+    private final List<String> strings = new ArrayList<>();
+
+    private int numSkipped = 0;
+
+    private boolean finished = false;
+
+    /**
+     * @param stream stream positioned at the beginning of a file in the binary format
+     * @param loader class loader used to resolve the classes used in the tests
+     * @throws IOException if the stream does not start with a supported header
+     */
+    public BinaryTestReader(InputStream stream, ClassLoader loader) throws IOException {
+        this.in = new DataInputStream(new BufferedInputStream(stream));
+        this.loader = loader;
+
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a file of serialized tests");
+        }
+        int version = readVarInt(in);
+        if (version > VERSION) {
+            throw new IOException("Unsupported version of serialized tests: " + version);
+        }
+    }
+
+    /**
+     * @return the next test that can be loaded, or {@code null} if there is none left
+     * @throws IOException if the file cannot be read
+     */
+    public TestChromosome next() throws IOException {
+        while (!finished) {
+            int kind;
+            try {
+                kind = readVarInt(in);
+            } catch (EOFException e) {
+                logger.warn("Serialized tests are truncated");
+                kind = END;
+            }
+            if (kind == END) {
+                finished = true;
+                break;
+            }
+
+            int numStrings = readVarInt(in);
+            for (int i = 0; i < numStrings; i++) {
+                strings.add(readText(in));
+            }
+            byte[] payload = new byte[readVarInt(in)];
+            in.readFully(payload);
+
+            TestChromosome tc = decode(kind, payload);
+            if (tc != null) {
+                return tc;
+            }
+            numSkipped++;
+        }
+        return null;
+    }
+
+    /**
+     * @return the number of tests read so far that could not be loaded
+     */
+    public int getNumSkipped() {
+        return numSkipped;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private TestChromosome decode(int kind, byte[] payload) {
+        if (kind == TEST) {
+            try {
+                TestChromosome tc = new TestChromosome();
+                tc.setTestCase(readTest(new DataInputStream(new ByteArrayInputStream(payload))));
+                return tc;
+            } catch (Exception | LinkageError e) {
+                logger.debug("Cannot load serialized test: " + e);
+                return null;
+            }
+        } else if (kind == SERIALIZED_TEST) {
+            try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(payload))) {
+                TestChromosome tc = (TestChromosome) ois.readObject();
+                for (Statement st : tc.getTestCase()) {
+                    st.changeClassLoader(loader);
+                }
+                return tc;
+            } catch (Exception | LinkageError e) {
+                logger.debug("Cannot load serialized test: " + e);
+                return null;
+            }
+        } else {
+            logger.debug("Skipping serialized record of unknown kind " + kind);
+            return null;
+        }
+    }
+
+    private TestCase readTest(DataInput data) throws IOException, ReflectiveOperationException {
+        TestCase test = new DefaultTestCase();
+        int size = readVarInt(data);
+        for (int i = 0; i < size; i++) {
+            test.addStatement(readStatement(data, test));
+        }
+        return test;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Statement readStatement(DataInput data, TestCase test) throws IOException, ReflectiveOperationException {
+        int kind = readVarInt(data);
+        switch (kind) {
+            case NULL:
+                return new NullStatement(test, readClass(data));
+            case BOOLEAN:
+                return new BooleanPrimitiveStatement(test, data.readBoolean());
+            case BYTE:
+                return new BytePrimitiveStatement(test, (byte) readSignedVarLong(data));
+            case CHAR:
+                return new CharPrimitiveStatement(test, data.readChar());
+            case SHORT:
+                return new ShortPrimitiveStatement(test, (short) readSignedVarLong(data));
+            case INT:
+                return new IntPrimitiveStatement(test, (int) readSignedVarLong(data));
+            case LONG:
+                return new LongPrimitiveStatement(test, readSignedVarLong(data));
+            case FLOAT:
+                return new FloatPrimitiveStatement(test, data.readFloat());
+            case DOUBLE:
+                return new DoublePrimitiveStatement(test, data.readDouble());
+            case STRING:
+                return new StringPrimitiveStatement(test, data.readBoolean() ? readText(data) : null);
+            case ENUM: {
+                Class enumClass = readClass(data);
+                return new EnumPrimitiveStatement(test, Enum.valueOf(enumClass, readString(data)));
+            }
+            case CLASS:
+                return new ClassPrimitiveStatement(test, readClass(data));
+            case CONSTRUCTOR: {
+                Class<?> owner = readClass(data);
+                Class<?> declaringClass = readClass(data);
+                String descriptor = readString(data);
+                GenericConstructor constructor = new GenericConstructor(getConstructor(declaringClass, descriptor), owner);
+                return new ConstructorStatement(test, constructor, readReferences(data, test));
+            }
+            case METHOD: {
+                Class<?> owner = readClass(data);
+                Class<?> declaringClass = readClass(data);
+                String name = readString(data);
+                String descriptor = readString(data);
+                GenericMethod method = new GenericMethod(getMethod(declaringClass, name, descriptor), owner);
+                VariableReference callee = readReference(data, test);
+                return new MethodStatement(test, method, callee, readReferences(data, test));
+            }
+            case FIELD: {
+                GenericField field = readField(data);
+                return new FieldStatement(test, field, readReference(data, test));
+            }
+            case ARRAY: {
+                Class<?> type = readClass(data);
+                int[] lengths = new int[readVarInt(data)];
+                for (int i = 0; i < lengths.length; i++) {
+                    lengths[i] = readVarInt(data);
+                }
+                return new ArrayStatement(test, type, lengths);
+            }
+            case ASSIGNMENT: {
+                VariableReference var = readReference(data, test);
+                VariableReference value = readReference(data, test);
+                return new AssignmentStatement(test, var, value);
+            }
+            default:
+                throw new IOException("Unknown statement kind " + kind);
+        }
+    }
+
+    private List<VariableReference> readReferences(DataInput data, TestCase test)
+            throws IOException, ReflectiveOperationException {
+        int size = readVarInt(data);
+        List<VariableReference> references = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            references.add(readReference(data, test));
+        }
+        return references;
+    }
+
+    private VariableReference readReference(DataInput data, TestCase test) throws IOException, ReflectiveOperationException {
+        int kind = readVarInt(data);
+        switch (kind) {
+            case NO_REFERENCE:
+                return null;
+            case VARIABLE:
+                return test.getStatement(readVarInt(data)).getReturnValue();
+            case ARRAY_INDEX: {
+                ArrayReference array = (ArrayReference) test.getStatement(readVarInt(data)).getReturnValue();
+                int size = readVarInt(data);
+                List<Integer> indices = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    indices.add(readVarInt(data));
+                }
+                return new ArrayIndex(test, array, indices);
+            }
+            case FIELD_REFERENCE: {
+                GenericField field = readField(data);
+                VariableReference source = readReference(data, test);
+                return source == null ? new FieldReference(test, field) : new FieldReference(test, field, source);
+            }
+            case NULL_REFERENCE:
+                return new NullReference(test, readClass(data));
+            case CONSTANT: {
+                Class<?> type = readClass(data);
+                return new ConstantValue(test, GenericClassFactory.get(type), readConstant(data));
+            }
+            default:
+                throw new IOException("Unknown variable reference kind " + kind);
+        }
+    }
+
+    private Object readConstant(DataInput data) throws IOException, ClassNotFoundException {
+        int kind = readVarInt(data);
+        switch (kind) {
+            case NULL:
+                return null;
+            case BOOLEAN:
+                return data.readBoolean();
+            case BYTE:
+                return (byte) readSignedVarLong(data);
+            case CHAR:
+                return data.readChar();
+            case SHORT:
+                return (short) readSignedVarLong(data);
+            case INT:
+                return (int) readSignedVarLong(data);
+            case LONG:
+                return readSignedVarLong(data);
+            case FLOAT:
+                return data.readFloat();
+            case DOUBLE:
+                return data.readDouble();
+            case STRING:
+                return readText(data);
+            case CLASS:
+                return readClass(data);
+            default:
+                throw new IOException("Unknown constant kind " + kind);
+        }
+    }
+
+    private GenericField readField(DataInput data) throws IOException, ReflectiveOperationException {
+        Class<?> owner = readClass(data);
+        Class<?> declaringClass = readClass(data);
+        Field field = declaringClass.getDeclaredField(readString(data));
+        return new GenericField(field, owner);
+    }
+
+    private static Constructor<?> getConstructor(Class<?> clazz, String descriptor) throws NoSuchMethodException {
+        for (Constructor<?> constructor : clazz.getDeclaredConstructors()) {
+            if (Type.getConstructorDescriptor(constructor).equals(descriptor)) {
+                return constructor;
+            }
+        }
+        throw new NoSuchMethodException(clazz.getName() + ".<init>" + descriptor);
+    }
+
+    private static Method getMethod(Class<?> clazz, String name, String descriptor) throws NoSuchMethodException {
+        for (Method method : clazz.getDeclaredMethods()) {
+            if (method.getName().equals(name) && Type.getMethodDescriptor(method).equals(descriptor)) {
+                return method;
+            }
+        }
+        throw new NoSuchMethodException(clazz.getName() + "." + name + descriptor);
+    }
+
+    private Class<?> readClass(DataInput data) throws IOException, ClassNotFoundException {
+        String name = readString(data);
+        Class<?> primitive = PRIMITIVES.get(name);
+        if (primitive != null) {
+            return primitive;
+        }
+        return Class.forName(name, false, loader);
+    }
+
+    private String readString(DataInput data) throws IOException {
+        int id = readVarInt(data);
+        if (id >= strings.size()) {
+            throw new IOException("Invalid string reference " + id);
+        }
+        return strings.get(id);
+    }
+}
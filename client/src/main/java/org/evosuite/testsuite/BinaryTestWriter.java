@@ -0,0 +1,325 @@
+/*
+ * Copyright (C) 2010-2018 Gordon Fraser, Andrea Arcuri and EvoSuite
+ * contributors
+ *
+ * This file is part of EvoSuite.
+ *
+ * EvoSuite is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * EvoSuite is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with EvoSuite. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.evosuite.testsuite;
+
+import org.evosuite.testcase.TestCase;
+import org.evosuite.testcase.TestChromosome;
+import org.evosuite.testcase.statements.*;
+import org.evosuite.testcase.statements.numeric.*;
+import org.evosuite.testcase.variable.*;
+import org.evosuite.utils.DebuggingObjectOutputStream;
+import org.evosuite.utils.generic.GenericAccessibleObject;
+import org.evosuite.utils.generic.GenericField;
+import org.evosuite.utils.generic.GenericMethod;
+import org.objectweb.asm.Type;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.evosuite.testsuite.BinaryTestFormat.*;
+
+/**
+ * Writes tests in the {@link BinaryTestFormat}.
+ *
+ * <p>
+ * Only the statement graph of a test is kept (no assertions, fitness values or execution results),
+ * and owners of methods, constructors and fields are stored as raw classes. Tests that contain
+ * statements the format does not cover (eg, functional mocks or environment data) are written as
+ * a record containing their Java serialization.
+ *
+ * @see BinaryTestReader
+ */
+public class BinaryTestWriter implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(BinaryTestWriter.class);
+
+    private final DataOutputStream out;
+
+    private final Map<String, Integer> strings = new HashMap<>();
+
+    /**
+     * Strings added to the table while encoding the current test
+     */
+    private final List<String> newStrings = new ArrayList<>();
+
+    public BinaryTestWriter(OutputStream stream) throws IOException {
+        out = new DataOutputStream(new BufferedOutputStream(stream));
+        out.writeInt(MAGIC);
+        writeVarInt(out, VERSION);
+    }
+
+    public void write(TestChromosome tc) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        DataOutputStream payload = new DataOutputStream(buffer);
+        int kind;
+
+        try {
+            writeTest(payload, tc.getTestCase());
+            payload.flush();
+            kind = TEST;
+        } catch (NotEncodableException e) {
+            logger.debug("Using Java serialization for test: {}", e.getMessage());
+            for (String s : newStrings) {
+                strings.remove(s);
+            }
+            newStrings.clear();
+            buffer.reset();
+            try (ObjectOutputStream oos = new DebuggingObjectOutputStream(buffer)) {
+                oos.writeObject(tc);
+            }
+            kind = SERIALIZED_TEST;
+        }
+
+        writeVarInt(out, kind);
+        writeVarInt(out, newStrings.size());
+        for (String s : newStrings) {
+            writeText(out, s);
+        }
+        newStrings.clear();
+        writeVarInt(out, buffer.size());
+        buffer.writeTo(out);
+    }
+
+    @Override
+    public void close() throws IOException {
+        writeVarInt(out, END);
+        out.close();
+    }
+
+    private void writeTest(DataOutput data, TestCase test) throws IOException, NotEncodableException {
+        writeVarInt(data, test.size());
+        for (Statement statement : test) {
+            writeStatement(data, statement);
+        }
+    }
+
+    private void writeStatement(DataOutput data, Statement statement) throws IOException, NotEncodableException {
+        Class<?> kind = statement.getClass();
+
+        if (kind == NullStatement.class) {
+            writeVarInt(data, NULL);
+            writeClass(data, statement.getReturnClass());
+        } else if (kind == BooleanPrimitiveStatement.class) {
+            writeVarInt(data, BOOLEAN);
+            data.writeBoolean((Boolean) getValue(statement, boolean.class));
+        } else if (kind == BytePrimitiveStatement.class) {
+            writeVarInt(data, BYTE);
+            writeSignedVarLong(data, (Byte) getValue(statement, byte.class));
+        } else if (kind == CharPrimitiveStatement.class) {
+            writeVarInt(data, CHAR);
+            data.writeChar((Character) getValue(statement, char.class));
+        } else if (kind == ShortPrimitiveStatement.class) {
+            writeVarInt(data, SHORT);
+            writeSignedVarLong(data, (Short) getValue(statement, short.class));
+        } else if (kind == IntPrimitiveStatement.class) {
+            writeVarInt(data, INT);
+            writeSignedVarLong(data, (Integer) getValue(statement, int.class));
+        } else if (kind == LongPrimitiveStatement.class) {
+            writeVarInt(data, LONG);
+            writeSignedVarLong(data, (Long) getValue(statement, long.class));
+        } else if (kind == FloatPrimitiveStatement.class) {
+            writeVarInt(data, FLOAT);
+            data.writeFloat((Float) getValue(statement, float.class));
+        } else if (kind == DoublePrimitiveStatement.class) {
+            writeVarInt(data, DOUBLE);
+            data.writeDouble((Double) getValue(statement, double.class));
+        } else if (kind == StringPrimitiveStatement.class) {
+            writeVarInt(data, STRING);
+            String value = ((StringPrimitiveStatement) statement).getValue();
+            data.writeBoolean(value != null);
+            if (value != null) {
+                writeText(data, value);
+            }
+        } else if (kind == EnumPrimitiveStatement.class) {
+            Enum<?> value = ((EnumPrimitiveStatement<?>) statement).getValue();
+            if (value == null) {
+                throw new NotEncodableException("enum without constants " + statement.getReturnClass());
+            }
+            writeVarInt(data, ENUM);
+            writeClass(data, value.getDeclaringClass());
+            writeString(data, value.name());
+        } else if (kind == ClassPrimitiveStatement.class) {
+            Class<?> value = ((ClassPrimitiveStatement) statement).getValue();
+            if (value == null) {
+                throw new NotEncodableException("null class value");
+            }
+            writeVarInt(data, CLASS);
+            writeClass(data, value);
+        } else if (kind == ConstructorStatement.class) {
+            ConstructorStatement cs = (ConstructorStatement) statement;
+            writeVarInt(data, CONSTRUCTOR);
+            writeMember(data, cs.getConstructor());
+            writeString(data, Type.getConstructorDescriptor(cs.getConstructor().getConstructor()));
+            writeReferences(data, cs.getParameterReferences());
+        } else if (kind == MethodStatement.class) {
+            MethodStatement ms = (MethodStatement) statement;
+            GenericMethod method = ms.getMethod();
+            writeVarInt(data, METHOD);
+            writeMember(data, method);
+            writeString(data, method.getName());
+            writeString(data, Type.getMethodDescriptor(method.getMethod()));
+            writeReference(data, ms.isStatic() ? null : ms.getCallee());
+            writeReferences(data, ms.getParameterReferences());
+        } else if (kind == FieldStatement.class) {
+            FieldStatement fs = (FieldStatement) statement;
+            writeVarInt(data, FIELD);
+            writeField(data, fs.getField());
+            writeReference(data, fs.isStatic() ? null : fs.getSource());
+        } else if (kind == ArrayStatement.class) {
+            ArrayStatement as = (ArrayStatement) statement;
+            writeVarInt(data, ARRAY);
+            writeClass(data, as.getReturnClass());
+            List<Integer> lengths = as.getLengths();
+            writeVarInt(data, lengths.size());
+            for (int length : lengths) {
+                writeVarInt(data, length);
+            }
+        } else if (kind == AssignmentStatement.class) {
+            AssignmentStatement as = (AssignmentStatement) statement;
+            writeVarInt(data, ASSIGNMENT);
+            writeReference(data, as.getReturnValue());
+            writeReference(data, as.getValue());
+        } else {
+            throw new NotEncodableException("unsupported statement " + kind.getName());
+        }
+    }
+
+    private static Object getValue(Statement statement, Class<?> type) throws NotEncodableException {
+        Object value = ((PrimitiveStatement<?>) statement).getValue();
+        if (value == null || !statement.getReturnClass().equals(type)) {
+            throw new NotEncodableException("primitive statement of type " + statement.getReturnClass());
+        }
+        return value;
+    }
+
+    private void writeReferences(DataOutput data, List<VariableReference> references)
+            throws IOException, NotEncodableException {
+        writeVarInt(data, references.size());
+        for (VariableReference reference : references) {
+            writeReference(data, reference);
+        }
+    }
+
+    private void writeReference(DataOutput data, VariableReference reference) throws IOException, NotEncodableException {
+        if (reference == null) {
+            writeVarInt(data, NO_REFERENCE);
+        } else if (reference instanceof ArrayIndex) {
+            ArrayIndex index = (ArrayIndex) reference;
+            writeVarInt(data, ARRAY_INDEX);
+            writeVarInt(data, index.getArray().getStPosition());
+            List<Integer> indices = index.getArrayIndices();
+            writeVarInt(data, indices.size());
+            for (int i : indices) {
+                writeVarInt(data, i);
+            }
+        } else if (reference instanceof FieldReference) {
+            FieldReference field = (FieldReference) reference;
+            writeVarInt(data, FIELD_REFERENCE);
+            writeField(data, field.getField());
+            writeReference(data, field.getSource());
+        } else if (reference instanceof NullReference) {
+            writeVarInt(data, NULL_REFERENCE);
+            writeClass(data, reference.getVariableClass());
+        } else if (reference instanceof ConstantValue) {
+            writeVarInt(data, CONSTANT);
+            writeClass(data, reference.getVariableClass());
+            writeConstant(data, ((ConstantValue) reference).getValue());
+        } else {
+            writeVarInt(data, VARIABLE);
+            writeVarInt(data, reference.getStPosition());
+        }
+    }
+
+    private void writeConstant(DataOutput data, Object value) throws IOException, NotEncodableException {
+        if (value == null) {
+            writeVarInt(data, NULL);
+        } else if (value instanceof Boolean) {
+            writeVarInt(data, BOOLEAN);
+            data.writeBoolean((Boolean) value);
+        } else if (value instanceof Byte) {
+            writeVarInt(data, BYTE);
+            writeSignedVarLong(data, (Byte) value);
+        } else if (value instanceof Character) {
+            writeVarInt(data, CHAR);
+            data.writeChar((Character) value);
+        } else if (value instanceof Short) {
+            writeVarInt(data, SHORT);
+            writeSignedVarLong(data, (Short) value);
+        } else if (value instanceof Integer) {
+            writeVarInt(data, INT);
+            writeSignedVarLong(data, (Integer) value);
+        } else if (value instanceof Long) {
+            writeVarInt(data, LONG);
+            writeSignedVarLong(data, (Long) value);
+        } else if (value instanceof Float) {
+            writeVarInt(data, FLOAT);
+            data.writeFloat((Float) value);
+        } else if (value instanceof Double) {
+            writeVarInt(data, DOUBLE);
+            data.writeDouble((Double) value);
+        } else if (value instanceof String) {
+            writeVarInt(data, STRING);
+            writeText(data, (String) value);
+        } else if (value instanceof Class) {
+            writeVarInt(data, CLASS);
+            writeClass(data, (Class<?>) value);
+        } else {
+            throw new NotEncodableException("constant of type " + value.getClass().getName());
+        }
+    }
+
+    private void writeMember(DataOutput data, GenericAccessibleObject<?> member) throws IOException {
+        writeClass(data, member.getOwnerClass().getRawClass());
+        writeClass(data, member.getDeclaringClass());
+    }
+
+    private void writeField(DataOutput data, GenericField field) throws IOException {
+        writeMember(data, field);
+        writeString(data, field.getName());
+    }
+
+    private void writeClass(DataOutput data, Class<?> clazz) throws IOException {
+        writeString(data, clazz.getName());
+    }
+
+    private void writeString(DataOutput data, String s) throws IOException {
+        Integer id = strings.get(s);
+        if (id == null) {
+            id = strings.size();
+            strings.put(s, id);
+            newStrings.add(s);
+        }
+        writeVarInt(data, id);
+    }
+
+    private static class NotEncodableException extends Exception {
+
+        private static final long serialVersionUID = 5137390564786359263L;
+
+        NotEncodableException(String message) {
+            super(message);
+        }
+    }
+}
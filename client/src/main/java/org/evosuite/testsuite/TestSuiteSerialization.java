@@ -19,6 +19,7 @@
  */
 package org.evosuite.testsuite;
 
+import org.evosuite.Properties;
 import org.evosuite.TestGenerationContext;
 import org.evosuite.runtime.util.Inputs;
 import org.evosuite.testcase.TestChromosome;
@@ -42,36 +43,37 @@ public class TestSuiteSerialization {
     public static boolean saveTests(List<TestSuiteChromosome> list, File target) throws IllegalArgumentException {
         Inputs.checkNull(list, target);
 
-        File parent = target.getParentFile();
-        if (!parent.exists()) {
-            parent.mkdirs();
-        }
-
-        try (ObjectOutputStream out = new DebuggingObjectOutputStream(new FileOutputStream(target))) {
-            for (TestSuiteChromosome ts : list) {
-                for (TestChromosome tc : ts.getTestChromosomes()) {
-                    out.writeObject(tc);
-                }
-            }
-
-            out.flush();
-            out.close();
-        } catch (IOException e) {
-            logger.error("Failed to open/handle " + target.getAbsolutePath() + " for writing: " + e.getMessage());
-            return false;
+        List<TestChromosome> tests = new ArrayList<>();
+        for (TestSuiteChromosome ts : list) {
+            tests.addAll(ts.getTestChromosomes());
         }
-
-        return true;
+        return writeTests(tests, target);
     }
 
     public static boolean saveTests(TestSuiteChromosome ts, File target) throws IllegalArgumentException {
+        return writeTests(ts.getTestChromosomes(), target);
+    }
+
+    private static boolean writeTests(List<TestChromosome> tests, File target) {
         File parent = target.getParentFile();
         if (!parent.exists()) {
             parent.mkdirs();
         }
 
+        if (Properties.CTG_SEEDS_FORMAT == Properties.SeedsFormat.BINARY) {
+            try (BinaryTestWriter out = new BinaryTestWriter(new FileOutputStream(target))) {
+                for (TestChromosome tc : tests) {
+                    out.write(tc);
+                }
+            } catch (IOException e) {
+                logger.error("Failed to open/handle " + target.getAbsolutePath() + " for writing: " + e.getMessage());
+                return false;
+            }
+            return true;
+        }
+
         try (ObjectOutputStream out = new DebuggingObjectOutputStream(new FileOutputStream(target))) {
-            for (TestChromosome tc : ts.getTestChromosomes()) {
+            for (TestChromosome tc : tests) {
                 out.writeObject(tc);
             }
 
@@ -108,33 +110,29 @@ public class TestSuiteSerialization {
     }
 
     public static List<TestChromosome> loadTests(File target) throws IllegalArgumentException {
+        return loadTests(target, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Load the tests serialized in the given file, in any of the supported formats
+     *
+     * @param target   file to read
+     * @param maxTests maximum number of tests to load. The rest of the file is not read
+     * @return the tests that could be loaded
+     */
+    public static List<TestChromosome> loadTests(File target, int maxTests) throws IllegalArgumentException {
         Inputs.checkNull(target);
 
         List<TestChromosome> list = new ArrayList<>();
 
-        try (ObjectInputStream in = new ObjectInputStream(new FileInputStream(target))) {
-
-            try {
-                Object obj = in.readObject();
-                while (obj != null) {
-                    if (obj instanceof TestChromosome) {
-                        //this check might fail if old version is used, and EvoSuite got updated
-                        TestChromosome tc = (TestChromosome) obj;
-                        for (Statement st : tc.getTestCase()) {
-                            st.changeClassLoader(TestGenerationContext.getInstance().getClassLoaderForSUT());
-                        }
+        try (InputStream in = new BufferedInputStream(new FileInputStream(target))) {
 
-                        list.add(tc);
-                    }
-                    obj = in.readObject();
-                }
-            } catch (EOFException e) {
-                //fine
-            } catch (Exception e) {
-                logger.warn("Problems when reading a serialized test from " + target.getAbsolutePath() + " : " + e.getMessage());
+            if (isBinaryFormat(in)) {
+                loadBinaryTests(in, target, maxTests, list);
+            } else {
+                loadSerializedTests(in, target, maxTests, list);
             }
 
-            in.close();
         } catch (FileNotFoundException e) {
             logger.warn("Cannot load tests because file does not exist: " + target.getAbsolutePath());
         } catch (IOException e) {
@@ -143,4 +141,57 @@ public class TestSuiteSerialization {
 
         return list;
     }
+
+    private static boolean isBinaryFormat(InputStream in) throws IOException {
+        in.mark(Integer.BYTES);
+        try {
+            return new DataInputStream(in).readInt() == BinaryTestFormat.MAGIC;
+        } catch (EOFException e) {
+            return false;
+        } finally {
+            in.reset();
+        }
+    }
+
+    private static void loadBinaryTests(InputStream in, File target, int maxTests, List<TestChromosome> list)
+            throws IOException {
+        BinaryTestReader reader = new BinaryTestReader(in, TestGenerationContext.getInstance().getClassLoaderForSUT());
+        while (list.size() < maxTests) {
+            TestChromosome tc = reader.next();
+            if (tc == null) {
+                break;
+            }
+            list.add(tc);
+        }
+        if (reader.getNumSkipped() > 0) {
+            logger.warn("Could not load " + reader.getNumSkipped() + " serialized tests from " + target.getAbsolutePath());
+        }
+    }
+
+    private static void loadSerializedTests(InputStream stream, File target, int maxTests, List<TestChromosome> list)
+            throws IOException {
+        ObjectInputStream in = new ObjectInputStream(stream);
+        try {
+            Object obj = in.readObject();
+            while (obj != null) {
+                if (obj instanceof TestChromosome) {
+                    //this check might fail if old version is used, and EvoSuite got updated
+                    TestChromosome tc = (TestChromosome) obj;
+                    for (Statement st : tc.getTestCase()) {
+                        st.changeClassLoader(TestGenerationContext.getInstance().getClassLoaderForSUT());
+                    }
+
+                    list.add(tc);
+                }
+                if (list.size() >= maxTests) {
+                    break;
+                }
+                obj = in.readObject();
+            }
+        } catch (EOFException e) {
+            //fine
+        } catch (Exception e) {
+            logger.warn("Problems when reading a serialized test from " + target.getAbsolutePath() + " : " + e.getMessage());
+        }
+    }
 }
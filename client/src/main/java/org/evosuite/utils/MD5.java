@@ -58,6 +58,26 @@ public class MD5 {
         return null;
     }
 
+    /**
+     * Return the md5-hash of an array of bytes
+     *
+     * @param bytes
+     * @return
+     */
+    public static String hash(byte[] bytes) {
+        try {
+            MessageDigest m = MessageDigest.getInstance("MD5");
+            m.update(bytes);
+
+            BigInteger i = new BigInteger(1, m.digest());
+            return String.format("%1$032x", i);
+        } catch (NoSuchAlgorithmException e) {
+            e.printStackTrace();
+        }
+
+        return null;
+    }
+
     /**
      * Return the md5-hash of a file
      *
@@ -30,6 +30,8 @@ import org.jgrapht.graph.DefaultEdge;
 import org.jgrapht.traverse.TopologicalOrderIterator;
 
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 import java.util.regex.Pattern;
 
 /**
@@ -37,58 +39,95 @@ import java.util.regex.Pattern;
  */
 public class RegexDistanceUtils {
 
+    /**
+     * Maximum number of regular expressions for which the automaton and the compiled pattern are cached
+     */
+    private static final int MAX_CACHED_REGEX = 256;
+
+    /**
+     * Cost matrices with more values than this are not kept for the next argument
+     */
+    private static final int MAX_RETAINED_MATRIX_SIZE = 1 << 18;
+
+    /**
+     * Maximum number of values kept by all the cost matrices of the cached regex together
+     */
+    private static final long MAX_RETAINED_CELLS = 1 << 22;
+
+    /**
+     * Number of values currently kept by the cost matrices for the next argument
+     */
+    private static final AtomicLong retainedCells = new AtomicLong();
+
     /*
      * Automatons for regex can be expensive to build. So we cache them,
-     * as we might need to access to them several times during the search
+     * as we might need to access to them several times during the search.
+     * The caches are bounded, as the regex can be built dynamically by the SUT,
+     * and shared by the threads of the SUT
      */
-    private static final Map<String, List<State>> regexStateCache = new HashMap<>();
-    private static final Map<String, Automaton> regexAutomatonCache = new HashMap<>();
+    private static final Map<String, RegexAutomaton> regexAutomatonCache = createBoundedCache(RegexAutomaton::release);
+    private static final Map<String, Pattern> regexPatternCache = createBoundedCache(pattern -> {
+    });
+
+    private static <V> Map<String, V> createBoundedCache(Consumer<V> onEviction) {
+        return new LinkedHashMap<String, V>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, V> eldest) {
+                if (size() > MAX_CACHED_REGEX) {
+                    onEviction.accept(eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
 
-    public static Automaton getRegexAutomaton(String regex) {
-        if (!regexAutomatonCache.containsKey(regex)) {
-            cacheRegex(regex);
+    /**
+     * Remove the cached automatons, patterns and cost matrices
+     */
+    public static void clearCaches() {
+        synchronized (regexAutomatonCache) {
+            regexAutomatonCache.values().forEach(RegexAutomaton::release);
+            regexAutomatonCache.clear();
+        }
+        synchronized (regexPatternCache) {
+            regexPatternCache.clear();
         }
-        return regexAutomatonCache.get(regex);
     }
 
-    public static String getRegexInstance(String regex) {
-        if (!regexAutomatonCache.containsKey(regex)) {
-            cacheRegex(regex);
+    private static RegexAutomaton getCachedRegex(String regex) {
+        synchronized (regexAutomatonCache) {
+            RegexAutomaton cached = regexAutomatonCache.get(regex);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        // built outside of the lock, as this can be expensive
+        RegexAutomaton automaton = new RegexAutomaton(regex);
+        synchronized (regexAutomatonCache) {
+            RegexAutomaton cached = regexAutomatonCache.putIfAbsent(regex, automaton);
+            return cached != null ? cached : automaton;
         }
-        Automaton automaton = regexAutomatonCache.get(regex);
-        return automaton.getShortestExample(true);
     }
 
-    public static String getNonMatchingRegexInstance(String regex) {
-        if (!regexAutomatonCache.containsKey(regex)) {
-            cacheRegex(regex);
+    private static Pattern getCachedPattern(String regex) {
+        synchronized (regexPatternCache) {
+            return regexPatternCache.computeIfAbsent(regex, Pattern::compile);
         }
-        Automaton automaton = regexAutomatonCache.get(regex);
-        return automaton.getShortestExample(false);
     }
 
-    private static class GraphTransition {
-
-        public enum TransitionType {
-            INSERTION, DELETION, REPLACEMENT,
-            /**
-             * A phantom transition is an artificial transition from the sink/final states to a single artificial sink/state.
-             * This is used to simplify the recursion calculation of the subpath costs.
-             */
-            PHANTOM
-        }
+    public static Automaton getRegexAutomaton(String regex) {
+        return getCachedRegex(regex).automaton;
+    }
 
-        public final double cost;
-        public final int fromRow;
-        public final State fromState;
-        public final TransitionType type;
+    public static String getRegexInstance(String regex) {
+        Automaton automaton = getCachedRegex(regex).automaton;
+        return automaton.getShortestExample(true);
+    }
 
-        public GraphTransition(double cost, int fromRow, State fromState, TransitionType type) {
-            this.cost = cost;
-            this.fromRow = fromRow;
-            this.fromState = fromState;
-            this.type = type;
-        }
+    public static String getNonMatchingRegexInstance(String regex) {
+        Automaton automaton = getCachedRegex(regex).automaton;
+        return automaton.getShortestExample(false);
     }
 
     /**
@@ -172,70 +211,6 @@ public class RegexDistanceUtils {
         return regex;
     }
 
-    /**
-     * Ensure that each row has the full data structures containing the target state
-     *
-     * @param transitions
-     * @param state
-     * @param numRows
-     */
-    private static void ensureState(
-            Map<Integer, Map<State, Set<GraphTransition>>> transitions, State state,
-            int numRows) {
-        for (int row = 0; row <= numRows; row++) {
-            if (!transitions.containsKey(row))
-                transitions.put(row, new HashMap<>());
-            if (!transitions.get(row).containsKey(state))
-                transitions.get(row).put(state, new HashSet<>());
-        }
-    }
-
-    private static void cacheRegex(String regex) {
-        String r = expandRegex(regex);
-        Automaton automaton = new RegExp(r, RegExp.NONE).toAutomaton();
-        automaton.expandSingleton();
-
-        // We convert this to a graph without self-loops in order to determine the topological order
-        DirectedGraph<State, DefaultEdge> regexGraph = new DefaultDirectedGraph<>(
-                DefaultEdge.class);
-        Set<State> visitedStates = new HashSet<>();
-        Queue<State> states = new LinkedList<>();
-        State initialState = automaton.getInitialState();
-        states.add(initialState);
-
-        while (!states.isEmpty()) {
-            State currentState = states.poll();
-            if (visitedStates.contains(currentState))
-                continue;
-            if (!regexGraph.containsVertex(currentState))
-                regexGraph.addVertex(currentState);
-            for (Transition t : currentState.getTransitions()) {
-                // Need to get rid of back edges, otherwise there is no topological order!
-                if (!t.getDest().equals(currentState)) {
-                    regexGraph.addVertex(t.getDest());
-                    regexGraph.addEdge(currentState, t.getDest());
-                    states.add(t.getDest());
-                    CycleDetector<State, DefaultEdge> det = new CycleDetector<>(
-                            regexGraph);
-                    if (det.detectCycles()) {
-                        regexGraph.removeEdge(currentState, t.getDest());
-                    }
-                }
-            }
-            visitedStates.add(currentState);
-        }
-
-        TopologicalOrderIterator<State, DefaultEdge> iterator = new TopologicalOrderIterator<>(
-                regexGraph);
-        List<State> topologicalOrder = new ArrayList<>();
-        while (iterator.hasNext()) {
-            topologicalOrder.add(iterator.next());
-        }
-
-        regexStateCache.put(regex, topologicalOrder);
-        regexAutomatonCache.put(regex, automaton);
-    }
-
     /**
      * <p>
      * Get the distance between the arg and the given regex.
@@ -249,13 +224,11 @@ public class RegexDistanceUtils {
             return getDefaultDistance(arg, regex);
         }
 
-        RegexGraph graph = new RegexGraph(arg, regex);
-        CostMatrix matrix = new CostMatrix();
-        return matrix.calculateStandardCost(graph);
+        return getCachedRegex(regex).standardCost.calculateStandardCost(arg);
     }
 
     private static int getDefaultDistance(String arg, String regex) {
-        Pattern p = Pattern.compile(regex);
+        Pattern p = getCachedPattern(regex);
         if (p.matcher(arg).matches())
             return 0;
         else
@@ -287,365 +260,477 @@ public class RegexDistanceUtils {
      * @return
      */
     public static double getDistanceTailoredForStringAVM(String arg, String regex) {
-        RegexGraph graph = new RegexGraph(arg, regex);
-        CostMatrix matrix = new CostMatrix();
-        return matrix.calculateCostForStringAVM(graph);
+        return getCachedRegex(regex).costForStringAVM.calculateCostForStringAVM(arg);
     }
 
     protected static Automaton getAndCacheAutomaton(String regex) {
-        /*
-         * Cache it if first time we build it
-         */
-        if (!regexAutomatonCache.containsKey(regex)) {
-            /*
-             * Create an automaton representing the regex
-             */
-            cacheRegex(regex);
-        }
-
-        Automaton automaton = regexAutomatonCache.get(regex);
-        return automaton;
+        return getCachedRegex(regex).automaton;
     }
 
 
     /**
-     * A graph created based on an "arg" that is matched against a "regex".
-     * There is going to be arg.length+1 copies of the regex automaton.
+     * The automaton of a regex, seen as the graph used to calculate the distance of an "arg"
+     * to the regex. There is going to be arg.length+1 copies of the regex automaton.
      * Each copy represents a "row".
      * Each automaton state, in topological order, represents a "column".
-     * The graph can be considered as a "rows"x"columns" matrix.
+     * The graph can be considered as a "rows"x"columns" matrix, in which the transitions
+     * into a node only depend on its column and on the character of the arg of its row,
+     * so they are kept per column and the rows are never built.
+     *
+     * <p>
+     * The algorithm is based on what discussed in:
+     *
+     * Mohammad Alshraideh and Leonardo Bottaci
+     * Search-based software test data generation for string data using program-specific search operators
+     * http://neo.lcc.uma.es/mase/attachments/085_TestDataGenerationForStringData.pdf
+     *
+     * and
+     *
+     * EUGENE W. MYERS and WEBB MILLER
+     * APPROXIMATE MATCHING OF REGULAR EXPRESSIONS
+     * http://www.cs.mun.ca/~harold/Courses/Old/Ling6800.W06/Diary/reg.aprox.pdf
      *
      * @author arcuri
      */
-    private static class RegexGraph {
+    private static class RegexAutomaton {
 
-        private final Map<Integer, Map<State, Set<GraphTransition>>> transitions;
-        private Map<Integer, State> intToStateMap;
-        private Map<State, Integer> stateToIntMap;
+        private final Automaton automaton;
 
         /**
-         * Build the graph
+         * For each column, the columns of the sources of its incoming automaton transitions, and
+         * the character range of these transitions. From a node in row "row", each of them gives
+         * <ul>
+         *     <li>an insertion edge with cost 1 from the source in the same row</li>
+         *     <li>a replacement edge from the source in row-1, which has cost 0 if the character of
+         *     the arg in row matches the range of the transition</li>
+         * </ul>
+         * Besides, each node has a deletion edge with cost 1 from the same column in row-1.
          *
-         * @param arg
-         * @param regex
+         * <p>
+         * Important: even if the cost is 0 (eg match on the arg/regex in which we replace char X with X), a
+         * replacement is not a phantom transition. Even if we do not replace anything, we still need to consider
+         * it as a replacement transition. Consider the case
+         *
+         * "ac".matches("abc")
+         *
+         * If we used a phantom transition to represent the alignment c/c, then it would be possible to insert 'b' in
+         * the middle of "abc". On the other hand, if we use a replacement c/c, then inserting 'b' would not be
+         * allowed, as an insertion cannot be followed by a replacement.
          */
-        public RegexGraph(String arg, String regex) {
-            transitions = createGraph(arg, regex);
-        }
+        private final int[][] sources;
+        private final char[][] minChars;
+        private final char[][] maxChars;
 
-        public int getNumberOfRows() {
-            return transitions.keySet().size();
-        }
+        /**
+         * Columns of the accepting states. A phantom transition with cost 0 goes from each of them to a single
+         * artificial sink state in the last row, which simplifies the recursion calculation of the subpath costs.
+         * The cost of the arg is the one of the sink.
+         */
+        private final int[] acceptingColumns;
 
-        public int getNumberOfColumns() {
-            return stateToIntMap.size();
-        }
+        private final CostMatrix standardCost = new CostMatrix(this, 1);
+        private final CostMatrix costForStringAVM = new CostMatrix(this, 3);
 
         /**
-         * Get all the incoming transitions to the node located at coordinate "row" and "column"
-         *
-         * @param row
-         * @param column
-         * @return
+         * Free the cost matrices, once the automaton is no longer cached
          */
-        public Set<GraphTransition> getIncomingTransitions(int row, int column) {
-            State state = intToStateMap.get(column);
-            return transitions.get(row).get(state);
+        private void release() {
+            standardCost.free();
+            costForStringAVM.free();
         }
 
-        public int getColumn(State state) {
-            return stateToIntMap.get(state);
-        }
+        public RegexAutomaton(String regex) {
+            String r = expandRegex(regex);
+            automaton = new RegExp(r, RegExp.NONE).toAutomaton();
+            automaton.expandSingleton();
 
-        private Map<Integer, Map<State, Set<GraphTransition>>> createGraph(String arg, String regex) {
+            List<State> topologicalOrder = getTopologicalOrder(automaton);
 
-            /*
-             * Create a graph to calculate the distance. The algorithm is based on what discussed in:
-             *
-             * Mohammad Alshraideh and Leonardo Bottaci
-             * Search-based software test data generation for string data using program-specific search operators
-             * http://neo.lcc.uma.es/mase/attachments/085_TestDataGenerationForStringData.pdf
-             *
-             * and
-             *
-             * EUGENE W. MYERS and WEBB MILLER
-             * APPROXIMATE MATCHING OF REGULAR EXPRESSIONS
-             * http://www.cs.mun.ca/~harold/Courses/Old/Ling6800.W06/Diary/reg.aprox.pdf
-             */
+            Map<State, Integer> stateToColumn = new HashMap<>();
+            for (State state : topologicalOrder) {
+                stateToColumn.put(state, stateToColumn.size());
+            }
 
-            Automaton automaton = getAndCacheAutomaton(regex);
-            final int NUM_CHARS = arg.length();
+            List<List<Transition>> incoming = new ArrayList<>();
+            List<List<Integer>> incomingSources = new ArrayList<>();
+            for (int i = 0; i < topologicalOrder.size(); i++) {
+                incoming.add(new ArrayList<>());
+                incomingSources.add(new ArrayList<>());
+            }
+            for (State state : topologicalOrder) {
+                for (Transition t : state.getTransitions()) {
+                    int destination = stateToColumn.get(t.getDest());
+                    incoming.get(destination).add(t);
+                    incomingSources.get(destination).add(stateToColumn.get(state));
+                }
+            }
 
+            int columns = topologicalOrder.size();
+            sources = new int[columns][];
+            minChars = new char[columns][];
+            maxChars = new char[columns][];
+            for (int col = 0; col < columns; col++) {
+                int n = incoming.get(col).size();
+                sources[col] = new int[n];
+                minChars[col] = new char[n];
+                maxChars[col] = new char[n];
+                for (int k = 0; k < n; k++) {
+                    sources[col][k] = incomingSources.get(col).get(k);
+                    minChars[col][k] = incoming.get(col).get(k).getMin();
+                    maxChars[col][k] = incoming.get(col).get(k).getMax();
+                }
+            }
 
-            List<State> topologicalOrder = regexStateCache.get(regex);
+            acceptingColumns = topologicalOrder.stream().filter(State::isAccept)
+                    .mapToInt(stateToColumn::get).toArray();
+        }
 
-            Map<Integer, Map<State, Set<GraphTransition>>> transitions = new HashMap<>();
+        private static List<State> getTopologicalOrder(Automaton automaton) {
+            // We convert this to a graph without self-loops in order to determine the topological order
+            DirectedGraph<State, DefaultEdge> regexGraph = new DefaultDirectedGraph<>(
+                    DefaultEdge.class);
+            Set<State> visitedStates = new HashSet<>();
+            Queue<State> states = new LinkedList<>();
+            State initialState = automaton.getInitialState();
+            states.add(initialState);
+
+            while (!states.isEmpty()) {
+                State currentState = states.poll();
+                if (visitedStates.contains(currentState))
+                    continue;
+                if (!regexGraph.containsVertex(currentState))
+                    regexGraph.addVertex(currentState);
+                for (Transition t : currentState.getTransitions()) {
+                    // Need to get rid of back edges, otherwise there is no topological order!
+                    if (!t.getDest().equals(currentState)) {
+                        regexGraph.addVertex(t.getDest());
+                        regexGraph.addEdge(currentState, t.getDest());
+                        states.add(t.getDest());
+                        CycleDetector<State, DefaultEdge> det = new CycleDetector<>(
+                                regexGraph);
+                        if (det.detectCycles()) {
+                            regexGraph.removeEdge(currentState, t.getDest());
+                        }
+                    }
+                }
+                visitedStates.add(currentState);
+            }
 
-            intToStateMap = new HashMap<>();
-            stateToIntMap = new HashMap<>();
-            int numState = 0;
+            TopologicalOrderIterator<State, DefaultEdge> iterator = new TopologicalOrderIterator<>(
+                    regexGraph);
+            List<State> topologicalOrder = new ArrayList<>();
+            while (iterator.hasNext()) {
+                topologicalOrder.add(iterator.next());
+            }
+            return topologicalOrder;
+        }
 
-            for (State currentState : topologicalOrder) {
+        public int getNumberOfColumns() {
+            return sources.length;
+        }
 
-                /*
-                 * Init data structure to quickly map/access state/index
-                 */
-                stateToIntMap.put(currentState, numState);
-                intToStateMap.put(numState, currentState);
-                numState++;
+        /**
+         * Cost of the replacement edge of the k-th incoming transition of column col
+         */
+        public double getReplacementCost(char c, int col, int k) {
+            double cost = 0.0;
 
-                for (Transition t : currentState.getTransitions()) {
+            if (c < minChars[col][k] || c > maxChars[col][k]) {
+                int distMin = Math.abs(c - minChars[col][k]);
+                int distMax = Math.abs(c - maxChars[col][k]);
+                cost = normalize(Math.min(distMin, distMax));
+            }
+            return cost;
+        }
+    }
 
-                    State destination = t.getDest();
-                    ensureState(transitions, destination, NUM_CHARS);
+    /**
+     * Class used to calculate the cost, ie the actual distance, based on a RegexAutomaton.
+     *
+     * <p>
+     * A row of the matrix only depends on the previous rows and on the character of the arg of the row.
+     * So the matrix is kept for the next arg, and only the rows after the common prefix with the previous
+     * arg are calculated, eg one row when the StringAVM appends a character. The matrix is shared by the
+     * threads calculating the distance to the same regex, so the calculation is synchronized.
+     *
+     * @author arcuri
+     */
+    private static class CostMatrix {
 
-                    for (int row = 0; row <= NUM_CHARS; row++) {
-                        /*
-                         *  add an insertion edge from currentState in row to target state in same row
-                         */
+        private final static int DEL = 0;
+        private final static int REP = 1;
+        private final static int INS = 2;
 
-                        transitions.get(row).get(destination).add(new GraphTransition(1.0, row, currentState, GraphTransition.TransitionType.INSERTION));
-                    }
+        private final RegexAutomaton graph;
 
-                    for (int row = 0; row < NUM_CHARS; row++) {
-                        /*
-                         *  Add a replacement edge from currentState in row to t.getDest in row+1
-                         *  if charAt row+1 == the parameter of this transition, this is a zero-cost edge
-                         */
+        /**
+         * number of values per cell
+         */
+        private final int paths;
 
-                        double cost = 0.0;
+        private double[][] matrix = new double[0][];
 
-                        if (arg.charAt(row) < t.getMin() || arg.charAt(row) > t.getMax()) {
-                            int distMin = Math.abs(arg.charAt(row) - t.getMin());
-                            int distMax = Math.abs(arg.charAt(row) - t.getMax());
-                            cost = normalize(Math.min(distMin, distMax));
-                        }
+        /**
+         * the arg the first computedRows rows of the matrix have been calculated for
+         */
+        private String arg = "";
+        private int computedRows = 0;
 
-                        /*
-                         * Important: even if the cost is 0 (eg match on the arg/regex in which we replace char X with X), we CANNOT
-                         * use a PHANTOM transition. Even if we do not replace anything, we still need to consider it as a replacement
-                         * transition. Consider the case
-                         *
-                         *  "ac".matches("abc")
-                         *
-                         *  If we used a phantom transition to represent the alignment c/c, then it would be possible to insert 'b' in the
-                         *  middle of "abc". On the other hand, if we use a replacement c/c, then inserting 'b' would not be allowed, as an
-                         *  insertion cannot be followed by a replacement.
-                         */
+        /**
+         * number of values of the matrix counted in {@link #retainedCells}
+         */
+        private long retained = 0;
 
-                        transitions.get(row + 1).get(destination).add(new GraphTransition(cost, row, currentState, GraphTransition.TransitionType.REPLACEMENT));
-                    }
-                }
+        /**
+         * whether the automaton is no longer cached, and so the matrix is not to be kept
+         */
+        private boolean freed = false;
 
-                ensureState(transitions, currentState, NUM_CHARS);
+        public CostMatrix(RegexAutomaton graph, int paths) {
+            this.graph = graph;
+            this.paths = paths;
+        }
 
-                for (int row = 0; row < NUM_CHARS; row++) {
+        /**
+         * Make sure the rows of the given arg are calculated
+         *
+         * @return the number of rows
+         */
+        private int calculateRows(String newArg) {
+            final int ROWS = newArg.length() + 1;
 
-                    /*
-                     * add a deletion edge with cost 1 from currentState to currentState in next row
-                     */
+            int common = 0;
+            int min = Math.min(arg.length(), newArg.length());
+            while (common < min && arg.charAt(common) == newArg.charAt(common)) {
+                common++;
+            }
+            int firstRow = Math.min(common + 1, computedRows);
 
-                    transitions.get(row + 1).get(currentState).add(new GraphTransition(1.0, row, currentState, GraphTransition.TransitionType.DELETION));
+            if (matrix.length < ROWS) {
+                double[][] larger = Arrays.copyOf(matrix, Math.max(ROWS, 2 * matrix.length));
+                for (int i = matrix.length; i < larger.length; i++) {
+                    larger[i] = new double[graph.getNumberOfColumns() * paths];
                 }
+                matrix = larger;
             }
 
-            // Add zero-cost transitions from accepting states to final state
-            State finalState = new State();
-            ensureState(transitions, finalState, NUM_CHARS);
-            for (State s : automaton.getStates()) {
-                if (s.isAccept()) {
-                    transitions.get(NUM_CHARS).get(finalState).add(new GraphTransition(0, NUM_CHARS, s, GraphTransition.TransitionType.PHANTOM));
+            for (int i = firstRow; i < ROWS; i++) {
+                /*
+                 * values are read from the nodes of the row that are not calculated yet
+                 * through the back edges, as in a new matrix
+                 */
+                Arrays.fill(matrix[i], 0);
+                if (paths == 1) {
+                    if (i == 0) {
+                        calculateStandardCostOnFirstRow();
+                    } else {
+                        calculateStandardCostOnRow(i, newArg.charAt(i - 1));
+                    }
+                } else {
+                    if (i == 0) {
+                        calculateInsertionCostOnFirstRow();
+                    } else {
+                        calculateCostForStringAVMOnRow(i, newArg.charAt(i - 1));
+                    }
                 }
             }
-            intToStateMap.put(numState, finalState);
-            stateToIntMap.put(finalState, numState);
 
-            return transitions;
+            arg = newArg;
+            computedRows = ROWS;
+            return ROWS;
         }
-    }
-
-    /**
-     * Class used to calculate the cost, ie the actual distance, based on a RegexGraph.
-     *
-     * @author arcuri
-     */
-    private static class CostMatrix {
 
-        private final static int DEL = 0;
-        private final static int REP = 1;
-        private final static int INS = 2;
+        /**
+         * Free the matrix if it is too large to be kept for the next arg, on its own or together
+         * with the matrices kept for the other regex
+         */
+        private void release() {
+            long size = (long) matrix.length * graph.getNumberOfColumns() * paths;
+            if (!freed && size <= MAX_RETAINED_MATRIX_SIZE) {
+                if (retainedCells.addAndGet(size - retained) <= MAX_RETAINED_CELLS) {
+                    retained = size;
+                    return;
+                }
+                retainedCells.addAndGet(-size);
+            } else {
+                retainedCells.addAndGet(-retained);
+            }
+            retained = 0;
+            matrix = new double[0][];
+            arg = "";
+            computedRows = 0;
+        }
 
-        public CostMatrix() {
-            super();
+        /**
+         * Free the matrix for good
+         */
+        private synchronized void free() {
+            freed = true;
+            release();
         }
 
-        public int calculateStandardCost(RegexGraph graph) {
-            final int ROWS = graph.getNumberOfRows();
-            final int COLUMNS = graph.getNumberOfColumns();
+        public synchronized int calculateStandardCost(String arg) {
+            final int ROWS = calculateRows(arg);
 
-            final double[][] matrix = new double[ROWS][COLUMNS];
+            /*
+             * the sink state takes the same value as the accepting states
+             */
+            double min = Double.MAX_VALUE;
+            for (int col : graph.acceptingColumns) {
+                min = Math.min(min, matrix[ROWS - 1][col]);
+            }
+            release();
+            return (int) Math.round(min);
+        }
 
+        private void calculateStandardCostOnFirstRow() {
             // First row is cost of matching empty sequence on regex
-            final int FIRST_ROW = 0;
+            final double[] row = matrix[0];
 
             /*
              * init first starting state with 0 costs
              */
-            matrix[FIRST_ROW][0] = 0;
+            row[0] = 0;
 
-            //look at first row (which is special)
             for (int col = 1; col < graph.getNumberOfColumns(); col++) {
 
                 double min = Double.MAX_VALUE;
 
-                for (GraphTransition t : graph.getIncomingTransitions(FIRST_ROW, col)) {
-
-                    int otherCol = graph.getColumn(t.fromState);
-
+                for (int otherCol : graph.sources[col]) {
                     //self transition
                     if (col == otherCol) {
                         continue;
                     }
 
-                    double otherCost = matrix[FIRST_ROW][otherCol];
-
-                    min = Math.min(min, getSubPathCost(otherCost, Math.ceil(t.cost)));
+                    min = Math.min(min, getSubPathCost(row[otherCol], 1.0));
                 }
 
-                matrix[FIRST_ROW][col] = min;
+                row[col] = min;
             }
+        }
 
-            //then look at the other rows
-            for (int i = 1; i < ROWS; i++) {
-
-                for (int col = 0; col < COLUMNS; col++) {
-
-                    matrix[i][col] = Double.MAX_VALUE;
-
-                    for (GraphTransition t : graph.getIncomingTransitions(i, col)) {
+        private void calculateStandardCostOnRow(int i, char c) {
+            final double[] row = matrix[i];
+            final double[] previous = matrix[i - 1];
 
-                        int otherCol = graph.getColumn(t.fromState);
-                        int otherRow = t.fromRow;
+            for (int col = 0; col < graph.getNumberOfColumns(); col++) {
 
-                        if (!t.type.equals(GraphTransition.TransitionType.PHANTOM)) {
-                            matrix[i][col] = Math.min(matrix[i][col], getSubPathCost(matrix[otherRow][otherCol], Math.ceil(t.cost)));
-                        } else {
-                            /*
-                             * artificial transition to final/sink state, so just take same values as previous state
-                             */
-                            matrix[i][col] = Math.min(matrix[i][col], matrix[otherRow][otherCol]);
+                // deletion
+                double min = getSubPathCost(previous[col], 1.0);
 
-                        }
+                int[] sources = graph.sources[col];
+                for (int k = 0; k < sources.length; k++) {
+                    int otherCol = sources[k];
+                    // insertion, which cannot improve on a self transition
+                    if (otherCol != col) {
+                        min = Math.min(min, getSubPathCost(row[otherCol], 1.0));
                     }
+                    // replacement
+                    min = Math.min(min, getSubPathCost(previous[otherCol], Math.ceil(graph.getReplacementCost(c, col, k))));
                 }
-            }
 
-            double min = matrix[ROWS - 1][COLUMNS - 1];
-            return (int) Math.round(min);
+                row[col] = min;
+            }
         }
 
         /**
          * Note: this is different from normal matching algorithms, as we enforce an order
          * among the operators: delete, replace and then insert.
          *
-         * @param graph
+         * @param arg
          * @return
          */
-        public double calculateCostForStringAVM(RegexGraph graph) {
-
-            final int ROWS = graph.getNumberOfRows();
-            final int COLUMNS = graph.getNumberOfColumns();
+        public synchronized double calculateCostForStringAVM(String arg) {
+            final int ROWS = calculateRows(arg);
 
             /*
-             * we create a matrix based on each row and each column in the graph.
-             * Each cell has 3 values, each representing the cost of thre different types of path:
-             *
-             * 0) only deletion
-             * 1) deletions followed by replacement
-             * 2) as above, and then followed by insertions
+             * get the minimum among the 3 different paths in the sink state, which takes the same values as
+             * the accepting states
              */
-            final double[][][] matrix = new double[ROWS][COLUMNS][3];
+            double min = Double.MAX_VALUE;
+            for (int col : graph.acceptingColumns) {
+                for (int path = DEL; path <= INS; path++) {
+                    min = Math.min(min, matrix[ROWS - 1][3 * col + path]);
+                }
+            }
+            release();
+            return min;
+        }
 
-            calculateInsertionCostOnFirstRow(graph, matrix);
+        /*
+         * Each cell has 3 values, each representing the cost of three different types of path:
+         *
+         * 0) only deletion
+         * 1) deletions followed by replacement
+         * 2) as above, and then followed by insertions
+         */
+        private void calculateCostForStringAVMOnRow(int i, char c) {
+            final double[] row = matrix[i];
+            final double[] previous = matrix[i - 1];
 
-            for (int i = 1; i < ROWS; i++) {
+            for (int col = 0; col < graph.getNumberOfColumns(); col++) {
 
-                for (int col = 0; col < COLUMNS; col++) {
+                /*
+                 * unless a path is explicitly updated, it will have maximum distance by default
+                 */
+                double del = Double.MAX_VALUE;
+                double rep = Double.MAX_VALUE;
+                double ins = Double.MAX_VALUE;
+                boolean selfTransition = false;
+
+                int[] sources = graph.sources[col];
+                for (int k = 0; k < sources.length; k++) {
+                    int otherCol = sources[k];
+                    if (otherCol == col) {
+                        // continues the paths of this node, so done once they are known
+                        selfTransition = true;
+                    } else {
+                        /*
+                         * if we have an insertion, only the insertion path can be continued.
+                         * An insertion can continue any type of path.
+                         */
+                        ins = Math.min(ins, getSubPathCost(row[3 * otherCol + DEL], 1.0));
+                        ins = Math.min(ins, getSubPathCost(row[3 * otherCol + REP], 1.0));
+                        ins = Math.min(ins, getSubPathCost(row[3 * otherCol + INS], 1.0));
+                    }
 
                     /*
-                     * unless a path is explicitly updated, it will have maximum distance by default
+                     * if we have a replacement, then we cannot continue a delete path.
+                     * A replacement can continue a delete or replace path, but not an insertion one.
+                     * From this state on, an insertion path can be followed, with same cost as replacement path
                      */
-                    matrix[i][col][DEL] = Double.MAX_VALUE;
-                    matrix[i][col][REP] = Double.MAX_VALUE;
-                    matrix[i][col][INS] = Double.MAX_VALUE;
-
-                    for (GraphTransition t : graph.getIncomingTransitions(i, col)) {
-
-                        int otherCol = graph.getColumn(t.fromState);
-                        int otherRow = t.fromRow;
-
-                        if (t.type.equals(GraphTransition.TransitionType.INSERTION)) {
-                            assert otherRow == i;
-                            /*
-                             * if we have an insertion, only the insertion path can be continued.
-                             * that's the reason why on the left side we only update for [INS].
-                             * An insertion can continue any type of path (and so all types are present on the right side).
-                             */
-                            matrix[i][col][INS] = Math.min(matrix[i][col][INS], getSubPathCost(matrix[otherRow][otherCol][DEL], t.cost));
-                            matrix[i][col][INS] = Math.min(matrix[i][col][INS], getSubPathCost(matrix[otherRow][otherCol][REP], t.cost));
-                            matrix[i][col][INS] = Math.min(matrix[i][col][INS], getSubPathCost(matrix[otherRow][otherCol][INS], t.cost));
-                        } else if (t.type.equals(GraphTransition.TransitionType.REPLACEMENT)) {
-                            /*
-                             * if we have a replacement, then we cannot continue a delete path.
-                             * So, no [DEL] on the left side.
-                             * A replacement can continue a delete or replace path, but not an insertion one (and so [DEL] and
-                             * [REP] on right side)
-                             */
-                            matrix[i][col][REP] = Math.min(matrix[i][col][REP], getSubPathCost(matrix[otherRow][otherCol][DEL], t.cost));
-                            matrix[i][col][REP] = Math.min(matrix[i][col][REP], getSubPathCost(matrix[otherRow][otherCol][REP], t.cost));
-                            /*
-                             * from this state on, an insertion path can be followed, with same cost (ie right side) as replacement path
-                             */
-                            matrix[i][col][INS] = Math.min(matrix[i][col][INS], getSubPathCost(matrix[otherRow][otherCol][DEL], t.cost));
-                            matrix[i][col][INS] = Math.min(matrix[i][col][INS], getSubPathCost(matrix[otherRow][otherCol][REP], t.cost));
-                        } else if (t.type.equals(GraphTransition.TransitionType.DELETION)) {
-                            /*
-                             * deletion can only follow a deletion path (so only [DEL] or right side).
-                             * but, from this state on, any new path can be followed (so all on left side)
-                             */
-                            matrix[i][col][DEL] = Math.min(matrix[i][col][DEL], getSubPathCost(matrix[otherRow][otherCol][DEL], t.cost));
-                            matrix[i][col][REP] = Math.min(matrix[i][col][REP], getSubPathCost(matrix[otherRow][otherCol][DEL], t.cost));
-                            matrix[i][col][INS] = Math.min(matrix[i][col][INS], getSubPathCost(matrix[otherRow][otherCol][DEL], t.cost));
-                        } else if (t.type.equals(GraphTransition.TransitionType.PHANTOM)) {
-                            assert t.cost == 0;
-                            /*
-                             * artificial transition to final/sink state, so just take same values as previous state
-                             */
-                            matrix[i][col][DEL] = Math.min(matrix[i][col][DEL], matrix[otherRow][otherCol][DEL]);
-                            matrix[i][col][REP] = Math.min(matrix[i][col][REP], matrix[otherRow][otherCol][REP]);
-                            matrix[i][col][INS] = Math.min(matrix[i][col][INS], matrix[otherRow][otherCol][INS]);
-                        }
-                    }
+                    double cost = graph.getReplacementCost(c, col, k);
+                    double replaced = Math.min(getSubPathCost(previous[3 * otherCol + DEL], cost),
+                            getSubPathCost(previous[3 * otherCol + REP], cost));
+                    rep = Math.min(rep, replaced);
+                    ins = Math.min(ins, replaced);
                 }
 
                 /*
-                 * TODO: The algorithm of Myers's paper, at page 12, makes a distinction between D and E transitions.
-                 * Insertions of type E are done last. Not fully clear if it has an effect here: ie, recall that
-                 * here we do minimization (calculate distance) and not maximization (similarity)
+                 * deletion can only follow a deletion path.
+                 * but, from this state on, any new path can be followed
                  */
+                double deleted = getSubPathCost(previous[3 * col + DEL], 1.0);
+                del = Math.min(del, deleted);
+                rep = Math.min(rep, deleted);
+                ins = Math.min(ins, deleted);
+
+                if (selfTransition) {
+                    ins = Math.min(ins, getSubPathCost(del, 1.0));
+                    ins = Math.min(ins, getSubPathCost(rep, 1.0));
+                    ins = Math.min(ins, getSubPathCost(ins, 1.0));
+                }
+
+                row[3 * col + DEL] = del;
+                row[3 * col + REP] = rep;
+                row[3 * col + INS] = ins;
             }
 
             /*
-             * get the minimum among the 3 different paths in the sink state
+             * TODO: The algorithm of Myers's paper, at page 12, makes a distinction between D and E transitions.
+             * Insertions of type E are done last. Not fully clear if it has an effect here: ie, recall that
+             * here we do minimization (calculate distance) and not maximization (similarity)
              */
-            double min = Double.MAX_VALUE;
-            for (double value : matrix[ROWS - 1][COLUMNS - 1]) {
-                if (value < min) {
-                    min = value;
-                }
-            }
-
-            return min;
         }
 
         /**
@@ -682,55 +767,42 @@ public class RegexDistanceUtils {
 
         /**
          * First row is special, ie very different from the others
-         *
-         * @param graph
-         * @param matrix
          */
-        private void calculateInsertionCostOnFirstRow(RegexGraph graph, final double[][][] matrix) {
+        private void calculateInsertionCostOnFirstRow() {
 
             // First row is cost of matching empty sequence on regex
-            final int FIRST_ROW = 0;
+            final double[] row = matrix[0];
 
             /*
              * init first starting state with 0 costs
              */
-            matrix[FIRST_ROW][0][0] = 0;
-            matrix[FIRST_ROW][0][1] = 0;
-            matrix[FIRST_ROW][0][2] = 0;
+            row[DEL] = 0;
+            row[REP] = 0;
+            row[INS] = 0;
 
             for (int col = 1; col < graph.getNumberOfColumns(); col++) {
 
                 double min = Double.MAX_VALUE;
 
-                for (GraphTransition t : graph.getIncomingTransitions(FIRST_ROW, col)) {
-
-                    /*
-                     * on first row, there can be only insertions coming from the same row,
-                     * apart from last node that can have a phantom transition to sink state
-                     */
-                    assert t.type.equals(GraphTransition.TransitionType.INSERTION) ||
-                            t.type.equals(GraphTransition.TransitionType.PHANTOM);
-                    assert t.fromRow == 0;
-
-                    int otherCol = graph.getColumn(t.fromState);
-
+                /*
+                 * on first row, there can be only insertions coming from the same row
+                 */
+                for (int otherCol : graph.sources[col]) {
                     //self transition
                     if (col == otherCol) {
                         continue;
                     }
 
-                    double otherCost = matrix[FIRST_ROW][otherCol][2];
-
-                    min = Math.min(min, getSubPathCost(otherCost, t.cost));
+                    min = Math.min(min, getSubPathCost(row[3 * otherCol + INS], 1.0));
                 }
 
                 /*
                  * as there can be only insertions, the delete and replace paths cannot be followed, and
                  * so maximum distance
                  */
-                matrix[FIRST_ROW][col][0] = Double.MAX_VALUE;
-                matrix[FIRST_ROW][col][1] = Double.MAX_VALUE;
-                matrix[FIRST_ROW][col][2] = min;
+                row[3 * col + DEL] = Double.MAX_VALUE;
+                row[3 * col + REP] = Double.MAX_VALUE;
+                row[3 * col + INS] = min;
             }
         }
     }
@@ -811,7 +811,7 @@ public class GenericClassImpl implements Serializable, GenericClass<GenericClass
 
     public GenericClassImpl getSuperClass() {
         return new GenericClassImpl(
-                GenericTypeReflector.getExactSuperType(type, rawClass.getSuperclass()));
+                GenericClassUtils.getExactSuperType(type, rawClass.getSuperclass()));
     }
 
     /**
@@ -841,6 +841,18 @@ public class GenericClassImpl implements Serializable, GenericClass<GenericClass
     public Map<TypeVariable<?>, Type> getTypeVariableMap() {
         if (typeVariableMap != null)
             return typeVariableMap;
+
+        // Each instance gets its own copy of the cached map, as callers may modify it
+        Map<TypeVariable<?>, Type> cached = GenericClassUtils.getCachedTypeVariableMap(type, rawClass);
+        if (cached == null) {
+            cached = computeTypeVariableMap();
+            GenericClassUtils.cacheTypeVariableMap(type, rawClass, cached);
+        }
+        typeVariableMap = new LinkedHashMap<>(cached);
+        return typeVariableMap;
+    }
+
+    private Map<TypeVariable<?>, Type> computeTypeVariableMap() {
         //logger.debug("Getting type variable map for " + type);
         List<TypeVariable<?>> typeVariables = getTypeVariables();
         List<Type> types = getParameterTypes();
@@ -880,7 +892,6 @@ public class GenericClassImpl implements Serializable, GenericClass<GenericClass
         }
 
         //logger.debug("Type map: " + typeMap);
-        typeVariableMap = typeMap;
         return typeMap;
     }
 
@@ -1096,7 +1107,7 @@ public class GenericClassImpl implements Serializable, GenericClass<GenericClass
      * @return
      */
     public boolean hasGenericSuperType(GenericClass superType) {
-        return GenericTypeReflector.isSuperType(superType.getType(), type);
+        return GenericClassUtils.isSuperType(superType.getType(), type);
     }
 
     /**
@@ -1106,7 +1117,7 @@ public class GenericClassImpl implements Serializable, GenericClass<GenericClass
      * @return
      */
     public boolean hasGenericSuperType(Type superType) {
-        return GenericTypeReflector.isSuperType(superType, type);
+        return GenericClassUtils.isSuperType(superType, type);
     }
 
     /* (non-Javadoc)
@@ -1294,7 +1305,7 @@ public class GenericClassImpl implements Serializable, GenericClass<GenericClass
      * @return
      */
     public boolean isGenericSuperTypeOf(GenericClass<?> subType) {
-        return GenericTypeReflector.isSuperType(type, subType.getType());
+        return GenericClassUtils.isSuperType(type, subType.getType());
     }
 
     /**
@@ -1304,7 +1315,7 @@ public class GenericClassImpl implements Serializable, GenericClass<GenericClass
      * @return
      */
     public boolean isGenericSuperTypeOf(Type subType) {
-        return GenericTypeReflector.isSuperType(type, subType);
+        return GenericClassUtils.isSuperType(type, subType);
     }
 
     /**
@@ -1482,7 +1493,7 @@ public class GenericClassImpl implements Serializable, GenericClass<GenericClass
                 if (GenericTypeReflector.erase(boundType).isAssignableFrom(getRawClass())) {
                     //logger.debug("Raw classes are assignable: " + boundType + ", "
                     //        + getRawClass());
-                    Type instanceType = GenericTypeReflector.getExactSuperType(boundType,
+                    Type instanceType = GenericClassUtils.getExactSuperType(boundType,
                             getRawClass());
                     if (instanceType == null) {
                         // This happens when the raw class is not a supertype
@@ -1563,7 +1574,7 @@ public class GenericClassImpl implements Serializable, GenericClass<GenericClass
                     break;
                 }
                 if (GenericTypeReflector.erase(type).isAssignableFrom(getRawClass())) {
-                    Type instanceType = GenericTypeReflector.getExactSuperType(type,
+                    Type instanceType = GenericClassUtils.getExactSuperType(type,
                             getRawClass());
                     if (instanceType == null) {
                         // This happens when the raw class is not a supertype
@@ -1598,7 +1609,7 @@ public class GenericClassImpl implements Serializable, GenericClass<GenericClass
                     if (type instanceof WildcardType)
                         continue;
                     if (GenericTypeReflector.erase(type).isAssignableFrom(getRawClass())) {
-                        Type instanceType = GenericTypeReflector.getExactSuperType(type,
+                        Type instanceType = GenericClassUtils.getExactSuperType(type,
                                 getRawClass());
                         if (instanceType == null) {
                             // This happens when the raw class is not a supertype
@@ -19,13 +19,14 @@
  */
 package org.evosuite.utils.generic;
 
+import com.googlecode.gentyref.GenericTypeReflector;
 import org.apache.commons.lang3.ClassUtils;
 import org.apache.commons.lang3.reflect.TypeUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.lang.reflect.*;
-import java.util.List;
+import java.util.*;
 
 /**
  * Utility class for {@code GenericClassImpl}.
@@ -34,9 +35,61 @@ public class GenericClassUtils {
 
     private final static Logger logger = LoggerFactory.getLogger(GenericClassUtils.class);
 
+    /**
+     * Max number of entries in each of the caches of generic type relations
+     */
+    private final static int MAX_CACHED_TYPES = 10_000;
+
+    /*
+     * Relations between generic types are derived again and again for the same types while
+     * creating and mutating tests, and are expensive to resolve. They only depend on the types, so
+     * they are memoized here, keyed by lists of types (which compare their elements by equality).
+     */
+    private final static Map<List<Type>, Boolean> assignableCache = createBoundedCache();
+
+    private final static Map<List<Type>, Boolean> superTypeCache = createBoundedCache();
+
+    private final static Map<List<Type>, Optional<Type>> exactSuperTypeCache = createBoundedCache();
+
+    private final static Map<List<Type>, Map<TypeVariable<?>, Type>> typeVariableMapCache = createBoundedCache();
+
     private GenericClassUtils() {
     }
 
+    private static <V> Map<List<Type>, V> createBoundedCache() {
+        return new LinkedHashMap<List<Type>, V>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<List<Type>, V> eldest) {
+                return size() > MAX_CACHED_TYPES;
+            }
+        };
+    }
+
+    private static <V> V getCached(Map<List<Type>, V> cache, List<Type> key) {
+        synchronized (cache) {
+            return cache.get(key);
+        }
+    }
+
+    private static <V> void putCached(Map<List<Type>, V> cache, List<Type> key, V value) {
+        synchronized (cache) {
+            cache.put(key, value);
+        }
+    }
+
+    /**
+     * Forgets the cached relations between types, e.g. when the classes of the SUT are loaded
+     * again by a new class loader.
+     */
+    public static void clearCaches() {
+        for (Map<List<Type>, ?> cache : Arrays.asList(assignableCache, superTypeCache,
+                exactSuperTypeCache, typeVariableMapCache)) {
+            synchronized (cache) {
+                cache.clear();
+            }
+        }
+    }
+
     /**
      * Tells whether the type {@code rhsType} (on the right-hand side of an assignment) can be
      * assigned to the type {@code lhsType} (on the left-hand side of an assignment).
@@ -49,12 +102,85 @@ public class GenericClassUtils {
     public static boolean isAssignable(Type lhsType, Type rhsType) {
         if (rhsType == null || lhsType == null) return false;
 
+        List<Type> key = Arrays.asList(lhsType, rhsType);
+        Boolean cached = getCached(assignableCache, key);
+        if (cached != null) {
+            return cached;
+        }
+
+        boolean assignable;
         try {
-            return TypeUtils.isAssignable(rhsType, lhsType);
+            assignable = TypeUtils.isAssignable(rhsType, lhsType);
         } catch (Throwable e) {
             logger.debug("Found unassignable type: " + e);
-            return false;
+            assignable = false;
+        }
+        putCached(assignableCache, key, assignable);
+        return assignable;
+    }
+
+    /**
+     * Memoized {@link GenericTypeReflector#isSuperType(Type, Type)}.
+     *
+     * @param superType the supertype
+     * @param subType   the subtype
+     * @return {@code true} if {@code superType} is a supertype of {@code subType}
+     */
+    public static boolean isSuperType(Type superType, Type subType) {
+        List<Type> key = Arrays.asList(superType, subType);
+        Boolean cached = getCached(superTypeCache, key);
+        if (cached != null) {
+            return cached;
         }
+
+        // exceptions are not cached, but thrown again on the next call
+        boolean isSuperType = GenericTypeReflector.isSuperType(superType, subType);
+        putCached(superTypeCache, key, isSuperType);
+        return isSuperType;
+    }
+
+    /**
+     * Memoized {@link GenericTypeReflector#getExactSuperType(Type, Class)}.
+     *
+     * @param type        the subtype
+     * @param searchClass the class of the supertype
+     * @return the exact supertype, or {@code null} if {@code searchClass} is not a supertype of
+     * {@code type}
+     */
+    public static Type getExactSuperType(Type type, Class<?> searchClass) {
+        List<Type> key = Arrays.asList(type, searchClass);
+        Optional<Type> cached = getCached(exactSuperTypeCache, key);
+        if (cached != null) {
+            return cached.orElse(null);
+        }
+
+        Type superType = GenericTypeReflector.getExactSuperType(type, searchClass);
+        putCached(exactSuperTypeCache, key, Optional.ofNullable(superType));
+        return superType;
+    }
+
+    /**
+     * Returns the cached type variable map of the generic class with the given type and raw
+     * class, or {@code null} if it is not cached.
+     *
+     * @param type     the type of the generic class
+     * @param rawClass the raw class of the generic class
+     * @return an unmodifiable type variable map, or {@code null}
+     */
+    static Map<TypeVariable<?>, Type> getCachedTypeVariableMap(Type type, Class<?> rawClass) {
+        return getCached(typeVariableMapCache, Arrays.asList(type, rawClass));
+    }
+
+    /**
+     * Caches the type variable map of the generic class with the given type and raw class.
+     *
+     * @param type            the type of the generic class
+     * @param rawClass        the raw class of the generic class
+     * @param typeVariableMap the type variable map, of which a copy is cached
+     */
+    static void cacheTypeVariableMap(Type type, Class<?> rawClass, Map<TypeVariable<?>, Type> typeVariableMap) {
+        putCached(typeVariableMapCache, Arrays.asList(type, rawClass),
+                Collections.unmodifiableMap(new LinkedHashMap<>(typeVariableMap)));
     }
 
 
@@ -0,0 +1,70 @@
+/**
+ * Copyright (C) 2010-2018 Gordon Fraser, Andrea Arcuri and EvoSuite
+ * contributors
+ * <p>
+ * This file is part of EvoSuite.
+ * <p>
+ * EvoSuite is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ * <p>
+ * EvoSuite is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with EvoSuite. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.evosuite;
+
+import org.evosuite.ga.archive.Archive;
+import org.evosuite.runtime.RuntimeSettings;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ClientProcessTest {
+
+    @Before
+    public void setUp() {
+        Properties.getInstance().resetToDefaults();
+    }
+
+    @After
+    public void tearDown() {
+        Properties.getInstance().resetToDefaults();
+        TestGenerationContext.getInstance().resetContext();
+    }
+
+    @Test
+    public void testResetForNextClass() {
+        Properties.TARGET_CLASS = "com.examples.first.Foo";
+        Properties.SEARCH_BUDGET = 1;
+        final boolean defaultMinimize = Properties.MINIMIZE;
+        Properties.MINIMIZE = !defaultMinimize;
+
+        ClientProcess.resetForNextClass("com.examples.second.Bar");
+
+        assertEquals("com.examples.second.Bar", Properties.TARGET_CLASS);
+        assertEquals("com.examples.second", Properties.CLASS_PREFIX);
+        assertEquals("com.examples.second.Bar", RuntimeSettings.className);
+        assertTrue(Properties.SEARCH_BUDGET != 1);
+        assertEquals(defaultMinimize, Properties.MINIMIZE);
+        assertEquals(0, Archive.getArchiveInstance().getNumberOfTargets());
+    }
+
+    @Test
+    public void testCommandLinePropertiesAreKept() {
+        System.setProperty("search_budget", "42");
+        try {
+            ClientProcess.resetForNextClass("com.examples.Foo");
+            assertEquals(42, Properties.SEARCH_BUDGET);
+        } finally {
+            System.clearProperty("search_budget");
+        }
+    }
+}
@@ -0,0 +1,126 @@
+/**
+ * Copyright (C) 2010-2018 Gordon Fraser, Andrea Arcuri and EvoSuite
+ * contributors
+ * <p>
+ * This file is part of EvoSuite.
+ * <p>
+ * EvoSuite is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ * <p>
+ * EvoSuite is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with EvoSuite. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.evosuite;
+
+import org.evosuite.rmi.service.ClientState;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TimeControllerTest {
+
+    private TimeController timeController;
+
+    @Before
+    public void setUp() {
+        Properties.getInstance().resetToDefaults();
+        Properties.STOPPING_CONDITION = Properties.StoppingCondition.MAXTIME;
+        Properties.TEST_FACTORY = Properties.TestFactory.RANDOM;
+        Properties.JUNIT_TESTS = false;
+        Properties.MINIMIZE = true;
+        Properties.ASSERTIONS = true;
+        Properties.INITIALIZATION_TIMEOUT = 100;
+        Properties.SEARCH_BUDGET = 100;
+        Properties.MINIMIZATION_TIMEOUT = 100;
+        Properties.ASSERTION_TIMEOUT = 200;
+        Properties.ADAPTIVE_TIME_BUDGET = true;
+        timeController = new TimeController();
+        timeController.updateState(ClientState.STARTED);
+        timeController.updateState(ClientState.INITIALIZATION);
+    }
+
+    @After
+    public void tearDown() {
+        Properties.getInstance().resetToDefaults();
+    }
+
+    @Test
+    public void testLeftoverIsSharedByTimeout() {
+        timeController.updateState(ClientState.SEARCH);
+
+        long search = timeController.getExtraTime(ClientState.SEARCH);
+        long minimization = timeController.getExtraTime(ClientState.MINIMIZATION);
+        long assertions = timeController.getExtraTime(ClientState.ASSERTION_GENERATION);
+
+        // initialization ended almost immediately, its 100s are split 1:1:2
+        assertEquals(100_000, search + minimization + assertions, 1_000);
+        assertEquals(25_000, search, 1_000);
+        assertEquals(25_000, minimization, 1_000);
+        assertEquals(50_000, assertions, 1_000);
+        assertEquals(1, timeController.getDecisions().size());
+        assertTrue(timeController.isThereStillTimeInThisPhase(110_000));
+    }
+
+    @Test
+    public void testPhasesWithoutWorkDoNotGetTime() {
+        timeController.setExpectedWorkload(ClientState.MINIMIZATION, 0);
+        Properties.ASSERTIONS = false;
+        timeController.updateState(ClientState.SEARCH);
+
+        assertEquals(0, timeController.getExtraTime(ClientState.MINIMIZATION));
+        assertEquals(0, timeController.getExtraTime(ClientState.ASSERTION_GENERATION));
+        assertEquals(100_000, timeController.getExtraTime(ClientState.SEARCH), 1_000);
+    }
+
+    @Test
+    public void testLeftoverIsGivenToLaterPhasesOnly() {
+        timeController.updateState(ClientState.SEARCH);
+        long search = timeController.getExtraTime(ClientState.SEARCH);
+
+        timeController.updateState(ClientState.MINIMIZATION);
+        assertEquals(search, timeController.getExtraTime(ClientState.SEARCH));
+        // the search had its own timeout and the extra time
+        long minimization = timeController.getExtraTime(ClientState.MINIMIZATION);
+        long assertions = timeController.getExtraTime(ClientState.ASSERTION_GENERATION);
+        assertEquals(200_000, minimization + assertions, 2_000);
+        assertEquals(2, timeController.getDecisions().size());
+    }
+
+    @Test
+    public void testNoReallocationByDefault() {
+        Properties.ADAPTIVE_TIME_BUDGET = false;
+        timeController.updateState(ClientState.SEARCH);
+
+        assertEquals(0, timeController.getExtraTime(ClientState.SEARCH));
+        assertTrue(timeController.getDecisions().isEmpty());
+        assertFalse(timeController.isThereStillTimeInThisPhase(110_000));
+    }
+
+    @Test
+    public void testSearchEndsWhenAllGoalsAreCovered() {
+        Properties.ADAPTIVE_SEARCH_STAGNATION = 60;
+        timeController.reportCoveredGoals(0, 2);
+        timeController.updateState(ClientState.SEARCH);
+
+        timeController.reportCoveredGoals(1, 2);
+        assertFalse(timeController.isSearchStagnating());
+        timeController.reportCoveredGoals(2, 2);
+        assertTrue(timeController.isSearchStagnating());
+    }
+
+    @Test
+    public void testSearchDoesNotEndWithoutStagnationLimit() {
+        timeController.updateState(ClientState.SEARCH);
+        timeController.reportCoveredGoals(2, 2);
+        assertFalse(timeController.isSearchStagnating());
+    }
+}
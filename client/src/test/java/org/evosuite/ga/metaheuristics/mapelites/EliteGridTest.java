@@ -0,0 +1,135 @@
+/**
+ * Copyright (C) 2010-2018 Gordon Fraser, Andrea Arcuri and EvoSuite
+ * contributors
+ * <p>
+ * This file is part of EvoSuite.
+ * <p>
+ * EvoSuite is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ * <p>
+ * EvoSuite is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with EvoSuite. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.evosuite.ga.metaheuristics.mapelites;
+
+import org.evosuite.utils.Randomness;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class EliteGridTest {
+
+    @Test
+    public void testVisitAddsCellsOnce() {
+        EliteGrid<String> grid = new EliteGrid<>(1);
+
+        int first = grid.visit(42L, "a");
+        int second = grid.visit(7L, "b");
+
+        assertEquals(first, grid.visit(42L, "a"));
+        assertNotEquals(first, second);
+        assertEquals(2, grid.getNumCells());
+        assertEquals(2, grid.getVisits(first));
+        assertEquals(1, grid.getVisits(second));
+    }
+
+    @Test
+    public void testManyCells() {
+        EliteGrid<String> grid = new EliteGrid<>(2);
+
+        for (long index = 0; index < 1000; index++) {
+            int cell = grid.visit(index * 31, "cell" + index);
+            assertEquals(index, cell);
+            assertTrue(grid.offer((int) (index % 2), cell, "elite" + index, 1.0));
+        }
+        for (long index = 0; index < 1000; index++) {
+            assertEquals(index, grid.visit(index * 31, "cell" + index));
+        }
+
+        assertEquals(1000, grid.getNumCells());
+        assertEquals(500, grid.getElites(0).size());
+        assertEquals(500, grid.getElites(1).size());
+    }
+
+    @Test
+    public void testOfferKeepsBestElite() {
+        EliteGrid<String> grid = new EliteGrid<>(2);
+        int cell = grid.visit(1L, "a");
+
+        assertTrue(grid.offer(0, cell, "first", 0.5));
+        assertFalse(grid.offer(0, cell, "worse", 0.7));
+        assertTrue(grid.offer(0, cell, "better", 0.2));
+        // same fitness, the newest wins
+        assertTrue(grid.offer(0, cell, "newest", 0.2));
+
+        assertEquals(Arrays.asList("newest"), grid.getElites(0));
+        assertTrue(grid.getElites(1).isEmpty());
+        assertEquals(3, grid.getReplacements(cell));
+        assertEquals(1, grid.getNumGoals(cell));
+    }
+
+    @Test
+    public void testRandomElite() {
+        Randomness.setSeed(42);
+        EliteGrid<String> grid = new EliteGrid<>(1);
+        assertNull(grid.getRandomElite(0));
+
+        grid.offer(0, grid.visit(1L, "a"), "a", 0.0);
+        grid.offer(0, grid.visit(2L, "b"), "b", 0.0);
+        grid.offer(0, grid.visit(3L, "c"), "c", 0.0);
+
+        Set<String> selected = new HashSet<>();
+        for (int i = 0; i < 100; i++) {
+            selected.add(grid.getRandomElite(0));
+        }
+        assertEquals(new HashSet<>(Arrays.asList("a", "b", "c")), selected);
+    }
+
+    @Test
+    public void testRemoveGoal() {
+        EliteGrid<String> grid = new EliteGrid<>(2);
+        int cell = grid.visit(1L, "a");
+        grid.offer(0, cell, "a", 0.0);
+        grid.offer(1, cell, "b", 0.0);
+
+        grid.removeGoal(0);
+
+        assertFalse(grid.hasGoal(0));
+        assertTrue(grid.hasGoal(1));
+        assertNull(grid.getRandomElite(0));
+        assertTrue(grid.getElites(0).isEmpty());
+        assertFalse(grid.offer(0, cell, "c", 0.0));
+        assertEquals(1, grid.getNumGoals(cell));
+    }
+
+    @Test
+    public void testCellStatistics() throws IOException {
+        EliteGrid<String> grid = new EliteGrid<>(1);
+        int cell = grid.visit(1L, "x=\"1\"");
+        grid.visit(1L, "x=\"1\"");
+        grid.offer(0, cell, "a", 0.0);
+        grid.visit(2L, "x=2");
+
+        StringWriter writer = new StringWriter();
+        grid.writeCellStatistics(writer);
+
+        String[] lines = writer.toString().split("\\r?\\n");
+        assertEquals(3, lines.length);
+        assertEquals("cell,features,visits,replacements,goals", lines[0]);
+        assertEquals("0,\"x=\"\"1\"\"\",2,1,1", lines[1]);
+        assertEquals("1,\"x=2\",1,0,0", lines[2]);
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright (C) 2010-2018 Gordon Fraser, Andrea Arcuri and EvoSuite
+ * contributors
+ *
+ * This file is part of EvoSuite.
+ *
+ * EvoSuite is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * EvoSuite is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with EvoSuite. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.evosuite.ga.metaheuristics.mosa.structural;
+
+import com.examples.with.different.packagename.SubsumedLines;
+import org.evosuite.Properties;
+import org.evosuite.TestGenerationContext;
+import org.evosuite.classpath.ClassPathHandler;
+import org.evosuite.coverage.line.LineCoverageTestFitness;
+import org.evosuite.testcase.TestFitnessFunction;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class GoalSubsumptionGraphTest {
+
+    private static final String METHOD = "foo(I)I";
+
+    @Before
+    public void setUp() {
+        ClassPathHandler.getInstance().changeTargetCPtoTheSameAsEvoSuite();
+        Properties.getInstance().resetToDefaults();
+        TestGenerationContext.getInstance().resetContext();
+    }
+
+    @After
+    public void tearDown() {
+        TestGenerationContext.getInstance().resetContext();
+        Properties.getInstance().resetToDefaults();
+    }
+
+    private static LineCoverageTestFitness line(int line) {
+        return new LineCoverageTestFitness(SubsumedLines.class.getCanonicalName(), METHOD, line);
+    }
+
+    @Test
+    public void testStraightLineCodeAndBranch() throws ClassNotFoundException {
+        Properties.TARGET_CLASS = SubsumedLines.class.getCanonicalName();
+        TestGenerationContext.getInstance().getClassLoaderForSUT().loadClass(Properties.TARGET_CLASS);
+
+        LineCoverageTestFitness assignment = line(25);
+        LineCoverageTestFitness multiplication = line(26);
+        LineCoverageTestFitness condition = line(27);
+        LineCoverageTestFitness thenFirst = line(28);
+        LineCoverageTestFitness thenSecond = line(29);
+        LineCoverageTestFitness ret = line(31);
+
+        GoalSubsumptionGraph graph = new GoalSubsumptionGraph(Arrays.asList(assignment, multiplication,
+                condition, thenFirst, thenSecond, ret));
+
+        // straight-line code: each line is subsumed by the one before it
+        assertFalse(graph.isSubsumed(assignment));
+        assertTrue(graph.isSubsumed(multiplication));
+        assertTrue(graph.isSubsumed(condition));
+        assertEquals(Collections.<TestFitnessFunction>singleton(multiplication), graph.getSubsumedGoals(assignment));
+        assertEquals(Collections.<TestFitnessFunction>singleton(condition), graph.getSubsumedGoals(multiplication));
+
+        // the first line of the branch is dominated by the condition, but depends on the branch
+        assertFalse(graph.isSubsumed(thenFirst));
+        assertTrue(graph.isSubsumed(thenSecond));
+        assertEquals(Collections.<TestFitnessFunction>singleton(thenSecond), graph.getSubsumedGoals(thenFirst));
+
+        // after the branch, the control dependencies are the ones of the condition again
+        assertTrue(graph.isSubsumed(ret));
+        assertEquals(Collections.<TestFitnessFunction>singleton(ret), graph.getSubsumedGoals(condition));
+        assertTrue(graph.getSubsumedGoals(ret).isEmpty());
+
+        assertEquals(4, graph.getNumberOfSubsumedGoals());
+        assertEquals(Collections.<TestFitnessFunction>singleton(thenSecond), graph.getSubsumedGoalsAtLine(29));
+        assertTrue(graph.getSubsumedGoalsAtLine(28).isEmpty());
+    }
+}
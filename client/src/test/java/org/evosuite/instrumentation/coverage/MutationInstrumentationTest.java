@@ -0,0 +1,118 @@
+/**
+ * Copyright (C) 2010-2018 Gordon Fraser, Andrea Arcuri and EvoSuite
+ * contributors
+ * <p>
+ * This file is part of EvoSuite.
+ * <p>
+ * EvoSuite is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ * <p>
+ * EvoSuite is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with EvoSuite. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.evosuite.instrumentation.coverage;
+
+import org.evosuite.coverage.mutation.Mutation;
+import org.evosuite.coverage.mutation.MutationObserver;
+import org.evosuite.graphs.cfg.BytecodeInstruction;
+import org.evosuite.testcase.execution.ExecutionTracer;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+import org.objectweb.asm.tree.AbstractInsnNode;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.InsnList;
+import org.objectweb.asm.tree.InsnNode;
+import org.objectweb.asm.tree.LdcInsnNode;
+import org.objectweb.asm.tree.LookupSwitchInsnNode;
+import org.objectweb.asm.tree.MethodNode;
+import org.objectweb.asm.tree.VarInsnNode;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+
+public class MutationInstrumentationTest {
+
+    private static final String CLASS_NAME = "org.evosuite.instrumentation.coverage.MutantSchemata";
+
+    @Before
+    public void init() {
+        ExecutionTracer.disable();
+        MutationObserver.deactivateMutation();
+    }
+
+    @After
+    public void reset() {
+        MutationObserver.deactivateMutation();
+    }
+
+    private static Mutation createMutation(int id, int opcode, AbstractInsnNode original) {
+        BytecodeInstruction instruction = new BytecodeInstruction(MutationInstrumentationTest.class.getClassLoader(),
+                CLASS_NAME, "apply(I)I", 2, 2, original, 1);
+        InsnList distance = new InsnList();
+        distance.add(new LdcInsnNode(1.0));
+        return new Mutation(CLASS_NAME, "apply(I)I", "Mutant" + id, id, instruction, new InsnNode(opcode), distance);
+    }
+
+    @Test
+    public void testOneSwitchSelectsTheActiveMutant() throws Exception {
+        // static int apply(int x) { return x + 1; }
+        MethodNode mn = new MethodNode(Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC, "apply", "(I)I", null, null);
+        InsnNode add = new InsnNode(Opcodes.IADD);
+        mn.instructions.add(new VarInsnNode(Opcodes.ILOAD, 0));
+        mn.instructions.add(new InsnNode(Opcodes.ICONST_1));
+        mn.instructions.add(add);
+        mn.instructions.add(new InsnNode(Opcodes.IRETURN));
+
+        new MutationInstrumentation().addInstrumentation(mn, add, Arrays.asList(
+                createMutation(7, Opcodes.ISUB, add), createMutation(3, Opcodes.IMUL, add)));
+
+        LookupSwitchInsnNode schemata = null;
+        for (AbstractInsnNode node : mn.instructions.toArray()) {
+            if (node instanceof LookupSwitchInsnNode) {
+                Assert.assertNull("More than one switch", schemata);
+                schemata = (LookupSwitchInsnNode) node;
+            }
+        }
+        Assert.assertNotNull(schemata);
+        Assert.assertEquals(Arrays.asList(3, 7), schemata.keys);
+
+        Method apply = define(mn).getMethod("apply", int.class);
+        Assert.assertEquals(6, apply.invoke(null, 5));
+        MutationObserver.activateMutation(3);
+        Assert.assertEquals(5, apply.invoke(null, 5));
+        MutationObserver.activateMutation(7);
+        Assert.assertEquals(4, apply.invoke(null, 5));
+        // a mutant of another instruction
+        MutationObserver.activateMutation(5);
+        Assert.assertEquals(6, apply.invoke(null, 5));
+    }
+
+    private static Class<?> define(MethodNode mn) {
+        ClassNode cn = new ClassNode();
+        cn.version = Opcodes.V1_8;
+        cn.access = Opcodes.ACC_PUBLIC;
+        cn.name = CLASS_NAME.replace('.', '/');
+        cn.superName = Type.getInternalName(Object.class);
+        cn.methods.add(mn);
+        ClassWriter writer = new ClassWriter(ClassWriter.COMPUTE_FRAMES);
+        cn.accept(writer);
+        byte[] bytes = writer.toByteArray();
+        return new ClassLoader(MutationInstrumentationTest.class.getClassLoader()) {
+            Class<?> define() {
+                return defineClass(CLASS_NAME, bytes, 0, bytes.length);
+            }
+        }.define();
+    }
+}
@@ -22,6 +22,8 @@ package org.evosuite.instrumentation.testability;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.util.Random;
+
 import static org.junit.Assert.*;
 
 public class StringHelperTest {
@@ -335,4 +337,57 @@ public class StringHelperTest {
         assertTrue(result1 < result4);
 
     }
+
+    private static int referenceEditDistance(String s, String t) {
+        int[][] d = new int[s.length() + 1][t.length() + 1];
+        for (int i = 0; i <= s.length(); i++) {
+            for (int j = 0; j <= t.length(); j++) {
+                if (i == 0 || j == 0) {
+                    d[i][j] = i + j;
+                } else {
+                    int cost = s.charAt(i - 1) == t.charAt(j - 1) ? 0 : 1;
+                    d[i][j] = Math.min(Math.min(d[i - 1][j] + 1, d[i][j - 1] + 1), d[i - 1][j - 1] + cost);
+                }
+            }
+        }
+        return d[s.length()][t.length()];
+    }
+
+    private static String randomString(Random random, int length, String alphabet) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            sb.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return sb.toString();
+    }
+
+    @Test
+    public void testEditDistance() {
+        assertEquals(0, StringHelper.editDistance("", ""));
+        assertEquals(3, StringHelper.editDistance("", "foo"));
+        assertEquals(3, StringHelper.editDistance("kitten", "sitting"));
+        assertEquals(1, StringHelper.editDistance("foo bar", "foo_bar"));
+
+        Random random = new Random(42);
+        for (int k = 0; k < 500; k++) {
+            // short and long strings, to use both the bit-parallel and the banded algorithms
+            String alphabet = k % 3 == 0 ? "ab\u00e9\u4e2d" : "abcd";
+            String s = randomString(random, random.nextInt(k % 2 == 0 ? 20 : 150), alphabet);
+            String t = randomString(random, random.nextInt(k % 2 == 0 ? 20 : 150), alphabet);
+            assertEquals(s + " / " + t, referenceEditDistance(s, t), StringHelper.editDistance(s, t));
+        }
+    }
+
+    @Test
+    public void testEditDistanceWithLimit() {
+        Random random = new Random(42);
+        for (int k = 0; k < 500; k++) {
+            String s = randomString(random, random.nextInt(k % 2 == 0 ? 20 : 150), "abc");
+            String t = randomString(random, random.nextInt(k % 2 == 0 ? 20 : 150), "abc");
+            int limit = random.nextInt(40);
+            int expected = referenceEditDistance(s, t);
+            assertEquals(s + " / " + t, expected > limit ? limit + 1 : expected,
+                    StringHelper.editDistance(s, t, limit));
+        }
+    }
 }
@@ -50,6 +50,7 @@ public class JUnitAnalyzerTest {
     private static final boolean DEFAULT_SANDBOX = Properties.SANDBOX;
     private static final boolean DEFAULT_ASSERTS_FOR_EVO = Properties.ENABLE_ASSERTS_FOR_EVOSUITE;
     private static final boolean DEFAULT_SCAFFOLDING = Properties.TEST_SCAFFOLDING;
+    private static final int DEFAULT_JUNIT_CHECK_THREADS = Properties.JUNIT_CHECK_THREADS;
 
     private File file = new File(OpenStream.FILE_NAME);
 
@@ -75,6 +76,7 @@ public class JUnitAnalyzerTest {
         Properties.SANDBOX = DEFAULT_SANDBOX;
         Properties.ENABLE_ASSERTS_FOR_EVOSUITE = DEFAULT_ASSERTS_FOR_EVO;
         Properties.TEST_SCAFFOLDING = DEFAULT_SCAFFOLDING;
+        Properties.JUNIT_CHECK_THREADS = DEFAULT_JUNIT_CHECK_THREADS;
     }
 
     @Test
@@ -150,6 +152,41 @@ public class JUnitAnalyzerTest {
         Assert.assertFalse(file.exists());
     }
 
+    @Test
+    public void testEachTestInIsolation() throws Exception {
+
+        Properties.SELECTED_JUNIT = com.examples.with.different.packagename.sandbox.OpenStreamInATryCatch_FakeTestToCarve.class.getCanonicalName();
+        Properties.TARGET_CLASS = com.examples.with.different.packagename.sandbox.OpenStreamInATryCatch.class.getCanonicalName();
+
+        Properties.CRITERION = new Properties.Criterion[]{Properties.Criterion.BRANCH};
+        Properties.SEED_MUTATIONS = 0;
+        Properties.SEED_CLONE = 1;
+        Properties.VIRTUAL_FS = false;
+        Properties.SANDBOX = true;
+        Properties.ENABLE_ASSERTS_FOR_EVOSUITE = true;
+        Properties.TEST_SCAFFOLDING = false;
+        Properties.JUNIT_CHECK_THREADS = 2;
+
+        Sandbox.initializeSecurityManagerForSUT();
+
+        JUnitTestCarvedChromosomeFactory factory = new JUnitTestCarvedChromosomeFactory(null);
+        TestChromosome carved = factory.getChromosome();
+        Files.deleteIfExists(file.toPath());
+        Assert.assertNotNull(carved);
+
+        TestCase test = carved.getTestCase();
+
+        List<TestCase> list = new ArrayList<>();
+        list.add(test);
+        list.add(test.clone());
+        list.add(test.clone());
+
+        int numUnstable = JUnitAnalyzer.handleEachTestThatIsUnstable(list);
+        Assert.assertEquals(0, numUnstable);
+        Assert.assertEquals(3, list.size());
+        Assert.assertFalse(file.exists());
+    }
+
     @Test
     public void testCreationOfTmpDir() throws IOException {
 
@@ -0,0 +1,159 @@
+/*
+ * Copyright (C) 2010-2018 Gordon Fraser, Andrea Arcuri and EvoSuite
+ * contributors
+ *
+ * This file is part of EvoSuite.
+ *
+ * EvoSuite is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * EvoSuite is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with EvoSuite. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.evosuite.lm;
+
+import org.evosuite.Properties;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.junit.Assert.*;
+
+public class LangModelTest {
+
+    private static final double DELTA = 0.000001;
+
+    private static final String MODEL = "\n\\data\\\nngram 1=4\nngram 2=3\n\n"
+            + "\\1-grams:\n"
+            + "-1.0\ta\t-0.5\n"
+            + "-2.0\tb\t-0.25\n"
+            + "-99\t<s>\t-1.0\n"
+            + "-0.5\t<w>\t0\n"
+            + "\n\\2-grams:\n"
+            + "-0.1\t<s> a\n"
+            + "-0.3\ta b\n"
+            + "-0.2\ta <w>\n"
+            + "\n\\end\\\n";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File source;
+
+    private String lmSrc;
+
+    private String lmCacheDir;
+
+    @Before
+    public void writeModel() throws IOException {
+        lmSrc = Properties.LM_SRC;
+        lmCacheDir = Properties.LM_CACHE_DIR;
+        source = folder.newFile("test_lm");
+        Files.write(source.toPath(), MODEL.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @After
+    public void restoreProperties() {
+        Properties.LM_SRC = lmSrc;
+        Properties.LM_CACHE_DIR = lmCacheDir;
+    }
+
+    private static void checkModel(LangModel model) {
+        // direct bigrams
+        assertEquals(Math.pow(10, (-0.1 - 0.3) / 2), model.score("ab"), DELTA);
+        // (<s>, b) and (b, a) are estimated from the unigrams
+        assertEquals(Math.pow(10, (-1.0 - 2.0 - 0.25 - 1.0) / 2), model.score("ba"), DELTA);
+        // unknown chars get the lowest unigram probability
+        assertEquals(Math.pow(10, -99), model.score("z"), DELTA);
+
+        assertEquals("a", model.predict_char(0));
+        assertEquals(LangModel.START_NEW_WORD, model.predict_char("a", 0));
+        assertEquals("b", model.predict_char("a", 1));
+        assertNull(model.predict_char("a", 2));
+        assertNull(model.predict_char("b", 0));
+        assertEquals(Math.pow(10, -0.2), model.predict_char_prob("a", 0), DELTA);
+        assertEquals(0.0, model.predict_char_prob("a", 2), DELTA);
+        assertEquals(0.0, model.predict_char_prob("a", 10), DELTA);
+    }
+
+    @Test
+    public void testTextModel() throws IOException {
+        checkModel(new LangModel(source.getPath()));
+    }
+
+    @Test
+    public void testCompiledModel() throws IOException {
+        File compiled = new File(folder.getRoot(), "compiled" + File.separator + "test_lm.bin");
+        LangModel.compile(source.getPath(), compiled);
+        assertTrue(compiled.exists());
+
+        checkModel(new LangModel(compiled.getPath()));
+    }
+
+    @Test
+    public void testSymbols() throws IOException {
+        LangModel model = new LangModel(source.getPath());
+
+        assertEquals(LangModel.START_NEW_WORD_SYMBOL, LangModel.toSymbol(' '));
+        assertEquals(LangModel.START_NEW_WORD_SYMBOL, model.toSymbol(" "));
+        assertEquals(LangModel.START_OF_STRING_SYMBOL, model.toSymbol(LangModel.START_OF_STRING));
+        assertEquals('a', model.toSymbol("a"));
+        assertEquals(LangModel.NO_SYMBOL, model.toSymbol("<unk>"));
+        assertEquals(LangModel.START_NEW_WORD, model.toString(LangModel.START_NEW_WORD_SYMBOL));
+
+        assertEquals('a', model.predictSymbol(LangModel.START_OF_STRING_SYMBOL, 0));
+        assertEquals(LangModel.NO_SYMBOL, model.predictSymbol(LangModel.NO_SYMBOL, 0));
+        assertEquals(-0.3, model.getLogProbability('a', 'b'), DELTA);
+        assertTrue(LangModel.isMagicSymbol(LangModel.END_OF_STRING_SYMBOL));
+        assertFalse(LangModel.isMagicSymbol('a'));
+    }
+
+    @Test
+    public void testSharedInstanceIsMapped() throws IOException {
+        Properties.LM_SRC = source.getPath();
+        Properties.LM_CACHE_DIR = new File(folder.getRoot(), "cache").getPath();
+
+        LangModel model = LangModel.getInstance();
+        assertSame(model, LangModel.getInstance());
+        assertTrue(new File(Properties.LM_CACHE_DIR, "test_lm.bin").exists());
+        checkModel(model);
+    }
+
+    @Test
+    public void testCompiledModelFollowsItsSource() throws IOException {
+        Properties.LM_CACHE_DIR = new File(folder.getRoot(), "cache").getPath();
+        Properties.LM_SRC = source.getPath();
+        checkModel(LangModel.getInstance());
+
+        Files.write(source.toPath(), MODEL.replace("-0.3\ta b", "-0.35\ta b").getBytes(StandardCharsets.UTF_8));
+        assertTrue(source.setLastModified(source.lastModified() - 10000));
+        // the same file, under another path, so that the shared instance is loaded again
+        Properties.LM_SRC = new File(source.getParentFile(), "." + File.separator + source.getName()).getPath();
+
+        assertEquals(-0.35, LangModel.getInstance().getLogProbability('a', 'b'), DELTA);
+    }
+
+    @Test
+    public void testDefaultModel() throws IOException {
+        LangModel model = new LangModel(Properties.LM_SRC);
+
+        assertTrue(model.score("hello world") > model.score("hqzxv wjkxq"));
+        for (int n = 0; n < 10; n++) {
+            assertNotNull(model.predict_char("e", n));
+        }
+    }
+}
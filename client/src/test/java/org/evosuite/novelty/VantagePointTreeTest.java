@@ -0,0 +1,90 @@
+/*
+ * Copyright (C) 2010-2018 Gordon Fraser, Andrea Arcuri and EvoSuite
+ * contributors
+ * <p>
+ * This file is part of EvoSuite.
+ * <p>
+ * EvoSuite is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ * <p>
+ * EvoSuite is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with EvoSuite. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.evosuite.novelty;
+
+import org.evosuite.ga.NoveltyFunction;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+public class VantagePointTreeTest {
+
+    private static List<double[]> getRandomPoints(Random random, int size, int dimensions) {
+        List<double[]> points = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            double[] point = new double[dimensions];
+            for (int j = 0; j < dimensions; j++) {
+                // few distinct values, so that there are ties
+                point[j] = random.nextInt(4) / 4.0;
+            }
+            points.add(point);
+        }
+        return points;
+    }
+
+    private static double[] getNearestDistances(List<double[]> points, double[] query, int k, int exclude) {
+        List<Double> distances = new ArrayList<>();
+        for (int i = 0; i < points.size(); i++) {
+            if (i != exclude) {
+                distances.add(NoveltyFunction.getDistance(query, points.get(i)));
+            }
+        }
+        return distances.stream().mapToDouble(Double::doubleValue).sorted().limit(k).toArray();
+    }
+
+    @Test
+    public void testSameNeighboursAsExhaustiveSearch() {
+        Random random = new Random(42);
+        for (int size : new int[]{1, 2, 3, 10, 100, 500}) {
+            List<double[]> points = getRandomPoints(random, size, 20);
+            VantagePointTree tree = new VantagePointTree(points);
+            Assert.assertEquals(size, tree.size());
+
+            for (int i = 0; i < Math.min(size, 50); i++) {
+                for (int k : new int[]{1, 5, 15}) {
+                    Assert.assertArrayEquals(getNearestDistances(points, points.get(i), k, i),
+                            tree.getNearestDistances(points.get(i), k, i), 1e-12);
+                }
+            }
+
+            double[] query = getRandomPoints(random, 1, 20).get(0);
+            Assert.assertArrayEquals(getNearestDistances(points, query, 7, -1),
+                    tree.getNearestDistances(query, 7, -1), 1e-12);
+        }
+    }
+
+    @Test
+    public void testEmptyTree() {
+        VantagePointTree tree = new VantagePointTree(new ArrayList<>());
+        Assert.assertEquals(0, tree.getNearestDistances(new double[]{0.5}, 3, -1).length);
+    }
+
+    @Test
+    public void testDistance() {
+        double[] a = {0.0, 1.0, 0.5, 0.25};
+        double[] b = {1.0, 1.0, 0.0, 0.75};
+        Assert.assertEquals(0.5, NoveltyFunction.getDistance(a, b), 1e-12);
+        Assert.assertEquals(0.0, NoveltyFunction.getDistance(a, Arrays.copyOf(a, a.length)), 1e-12);
+    }
+}
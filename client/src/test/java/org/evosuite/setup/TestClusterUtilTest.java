@@ -21,6 +21,16 @@ package org.evosuite.setup;
 
 import org.junit.Test;
 
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
@@ -43,4 +53,21 @@ public class TestClusterUtilTest {
     public void testIsAnonymousWithNameEndingWithDollar() {
         assertFalse(TestClusterUtils.isAnonymousClass("Option$None$"));
     }
+
+    @Test
+    public void testGetMethodsOnSeveralThreads() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Set<Method>>> futures = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                futures.add(executor.submit(() -> TestClusterUtils.getMethods(LinkedHashMap.class)));
+            }
+            Set<Method> expected = TestClusterUtils.getMethods(LinkedHashMap.class);
+            for (Future<Set<Method>> future : futures) {
+                assertEquals(new ArrayList<>(expected), new ArrayList<>(future.get()));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
 }
@@ -0,0 +1,109 @@
+/**
+ * Copyright (C) 2010-2018 Gordon Fraser, Andrea Arcuri and EvoSuite
+ * contributors
+ * <p>
+ * This file is part of EvoSuite.
+ * <p>
+ * EvoSuite is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ * <p>
+ * EvoSuite is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with EvoSuite. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.evosuite.statistics;
+
+import org.evosuite.Properties;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class MetricsRegistryTest {
+
+    private int sampling;
+
+    @Before
+    public void setUp() {
+        sampling = Properties.PHASE_METRICS_SAMPLING;
+        MetricsRegistry.reset();
+    }
+
+    @After
+    public void tearDown() {
+        Properties.PHASE_METRICS_SAMPLING = sampling;
+        MetricsRegistry.reset();
+    }
+
+    private static byte[] allocate(int size) {
+        byte[] data = new byte[size];
+        data[size - 1] = 1;
+        return data;
+    }
+
+    @Test
+    public void testElapsedTimeIsMeasured() throws Exception {
+        MetricsRegistry.Sample sample = MetricsRegistry.start(MetricsRegistry.Phase.MINIMIZATION);
+        Thread.sleep(20);
+        sample.stop();
+        // stopping twice does not count twice
+        sample.stop();
+
+        MetricsRegistry.Timer timer = MetricsRegistry.getTimer(MetricsRegistry.Phase.MINIMIZATION);
+        Assert.assertEquals(1, timer.getCount());
+        Assert.assertTrue(timer.getTotalTime() >= 20_000_000L);
+        Assert.assertEquals(0, MetricsRegistry.getTimer(MetricsRegistry.Phase.JUNIT_CHECK).getCount());
+    }
+
+    @Test
+    public void testAllocationIsEstimatedFromSamples() {
+        Properties.PHASE_METRICS_SAMPLING = 2;
+        int size = 1 << 20;
+        for (int i = 0; i < 4; i++) {
+            MetricsRegistry.Sample sample = MetricsRegistry.start(MetricsRegistry.Phase.TEST_MUTATION);
+            Assert.assertNotNull(allocate(size));
+            sample.stop();
+        }
+
+        MetricsRegistry.Timer timer = MetricsRegistry.getTimer(MetricsRegistry.Phase.TEST_MUTATION);
+        Assert.assertEquals(4, timer.getCount());
+        long allocated = timer.getEstimatedAllocatedBytes();
+        // zero if the JVM cannot measure allocations
+        Assert.assertTrue(allocated == 0 || allocated >= 4L * size);
+    }
+
+    @Test
+    public void testNoSampling() {
+        Properties.PHASE_METRICS_SAMPLING = 0;
+        MetricsRegistry.Sample sample = MetricsRegistry.start(MetricsRegistry.Phase.ARCHIVE_UPDATE);
+        Assert.assertNotNull(allocate(1 << 20));
+        sample.stop();
+
+        MetricsRegistry.Timer timer = MetricsRegistry.getTimer(MetricsRegistry.Phase.ARCHIVE_UPDATE);
+        Assert.assertEquals(1, timer.getCount());
+        Assert.assertEquals(0, timer.getEstimatedAllocatedBytes());
+        Assert.assertEquals(0, timer.getEstimatedCpuTime());
+    }
+
+    @Test
+    public void testCpuTimeOfBusyPhase() {
+        Properties.PHASE_METRICS_SAMPLING = 1;
+        MetricsRegistry.Sample sample = MetricsRegistry.start(MetricsRegistry.Phase.FITNESS_EVALUATION);
+        long end = System.nanoTime() + 50_000_000L;
+        long count = 0;
+        while (System.nanoTime() < end) {
+            count++;
+        }
+        sample.stop();
+
+        Assert.assertTrue(count > 0);
+        MetricsRegistry.Timer timer = MetricsRegistry.getTimer(MetricsRegistry.Phase.FITNESS_EVALUATION);
+        Assert.assertTrue(timer.getEstimatedCpuTime() <= timer.getTotalTime() + 10_000_000L);
+    }
+}
@@ -0,0 +1,88 @@
+/**
+ * Copyright (C) 2010-2018 Gordon Fraser, Andrea Arcuri and EvoSuite
+ * contributors
+ * <p>
+ * This file is part of EvoSuite.
+ * <p>
+ * EvoSuite is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ * <p>
+ * EvoSuite is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with EvoSuite. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.evosuite.statistics;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TelemetryTest {
+
+    @Test
+    public void testBuckets() {
+        Assert.assertEquals(0, TelemetryBatch.getBucket(0));
+        Assert.assertEquals(0, TelemetryBatch.getBucket(1));
+        Assert.assertEquals(1, TelemetryBatch.getBucket(2));
+        Assert.assertEquals(2, TelemetryBatch.getBucket(3));
+        Assert.assertEquals(2, TelemetryBatch.getBucket(4));
+        Assert.assertEquals(3, TelemetryBatch.getBucket(5));
+        Assert.assertEquals(TelemetryBatch.NUM_BUCKETS - 1, TelemetryBatch.getBucket(Long.MAX_VALUE));
+
+        for (long value : new long[]{1, 2, 3, 7, 8, 9, 1000, 123456789}) {
+            int bucket = TelemetryBatch.getBucket(value);
+            Assert.assertTrue(value <= TelemetryBatch.getUpperBound(bucket));
+            if (bucket > 0) {
+                Assert.assertTrue(value > TelemetryBatch.getUpperBound(bucket - 1));
+            }
+        }
+    }
+
+    @Test
+    public void testRoundTrip() throws Exception {
+        TelemetryBatch batch = new TelemetryBatch(42);
+        batch.addCounter("a_total", 3);
+        batch.addCounter("a_total", 4);
+        batch.addGauge("g", 1.5);
+        long[] buckets = new long[TelemetryBatch.NUM_BUCKETS];
+        buckets[0] = 2;
+        buckets[5] = 1;
+        batch.addHistogram("h", buckets, 33);
+
+        TelemetryBatch copy = TelemetryBatch.fromBytes(batch.toBytes());
+        Assert.assertEquals(42, copy.getTimestamp());
+        Assert.assertEquals(Long.valueOf(7), copy.getCounters().get("a_total"));
+        Assert.assertEquals(1.5, copy.getGauges().get("g"), 0.0);
+        Assert.assertArrayEquals(buckets, copy.getHistograms().get("h"));
+        Assert.assertEquals(33, copy.getHistogramSum("h"));
+    }
+
+    @Test(expected = java.io.IOException.class)
+    public void testInvalidBytes() throws Exception {
+        TelemetryBatch.fromBytes(new byte[]{1, 2, 3, 4, 5, 6, 7, 8});
+    }
+
+    @Test
+    public void testSnapshotContainsOnlyChanges() {
+        Telemetry.snapshot();
+
+        Telemetry.GENERATIONS.increment();
+        Telemetry.recordTestExecution(5_000, 3);
+        Telemetry.recordTestExecution(7_000, 4);
+
+        TelemetryBatch batch = Telemetry.snapshot();
+        Assert.assertEquals(Long.valueOf(1), batch.getCounters().get(Telemetry.GENERATIONS.getName()));
+        Assert.assertEquals(Long.valueOf(2), batch.getCounters().get(Telemetry.TEST_EXECUTIONS.getName()));
+        Assert.assertEquals(12, batch.getHistogramSum(Telemetry.TEST_EXECUTION_TIME.getName()));
+        Assert.assertEquals(7, batch.getHistogramSum(Telemetry.EXECUTED_STATEMENTS.getName()));
+
+        batch = Telemetry.snapshot();
+        Assert.assertEquals(Long.valueOf(0), batch.getCounters().get(Telemetry.GENERATIONS.getName()));
+        Assert.assertEquals(0, batch.getHistogramSum(Telemetry.EXECUTED_STATEMENTS.getName()));
+    }
+}
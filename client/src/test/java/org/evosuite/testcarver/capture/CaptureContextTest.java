@@ -0,0 +1,127 @@
+/**
+ * Copyright (C) 2010-2018 Gordon Fraser, Andrea Arcuri and EvoSuite
+ * contributors
+ * <p>
+ * This file is part of EvoSuite.
+ * <p>
+ * EvoSuite is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ * <p>
+ * EvoSuite is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with EvoSuite. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.evosuite.testcarver.capture;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class CaptureContextTest {
+
+    @After
+    public void tearDown() {
+        Capturer.clear();
+        CaptureContext.reset();
+    }
+
+    private static void runInThread(Runnable runnable) throws Throwable {
+        final Throwable[] failure = new Throwable[1];
+        Thread thread = new Thread(() -> {
+            try {
+                runnable.run();
+            } catch (Throwable t) {
+                failure[0] = t;
+            }
+        });
+        thread.start();
+        thread.join();
+        if (failure[0] != null) {
+            throw failure[0];
+        }
+    }
+
+    @Test
+    public void testSharedByDefault() throws Throwable {
+        assertFalse(CaptureContext.isIsolated());
+        Capturer.startCapture();
+
+        final AtomicBoolean capturing = new AtomicBoolean(false);
+        runInThread(() -> capturing.set(Capturer.isCapturing()));
+        assertTrue(capturing.get());
+
+        assertNotNull(Capturer.stopCapture());
+        assertEquals(1, Capturer.getCaptureLogs().size());
+    }
+
+    @Test
+    public void testIsolatedThreadDoesNotSeeSharedCapture() throws Throwable {
+        Capturer.startCapture();
+
+        final AtomicBoolean capturing = new AtomicBoolean(true);
+        runInThread(() -> {
+            CaptureContext.isolate();
+            assertTrue(CaptureContext.isIsolated());
+            capturing.set(Capturer.isCapturing());
+        });
+        assertFalse(capturing.get());
+        assertTrue(Capturer.isCapturing());
+        Capturer.stopCapture();
+    }
+
+    @Test
+    public void testIsolatedCapturesAreIndependent() throws Throwable {
+        final AtomicInteger numLogs = new AtomicInteger(-1);
+        runInThread(() -> {
+            CaptureContext.isolate();
+            Capturer.startCapture();
+            assertTrue(Capturer.isCapturing());
+            assertNotNull(Capturer.stopCapture());
+            numLogs.set(Capturer.getCaptureLogs().size());
+        });
+        assertEquals(1, numLogs.get());
+
+        // neither the capture nor its log leak into the shared context
+        assertFalse(Capturer.isCapturing());
+        assertTrue(Capturer.getCaptureLogs().isEmpty());
+        Capturer.startCapture();
+        Capturer.stopCapture();
+    }
+
+    @Test
+    public void testChildThreadsInheritContext() throws Throwable {
+        final AtomicBoolean childCapturing = new AtomicBoolean(false);
+        runInThread(() -> {
+            CaptureContext.isolate();
+            Capturer.startCapture();
+            try {
+                runInThread(() -> childCapturing.set(Capturer.isCapturing()));
+            } catch (Throwable t) {
+                throw new AssertionError(t);
+            }
+            Capturer.stopCapture();
+        });
+        assertTrue(childCapturing.get());
+        assertFalse(Capturer.isCapturing());
+    }
+
+    @Test
+    public void testReset() {
+        CaptureContext.isolate();
+        Capturer.startCapture();
+        CaptureContext.reset();
+
+        assertFalse(CaptureContext.isIsolated());
+        assertFalse(Capturer.isCapturing());
+    }
+}
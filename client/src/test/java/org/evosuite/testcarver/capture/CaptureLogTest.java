@@ -0,0 +1,165 @@
+/*
+ * Copyright (C) 2010-2018 Gordon Fraser, Andrea Arcuri and EvoSuite
+ * contributors
+ *
+ * This file is part of EvoSuite.
+ *
+ * EvoSuite is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * EvoSuite is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with EvoSuite. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.evosuite.testcarver.capture;
+
+import org.junit.Test;
+
+import java.io.*;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class CaptureLogTest {
+
+    private static final int CAPTURE_ID = 42;
+
+    private static final String DESC = "(Ljava/lang/Integer;)Ljava/lang/Object;";
+
+    /**
+     * A static call with a plain param, returning an object
+     */
+    private static CaptureLog createLog(final Object returnValue) {
+        final CaptureLog log = new CaptureLog();
+        log.log(CAPTURE_ID, Math.class, "foo", DESC, new Object[]{17, null});
+        log.logEnd(CAPTURE_ID, Math.class, returnValue);
+        return log;
+    }
+
+    @Test
+    public void testRecords() {
+        final Object returnValue = new Object();
+        final CaptureLog log = createLog(returnValue);
+
+        // plain init of the class, plain init of the param, the call, and their ends
+        assertEquals(6, log.objectIds.size());
+        assertEquals(6, log.methodNames.size());
+        assertEquals(CaptureLog.PLAIN_INIT, log.methodNames.get(0));
+        assertEquals(CaptureLog.END_CAPTURE_PSEUDO_METHOD, log.methodNames.get(1));
+        assertEquals(CaptureLog.PLAIN_INIT, log.methodNames.get(2));
+        assertEquals("foo", log.methodNames.get(4));
+        assertEquals(DESC, log.descList.get(4));
+        assertEquals(CaptureLog.END_CAPTURE_PSEUDO_METHOD, log.methodNames.get(5));
+
+        assertEquals(CAPTURE_ID, log.captureIds.getInt(4));
+        assertEquals(System.identityHashCode(Math.class), log.objectIds.getInt(4));
+        assertTrue(log.isStaticCallList.getBoolean(4));
+        assertFalse(log.isStaticCallList.get(5));
+
+        // the param refers to the oid of its plain init, and the call creates the return value
+        assertEquals(System.identityHashCode(17), log.params.get(4)[0]);
+        assertNull(log.params.get(4)[1]);
+        assertEquals(System.identityHashCode(returnValue), log.returnValues.get(4));
+        assertEquals(-4, log.getRecordIndexOfWhereObjectWasInitializedFirst(System.identityHashCode(returnValue)));
+    }
+
+    @Test
+    public void testNestedCallsOfSameMethod() {
+        final Object outer = new Object();
+        final Object inner = new Object();
+
+        final CaptureLog log = new CaptureLog();
+        log.log(CAPTURE_ID, Math.class, "foo", DESC, CaptureLog.NO_ARGS);
+        log.log(CAPTURE_ID, Math.class, "foo", DESC, CaptureLog.NO_ARGS);
+        log.logEnd(CAPTURE_ID, Math.class, inner);
+        log.logEnd(CAPTURE_ID, Math.class, outer);
+
+        // each call on the class is preceded by a plain init of the class
+        assertEquals(8, log.objectIds.size());
+        assertEquals("foo", log.methodNames.get(2));
+        assertEquals("foo", log.methodNames.get(5));
+        assertEquals(System.identityHashCode(outer), log.returnValues.get(2));
+        assertEquals(System.identityHashCode(inner), log.returnValues.get(5));
+    }
+
+    @Test
+    public void testCloneIsIndependent() {
+        final CaptureLog log = createLog(CaptureLog.RETURN_TYPE_VOID);
+        final CaptureLog clone = log.clone();
+
+        clone.log(CAPTURE_ID, Math.class, "bar", DESC, CaptureLog.NO_ARGS);
+
+        assertEquals(6, log.objectIds.size());
+        assertEquals(9, clone.objectIds.size());
+        assertEquals(log.methodNames, clone.methodNames.subList(0, 6));
+        assertEquals("bar", clone.methodNames.get(8));
+    }
+
+    @Test
+    public void testColumns() {
+        final CaptureLog.IntColumn ints = new CaptureLog.IntColumn();
+        for (int i = 0; i < 100; i++) {
+            ints.addInt(i);
+        }
+        ints.set(3, -3);
+        assertEquals(100, ints.size());
+        assertEquals(Integer.valueOf(-3), ints.get(3));
+        assertEquals(99, ints.getInt(99));
+        try {
+            ints.getInt(100);
+            fail("Expected IndexOutOfBoundsException");
+        } catch (IndexOutOfBoundsException e) {
+            // expected
+        }
+
+        final CaptureLog.StringColumn strings = new CaptureLog.StringColumn();
+        strings.add("a");
+        strings.add(null);
+        strings.add(new String("a"));
+        assertEquals(Arrays.asList("a", null, "a"), strings);
+        assertEquals(strings.getId(0), strings.getId(2));
+
+        // each column, or log, has its own table
+        final CaptureLog.StringColumn others = new CaptureLog.StringColumn();
+        others.add("b");
+        others.add("a");
+        assertEquals(0, others.getId(0));
+        others.addAll(strings);
+        assertEquals(Arrays.asList("b", "a", "a", null, "a"), others);
+        assertEquals(others.getId(1), others.getId(2));
+
+        final CaptureLog.BooleanColumn booleans = new CaptureLog.BooleanColumn();
+        booleans.add(true);
+        booleans.addBoolean(false);
+        assertEquals(Arrays.asList(true, false), booleans);
+    }
+
+    @Test
+    public void testWriteAndRead() throws IOException {
+        final Object returnValue = new Object();
+        final CaptureLog log = createLog(returnValue);
+        log.log(CAPTURE_ID, Math.class, "bar", DESC, new Object[]{"text", 2.5, 'c', Math.class});
+        log.logEnd(CAPTURE_ID, Math.class, CaptureLog.RETURN_TYPE_VOID);
+
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        log.write(new DataOutputStream(bytes));
+        final CaptureLog copy = CaptureLog.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        assertEquals(log.toString(), copy.toString());
+        assertEquals(log.objectIds, copy.objectIds);
+        assertEquals(log.methodNames, copy.methodNames);
+        assertEquals(log.returnValues, copy.returnValues);
+        assertSame(CaptureLog.RETURN_TYPE_VOID, copy.returnValues.get(copy.returnValues.size() - 1));
+        for (int i = 0; i < log.params.size(); i++) {
+            assertArrayEquals(log.params.get(i), copy.params.get(i));
+        }
+        assertEquals(log.getTypeName(System.identityHashCode(returnValue)),
+                copy.getTypeName(System.identityHashCode(returnValue)));
+    }
+}
@@ -0,0 +1,64 @@
+/**
+ * Copyright (C) 2010-2018 Gordon Fraser, Andrea Arcuri and EvoSuite
+ * contributors
+ * <p>
+ * This file is part of EvoSuite.
+ * <p>
+ * EvoSuite is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ * <p>
+ * EvoSuite is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with EvoSuite. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.evosuite.testcarver.capture;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.*;
+
+public class CapturerTest {
+
+    @After
+    public void tearDown() {
+        Capturer.clear();
+    }
+
+    @Test
+    public void testSaveAndLoad() throws IOException {
+        Capturer.startCapture();
+        Capturer.stopCapture();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Capturer.save(out);
+        Capturer.clear();
+        assertTrue(Capturer.getCaptureLogs().isEmpty());
+
+        Capturer.load(new ByteArrayInputStream(out.toByteArray()));
+        assertEquals(1, Capturer.getCaptureLogs().size());
+    }
+
+    @Test
+    public void testLoadXStreamLog() {
+        byte[] xml = "<list>\n  <org.evosuite.testcarver.capture.CaptureLog/>\n</list>".getBytes(StandardCharsets.UTF_8);
+        try {
+            Capturer.load(new ByteArrayInputStream(xml));
+            fail("Expected an IOException");
+        } catch (IOException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("XStream"));
+        }
+        assertTrue(Capturer.getCaptureLogs().isEmpty());
+    }
+}
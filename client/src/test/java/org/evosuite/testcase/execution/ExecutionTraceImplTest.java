@@ -0,0 +1,80 @@
+/**
+ * Copyright (C) 2010-2018 Gordon Fraser, Andrea Arcuri and EvoSuite
+ * contributors
+ * <p>
+ * This file is part of EvoSuite.
+ * <p>
+ * EvoSuite is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ * <p>
+ * EvoSuite is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with EvoSuite. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.evosuite.testcase.execution;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+public class ExecutionTraceImplTest {
+
+    @Test
+    public void testMutationPassedKeepsMinimalDistance() {
+        ExecutionTraceImpl trace = new ExecutionTraceImpl();
+        Assert.assertFalse(trace.wasMutationTouched(3));
+
+        trace.mutationPassed(3, 2.0);
+        trace.mutationPassed(3, 0.5);
+        trace.mutationPassed(3, 1.0);
+        Assert.assertTrue(trace.wasMutationTouched(3));
+        Assert.assertEquals(0.5, trace.getMutationDistance(3), 0.0);
+
+        // ids beyond the current capacity
+        trace.mutationPassed(100, 0.0);
+        Assert.assertTrue(trace.wasMutationTouched(100));
+        Assert.assertFalse(trace.wasMutationTouched(4));
+        Assert.assertEquals(new HashSet<>(Arrays.asList(3, 100)), trace.getTouchedMutants());
+        Assert.assertEquals(Collections.singleton(100), trace.getInfectedMutants());
+        Assert.assertEquals(2, trace.getMutationDistances().size());
+        Assert.assertEquals(0.0, trace.getMutationDistances().get(100), 0.0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDistanceOfUntouchedMutation() {
+        ExecutionTraceImpl trace = new ExecutionTraceImpl();
+        trace.mutationPassed(1, 1.0);
+        trace.getMutationDistance(2);
+    }
+
+    @Test
+    public void testCloneCopiesMutations() {
+        ExecutionTraceImpl trace = new ExecutionTraceImpl();
+        trace.mutationPassed(1, 1.0);
+        trace.mutationPassed(2, 3.0);
+
+        ExecutionTraceImpl copy = trace.clone();
+        Assert.assertTrue(copy.wasMutationTouched(1));
+        Assert.assertEquals(3.0, copy.getMutationDistance(2), 0.0);
+
+        // the copy does not share the state of the original
+        copy.mutationPassed(2, 0.0);
+        copy.mutationPassed(5, 1.0);
+        Assert.assertEquals(3.0, trace.getMutationDistance(2), 0.0);
+        Assert.assertFalse(trace.wasMutationTouched(5));
+
+        trace.clear();
+        Assert.assertFalse(trace.wasMutationTouched(1));
+        Assert.assertTrue(copy.wasMutationTouched(1));
+        Assert.assertTrue(copy.getTouchedMutantIds().get(5));
+    }
+}
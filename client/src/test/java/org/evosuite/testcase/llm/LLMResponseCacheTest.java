@@ -0,0 +1,116 @@
+package org.evosuite.testcase.llm;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+public class LLMResponseCacheTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testHitsAndMisses() {
+        LLMResponseCache cache = new LLMResponseCache(10, null);
+
+        Assert.assertNull(cache.get("a"));
+        cache.put("a", "1");
+        Assert.assertEquals("1", cache.get("a"));
+        Assert.assertTrue(cache.contains("a"));
+        Assert.assertFalse(cache.contains("b"));
+
+        Assert.assertEquals(1, cache.getNumHits());
+        Assert.assertEquals(1, cache.getNumMisses());
+    }
+
+    @Test
+    public void testMemoryIsBounded() {
+        LLMResponseCache cache = new LLMResponseCache(2, null);
+        cache.put("a", "1");
+        cache.put("b", "2");
+        cache.put("c", "3");
+
+        Assert.assertNull(cache.get("a"));
+        Assert.assertEquals("3", cache.get("c"));
+        Assert.assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void testEvictedResponsesAreReadFromDisk() throws IOException {
+        File file = new File(folder.getRoot(), "cache.txt");
+        try (LLMResponseCache cache = new LLMResponseCache(1, file)) {
+            cache.put("a", "1");
+            cache.put("b", "2");
+            cache.put("a", "3");
+
+            Assert.assertEquals(2, cache.size());
+            Assert.assertEquals("2", cache.get("b"));
+            Assert.assertEquals("3", cache.get("a"));
+        }
+    }
+
+    @Test
+    public void testPersistedAcrossRuns() throws IOException {
+        File file = new File(folder.getRoot(), "sub" + File.separator + "cache.txt");
+        try (LLMResponseCache cache = new LLMResponseCache(10, file)) {
+            cache.put("a", "first line\nsecond line \\ end");
+            cache.put("b", "2");
+        }
+
+        try (LLMResponseCache cache = new LLMResponseCache(10, file)) {
+            Assert.assertEquals(2, cache.size());
+            Assert.assertEquals("first line\nsecond line \\ end", cache.get("a"));
+            Assert.assertEquals("2", cache.get("b"));
+        }
+    }
+
+    @Test
+    public void testTruncatedEntryIsDropped() throws IOException {
+        File file = new File(folder.getRoot(), "cache.txt");
+        try (LLMResponseCache cache = new LLMResponseCache(10, file)) {
+            cache.put("a", "1");
+        }
+        try (FileOutputStream out = new FileOutputStream(file, true)) {
+            out.write("0123abcd\t4".getBytes(StandardCharsets.UTF_8));
+        }
+
+        try (LLMResponseCache cache = new LLMResponseCache(10, file)) {
+            Assert.assertEquals(1, cache.size());
+            cache.put("b", "2");
+        }
+
+        try (LLMResponseCache cache = new LLMResponseCache(10, file)) {
+            Assert.assertEquals("1", cache.get("a"));
+            Assert.assertEquals("2", cache.get("b"));
+        }
+    }
+
+    @Test
+    public void testFileSharedByTwoCaches() throws IOException {
+        File file = new File(folder.getRoot(), "cache.txt");
+        try (LLMResponseCache first = new LLMResponseCache(10, file);
+             LLMResponseCache second = new LLMResponseCache(10, file)) {
+            first.put("a", "1");
+            second.put("b", "2");
+            first.put("c", "3");
+
+            // the responses of the other cache are indexed when appending
+            Assert.assertEquals("2", first.get("b"));
+            Assert.assertEquals("1", second.get("a"));
+            Assert.assertEquals(3, first.size());
+        }
+
+        try (LLMResponseCache cache = new LLMResponseCache(10, file)) {
+            Assert.assertEquals(3, cache.size());
+            Assert.assertEquals("1", cache.get("a"));
+            Assert.assertEquals("2", cache.get("b"));
+            Assert.assertEquals("3", cache.get("c"));
+        }
+    }
+}
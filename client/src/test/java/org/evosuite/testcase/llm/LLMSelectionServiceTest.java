@@ -0,0 +1,193 @@
+package org.evosuite.testcase.llm;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Runs the selection service against a local stub of the LLM API, which selects
+ * for context "ctx-N" the candidate N
+ */
+public class LLMSelectionServiceTest {
+
+    private static final Pattern CONTEXT = Pattern.compile("ctx-(\\d+)");
+
+    private HttpServer server;
+
+    private LLMService llmService;
+
+    private LLMSelectionService selectionService;
+
+    private final AtomicInteger numRequests = new AtomicInteger(0);
+
+    private volatile CountDownLatch requestReceived = new CountDownLatch(1);
+
+    private volatile CountDownLatch release = new CountDownLatch(0);
+
+    @Before
+    public void startServer() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", exchange -> {
+            String request = read(exchange.getRequestBody());
+            numRequests.incrementAndGet();
+            requestReceived.countDown();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+
+            byte[] response = ("{\"choices\":[{\"message\":{\"role\":\"assistant\",\"content\":\""
+                    + answer(request) + "\"}}]}").getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, response.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(response);
+            }
+        });
+        server.start();
+
+        Properties config = new Properties();
+        config.setProperty("openai.api.url", "http://localhost:" + server.getAddress().getPort() + "/v1/chat/completions");
+        config.setProperty("openai.api.key", "test");
+        config.setProperty("openai.model", "test");
+        config.setProperty("openai.temperature", "0");
+        config.setProperty("openai.max_tokens", "16");
+        llmService = new LLMService(config);
+    }
+
+    @After
+    public void stopServer() {
+        release.countDown();
+        if (selectionService != null) {
+            selectionService.shutdown();
+        }
+        server.stop(0);
+    }
+
+    private static String read(InputStream in) throws java.io.IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[4096];
+        int n;
+        while ((n = in.read(buffer)) > 0) {
+            out.write(buffer, 0, n);
+        }
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private static String answer(String request) {
+        Matcher matcher = CONTEXT.matcher(request);
+        if (!request.contains("independent tasks")) {
+            return matcher.find() ? matcher.group(1) : "none";
+        }
+        StringBuilder answer = new StringBuilder();
+        for (int task = 0; matcher.find(); task++) {
+            answer.append(task).append(": ").append(matcher.group(1)).append("\\n");
+        }
+        return answer.toString();
+    }
+
+    private static void waitForAnswer(LLMSelectionService service, String context, int expected) throws InterruptedException {
+        long end = System.currentTimeMillis() + 10_000;
+        while (System.currentTimeMillis() < end) {
+            if (service.select(context, context, 10, 0) == expected) {
+                return;
+            }
+            Thread.sleep(10);
+        }
+        Assert.fail("No answer for " + context);
+    }
+
+    @Test
+    public void testSelectWithinLatencyBudget() {
+        selectionService = new LLMSelectionService(llmService, new LLMResponseCache(100, null), 10, 4);
+
+        Assert.assertEquals(2, selectionService.select("ctx-2", "ctx-2", 3, 10_000));
+        Assert.assertEquals(1, selectionService.getNumQueries());
+
+        // the answer is kept, there is no need to ask again
+        Assert.assertEquals(2, selectionService.select("ctx-2", "ctx-2", 3, 10_000));
+        Assert.assertEquals(1, numRequests.get());
+    }
+
+    @Test
+    public void testSameKeySharesAnswer() {
+        selectionService = new LLMSelectionService(llmService, new LLMResponseCache(100, null), 10, 4);
+
+        Assert.assertEquals(2, selectionService.select("shape", "ctx-2", 3, 10_000));
+        // a different prompt for the same kinds of candidates
+        Assert.assertEquals(2, selectionService.select("shape", "ctx-0", 3, 10_000));
+        Assert.assertEquals(1, numRequests.get());
+    }
+
+    @Test
+    public void testInvalidIndexIsIgnored() {
+        selectionService = new LLMSelectionService(llmService, new LLMResponseCache(100, null), 10, 4);
+
+        Assert.assertEquals(-1, selectionService.select("ctx-5", "ctx-5", 3, 10_000));
+    }
+
+    @Test
+    public void testFallbackAndLateAnswer() throws Exception {
+        release = new CountDownLatch(1);
+        selectionService = new LLMSelectionService(llmService, new LLMResponseCache(100, null), 10, 4);
+
+        long start = System.currentTimeMillis();
+        Assert.assertEquals(-1, selectionService.select("ctx-1", "ctx-1", 3, 20));
+        Assert.assertTrue(System.currentTimeMillis() - start < 5_000);
+        Assert.assertEquals(1, selectionService.getNumTimeouts());
+
+        release.countDown();
+        waitForAnswer(selectionService, "ctx-1", 1);
+        Assert.assertEquals(1, numRequests.get());
+    }
+
+    @Test
+    public void testPendingSelectionsAreBatched() throws Exception {
+        release = new CountDownLatch(1);
+        selectionService = new LLMSelectionService(llmService, new LLMResponseCache(100, null), 10, 4);
+
+        selectionService.prefetch("ctx-0", "ctx-0");
+        Assert.assertTrue(requestReceived.await(10, TimeUnit.SECONDS));
+
+        // these wait in the queue while the first query is answered
+        selectionService.prefetch("ctx-1", "ctx-1");
+        selectionService.prefetch("ctx-2", "ctx-2");
+        selectionService.prefetch("ctx-3", "ctx-3");
+        release.countDown();
+
+        for (int i = 0; i < 4; i++) {
+            waitForAnswer(selectionService, "ctx-" + i, i);
+        }
+        Assert.assertEquals(2, numRequests.get());
+        Assert.assertEquals(2, selectionService.getNumQueries());
+    }
+
+    @Test
+    public void testFullQueueDoesNotBlock() throws Exception {
+        release = new CountDownLatch(1);
+        selectionService = new LLMSelectionService(llmService, new LLMResponseCache(100, null), 1, 4);
+
+        selectionService.prefetch("ctx-0", "ctx-0");
+        Assert.assertTrue(requestReceived.await(10, TimeUnit.SECONDS));
+        selectionService.prefetch("ctx-1", "ctx-1");
+
+        long start = System.currentTimeMillis();
+        Assert.assertEquals(-1, selectionService.select("ctx-2", "ctx-2", 3, 10_000));
+        Assert.assertTrue(System.currentTimeMillis() - start < 5_000);
+    }
+}
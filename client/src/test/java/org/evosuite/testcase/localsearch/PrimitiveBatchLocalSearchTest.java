@@ -0,0 +1,180 @@
+/**
+ * Copyright (C) 2010-2018 Gordon Fraser, Andrea Arcuri and EvoSuite
+ * contributors
+ * <p>
+ * This file is part of EvoSuite.
+ * <p>
+ * EvoSuite is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ * <p>
+ * EvoSuite is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with EvoSuite. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.evosuite.testcase.localsearch;
+
+import org.evosuite.Properties;
+import org.evosuite.ga.FitnessFunction;
+import org.evosuite.ga.localsearch.LocalSearchBudget;
+import org.evosuite.ga.localsearch.LocalSearchObjective;
+import org.evosuite.testcase.DefaultTestCase;
+import org.evosuite.testcase.TestCase;
+import org.evosuite.testcase.TestChromosome;
+import org.evosuite.testcase.statements.numeric.IntPrimitiveStatement;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class PrimitiveBatchLocalSearchTest {
+
+    private static final long DEFAULT_LOCAL_SEARCH_BUDGET = Properties.LOCAL_SEARCH_BUDGET;
+    private static final Properties.LocalSearchBudgetType DEFAULT_LOCAL_SEARCH_BUDGET_TYPE = Properties.LOCAL_SEARCH_BUDGET_TYPE;
+
+    /**
+     * Minimizes |x - 100| + |y + 7| on the values of the first two statements
+     */
+    private static class DistanceObjective implements LocalSearchObjective<TestChromosome> {
+
+        private double best;
+
+        private int evaluations = 0;
+
+        DistanceObjective(TestChromosome test) {
+            best = distance(test);
+        }
+
+        private static double distance(TestChromosome test) {
+            TestCase tc = test.getTestCase();
+            int x = ((IntPrimitiveStatement) tc.getStatement(0)).getValue();
+            int y = ((IntPrimitiveStatement) tc.getStatement(1)).getValue();
+            return Math.abs(x - 100) + Math.abs(y + 7);
+        }
+
+        @Override
+        public boolean isDone() {
+            return best == 0.0;
+        }
+
+        @Override
+        public boolean isMaximizationObjective() {
+            return false;
+        }
+
+        @Override
+        public boolean hasImproved(TestChromosome chromosome) {
+            return hasChanged(chromosome) < 0;
+        }
+
+        @Override
+        public boolean hasNotWorsened(TestChromosome chromosome) {
+            return hasChanged(chromosome) < 1;
+        }
+
+        @Override
+        public int hasChanged(TestChromosome chromosome) {
+            evaluations++;
+            LocalSearchBudget.getInstance().countFitnessEvaluation();
+            double distance = distance(chromosome);
+            if (distance < best) {
+                best = distance;
+                return -1;
+            }
+            return distance > best ? 1 : 0;
+        }
+
+        @Override
+        public void addFitnessFunction(FitnessFunction<TestChromosome> fitness) {
+        }
+
+        @Override
+        public List<FitnessFunction<TestChromosome>> getFitnessFunctions() {
+            return Collections.emptyList();
+        }
+    }
+
+    private static TestChromosome buildTest(int x, int y) {
+        TestCase test = new DefaultTestCase();
+        test.addStatement(new IntPrimitiveStatement(test, x));
+        test.addStatement(new IntPrimitiveStatement(test, y));
+        TestChromosome chromosome = new TestChromosome();
+        chromosome.setTestCase(test);
+        return chromosome;
+    }
+
+    @Before
+    public void init() {
+        Properties.LOCAL_SEARCH_BUDGET_TYPE = Properties.LocalSearchBudgetType.FITNESS_EVALUATIONS;
+        Properties.LOCAL_SEARCH_BUDGET = 1000;
+        LocalSearchBudget.getInstance().localSearchStarted();
+    }
+
+    @After
+    public void restore() {
+        Properties.LOCAL_SEARCH_BUDGET = DEFAULT_LOCAL_SEARCH_BUDGET;
+        Properties.LOCAL_SEARCH_BUDGET_TYPE = DEFAULT_LOCAL_SEARCH_BUDGET_TYPE;
+    }
+
+    @Test
+    public void testMovesAllPrimitivesToOptimum() {
+        TestChromosome test = buildTest(0, 0);
+        DistanceObjective objective = new DistanceObjective(test);
+
+        boolean improved = new PrimitiveBatchLocalSearch().doSearch(test, Arrays.asList(0, 1), objective);
+
+        assertTrue(improved);
+        assertTrue(objective.isDone());
+        assertEquals(100, (int) ((IntPrimitiveStatement) test.getTestCase().getStatement(0)).getValue());
+        assertEquals(-7, (int) ((IntPrimitiveStatement) test.getTestCase().getStatement(1)).getValue());
+        // the pattern moves get to 100 in far fewer steps than moving by one
+        assertTrue("Evaluations: " + objective.evaluations, objective.evaluations < 100);
+    }
+
+    @Test
+    public void testNoImprovementAtOptimum() {
+        TestChromosome test = buildTest(100, -7);
+        DistanceObjective objective = new DistanceObjective(test);
+
+        assertFalse(new PrimitiveBatchLocalSearch().doSearch(test, Arrays.asList(0, 1), objective));
+        assertEquals(100, (int) ((IntPrimitiveStatement) test.getTestCase().getStatement(0)).getValue());
+        assertEquals(-7, (int) ((IntPrimitiveStatement) test.getTestCase().getStatement(1)).getValue());
+    }
+
+    @Test
+    public void testMovesAreEvaluatedFromTheKeptOnes() {
+        Properties.LOCAL_SEARCH_BUDGET = 3;
+        LocalSearchBudget.getInstance().localSearchStarted();
+        TestChromosome test = buildTest(0, 0);
+        DistanceObjective objective = new DistanceObjective(test);
+
+        assertTrue(new PrimitiveBatchLocalSearch().doSearch(test, Arrays.asList(0, 1), objective));
+
+        // y - 1 only improves once x + 1 is kept
+        assertEquals(1, (int) ((IntPrimitiveStatement) test.getTestCase().getStatement(0)).getValue());
+        assertEquals(-1, (int) ((IntPrimitiveStatement) test.getTestCase().getStatement(1)).getValue());
+        assertEquals(objective.best, DistanceObjective.distance(test), 0.0);
+    }
+
+    @Test
+    public void testStopsWhenBudgetIsUsedUp() {
+        Properties.LOCAL_SEARCH_BUDGET = 3;
+        LocalSearchBudget.getInstance().localSearchStarted();
+        TestChromosome test = buildTest(0, 0);
+        DistanceObjective objective = new DistanceObjective(test);
+
+        new PrimitiveBatchLocalSearch().doSearch(test, Arrays.asList(0, 1), objective);
+
+        assertTrue(objective.evaluations <= 3);
+    }
+}
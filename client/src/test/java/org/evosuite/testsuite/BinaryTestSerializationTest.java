@@ -0,0 +1,133 @@
+/*
+ * Copyright (C) 2010-2018 Gordon Fraser, Andrea Arcuri and EvoSuite
+ * contributors
+ *
+ * This file is part of EvoSuite.
+ *
+ * EvoSuite is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * EvoSuite is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with EvoSuite. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.evosuite.testsuite;
+
+import org.evosuite.testcase.DefaultTestCase;
+import org.evosuite.testcase.TestCase;
+import org.evosuite.testcase.TestChromosome;
+import org.evosuite.testcase.statements.ConstructorStatement;
+import org.evosuite.testcase.statements.MethodStatement;
+import org.evosuite.testcase.statements.StringPrimitiveStatement;
+import org.evosuite.testcase.statements.numeric.IntPrimitiveStatement;
+import org.evosuite.testcase.variable.VariableReference;
+import org.evosuite.utils.generic.GenericConstructor;
+import org.evosuite.utils.generic.GenericMethod;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.*;
+import java.util.Arrays;
+import java.util.Collections;
+
+public class BinaryTestSerializationTest {
+
+    private static TestChromosome getStringBuilderTest(String value, int times) throws NoSuchMethodException {
+        TestCase test = new DefaultTestCase();
+        VariableReference s = test.addStatement(new StringPrimitiveStatement(test, value));
+        VariableReference n = test.addStatement(new IntPrimitiveStatement(test, times));
+        GenericConstructor constructor = new GenericConstructor(StringBuilder.class.getConstructor(String.class), StringBuilder.class);
+        VariableReference sb = test.addStatement(new ConstructorStatement(test, constructor, Collections.singletonList(s)));
+        GenericMethod append = new GenericMethod(StringBuilder.class.getMethod("append", int.class), StringBuilder.class);
+        test.addStatement(new MethodStatement(test, append, sb, Collections.singletonList(n)));
+        GenericMethod valueOf = new GenericMethod(String.class.getMethod("valueOf", int.class), String.class);
+        test.addStatement(new MethodStatement(test, valueOf, null, Arrays.asList(n)));
+
+        TestChromosome tc = new TestChromosome();
+        tc.setTestCase(test);
+        return tc;
+    }
+
+    private static byte[] write(TestChromosome... tests) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (BinaryTestWriter writer = new BinaryTestWriter(baos)) {
+            for (TestChromosome tc : tests) {
+                writer.write(tc);
+            }
+        }
+        return baos.toByteArray();
+    }
+
+    @Test
+    public void testRoundTrip() throws Exception {
+        TestChromosome first = getStringBuilderTest("foo", 42);
+        TestChromosome second = getStringBuilderTest("bar", -7);
+
+        byte[] bytes = write(first, second);
+
+        try (BinaryTestReader reader = new BinaryTestReader(new ByteArrayInputStream(bytes), getClass().getClassLoader())) {
+            Assert.assertEquals(first.getTestCase().toCode(), reader.next().getTestCase().toCode());
+            Assert.assertEquals(second.getTestCase().toCode(), reader.next().getTestCase().toCode());
+            Assert.assertNull(reader.next());
+            Assert.assertEquals(0, reader.getNumSkipped());
+        }
+    }
+
+    @Test
+    public void testStringTableIsShared() throws Exception {
+        byte[] one = write(getStringBuilderTest("foo", 42));
+        byte[] two = write(getStringBuilderTest("foo", 42), getStringBuilderTest("foo", 42));
+
+        // the second test does not need to repeat class and method names
+        Assert.assertTrue(two.length - one.length < one.length / 2);
+    }
+
+    @Test
+    public void testMissingClassIsSkipped() throws Exception {
+        byte[] bytes = write(getStringBuilderTest("foo", 42));
+
+        ClassLoader withoutStringBuilder = new ClassLoader(getClass().getClassLoader()) {
+            @Override
+            protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+                if (name.equals(StringBuilder.class.getName())) {
+                    throw new ClassNotFoundException(name);
+                }
+                return super.loadClass(name, resolve);
+            }
+        };
+
+        try (BinaryTestReader reader = new BinaryTestReader(new ByteArrayInputStream(bytes), withoutStringBuilder)) {
+            Assert.assertNull(reader.next());
+            Assert.assertEquals(1, reader.getNumSkipped());
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testWrongHeader() throws Exception {
+        new BinaryTestReader(new ByteArrayInputStream(new byte[]{1, 2, 3, 4, 5}), getClass().getClassLoader());
+    }
+
+    @Test
+    public void testVarInts() throws IOException {
+        long[] values = {0, 1, -1, 63, -64, 64, 127, 128, Integer.MAX_VALUE, Integer.MIN_VALUE, Long.MAX_VALUE, Long.MIN_VALUE};
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(baos);
+        for (long value : values) {
+            BinaryTestFormat.writeSignedVarLong(out, value);
+        }
+        BinaryTestFormat.writeVarInt(out, 300);
+
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(baos.toByteArray()));
+        for (long value : values) {
+            Assert.assertEquals(value, BinaryTestFormat.readSignedVarLong(in));
+        }
+        Assert.assertEquals(300, BinaryTestFormat.readVarInt(in));
+    }
+}
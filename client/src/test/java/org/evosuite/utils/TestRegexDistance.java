@@ -42,6 +42,31 @@ public class TestRegexDistance {
         assertEquals(0.0, RegexDistanceUtils.getDistanceTailoredForStringAVM(example, REGEX), 0.0);
     }
 
+    @Test
+    public void testReusedMatrixGivesSameDistanceAsFreshOne() {
+        final String regex = "[a-c]+(x|yz)*[0-9]{2,}";
+        // extended, changed in the middle, shortened, and with nothing in common
+        final String[] args = {"ab", "abc", "abcx", "abcxyz12", "aQcxyz12", "abcxyz12", "abcxyz1",
+                "abc", "", "abq", "zzzz", "abcx", "abcx"};
+
+        RegexDistanceUtils.clearCaches();
+        final double[] reusedForStringAVM = new double[args.length];
+        final int[] reusedStandard = new int[args.length];
+        for (int i = 0; i < args.length; i++) {
+            reusedForStringAVM[i] = RegexDistanceUtils.getDistanceTailoredForStringAVM(args[i], regex);
+            reusedStandard[i] = RegexDistanceUtils.getStandardDistance(args[i], regex);
+        }
+
+        for (int i = 0; i < args.length; i++) {
+            RegexDistanceUtils.clearCaches();
+            assertEquals(args[i], RegexDistanceUtils.getDistanceTailoredForStringAVM(args[i], regex),
+                    reusedForStringAVM[i], 0.0);
+            assertEquals(args[i], RegexDistanceUtils.getStandardDistance(args[i], regex), reusedStandard[i]);
+        }
+        assertEquals(0.0, reusedForStringAVM[3], 0.0);
+        assertTrue(reusedForStringAVM[4] > 0.0);
+    }
+
     @Test
     public void testEmptyRegex() {
         assertEquals(0.0, RegexDistanceUtils.getDistanceTailoredForStringAVM("", ""), 0.0);
@@ -0,0 +1,88 @@
+/**
+ * Copyright (C) 2010-2018 Gordon Fraser, Andrea Arcuri and EvoSuite
+ * contributors
+ * <p>
+ * This file is part of EvoSuite.
+ * <p>
+ * EvoSuite is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ * <p>
+ * EvoSuite is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with EvoSuite. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.evosuite.utils.generic;
+
+import com.googlecode.gentyref.TypeToken;
+import org.junit.After;
+import org.junit.Test;
+
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class GenericClassUtilsTest {
+
+    @After
+    public void tearDown() {
+        GenericClassUtils.clearCaches();
+    }
+
+    @Test
+    public void testCachedAssignability() {
+        Type integerList = new TypeToken<List<Integer>>() {
+        }.getType();
+        Type numberWildcardList = new TypeToken<List<? extends Number>>() {
+        }.getType();
+
+        for (int i = 0; i < 2; i++) {
+            assertTrue(GenericClassUtils.isAssignable(numberWildcardList, integerList));
+            assertFalse(GenericClassUtils.isAssignable(integerList, numberWildcardList));
+        }
+
+        GenericClassUtils.clearCaches();
+        assertTrue(GenericClassUtils.isAssignable(numberWildcardList, integerList));
+        assertFalse(GenericClassUtils.isAssignable(integerList, numberWildcardList));
+    }
+
+    @Test
+    public void testCachedExactSuperType() {
+        Type integerArrayList = new TypeToken<ArrayList<Integer>>() {
+        }.getType();
+        Type integerList = new TypeToken<List<Integer>>() {
+        }.getType();
+
+        for (int i = 0; i < 2; i++) {
+            assertEquals(integerList, GenericClassUtils.getExactSuperType(integerArrayList, List.class));
+            assertNull(GenericClassUtils.getExactSuperType(integerArrayList, Map.class));
+            assertTrue(GenericClassUtils.isSuperType(integerList, integerArrayList));
+            assertFalse(GenericClassUtils.isSuperType(integerArrayList, integerList));
+        }
+    }
+
+    @Test
+    public void testTypeVariableMapIsNotShared() {
+        Type integerList = new TypeToken<ArrayList<Integer>>() {
+        }.getType();
+
+        GenericClass<?> first = GenericClassFactory.get(integerList);
+        Map<TypeVariable<?>, Type> firstMap = first.getTypeVariableMap();
+        assertFalse(firstMap.isEmpty());
+        int size = firstMap.size();
+        firstMap.clear();
+
+        GenericClass<?> second = GenericClassFactory.get(integerList);
+        assertEquals(size, second.getTypeVariableMap().size());
+        assertTrue(first.getTypeVariableMap().isEmpty());
+    }
+}
@@ -166,10 +166,10 @@ public class ContinuousTestGeneration {
         }
 
         if (Properties.CTG_TIME_PER_CLASS != null) {
-            configuration = configuration.getWithChangedTime(Properties.CTG_TIME_PER_CLASS, data.getTotalNumberOfTestableCUTs());
+            configuration = getWithTimePerClass(configuration, Properties.CTG_TIME_PER_CLASS, data);
         }
 
-        JobScheduler scheduler = new JobScheduler(data, configuration);
+        JobScheduler scheduler = new JobScheduler(data, configuration, storage);
         JobExecutor executor = new JobExecutor(storage, projectClassPath, configuration);
 
         //loop: define (partial) schedule
@@ -197,6 +197,21 @@ public class ContinuousTestGeneration {
         return description;
     }
 
+    /**
+     * Get new configuration with budget time proportional to the number of classes
+     * for which a job will be scheduled, so the classes skipped in this run, eg the
+     * unchanged ones in incremental CTG, do not take any time
+     *
+     * @param configuration
+     * @param minutesPerClass
+     * @param data
+     * @return
+     */
+    protected static CtgConfiguration getWithTimePerClass(CtgConfiguration configuration, int minutesPerClass,
+                                                          ProjectStaticData data) {
+        return configuration.getWithChangedTime(minutesPerClass, data.getTotalNumberOfCUTsToGenerate());
+    }
+
     public static File resolveExportFolder(String baseFolder, String exportFolder) {
 
         Path exp = Paths.get(exportFolder);
@@ -347,7 +347,8 @@ public class JobHandler extends Thread {
 
         if (Properties.CTG_SCHEDULE == Properties.AvailableSchedule.SEEDING
                 || Properties.CTG_SCHEDULE == Properties.AvailableSchedule.BUDGET_AND_SEEDING
-                || Properties.CTG_SCHEDULE == Properties.AvailableSchedule.HISTORY) {
+                || Properties.CTG_SCHEDULE == Properties.AvailableSchedule.HISTORY
+                || Properties.CTG_SCHEDULE == Properties.AvailableSchedule.COVERAGE) {
             String seedsFileName = job.cut + "." + Properties.CTG_SEEDS_EXT;
             commands.add("-Dctg_seeds_file_out=" + seedOut.getAbsolutePath() + File.separator + seedsFileName);
             commands.add("-Dctg_seeds_file_in=" + seedIn.getAbsolutePath() + File.separator + seedsFileName);
@@ -462,6 +463,8 @@ public class JobHandler extends Thread {
             cmd.append("," + RuntimeVariable.Length);
             cmd.append("," + RuntimeVariable.Total_Time);
             cmd.append("," + RuntimeVariable.Random_Seed);
+            // used to estimate the budget to give to each class in the next CTG runs
+            cmd.append("," + RuntimeVariable.CoverageTimeline);
 
 
             for (Properties.Criterion criterion : Properties.CRITERION) {
@@ -488,6 +491,9 @@ public class JobHandler extends Thread {
             commands.add("-Dctg_time_per_class=" + Properties.CTG_TIME_PER_CLASS);
         }
 
+        // the interval of the coverage timeline stored in the database
+        commands.add("-Dtimeline_interval=" + Properties.TIMELINE_INTERVAL);
+
         commands.add("-startedByCtg");
         /*
          * Master/Client will not use these variables.
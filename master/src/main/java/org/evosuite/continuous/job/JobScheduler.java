@@ -22,6 +22,7 @@ package org.evosuite.continuous.job;
 import org.evosuite.Properties.AvailableSchedule;
 import org.evosuite.continuous.CtgConfiguration;
 import org.evosuite.continuous.job.schedule.*;
+import org.evosuite.continuous.persistency.StorageManager;
 import org.evosuite.continuous.project.ProjectStaticData;
 import org.evosuite.continuous.project.ProjectStaticData.ClassInfo;
 import org.slf4j.Logger;
@@ -45,6 +46,12 @@ public class JobScheduler {
 
     protected final CtgConfiguration configuration;
 
+    /**
+     * Where the jobs store their results, if available. Used by schedules that
+     * re-plan based on the results of the jobs executed so far
+     */
+    private final StorageManager storage;
+
     private ScheduleType currentSchedule;
 
     /**
@@ -54,9 +61,15 @@ public class JobScheduler {
      */
     public JobScheduler(ProjectStaticData projectData,
                         CtgConfiguration conf) {
+        this(projectData, conf, null);
+    }
+
+    public JobScheduler(ProjectStaticData projectData,
+                        CtgConfiguration conf, StorageManager storage) {
         super();
         this.projectData = projectData;
         this.configuration = conf;
+        this.storage = storage;
         chooseScheduleType(configuration.schedule);
     }
 
@@ -79,6 +92,9 @@ public class JobScheduler {
             case HISTORY:
                 currentSchedule = new HistorySchedule(this);
                 break;
+            case COVERAGE:
+                currentSchedule = new CoverageSchedule(this);
+                break;
             default:
                 throw new IllegalArgumentException("Schedule '" + schedule + "' is not supported");
         }
@@ -126,4 +142,11 @@ public class JobScheduler {
     public CtgConfiguration getConfiguration() {
         return configuration;
     }
+
+    /**
+     * @return the storage of the current CTG run, or <code>null</code> if not available
+     */
+    public StorageManager getStorage() {
+        return storage;
+    }
 }
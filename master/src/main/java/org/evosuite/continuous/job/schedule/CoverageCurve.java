@@ -0,0 +1,127 @@
+/*
+ * Copyright (C) 2010-2018 Gordon Fraser, Andrea Arcuri and EvoSuite
+ * contributors
+ *
+ * This file is part of EvoSuite.
+ *
+ * EvoSuite is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * EvoSuite is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with EvoSuite. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.evosuite.continuous.job.schedule;
+
+import java.util.List;
+
+/**
+ * Model of the coverage obtained on a CUT as function of the search budget,
+ * ie <code>c(t) = asymptote * (1 - e^(-t / timeConstant))</code>.
+ * Each further second of search gives less coverage than the previous one.
+ */
+public class CoverageCurve {
+
+    /**
+     * Range (in seconds) of the time constants considered when fitting a curve
+     */
+    private static final double MIN_TIME_CONSTANT = 1.0;
+    private static final double MAX_TIME_CONSTANT = 4 * 60 * 60;
+
+    /**
+     * Number of time constants tried in the range, on a logarithmic scale
+     */
+    private static final int FITTING_STEPS = 100;
+
+    /**
+     * The coverage that would be obtained with unlimited budget
+     */
+    public final double asymptote;
+
+    /**
+     * Seconds needed to get ~63% of the asymptote
+     */
+    public final double timeConstant;
+
+    public CoverageCurve(double asymptote, double timeConstant) throws IllegalArgumentException {
+        if (asymptote < 0 || asymptote > 1) {
+            throw new IllegalArgumentException("Invalid asymptote: " + asymptote);
+        }
+        if (timeConstant <= 0) {
+            throw new IllegalArgumentException("Invalid time constant: " + timeConstant);
+        }
+        this.asymptote = asymptote;
+        this.timeConstant = timeConstant;
+    }
+
+    /**
+     * @param seconds search budget
+     * @return the expected coverage after the given search budget
+     */
+    public double getCoverage(double seconds) {
+        if (seconds <= 0) {
+            return 0;
+        }
+        return asymptote * (1.0 - Math.exp(-seconds / timeConstant));
+    }
+
+    /**
+     * Fit a curve on the given observations with least squares
+     *
+     * @param points pairs of (seconds, coverage)
+     * @return <code>null</code> if there is no observation
+     */
+    public static CoverageCurve fit(List<double[]> points) {
+
+        if (points.isEmpty()) {
+            return null;
+        }
+
+        double ratio = Math.pow(MAX_TIME_CONSTANT / MIN_TIME_CONSTANT, 1.0 / (FITTING_STEPS - 1));
+
+        double bestError = Double.MAX_VALUE;
+        double bestAsymptote = 0;
+        double bestTimeConstant = MIN_TIME_CONSTANT;
+
+        double tau = MIN_TIME_CONSTANT;
+        for (int i = 0; i < FITTING_STEPS; i++, tau *= ratio) {
+            /*
+             * for a given time constant, the model is linear in the asymptote,
+             * and so the best one has a closed form
+             */
+            double sumCG = 0;
+            double sumGG = 0;
+            for (double[] point : points) {
+                double g = 1.0 - Math.exp(-point[0] / tau);
+                sumCG += point[1] * g;
+                sumGG += g * g;
+            }
+            double a = sumGG == 0 ? 0 : Math.max(0, Math.min(1, sumCG / sumGG));
+
+            double error = 0;
+            for (double[] point : points) {
+                double diff = point[1] - a * (1.0 - Math.exp(-point[0] / tau));
+                error += diff * diff;
+            }
+
+            if (error < bestError) {
+                bestError = error;
+                bestAsymptote = a;
+                bestTimeConstant = tau;
+            }
+        }
+
+        return new CoverageCurve(bestAsymptote, bestTimeConstant);
+    }
+
+    @Override
+    public String toString() {
+        return "CoverageCurve{asymptote=" + asymptote + ", timeConstant=" + timeConstant + "}";
+    }
+}
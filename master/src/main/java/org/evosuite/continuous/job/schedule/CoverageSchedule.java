@@ -0,0 +1,329 @@
+/*
+ * Copyright (C) 2010-2018 Gordon Fraser, Andrea Arcuri and EvoSuite
+ * contributors
+ *
+ * This file is part of EvoSuite.
+ *
+ * EvoSuite is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * EvoSuite is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with EvoSuite. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.evosuite.continuous.job.schedule;
+
+import org.evosuite.Properties;
+import org.evosuite.continuous.job.JobDefinition;
+import org.evosuite.continuous.job.JobScheduler;
+import org.evosuite.continuous.persistency.StorageManager;
+import org.evosuite.continuous.persistency.StorageManager.TestsOnDisk;
+import org.evosuite.continuous.project.ProjectStaticData;
+import org.evosuite.continuous.project.ProjectStaticData.ClassInfo;
+import org.evosuite.utils.LoggingUtils;
+import org.evosuite.xsd.CUT;
+import org.evosuite.xsd.CoverageTimeline;
+import org.evosuite.xsd.Generation;
+import org.evosuite.xsd.Project;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+
+/**
+ * <p>
+ * Schedule that allocates the budget to maximize the expected number of covered goals,
+ * based on the coverage timelines of the previous CTG runs. For each CUT, a {@link CoverageCurve}
+ * is fitted on its timelines, and the budget is given in small slices to the CUT that is
+ * expected to cover most new goals with it. As the curves have diminishing returns, CUTs that
+ * quickly reach their maximum coverage get little budget, whereas CUTs whose coverage still
+ * grows get more.
+ * </p>
+ *
+ * <p>
+ * CUTs without any timeline (eg, new classes) get a curve estimated from the other CUTs,
+ * based on their number of branches. If there are both CUTs with and without timelines,
+ * the former are executed first. Then, the budget that is left is re-planned among the
+ * latter, using the timelines reported by the jobs just executed to estimate their curves.
+ * </p>
+ */
+public class CoverageSchedule extends ScheduleType {
+
+    private static final Logger logger = LoggerFactory.getLogger(CoverageSchedule.class);
+
+    /**
+     * Granularity, in seconds, of the budget allocation
+     */
+    private static final int SLICE = 10;
+
+    /**
+     * Max number of previous generations of a CUT used to fit its curve
+     */
+    private static final int GENERATIONS = 3;
+
+    /**
+     * When there is no data at all, assume full coverage can be achieved, in a time
+     * proportional to the number of branches
+     */
+    private static final double DEFAULT_ASYMPTOTE = 1.0;
+    private static final double DEFAULT_TIME_CONSTANT_PER_BRANCH = 3.0;
+
+    /**
+     * Observations (seconds, coverage) for each CUT
+     */
+    private final Map<String, List<double[]>> history;
+
+    private long startTime = -1;
+
+    private boolean finished = false;
+
+    public CoverageSchedule(JobScheduler scheduler) {
+        this(scheduler, getHistory(StorageManager.getDatabaseProject()));
+    }
+
+    protected CoverageSchedule(JobScheduler scheduler, Map<String, List<double[]>> history) {
+        super(scheduler);
+        this.history = history;
+    }
+
+    @Override
+    public boolean canExecuteMore() {
+        return !finished;
+    }
+
+    @Override
+    public List<JobDefinition> createNewSchedule() throws IllegalStateException {
+        if (finished) {
+            throw new IllegalStateException("Schedule has already been created");
+        }
+
+        ProjectStaticData data = scheduler.getProjectData();
+        int cores = scheduler.getConfiguration().getNumberOfUsableCores();
+        int maximumBudgetPerCore = 60 * scheduler.getConfiguration().timeInMinutes;
+
+        List<ClassInfo> known = new ArrayList<>();
+        List<ClassInfo> unknown = new ArrayList<>();
+        for (ClassInfo info : data.getClassInfos()) {
+            if (!info.isToGenerate()) {
+                continue;
+            }
+            if (history.containsKey(info.getClassName())) {
+                known.add(info);
+            } else {
+                unknown.add(info);
+            }
+        }
+
+        if (startTime < 0) {
+            startTime = System.currentTimeMillis();
+
+            List<ClassInfo> all = new ArrayList<>(known);
+            all.addAll(unknown);
+            List<JobDefinition> jobs = allocate(all, getCurves(all), maximumBudgetPerCore * cores, maximumBudgetPerCore);
+
+            if (known.isEmpty() || unknown.isEmpty()) {
+                finished = true;
+                return jobs;
+            }
+
+            /*
+             * first execute the CUTs we know about. The budget of the others
+             * is re-planned once their results are available
+             */
+            Set<String> names = new HashSet<>();
+            for (ClassInfo info : known) {
+                names.add(info.getClassName());
+            }
+            jobs.removeIf(job -> !names.contains(job.cut));
+            LoggingUtils.getEvoLogger().info("Going to first test " + jobs.size() + " classes with a coverage history");
+            return jobs;
+        }
+
+        finished = true;
+        addReportedTimelines();
+
+        int elapsed = (int) ((System.currentTimeMillis() - startTime) / 1000);
+        int leftPerCore = Math.max(0, maximumBudgetPerCore - elapsed);
+        LoggingUtils.getEvoLogger().info("Re-planning " + unknown.size() + " classes with "
+                + (leftPerCore * cores) + " seconds left");
+
+        return allocate(unknown, getCurves(unknown), leftPerCore * cores, leftPerCore);
+    }
+
+    /**
+     * Add the timelines of the jobs executed so far in this CTG run
+     */
+    private void addReportedTimelines() {
+        StorageManager storage = scheduler.getStorage();
+        if (storage == null) {
+            return;
+        }
+        for (TestsOnDisk tests : storage.gatherGeneratedTestsOnDisk()) {
+            List<double[]> points = getPoints(tests.csvData.getCoverageTimeline(), Properties.TIMELINE_INTERVAL);
+            if (!points.isEmpty()) {
+                history.computeIfAbsent(tests.cut, k -> new ArrayList<>()).addAll(points);
+            }
+        }
+    }
+
+    /**
+     * Fit the curves of the given CUTs, estimating the ones without history from the others
+     */
+    private Map<String, CoverageCurve> getCurves(List<ClassInfo> infos) {
+
+        ProjectStaticData data = scheduler.getProjectData();
+        Map<String, CoverageCurve> curves = new HashMap<>();
+
+        double sumAsymptote = 0;
+        double sumTimePerBranch = 0;
+        int n = 0;
+        for (Map.Entry<String, List<double[]>> entry : history.entrySet()) {
+            CoverageCurve curve = CoverageCurve.fit(entry.getValue());
+            if (curve == null) {
+                continue;
+            }
+            curves.put(entry.getKey(), curve);
+
+            ClassInfo info = data.getClassInfo(entry.getKey());
+            if (info != null) {
+                sumAsymptote += curve.asymptote;
+                sumTimePerBranch += curve.timeConstant / Math.max(1, info.numberOfBranches);
+                n++;
+            }
+        }
+
+        double asymptote = n == 0 ? DEFAULT_ASYMPTOTE : sumAsymptote / n;
+        double timePerBranch = n == 0 ? DEFAULT_TIME_CONSTANT_PER_BRANCH : sumTimePerBranch / n;
+
+        for (ClassInfo info : infos) {
+            if (!curves.containsKey(info.getClassName())) {
+                curves.put(info.getClassName(),
+                        new CoverageCurve(asymptote, timePerBranch * Math.max(1, info.numberOfBranches)));
+            }
+            logger.debug("Curve of {}: {}", info.getClassName(), curves.get(info.getClassName()));
+        }
+        return curves;
+    }
+
+    /**
+     * Allocate the budget to maximize the sum over all CUTs of their expected coverage times
+     * their number of branches. As the curves are concave, this is done greedily, by giving
+     * each slice of budget to the CUT with the highest gain for it.
+     *
+     * @param infos         the CUTs to schedule
+     * @param curves        the curve of each CUT
+     * @param totalBudget   budget in seconds for all the jobs
+     * @param maximumPerJob no job can get more than this, as it would not fit on a core
+     * @return the jobs, sorted by decreasing budget
+     */
+    protected List<JobDefinition> allocate(List<ClassInfo> infos, Map<String, CoverageCurve> curves,
+                                           int totalBudget, int maximumPerJob) {
+
+        int minimumPerJob = Math.min(60 * scheduler.getConfiguration().minMinutesPerJob, maximumPerJob);
+        List<JobDefinition> jobs = new LinkedList<>();
+        if (minimumPerJob <= 0) {
+            return jobs;
+        }
+
+        /*
+         * every job needs a minimum budget. if there is not enough for all, prefer
+         * the CUTs expected to cover most goals with it
+         */
+        List<ClassInfo> selected = new ArrayList<>(infos);
+        selected.sort(Comparator.comparingDouble(
+                (ClassInfo info) -> getGain(info, curves, 0, minimumPerJob)).reversed());
+        int maxJobs = totalBudget / minimumPerJob;
+        if (selected.size() > maxJobs) {
+            LoggingUtils.getEvoLogger().info("There is no enough time budget to generate test cases for all classes in the project");
+            selected = selected.subList(0, maxJobs);
+        }
+
+        Map<String, Integer> budgets = new LinkedHashMap<>();
+        for (ClassInfo info : selected) {
+            budgets.put(info.getClassName(), minimumPerJob);
+        }
+        int left = totalBudget - minimumPerJob * selected.size();
+
+        PriorityQueue<ClassInfo> queue = new PriorityQueue<>(Math.max(1, selected.size()),
+                Comparator.comparingDouble((ClassInfo info) -> {
+                    int budget = budgets.get(info.getClassName());
+                    return getGain(info, curves, budget, budget + SLICE);
+                }).reversed());
+        queue.addAll(selected);
+
+        while (left >= SLICE && !queue.isEmpty()) {
+            ClassInfo info = queue.poll();
+            int budget = budgets.get(info.getClassName()) + SLICE;
+            if (budget > maximumPerJob) {
+                continue;
+            }
+            budgets.put(info.getClassName(), budget);
+            left -= SLICE;
+            queue.add(info);
+        }
+
+        for (Map.Entry<String, Integer> entry : budgets.entrySet()) {
+            jobs.add(new JobDefinition(entry.getValue(), scheduler.getConfiguration().getConstantMemoryPerJob(),
+                    entry.getKey(), 0, null, null));
+        }
+
+        // as in BudgetSchedule, the most expensive jobs first
+        jobs.sort((a, b) -> b.seconds - a.seconds);
+        return jobs;
+    }
+
+    private static double getGain(ClassInfo info, Map<String, CoverageCurve> curves, int from, int to) {
+        CoverageCurve curve = curves.get(info.getClassName());
+        return Math.max(1, info.numberOfBranches) * (curve.getCoverage(to) - curve.getCoverage(from));
+    }
+
+    /**
+     * Extract the observed coverage timelines of the latest generations of each CUT.
+     * Generations before the latest change of a CUT are not considered.
+     *
+     * @param project
+     * @return
+     */
+    protected static Map<String, List<double[]>> getHistory(Project project) {
+        Map<String, List<double[]>> history = new LinkedHashMap<>();
+        if (project == null) {
+            return history;
+        }
+
+        for (CUT cut : project.getCut()) {
+            List<double[]> points = new ArrayList<>();
+            int used = 0;
+            List<Generation> generations = cut.getGeneration();
+            for (int i = generations.size() - 1; i >= 0 && used < GENERATIONS; i--) {
+                Generation generation = generations.get(i);
+                CoverageTimeline timeline = generation.getCoverageTimeline();
+                if (timeline != null && !timeline.getValue().isEmpty()) {
+                    points.addAll(getPoints(timeline.getValue(), timeline.getIntervalInMilliseconds().longValue()));
+                    used++;
+                }
+                if (generation.isModified()) {
+                    break;
+                }
+            }
+            if (!points.isEmpty()) {
+                history.put(cut.getFullNameOfTargetClass(), points);
+            }
+        }
+        return history;
+    }
+
+    private static List<double[]> getPoints(List<Double> timeline, long intervalInMilliseconds) {
+        List<double[]> points = new ArrayList<>(timeline.size());
+        for (int i = 0; i < timeline.size(); i++) {
+            // the first value of a timeline is at T1, ie after one interval
+            points.add(new double[]{(i + 1) * intervalInMilliseconds / 1000.0, timeline.get(i)});
+        }
+        return points;
+    }
+}
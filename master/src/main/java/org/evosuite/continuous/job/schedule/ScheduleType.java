@@ -64,7 +64,7 @@ public abstract class ScheduleType {
     protected boolean enoughBudgetForAll() {
         int totalBudget = 60 * scheduler.getConfiguration().timeInMinutes * scheduler.getConfiguration().getNumberOfUsableCores();
         int maximumNumberOfJobs = totalBudget / (60 * scheduler.getConfiguration().minMinutesPerJob);
-        return maximumNumberOfJobs >= scheduler.getProjectData().getTotalNumberOfTestableCUTs();
+        return maximumNumberOfJobs >= scheduler.getProjectData().getTotalNumberOfCUTsToGenerate();
     }
 
     /**
@@ -111,7 +111,7 @@ public abstract class ScheduleType {
 
         //not enough budget
         for (ClassInfo info : data.getClassInfos()) {
-            if (!info.isTestable()) {
+            if (!info.isToGenerate()) {
                 continue;
             }
             JobDefinition job = new JobDefinition(
@@ -45,6 +45,7 @@ public class CsvJUnitData {
     private String targetClass;
     private final Map<String, Double> coverageValues = new LinkedHashMap<>();
     private final Map<String, String> coverageBitString = new LinkedHashMap<>();
+    private final List<Double> coverageTimeline = new ArrayList<>();
     private int totalNumberOfStatements;
     private int numberOfTests;
     private int totalNumberOfFailures;
@@ -90,6 +91,9 @@ public class CsvJUnitData {
             data.targetClass = getValue(rows, "TARGET_CLASS").trim();
             data.configurationId = 0; //TODO. note: it has nothing to do with configuration_id, need refactoring
 
+            String timelinePrefix = RuntimeVariable.CoverageTimeline.name() + "_T";
+            Map<Integer, Double> timeline = new TreeMap<>();
+
             // get coverage (value and bitstring)
             for (String columnName : rows.get(0)) {
                 // this is assuming that all coverage/score runtime variables
@@ -109,7 +113,14 @@ public class CsvJUnitData {
                     }
                     data.coverageBitString.put(coverageColumn, getValue(rows, columnName));
                 }
+
+                // CoverageTimeline_T1, CoverageTimeline_T2, etc
+                if (columnName.startsWith(timelinePrefix)) {
+                    int index = Integer.parseInt(columnName.substring(timelinePrefix.length()));
+                    timeline.put(index, Double.parseDouble(getValue(rows, columnName)));
+                }
             }
+            data.coverageTimeline.addAll(timeline.values());
 
             data.totalNumberOfStatements = Integer.parseInt(getValue(rows, RuntimeVariable.Length.toString()));
             data.durationInSeconds = Integer.parseInt(getValue(rows, RuntimeVariable.Total_Time.toString())) / 1000;
@@ -171,6 +182,14 @@ public class CsvJUnitData {
         return this.coverageValues.size();
     }
 
+    /**
+     * @return the coverage at each interval of the search, or an empty list
+     * if the timeline was not among the output variables
+     */
+    public List<Double> getCoverageTimeline() {
+        return Collections.unmodifiableList(this.coverageTimeline);
+    }
+
     public Set<String> getCoverageBitStringVariables() {
         return this.coverageBitString.keySet();
     }
@@ -25,6 +25,7 @@ import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang3.time.DateFormatUtils;
 import org.evosuite.Properties;
 import org.evosuite.continuous.project.ProjectStaticData;
+import org.evosuite.continuous.project.ProjectStaticData.ClassInfo;
 import org.evosuite.utils.ArrayUtil;
 import org.evosuite.utils.FileIOUtils;
 import org.evosuite.utils.LoggingUtils;
@@ -41,6 +42,7 @@ import javax.xml.validation.Schema;
 import javax.xml.validation.SchemaFactory;
 import java.io.*;
 import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
 import java.text.DecimalFormat;
 import java.text.NumberFormat;
 import java.util.*;
@@ -270,6 +272,8 @@ public class StorageManager {
 
         // identify for which CUTs we failed to generate tests
         Set<String> missingCUTs = new LinkedHashSet<>();
+        // and for which ones we did
+        Set<String> generatedCUTs = new LinkedHashSet<>();
 
         db.setTotalNumberOfTestableClasses(BigInteger.valueOf(current.getTotalNumberOfTestableCUTs()));
         for (String cut : current.getClassNames()) {
@@ -282,6 +286,8 @@ public class StorageManager {
             TestsOnDisk suite = suites.parallelStream().filter(s -> s.cut.equals(cut)).findFirst().orElse(null);
             if (suite == null && current.getClassInfo(cut).isToTest()) {
                 missingCUTs.add(cut);
+            } else if (suite != null) {
+                generatedCUTs.add(cut);
             }
 
             LoggingUtils.getEvoLogger().info("* Updating database to " + cut);
@@ -307,9 +313,85 @@ public class StorageManager {
         }
 
         commitDatabase(db);
+
+        if (Properties.CTG_INCREMENTAL) {
+            commitClassHashes(current, generatedCUTs);
+        }
+
         return info;
     }
 
+    /**
+     * Store the hashes of the CUTs that are up to date, ie the ones that did not change
+     * since the previous CTG run, or for which new tests were generated in this run.
+     * CUTs we failed to generate tests for will be considered as changed in the next run
+     *
+     * @param current
+     * @param generatedCUTs
+     */
+    private void commitClassHashes(ProjectStaticData current, Set<String> generatedCUTs) {
+        Map<String, String> previous = getClassHashes();
+        Map<String, String> hashes = new TreeMap<>();
+
+        for (ClassInfo info : current.getClassInfos()) {
+            String hash = info.getHash();
+            if (hash == null) {
+                continue;
+            }
+            if (generatedCUTs.contains(info.getClassName()) || hash.equals(previous.get(info.getClassName()))) {
+                hashes.put(info.getClassName(), hash);
+            }
+        }
+
+        saveClassHashes(hashes);
+    }
+
+    private static File getClassHashesFile() {
+        return new File(Properties.CTG_DIR + File.separator + Properties.CTG_CLASS_HASHES);
+    }
+
+    /**
+     * Get the hashes of the classes that were up to date at the end of the previous
+     * CTG run
+     *
+     * @return a map from class name (key) to hash (value), empty if there was no previous run
+     */
+    public static Map<String, String> getClassHashes() {
+        Map<String, String> hashes = new LinkedHashMap<>();
+
+        File file = getClassHashesFile();
+        if (!file.exists()) {
+            return hashes;
+        }
+
+        try {
+            for (String line : FileUtils.readLines(file, StandardCharsets.UTF_8)) {
+                int separator = line.lastIndexOf('=');
+                if (separator > 0) {
+                    hashes.put(line.substring(0, separator), line.substring(separator + 1));
+                }
+            }
+        } catch (IOException e) {
+            logger.error("Failed to read " + file.getAbsolutePath() + ": " + e.getMessage(), e);
+            hashes.clear();
+        }
+        return hashes;
+    }
+
+    public static void saveClassHashes(Map<String, String> hashes) {
+        List<String> lines = new ArrayList<>(hashes.size());
+        for (Map.Entry<String, String> entry : hashes.entrySet()) {
+            lines.add(entry.getKey() + "=" + entry.getValue());
+        }
+
+        File file = getClassHashesFile();
+        try {
+            FileUtils.writeLines(file, StandardCharsets.UTF_8.name(), lines);
+        } catch (IOException e) {
+            logger.error("Failed to write " + file.getAbsolutePath() + ": " + e.getMessage(), e);
+        }
+    }
+
     /**
      * Not only we need the generated JUnit files, but also the statistics
      * on their execution.
@@ -538,6 +620,17 @@ public class StorageManager {
         assert ondisk.isValid();
         CsvJUnitData csv = ondisk.csvData;
 
+        if (!csv.getCoverageTimeline().isEmpty()) {
+            // keep the timeline even if the suite is not going to be accepted,
+            // as it still tells how the search progresses on this CUT
+            CoverageTimeline timeline = new CoverageTimeline();
+            timeline.setIntervalInMilliseconds(BigInteger.valueOf(Properties.TIMELINE_INTERVAL));
+            for (double value : csv.getCoverageTimeline()) {
+                timeline.getValue().add(Double.parseDouble(this.df.format(Math.max(0.0, Math.min(1.0, value)))));
+            }
+            generation.setCoverageTimeline(timeline);
+        }
+
         if (!isBetterThanAnyExistingTestSuite(db, current, ondisk)) {
             // if the new test suite is not better than any other
             // test suite (manually written or generated), we don't
@@ -19,6 +19,7 @@
  */
 package org.evosuite.continuous.project;
 
+import org.apache.commons.io.IOUtils;
 import org.evosuite.Properties;
 import org.evosuite.Properties.AvailableSchedule;
 import org.evosuite.TestGenerationContext;
@@ -26,15 +27,29 @@ import org.evosuite.classpath.ClassPathHacker;
 import org.evosuite.classpath.ClassPathHandler;
 import org.evosuite.classpath.ResourceList;
 import org.evosuite.continuous.job.schedule.HistorySchedule;
+import org.evosuite.continuous.persistency.StorageManager;
 import org.evosuite.continuous.project.ProjectStaticData.ClassInfo;
 import org.evosuite.coverage.branch.BranchPool;
 import org.evosuite.instrumentation.InstrumentingClassLoader;
 import org.evosuite.junit.CoverageAnalysis;
 import org.evosuite.runtime.sandbox.Sandbox;
+import org.evosuite.utils.LoggingUtils;
+import org.evosuite.utils.MD5;
+import org.evosuite.xsd.CUT;
+import org.evosuite.xsd.CUTUtil;
+import org.evosuite.xsd.Project;
+import org.evosuite.xsd.ProjectUtil;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.InnerClassNode;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 
 /**
@@ -244,7 +259,145 @@ public class ProjectAnalyzer {
             }
         }
 
+        if (Properties.CTG_INCREMENTAL) {
+            markUnchangedClasses(data);
+        }
+
         return data;
     }
+
+    /**
+     * Compute the hash of each CUT over its bytecode and the bytecode of all the CUTs it
+     * transitively depends on, and mark as not changed the ones with the same hash they had
+     * in the previous CTG run. Unchanged CUTs whose best test suite already reaches
+     * {@link Properties#CTG_INCREMENTAL_COVERAGE} will not be tested again
+     *
+     * @param data
+     */
+    private void markUnchangedClasses(ProjectStaticData data) {
+
+        Map<String, String> previousHashes = StorageManager.getClassHashes();
+        Project db = StorageManager.getDatabaseProject();
+
+        Map<String, String> bytecodeHashes = new HashMap<>();
+        for (String className : data.getClassNames()) {
+            bytecodeHashes.put(className, getBytecodeHash(className));
+        }
+
+        ProjectGraph graph = data.getProjectGraph();
+        Map<String, Set<String>> dependencies = new HashMap<>();
+
+        int unchanged = 0;
+        for (ClassInfo ci : data.getClassInfos()) {
+            if (!ci.isTestable()) {
+                continue;
+            }
+            String className = ci.getClassName();
+            String hash = getHash(className, bytecodeHashes, graph, dependencies);
+            ci.setHash(hash);
+
+            boolean changed = hash == null || !hash.equals(previousHashes.get(className));
+            if (Properties.CTG_SCHEDULE == AvailableSchedule.HISTORY) {
+                changed = changed || ci.hasChanged();
+            }
+            ci.setChanged(changed);
+
+            CUT cut = ProjectUtil.getCUT(db, className);
+            double coverage = cut == null ? 0.0 : CUTUtil.getOverallCoverage(cut);
+            ci.isToTest(ci.isToTest() && (changed || coverage < Properties.CTG_INCREMENTAL_COVERAGE));
+
+            if (!ci.isToGenerate()) {
+                unchanged++;
+            }
+        }
+
+        LoggingUtils.getEvoLogger().info("* Skipping " + unchanged + " unchanged classes out of "
+                + data.getTotalNumberOfTestableCUTs());
+    }
+
+    /**
+     * @return a hash over the bytecode of the given CUT and its transitive dependencies,
+     * or <code>null</code> if it cannot be computed
+     */
+    private String getHash(String className, Map<String, String> bytecodeHashes, ProjectGraph graph,
+                           Map<String, Set<String>> dependencies) {
+
+        Set<String> closure = new TreeSet<>();
+        Deque<String> toVisit = new ArrayDeque<>();
+        toVisit.add(className);
+
+        try {
+            while (!toVisit.isEmpty()) {
+                String current = toVisit.poll();
+                if (!closure.add(current)) {
+                    continue;
+                }
+                Set<String> direct = dependencies.get(current);
+                if (direct == null) {
+                    direct = new LinkedHashSet<>(graph.getCUTsDirectlyUsedAsInput(current, true));
+                    direct.addAll(graph.getAllCUTsParents(current));
+                    dependencies.put(current, direct);
+                }
+                toVisit.addAll(direct);
+            }
+        } catch (IllegalArgumentException e) {
+            logger.warn("Cannot compute dependencies of " + className + ": " + e.getMessage());
+            return null;
+        }
+
+        StringBuilder sb = new StringBuilder();
+        for (String name : closure) {
+            String hash = bytecodeHashes.get(name);
+            if (hash == null) {
+                return null;
+            }
+            sb.append(name).append(':').append(hash).append('\n');
+        }
+        return MD5.hash(sb.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return a hash over the bytecode of the given class and of all its nested
+     * and anonymous classes, or <code>null</code> if the bytecode cannot be read
+     */
+    private String getBytecodeHash(String className) {
+
+        ResourceList resources = ResourceList.getInstance(TestGenerationContext.getInstance().getClassLoaderForSUT());
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+
+        Set<String> visited = new LinkedHashSet<>();
+        Deque<String> toVisit = new ArrayDeque<>();
+        toVisit.add(className);
+
+        while (!toVisit.isEmpty()) {
+            String name = toVisit.poll();
+            if (!visited.add(name)) {
+                continue;
+            }
+
+            byte[] bytes;
+            try (InputStream stream = resources.getClassAsStream(name)) {
+                if (stream == null) {
+                    logger.warn("Cannot find bytecode of " + name);
+                    return null;
+                }
+                bytes = IOUtils.toByteArray(stream);
+            } catch (IOException e) {
+                logger.warn("Cannot read bytecode of " + name + ": " + e.getMessage());
+                return null;
+            }
+            content.write(bytes, 0, bytes.length);
+
+            ClassNode cn = new ClassNode();
+            new ClassReader(bytes).accept(cn, ClassReader.SKIP_CODE | ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES);
+            for (InnerClassNode inner : cn.innerClasses) {
+                if (inner.name.startsWith(cn.name + "$")) {
+                    toVisit.add(inner.name.replace('/', '.'));
+                }
+            }
+        }
+
+        return MD5.hash(content.toByteArray());
+    }
 }
 
@@ -163,6 +163,12 @@ public class ProjectStaticData {
          */
         private int memoryInMB = 0;
 
+        /**
+         * hash of the bytecode of this class and of the classes it depends on,
+         * or <code>null</code> if it was not computed
+         */
+        private String hash = null;
+
         public ClassInfo(Class<?> theClass, int numberOfBranches, boolean hasCode) {
             super();
             this.theClass = theClass;
@@ -194,6 +200,15 @@ public class ProjectStaticData {
             return this.isToTest;
         }
 
+        /**
+         * Should a job be scheduled for this class in the current CTG run?
+         *
+         * @return
+         */
+        public boolean isToGenerate() {
+            return isTestable() && (hasChanged || isToTest);
+        }
+
         public void setTimeBudgetInSeconds(int timeBudgetInSeconds) {
             this.timeBudgetInSeconds = timeBudgetInSeconds;
         }
@@ -209,6 +224,14 @@ public class ProjectStaticData {
         public int getMemoryInMB() {
             return memoryInMB;
         }
+
+        public void setHash(String hash) {
+            this.hash = hash;
+        }
+
+        public String getHash() {
+            return hash;
+        }
     }
 
     /**
@@ -270,6 +293,32 @@ public class ProjectStaticData {
 
     }
 
+    /**
+     * Return the number of testable CUTs for which a job should be scheduled in
+     * the current CTG run, eg skipping the unchanged ones in incremental CTG
+     *
+     * @return
+     */
+    public int getTotalNumberOfCUTsToGenerate() {
+        int total = 0;
+        for (ClassInfo info : classes.values()) {
+            if (info.isToGenerate()) {
+                total++;
+            }
+        }
+        return total;
+    }
+
+    public int getTotalNumberOfBranchesToGenerate() {
+        int total = 0;
+        for (ClassInfo info : classes.values()) {
+            if (info.isToGenerate()) {
+                total += info.numberOfBranches;
+            }
+        }
+        return total;
+    }
+
     /**
      * Return an unmodifiable copy of the current data info of the classes in the SUT
      *
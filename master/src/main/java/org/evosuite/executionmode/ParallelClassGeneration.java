@@ -0,0 +1,378 @@
+/**
+ * Copyright (C) 2010-2018 Gordon Fraser, Andrea Arcuri and EvoSuite
+ * contributors
+ * <p>
+ * This file is part of EvoSuite.
+ * <p>
+ * EvoSuite is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ * <p>
+ * EvoSuite is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with EvoSuite. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.evosuite.executionmode;
+
+import org.evosuite.EvoSuite;
+import org.evosuite.Properties;
+import org.evosuite.Properties.Strategy;
+import org.evosuite.TestGenerationContext;
+import org.evosuite.classpath.ClassPathHandler;
+import org.evosuite.classpath.ResourceList;
+import org.evosuite.result.TestGenerationResult;
+import org.evosuite.result.TestGenerationResultBuilder;
+import org.evosuite.runtime.util.JarPathing;
+import org.evosuite.runtime.util.JavaExecCmdUtil;
+import org.evosuite.utils.LoggingUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Generates tests for several classes at the same time, for the -target and -prefix modes.
+ *
+ * <p>
+ * Each class is handled by its own EvoSuite master process (in -class mode), which starts
+ * its own clients, so that classes do not share any state. At most
+ * {@link Properties#PARALLEL_CLASSES} classes run at the same time, bounded by the available
+ * cores and by {@link Properties#PARALLEL_CLASSES_MEMORY}. Classes are started from the
+ * most difficult one, estimated by the size of their bytecode, so that long runs do not
+ * end up alone at the end. Each master serializes its results in a file, which are then
+ * collected in the order in which the classes were started.
+ */
+public class ParallelClassGeneration {
+
+    private static final Logger logger = LoggerFactory.getLogger(ParallelClassGeneration.class);
+
+    /**
+     * Heap in megabytes of the master process of each class
+     */
+    public static final int MASTER_MEMORY = 256;
+
+    /**
+     * Minimum heap in megabytes given to a client when splitting the memory budget
+     */
+    public static final int MIN_CLIENT_MEMORY = 512;
+
+    /**
+     * How many classes to run at the same time, and with how much memory
+     */
+    public static class Budget {
+
+        public final int numClasses;
+
+        /**
+         * Heap in megabytes of each client, or 0 to use the one given with -mem, if any
+         */
+        public final int clientMemory;
+
+        Budget(int numClasses, int clientMemory) {
+            this.numClasses = numClasses;
+            this.clientMemory = clientMemory;
+        }
+
+        /**
+         * @param requested    max number of classes to run at the same time
+         * @param cores        available cores
+         * @param memory       megabytes shared by all processes, or 0 for no bound
+         * @param clients      number of clients of each class
+         * @param clientMemory heap in megabytes of each client given with -mem, or 0 if none
+         * @return the budget of each class
+         */
+        public static Budget compute(int requested, int cores, int memory, int clients, int clientMemory) {
+            clients = Math.max(1, clients);
+            // each client keeps a core busy, the master is mostly idle
+            int numClasses = Math.min(requested, Math.max(1, cores / clients));
+
+            if (memory <= 0) {
+                return new Budget(numClasses, 0);
+            }
+
+            if (clientMemory > 0) {
+                int perClass = MASTER_MEMORY + clients * clientMemory;
+                return new Budget(Math.max(1, Math.min(numClasses, memory / perClass)), 0);
+            }
+
+            int maxClasses = memory / (MASTER_MEMORY + clients * MIN_CLIENT_MEMORY);
+            numClasses = Math.max(1, Math.min(numClasses, maxClasses));
+            int perClient = (memory / numClasses - MASTER_MEMORY) / clients;
+            return new Budget(numClasses, Math.max(MIN_CLIENT_MEMORY, perClient));
+        }
+    }
+
+    /**
+     * Started processes, to be killed if the master is stopped
+     */
+    private static final Set<Process> processes = ConcurrentHashMap.newKeySet();
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            for (Process process : processes) {
+                process.destroy();
+            }
+        }));
+    }
+
+    public static List<List<TestGenerationResult>> generateTests(Strategy strategy, List<String> classes,
+                                                                 List<String> args) {
+        Budget budget = Budget.compute(Properties.PARALLEL_CLASSES, Runtime.getRuntime().availableProcessors(),
+                Properties.PARALLEL_CLASSES_MEMORY, Properties.NUM_PARALLEL_CLIENTS, getClientMemory(args));
+
+        Map<String, Long> difficulty = new LinkedHashMap<>();
+        for (String sut : classes) {
+            difficulty.put(sut, estimateDifficulty(sut));
+        }
+        List<String> queue = sortByDifficulty(difficulty);
+
+        LoggingUtils.getEvoLogger().info("* Going to generate tests for " + queue.size() + " classes, "
+                + budget.numClasses + " at a time");
+
+        String projectCP = ClassPathHandler.getInstance().getTargetProjectClasspath();
+        String classPath = JarPathing.createJarPathing(System.getProperty("java.class.path")
+                + File.pathSeparator + projectCP);
+        String projectCPFile = ClassPathHandler.writeClasspathToFile(projectCP);
+
+        ExecutorService executor = Executors.newFixedThreadPool(budget.numClasses);
+        Map<String, Future<List<List<TestGenerationResult>>>> futures = new LinkedHashMap<>();
+        for (String sut : queue) {
+            List<String> command = new ArrayList<>();
+            command.add(JavaExecCmdUtil.getJavaBinExecutablePath());
+            command.add("-Xmx" + MASTER_MEMORY + "m");
+            command.add("-cp");
+            command.add(classPath);
+            command.add(EvoSuite.class.getName());
+            command.addAll(getArguments(strategy, sut, args, budget.clientMemory));
+            command.add("-DCP_file_path=" + projectCPFile);
+            futures.put(sut, executor.submit(() -> generateTests(sut, command)));
+        }
+        executor.shutdown();
+
+        List<List<TestGenerationResult>> results = new ArrayList<>();
+        for (Map.Entry<String, Future<List<List<TestGenerationResult>>>> entry : futures.entrySet()) {
+            try {
+                results.addAll(entry.getValue().get());
+            } catch (ExecutionException e) {
+                logger.error("Failed to generate tests for " + entry.getKey(), e.getCause());
+                results.add(Collections.singletonList(
+                        TestGenerationResultBuilder.buildErrorResult("Failed to generate tests: " + e.getCause())));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                executor.shutdownNow();
+                for (Process process : processes) {
+                    process.destroy();
+                }
+                break;
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Estimate how long generating tests for a class takes
+     *
+     * @param className the class
+     * @return the size of its bytecode, or 0 if unknown
+     */
+    public static long estimateDifficulty(String className) {
+        try (InputStream in = ResourceList.getInstance(TestGenerationContext.getInstance().getClassLoaderForSUT())
+                .getClassAsStream(className)) {
+            if (in == null) {
+                return 0;
+            }
+            long size = 0;
+            byte[] buffer = new byte[8192];
+            int n;
+            while ((n = in.read(buffer)) > 0) {
+                size += n;
+            }
+            return size;
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * @param difficulty the estimated difficulty of each class
+     * @return the classes from the most difficult one, and by name for the same difficulty
+     */
+    public static List<String> sortByDifficulty(Map<String, Long> difficulty) {
+        List<String> classes = new ArrayList<>(difficulty.keySet());
+        classes.sort(Comparator.<String>comparingLong(difficulty::get).reversed()
+                .thenComparing(Comparator.naturalOrder()));
+        return classes;
+    }
+
+    /**
+     * @return the heap in megabytes given with -mem, or 0 if none
+     */
+    private static int getClientMemory(List<String> args) {
+        for (String arg : args) {
+            if (arg.startsWith("-Xmx") && arg.endsWith("M")) {
+                try {
+                    return Integer.parseInt(arg.substring(4, arg.length() - 1));
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Turn the options given to this master back into command line arguments of the
+     * master of a single class
+     *
+     * @param strategy     the chosen strategy
+     * @param className    the class to generate tests for
+     * @param args         the options for the clients of this master
+     * @param clientMemory heap in megabytes of each client, or 0 to keep the one in the options
+     * @return the arguments of the master of the class
+     */
+    public static List<String> getArguments(Strategy strategy, String className, List<String> args, int clientMemory) {
+        List<String> arguments = new ArrayList<>();
+        arguments.add("-class");
+        arguments.add(className);
+
+        switch (strategy) {
+            case EVOSUITE:
+                arguments.add("-generateSuite");
+                break;
+            case ONEBRANCH:
+            case ENTBUG:
+                arguments.add("-generateTests");
+                break;
+            case RANDOM:
+                arguments.add("-generateRandom");
+                break;
+            case RANDOM_FIXED:
+                arguments.add("-generateNumRandom");
+                arguments.add(String.valueOf(Properties.NUM_RANDOM_TESTS));
+                break;
+            case MOSUITE:
+                arguments.add("-generateMOSuite");
+                break;
+            case DSE:
+                arguments.add("-generateSuiteUsingDSE");
+                break;
+            default:
+                // chosen with -Dstrategy, which is in the options
+                break;
+        }
+
+        arguments.add("-base_dir");
+        arguments.add(EvoSuite.base_dir_path);
+        arguments.add("-evosuiteCP");
+        arguments.add(ClassPathHandler.getInstance().getEvoSuiteClassPath());
+
+        for (String arg : args) {
+            if (arg.startsWith("-Xmx")) {
+                if (clientMemory <= 0) {
+                    arguments.add("-mem");
+                    arguments.add(arg.substring(4, arg.length() - 1));
+                }
+            } else if (arg.startsWith("-Djava.library.path=")) {
+                arguments.add("-libraryPath");
+                arguments.add(arg.substring("-Djava.library.path=".length()));
+            } else if (arg.equals("-XX:+HeapDumpOnOutOfMemoryError")) {
+                arguments.add("-heapdump");
+            } else if (arg.startsWith("-DCP=") || arg.startsWith("-DCP_file_path=")
+                    || arg.startsWith("-Dparallel_classes") || arg.startsWith("-Dresults_file=")
+                    || arg.startsWith("-Dshow_progress=")) {
+                // set for each class
+                continue;
+            } else if (arg.startsWith("-D")) {
+                arguments.add(arg);
+            } else {
+                logger.warn("Option not passed to the master of each class: " + arg);
+            }
+        }
+
+        if (clientMemory > 0) {
+            arguments.add("-mem");
+            arguments.add(String.valueOf(clientMemory));
+        }
+        // the progress bars of several classes would be mixed up
+        arguments.add("-Dshow_progress=false");
+        return arguments;
+    }
+
+    private static List<List<TestGenerationResult>> generateTests(String className, List<String> command)
+            throws IOException, InterruptedException {
+        File resultsFile = File.createTempFile("EvoSuite_results", ".ser");
+        resultsFile.deleteOnExit();
+        command = new ArrayList<>(command);
+        command.add("-Dresults_file=" + resultsFile.getAbsolutePath());
+
+        LoggingUtils.getEvoLogger().info("* Going to generate test cases for class: " + className);
+        logger.debug("Command: " + String.join(" ", command));
+
+        ProcessBuilder builder = new ProcessBuilder(command);
+        builder.directory(new File(EvoSuite.base_dir_path));
+        builder.redirectErrorStream(true);
+
+        Process process = builder.start();
+        processes.add(process);
+        int exitCode;
+        try {
+            try (BufferedReader in = new BufferedReader(new InputStreamReader(process.getInputStream(),
+                    StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = in.readLine()) != null) {
+                    if (!line.isEmpty()) {
+                        LoggingUtils.getEvoLogger().info("[" + className + "] " + line);
+                    }
+                }
+            }
+            exitCode = process.waitFor();
+        } finally {
+            processes.remove(process);
+            process.destroy();
+        }
+
+        try {
+            if (exitCode != 0) {
+                logger.warn("Master process for " + className + " ended with exit code " + exitCode);
+                return Collections.singletonList(Collections.singletonList(
+                        TestGenerationResultBuilder.buildErrorResult("Master process ended with exit code " + exitCode)));
+            }
+            return readResults(resultsFile);
+        } finally {
+            resultsFile.delete();
+        }
+    }
+
+    /**
+     * Write the results of this master, for {@link Properties#RESULTS_FILE}
+     */
+    public static void writeResults(File file, List<List<TestGenerationResult>> results) throws IOException {
+        try (ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+            out.writeObject(new ArrayList<>(results));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public static List<List<TestGenerationResult>> readResults(File file) {
+        if (!file.exists() || file.length() == 0) {
+            return Collections.singletonList(Collections.singletonList(
+                    TestGenerationResultBuilder.buildErrorResult("No results were written")));
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            return (List<List<TestGenerationResult>>) in.readObject();
+        } catch (IOException | ClassNotFoundException e) {
+            // e.g., the results refer to classes of the SUT this master cannot load
+            logger.warn("Cannot read the results in " + file + ": " + e);
+            return Collections.singletonList(Collections.singletonList(
+                    TestGenerationResultBuilder.buildErrorResult("Cannot read the results in " + file + ": " + e)));
+        }
+    }
+}
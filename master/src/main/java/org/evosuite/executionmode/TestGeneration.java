@@ -94,6 +94,14 @@ public class TestGeneration {
                             "classpath entry ('-target' option)\n");
             Help.execute(options);
         }
+
+        if (Properties.RESULTS_FILE != null && !Properties.RESULTS_FILE.isEmpty()) {
+            try {
+                ParallelClassGeneration.writeResults(new File(Properties.RESULTS_FILE), results);
+            } catch (IOException e) {
+                logger.error("Cannot write results to " + Properties.RESULTS_FILE, e);
+            }
+        }
         return results;
     }
 
@@ -183,6 +191,18 @@ public class TestGeneration {
         LoggingUtils.getEvoLogger().info("* Found " + classes.size()
                 + " matching classes for prefix "
                 + prefix);
+        results.addAll(generateTests(strategy, classes, args));
+        return results;
+    }
+
+    /**
+     * Generate tests for all the given classes that are not interfaces, one class at a time,
+     * or several at the same time with {@link Properties#PARALLEL_CLASSES}. One class at a time,
+     * a client process can be reused for several classes with {@link Properties#CLIENT_REUSE}
+     */
+    private static List<List<TestGenerationResult>> generateTests(Properties.Strategy strategy, Set<String> classes,
+                                                                  List<String> args) {
+        List<String> suts = new ArrayList<>();
         for (String sut : classes) {
             try {
                 if (ResourceList.getInstance(TestGenerationContext.getInstance().getClassLoaderForSUT()).isClassAnInterface(sut)) {
@@ -193,8 +213,18 @@ public class TestGeneration {
                 LoggingUtils.getEvoLogger().info("Could not load class: " + sut);
                 continue;
             }
-            LoggingUtils.getEvoLogger().info("* Current class: " + sut);
-            results.addAll(generateTests(strategy, sut, args));
+            suts.add(sut);
+        }
+
+        if (Properties.PARALLEL_CLASSES > 1 && suts.size() > 1) {
+            return ParallelClassGeneration.generateTests(strategy, suts, args);
+        }
+
+        List<List<TestGenerationResult>> results = new ArrayList<>();
+        Queue<String> targets = new LinkedList<>(suts);
+        while (!targets.isEmpty()) {
+            LoggingUtils.getEvoLogger().info("* Current class: " + targets.peek());
+            results.addAll(generateTests(strategy, targets, args));
         }
         return results;
     }
@@ -213,6 +243,18 @@ public class TestGeneration {
 
     private static List<List<TestGenerationResult>> generateTests(Properties.Strategy strategy, String target,
                                                                   List<String> args) {
+        return generateTests(strategy, new LinkedList<>(Collections.singletonList(target)), args);
+    }
+
+    /**
+     * Generate tests for the first of the given classes in a new client process. If the client
+     * can be reused, it then generates tests for the following classes, until it is replaced.
+     * The classes tests were generated for are removed from the queue
+     */
+    private static List<List<TestGenerationResult>> generateTests(Properties.Strategy strategy, Queue<String> targets,
+                                                                  List<String> args) {
+
+        String target = targets.poll();
 
         LoggingUtils.getEvoLogger().info("* Going to generate test cases for class: " + target);
 
@@ -494,6 +536,8 @@ public class TestGeneration {
             processArgs.add(cmdLineClone.toArray(new String[0]));
         }
 
+        List<List<TestGenerationResult>> reusedClientResults = null;
+
         if (handler.startProcessGroup(processArgs)) {
 
             Set<ClientNodeRemote> clients = null;
@@ -507,6 +551,10 @@ public class TestGeneration {
                 logger.error("Not possible to access to clients. Clients' state:\n" + handler.getProcessStates() +
                         "Master registry port: " + MasterServices.getInstance().getRegistryPort());
 
+            } else if (canReuseClient(targets)) {
+                reusedClientResults = generateTestsReusingClient(clients.iterator().next(), target, targets);
+                // once released, the client sends its last output variables and finishes
+                handler.waitForResult(10000);
             } else {
                 /*
                  * The clients have started, and connected back to Master.
@@ -537,13 +585,17 @@ public class TestGeneration {
             LoggingUtils.getEvoLogger().info("* Could not connect to client process");
         }
 
-        boolean hasFailed = writeStatistics();
+        boolean hasFailed = false;
+        List<List<TestGenerationResult>> results = reusedClientResults;
+        if (results == null) {
+            hasFailed = writeStatistics();
 
-        /*
-         * FIXME: it is unclear what is the relation between TestGenerationResult and writeStatistics()
-         */
-        List<List<TestGenerationResult>> results = SearchStatistics.getInstance().getTestGenerationResults();
-        SearchStatistics.clearInstance();
+            /*
+             * FIXME: it is unclear what is the relation between TestGenerationResult and writeStatistics()
+             */
+            results = SearchStatistics.getInstance().getTestGenerationResults();
+            SearchStatistics.clearInstance();
+        }
 
         handler.closeServer();
 
@@ -572,6 +624,67 @@ public class TestGeneration {
         return results;
     }
 
+    private static boolean canReuseClient(Queue<String> targets) {
+        return Properties.CLIENT_REUSE > 1 && Properties.NUM_PARALLEL_CLIENTS == 1
+                && !Properties.CLIENT_ON_THREAD && !targets.isEmpty();
+    }
+
+    /**
+     * Generate tests for the given class, and then for the following classes in the queue with
+     * the same client, until {@link Properties#CLIENT_REUSE} classes are done or the client
+     * cannot be reused, e.g. because its memory did not shrink back after a reset.
+     * The statistics are written after each class
+     *
+     * @return the results of each class
+     */
+    private static List<List<TestGenerationResult>> generateTestsReusingClient(ClientNodeRemote client, String target,
+                                                                               Queue<String> targets) {
+        List<List<TestGenerationResult>> results = new ArrayList<>();
+        int numClasses = 0;
+        try {
+            boolean started = client.startNextSearch(target);
+            while (started) {
+                numClasses++;
+                int time = TimeController.getInstance().calculateForHowLongClientWillRunInSeconds();
+                boolean done = client.waitUntilSearchDone(time * 1000L);
+                if (!done) {
+                    logger.error("Class " + target + ". Client has not finished yet, although a timeout occurred.\n"
+                            + MasterServices.getInstance().getMasterNode().getSummaryOfClientStatuses());
+                }
+
+                if (writeStatistics()) {
+                    logger.error("failed to write statistics data");
+                } else {
+                    results.addAll(SearchStatistics.getInstance().getTestGenerationResults());
+                }
+                SearchStatistics.clearInstance();
+
+                // classes that cannot be handled are left to a new client, to be reported as usual
+                String next = targets.peek();
+                if (!done || next == null || numClasses >= Properties.CLIENT_REUSE
+                        || !ResourceList.getInstance(TestGenerationContext.getInstance().getClassLoaderForSUT()).hasClass(next)
+                        || !BytecodeInstrumentation.checkIfCanInstrument(next)) {
+                    break;
+                }
+
+                LoggingUtils.getEvoLogger().info("* Current class: " + next);
+                LoggingUtils.getEvoLogger().info("* Going to generate test cases for class: " + next);
+                Properties.TARGET_CLASS = next;
+                started = client.startNextSearch(next);
+                if (started) {
+                    targets.poll();
+                    target = next;
+                } else {
+                    LoggingUtils.getEvoLogger().info("* Starting a new client process, as the current one cannot be reused");
+                }
+            }
+            client.release();
+        } catch (RemoteException | InterruptedException e) {
+            logger.error("Error when reusing client for class " + target, e);
+        }
+        return results;
+    }
+
     /**
      * Writes generation statistics.
      *
@@ -643,19 +756,7 @@ public class TestGeneration {
             return results;
         }
 
-        for (String sut : classes) {
-            try {
-                if (ResourceList.getInstance(TestGenerationContext.getInstance().getClassLoaderForSUT()).isClassAnInterface(sut)) {
-                    LoggingUtils.getEvoLogger().info("* Skipping interface: " + sut);
-                    continue;
-                }
-            } catch (IOException e) {
-                LoggingUtils.getEvoLogger().info("Could not load class: " + sut);
-                continue;
-            }
-            LoggingUtils.getEvoLogger().info("* Current class: " + sut);
-            results.addAll(generateTests(strategy, sut, args));
-        }
+        results.addAll(generateTests(strategy, classes, args));
 
         return results;
     }
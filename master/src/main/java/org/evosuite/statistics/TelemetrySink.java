@@ -0,0 +1,187 @@
+/**
+ * Copyright (C) 2010-2018 Gordon Fraser, Andrea Arcuri and EvoSuite
+ * contributors
+ * <p>
+ * This file is part of EvoSuite.
+ * <p>
+ * EvoSuite is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ * <p>
+ * EvoSuite is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with EvoSuite. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.evosuite.statistics;
+
+import org.evosuite.Properties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Accumulates the telemetry batches sent by the clients, and writes the totals to a file
+ * in the Prometheus text format, e.g. to be picked up by the textfile collector of a
+ * node exporter. The file is replaced atomically after each batch.
+ */
+public class TelemetrySink {
+
+    private static final Logger logger = LoggerFactory.getLogger(TelemetrySink.class);
+
+    private static TelemetrySink instance = null;
+
+    /**
+     * Totals of each client, by metric name
+     */
+    private final Map<String, TelemetryBatch> totals = new TreeMap<>();
+
+    private final File file;
+
+    /**
+     * @param file where to write the metrics, or {@code null} to keep them only in memory
+     */
+    public TelemetrySink(File file) {
+        this.file = file;
+    }
+
+    public static synchronized TelemetrySink getInstance() {
+        if (instance == null) {
+            String name = Properties.TELEMETRY_FILE == null || Properties.TELEMETRY_FILE.isEmpty() ?
+                    Properties.REPORT_DIR + File.separator + "telemetry.prom" : Properties.TELEMETRY_FILE;
+            instance = new TelemetrySink(new File(name));
+        }
+        return instance;
+    }
+
+    public synchronized void collect(String clientRmiIdentifier, byte[] data) {
+        TelemetryBatch batch;
+        try {
+            batch = TelemetryBatch.fromBytes(data);
+        } catch (IOException e) {
+            logger.warn("Discarding telemetry of {}: {}", clientRmiIdentifier, e.getMessage());
+            return;
+        }
+        collect(clientRmiIdentifier, batch);
+    }
+
+    public synchronized void collect(String clientRmiIdentifier, TelemetryBatch batch) {
+        TelemetryBatch total = totals.computeIfAbsent(clientRmiIdentifier, k -> new TelemetryBatch(batch.getTimestamp()));
+        for (Map.Entry<String, Long> entry : batch.getCounters().entrySet()) {
+            total.addCounter(entry.getKey(), entry.getValue());
+        }
+        for (Map.Entry<String, Double> entry : batch.getGauges().entrySet()) {
+            total.addGauge(entry.getKey(), entry.getValue());
+        }
+        for (Map.Entry<String, long[]> entry : batch.getHistograms().entrySet()) {
+            total.addHistogram(entry.getKey(), entry.getValue(), batch.getHistogramSum(entry.getKey()));
+        }
+
+        if (file != null) {
+            write();
+        }
+    }
+
+    /**
+     * @return the totals of all clients, in the Prometheus text format
+     */
+    public synchronized String toPrometheusText() {
+        // all the series of a metric have to be together, after its type
+        Map<String, StringBuilder> counters = new TreeMap<>();
+        Map<String, StringBuilder> gauges = new TreeMap<>();
+        Map<String, StringBuilder> histograms = new TreeMap<>();
+
+        for (Map.Entry<String, TelemetryBatch> client : totals.entrySet()) {
+            String labels = "client=\"" + escape(client.getKey()) + "\",class=\"" + escape(Properties.TARGET_CLASS) + "\"";
+            TelemetryBatch total = client.getValue();
+
+            for (Map.Entry<String, Long> entry : total.getCounters().entrySet()) {
+                counters.computeIfAbsent(entry.getKey(), k -> new StringBuilder())
+                        .append(entry.getKey()).append('{').append(labels).append("} ")
+                        .append(entry.getValue()).append('\n');
+            }
+            for (Map.Entry<String, Double> entry : total.getGauges().entrySet()) {
+                gauges.computeIfAbsent(entry.getKey(), k -> new StringBuilder())
+                        .append(entry.getKey()).append('{').append(labels).append("} ")
+                        .append(format(entry.getValue())).append('\n');
+            }
+            for (Map.Entry<String, long[]> entry : total.getHistograms().entrySet()) {
+                String name = entry.getKey();
+                StringBuilder sb = histograms.computeIfAbsent(name, k -> new StringBuilder());
+                long[] buckets = entry.getValue();
+                long count = 0;
+                for (int i = 0; i < buckets.length; i++) {
+                    count += buckets[i];
+                    if (i == buckets.length - 1) {
+                        break;
+                    }
+                    // Prometheus buckets are cumulative; skip the empty tail to keep the file small
+                    if (buckets[i] != 0 || i == 0) {
+                        sb.append(name).append("_bucket{").append(labels).append(",le=\"")
+                                .append(TelemetryBatch.getUpperBound(i)).append("\"} ").append(count).append('\n');
+                    }
+                }
+                sb.append(name).append("_bucket{").append(labels).append(",le=\"+Inf\"} ").append(count).append('\n');
+                sb.append(name).append("_sum{").append(labels).append("} ").append(total.getHistogramSum(name)).append('\n');
+                sb.append(name).append("_count{").append(labels).append("} ").append(count).append('\n');
+            }
+        }
+
+        StringBuilder text = new StringBuilder();
+        append(text, counters, "counter");
+        append(text, gauges, "gauge");
+        append(text, histograms, "histogram");
+        return text.toString();
+    }
+
+    private static void append(StringBuilder text, Map<String, StringBuilder> metrics, String type) {
+        for (Map.Entry<String, StringBuilder> entry : metrics.entrySet()) {
+            text.append("# TYPE ").append(entry.getKey()).append(' ').append(type).append('\n');
+            text.append(entry.getValue());
+        }
+    }
+
+    private static String format(double value) {
+        if (Double.isNaN(value)) {
+            return "NaN";
+        } else if (Double.isInfinite(value)) {
+            return value > 0 ? "+Inf" : "-Inf";
+        }
+        return String.format(Locale.ROOT, "%.3f", value);
+    }
+
+    private static String escape(String label) {
+        return label == null ? "" : label.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    private void write() {
+        try {
+            File parent = file.getAbsoluteFile().getParentFile();
+            if (parent != null && !parent.exists()) {
+                parent.mkdirs();
+            }
+            File tmp = new File(file.getPath() + ".tmp");
+            Files.write(tmp.toPath(), toPrometheusText().getBytes(StandardCharsets.UTF_8));
+            try {
+                Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            logger.warn("Cannot write telemetry to {}: {}", file, e.getMessage());
+        }
+    }
+}
@@ -25,10 +25,11 @@ import org.evosuite.statistics.OutputVariable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileWriter;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -107,12 +108,16 @@ public class CSVStatisticsBackend implements StatisticsBackend {
         try {
             File outputDir = getReportDir();
             File f = new File(outputDir.getAbsolutePath() + File.separator + "statistics.csv");
-            BufferedWriter out = new BufferedWriter(new FileWriter(f, true));
-            if (f.length() == 0L) {
-                out.write(getCSVHeader(data) + "\n");
+            // the masters of classes generated at the same time write to the same file
+            try (FileOutputStream stream = new FileOutputStream(f, true);
+                 FileLock lock = stream.getChannel().lock()) {
+                StringBuilder sb = new StringBuilder();
+                if (stream.getChannel().size() == 0L) {
+                    sb.append(getCSVHeader(data)).append("\n");
+                }
+                sb.append(getCSVData(data)).append("\n");
+                stream.write(sb.toString().getBytes(StandardCharsets.UTF_8));
             }
-            out.write(getCSVData(data) + "\n");
-            out.close();
 
         } catch (IOException e) {
             logger.warn("Error while writing statistics: " + e.getMessage());
@@ -0,0 +1,62 @@
+/*
+ * Copyright (C) 2010-2018 Gordon Fraser, Andrea Arcuri and EvoSuite
+ * contributors
+ *
+ * This file is part of EvoSuite.
+ *
+ * EvoSuite is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * EvoSuite is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with EvoSuite. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.evosuite.continuous;
+
+import com.examples.with.different.packagename.continuous.MoreBranches;
+import com.examples.with.different.packagename.continuous.NoBranches;
+import com.examples.with.different.packagename.continuous.Trivial;
+import org.evosuite.Properties.AvailableSchedule;
+import org.evosuite.classpath.ClassPathHandler;
+import org.evosuite.continuous.project.ProjectAnalyzer;
+import org.evosuite.continuous.project.ProjectStaticData;
+import org.evosuite.continuous.project.ProjectStaticData.ClassInfo;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class ContinuousTestGenerationTest {
+
+    @BeforeClass
+    public static void initClass() {
+        ClassPathHandler.getInstance().changeTargetCPtoTheSameAsEvoSuite();
+    }
+
+    @Test
+    public void testNoTimeForSkippedClasses() {
+
+        String[] cuts = new String[]{NoBranches.class.getName(),
+                Trivial.class.getName(), MoreBranches.class.getName()};
+        ProjectStaticData data = new ProjectAnalyzer(cuts).analyze();
+        assertEquals(3, data.getTotalNumberOfCUTsToGenerate());
+
+        CtgConfiguration conf = new CtgConfiguration(1400, 2, 10, 1, false, AvailableSchedule.SIMPLE);
+        CtgConfiguration all = ContinuousTestGeneration.getWithTimePerClass(conf, 4, data);
+        assertEquals(6, all.timeInMinutes);
+
+        // as in an incremental run in which Trivial did not change
+        ClassInfo trivial = data.getClassInfo(Trivial.class.getName());
+        trivial.setChanged(false);
+        trivial.isToTest(false);
+
+        CtgConfiguration changed = ContinuousTestGeneration.getWithTimePerClass(conf, 4, data);
+        assertEquals(4, changed.timeInMinutes);
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright (C) 2010-2018 Gordon Fraser, Andrea Arcuri and EvoSuite
+ * contributors
+ *
+ * This file is part of EvoSuite.
+ *
+ * EvoSuite is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * EvoSuite is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with EvoSuite. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.evosuite.continuous.job.schedule;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.evosuite.Properties.AvailableSchedule;
+import org.evosuite.classpath.ClassPathHandler;
+import org.evosuite.continuous.CtgConfiguration;
+import org.evosuite.continuous.job.JobDefinition;
+import org.evosuite.continuous.job.JobScheduler;
+import org.evosuite.continuous.project.ProjectAnalyzer;
+import org.evosuite.continuous.project.ProjectStaticData;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.examples.with.different.packagename.continuous.MoreBranches;
+import com.examples.with.different.packagename.continuous.SomeBranches;
+
+public class CoverageScheduleTest {
+
+    @BeforeClass
+    public static void initClass() {
+        ClassPathHandler.getInstance().changeTargetCPtoTheSameAsEvoSuite();
+    }
+
+    private static List<double[]> getTimeline(CoverageCurve curve, int intervalInSeconds, int size) {
+        List<double[]> points = new ArrayList<>();
+        for (int i = 1; i <= size; i++) {
+            points.add(new double[]{i * intervalInSeconds, curve.getCoverage(i * intervalInSeconds)});
+        }
+        return points;
+    }
+
+    @Test
+    public void testFitCurve() {
+        CoverageCurve expected = new CoverageCurve(0.8, 120);
+
+        CoverageCurve curve = CoverageCurve.fit(getTimeline(expected, 10, 60));
+
+        Assert.assertEquals(0.8, curve.asymptote, 0.02);
+        Assert.assertEquals(120, curve.timeConstant, 12);
+    }
+
+    @Test
+    public void testFitNoData() {
+        Assert.assertNull(CoverageCurve.fit(new ArrayList<>()));
+    }
+
+    @Test
+    public void testBudgetGoesWhereCoverageStillGrows() {
+        String[] cuts = new String[]{MoreBranches.class.getName(), SomeBranches.class.getName()};
+        ProjectStaticData data = new ProjectAnalyzer(cuts).analyze();
+
+        int budget = 10;
+        CtgConfiguration conf = new CtgConfiguration(1400, 1, budget, 1, false, AvailableSchedule.BUDGET);
+        JobScheduler scheduler = new JobScheduler(data, conf);
+
+        Map<String, List<double[]>> history = new HashMap<>();
+        // all the coverage that can be got on MoreBranches is reached in few seconds
+        history.put(MoreBranches.class.getName(), getTimeline(new CoverageCurve(0.9, 5), 60, 5));
+        // whereas the coverage of SomeBranches still grows at the end of the search
+        history.put(SomeBranches.class.getName(), getTimeline(new CoverageCurve(1.0, 600), 60, 5));
+
+        CoverageSchedule schedule = new CoverageSchedule(scheduler, history);
+        Assert.assertTrue(schedule.canExecuteMore());
+
+        List<JobDefinition> jobs = schedule.createNewSchedule();
+        Assert.assertFalse(schedule.canExecuteMore());
+        Assert.assertEquals(2, jobs.size());
+
+        Assert.assertEquals(SomeBranches.class.getName(), jobs.get(0).cut);
+        Assert.assertEquals(MoreBranches.class.getName(), jobs.get(1).cut);
+        // besides the minimum of each job, everything goes to SomeBranches
+        Assert.assertEquals(60 * budget - 60, jobs.get(0).seconds);
+        Assert.assertEquals(60, jobs.get(1).seconds);
+    }
+
+    @Test
+    public void testReplanClassesWithoutHistory() {
+        String[] cuts = new String[]{MoreBranches.class.getName(), SomeBranches.class.getName()};
+        ProjectStaticData data = new ProjectAnalyzer(cuts).analyze();
+
+        CtgConfiguration conf = new CtgConfiguration(1400, 2, 10, 1, false, AvailableSchedule.BUDGET);
+        JobScheduler scheduler = new JobScheduler(data, conf);
+
+        Map<String, List<double[]>> history = new HashMap<>();
+        history.put(MoreBranches.class.getName(), getTimeline(new CoverageCurve(0.9, 100), 60, 5));
+
+        CoverageSchedule schedule = new CoverageSchedule(scheduler, history);
+
+        List<JobDefinition> first = schedule.createNewSchedule();
+        Assert.assertEquals(1, first.size());
+        Assert.assertEquals(MoreBranches.class.getName(), first.get(0).cut);
+        Assert.assertTrue(schedule.canExecuteMore());
+
+        List<JobDefinition> second = schedule.createNewSchedule();
+        Assert.assertEquals(1, second.size());
+        Assert.assertEquals(SomeBranches.class.getName(), second.get(0).cut);
+        Assert.assertFalse(schedule.canExecuteMore());
+    }
+}
@@ -19,12 +19,18 @@
  */
 package org.evosuite.continuous.project;
 
+import org.evosuite.Properties;
 import org.evosuite.classpath.ClassPathHandler;
+import org.evosuite.continuous.persistency.StorageManager;
 import org.evosuite.continuous.project.ProjectStaticData.ClassInfo;
+import org.junit.After;
 import org.junit.Assert;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 import com.examples.with.different.packagename.continuous.Simple;
 import com.examples.with.different.packagename.continuous.Trivial;
 
@@ -35,6 +41,12 @@ public class ProjectAnalyzerIntTest {
         ClassPathHandler.getInstance().changeTargetCPtoTheSameAsEvoSuite();
     }
 
+    @After
+    public void resetProperties() {
+        Properties.CTG_INCREMENTAL = false;
+        Properties.CTG_INCREMENTAL_COVERAGE = 0.8;
+    }
+
     @Test
     public void testActualScanWithPrefix() {
         String target = "target/test-classes";
@@ -79,4 +91,37 @@ public class ProjectAnalyzerIntTest {
         Assert.assertNotNull(trivial);
         Assert.assertEquals(1, trivial.numberOfBranches);
     }
+
+    @Test
+    public void testIncrementalSkipsUnchangedClasses() {
+        Properties.CTG_INCREMENTAL = true;
+        // no coverage data, so only consider the hashes
+        Properties.CTG_INCREMENTAL_COVERAGE = 0.0;
+
+        String[] cuts = new String[]{Simple.class.getName(), Trivial.class.getName()};
+
+        StorageManager storage = new StorageManager();
+        storage.clean();
+        try {
+            ProjectStaticData first = new ProjectAnalyzer(cuts).analyze();
+            Assert.assertEquals(2, first.getTotalNumberOfCUTsToGenerate());
+
+            Map<String, String> hashes = new LinkedHashMap<>();
+            for (ClassInfo info : first.getClassInfos()) {
+                Assert.assertNotNull(info.getHash());
+                hashes.put(info.getClassName(), info.getHash());
+            }
+            hashes.put(Trivial.class.getName(), "not the same hash");
+            StorageManager.saveClassHashes(hashes);
+
+            ProjectStaticData second = new ProjectAnalyzer(cuts).analyze();
+            Assert.assertEquals(1, second.getTotalNumberOfCUTsToGenerate());
+            Assert.assertFalse(second.getClassInfo(Simple.class.getName()).isToGenerate());
+            Assert.assertTrue(second.getClassInfo(Trivial.class.getName()).isToGenerate());
+            Assert.assertEquals(first.getClassInfo(Simple.class.getName()).getHash(),
+                    second.getClassInfo(Simple.class.getName()).getHash());
+        } finally {
+            storage.clean();
+        }
+    }
 }
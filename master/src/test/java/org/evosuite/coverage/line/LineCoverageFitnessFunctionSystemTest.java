@@ -421,4 +421,29 @@ public class LineCoverageFitnessFunctionSystemTest extends SystemTestBase {
         Assert.assertEquals(9, TestGenerationStrategy.getFitnessFactories().get(0).getCoverageGoals().size());
         Assert.assertEquals("Non-optimal coverage: ", 1d, best.getCoverage(), 0.001);
     }
+
+    @Test
+    public void testLineCoverageFitnessWithGoalSubsumption() {
+        EvoSuite evosuite = new EvoSuite();
+        Properties.Algorithm algorithm = Properties.ALGORITHM;
+        boolean subsumption = Properties.GOAL_SUBSUMPTION;
+        Properties.ALGORITHM = Properties.Algorithm.DYNAMOSA;
+        Properties.GOAL_SUBSUMPTION = true;
+
+        String targetClass = IntExample.class.getCanonicalName();
+        Properties.TARGET_CLASS = targetClass;
+
+        String[] command = new String[]{"-generateSuite", "-class", targetClass};
+        Object result = evosuite.parseCommandLine(command);
+        GeneticAlgorithm<TestSuiteChromosome> ga = getGAFromResult(result);
+        TestSuiteChromosome best = ga.getBestIndividual();
+        Properties.ALGORITHM = algorithm;
+        Properties.GOAL_SUBSUMPTION = subsumption;
+
+        System.out.println("CoveredGoals:\n" + best.getCoveredGoals());
+        System.out.println("EvolvedTestSuite:\n" + best);
+        int goals = TestGenerationStrategy.getFitnessFactories().get(0).getCoverageGoals().size(); // assuming single fitness function
+        Assert.assertEquals(6, goals);
+        Assert.assertEquals("Non-optimal coverage: ", 1d, best.getCoverage(), 0.001);
+    }
 }
@@ -0,0 +1,142 @@
+/**
+ * Copyright (C) 2010-2018 Gordon Fraser, Andrea Arcuri and EvoSuite
+ * contributors
+ * <p>
+ * This file is part of EvoSuite.
+ * <p>
+ * EvoSuite is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ * <p>
+ * EvoSuite is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with EvoSuite. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.evosuite.executionmode;
+
+import org.evosuite.Properties;
+import org.evosuite.Properties.Strategy;
+import org.evosuite.result.TestGenerationResult;
+import org.evosuite.result.TestGenerationResultBuilder;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.*;
+
+public class ParallelClassGenerationTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testBudgetBoundedByCores() {
+        ParallelClassGeneration.Budget budget = ParallelClassGeneration.Budget.compute(8, 4, 0, 1, 0);
+        Assert.assertEquals(4, budget.numClasses);
+        Assert.assertEquals(0, budget.clientMemory);
+
+        // each class has two clients
+        budget = ParallelClassGeneration.Budget.compute(8, 4, 0, 2, 0);
+        Assert.assertEquals(2, budget.numClasses);
+
+        budget = ParallelClassGeneration.Budget.compute(8, 1, 0, 2, 0);
+        Assert.assertEquals(1, budget.numClasses);
+    }
+
+    @Test
+    public void testBudgetBoundedByMemoryOfClients() {
+        // 1024 + 256 for each class
+        ParallelClassGeneration.Budget budget = ParallelClassGeneration.Budget.compute(8, 16, 4000, 1, 1024);
+        Assert.assertEquals(3, budget.numClasses);
+        Assert.assertEquals(0, budget.clientMemory);
+
+        // not even one fits, still run one class at a time
+        budget = ParallelClassGeneration.Budget.compute(8, 16, 1000, 1, 1024);
+        Assert.assertEquals(1, budget.numClasses);
+    }
+
+    @Test
+    public void testMemoryIsSplit() {
+        ParallelClassGeneration.Budget budget = ParallelClassGeneration.Budget.compute(4, 16, 8192, 1, 0);
+        Assert.assertEquals(4, budget.numClasses);
+        Assert.assertEquals(2048 - ParallelClassGeneration.MASTER_MEMORY, budget.clientMemory);
+
+        // too little memory for 4 classes with the smallest clients
+        budget = ParallelClassGeneration.Budget.compute(4, 16, 2000, 1, 0);
+        Assert.assertEquals(2, budget.numClasses);
+        Assert.assertEquals(1000 - ParallelClassGeneration.MASTER_MEMORY, budget.clientMemory);
+    }
+
+    @Test
+    public void testMostDifficultFirst() {
+        Map<String, Long> difficulty = new LinkedHashMap<>();
+        difficulty.put("a.Small", 100L);
+        difficulty.put("a.Large", 5000L);
+        difficulty.put("a.Medium2", 1000L);
+        difficulty.put("a.Medium1", 1000L);
+
+        Assert.assertEquals(Arrays.asList("a.Large", "a.Medium1", "a.Medium2", "a.Small"),
+                ParallelClassGeneration.sortByDifficulty(difficulty));
+    }
+
+    @Test
+    public void testArguments() {
+        List<String> options = Arrays.asList("-Dsearch_budget=30", "-Xmx2048M", "-DCP=foo.jar",
+                "-Dparallel_classes=4", "-Djava.library.path=lib", "-XX:+HeapDumpOnOutOfMemoryError");
+
+        List<String> arguments = ParallelClassGeneration.getArguments(Strategy.MOSUITE, "a.Foo", options, 0);
+        Assert.assertEquals("-class", arguments.get(0));
+        Assert.assertEquals("a.Foo", arguments.get(1));
+        Assert.assertTrue(arguments.contains("-generateMOSuite"));
+        Assert.assertTrue(arguments.contains("-Dsearch_budget=30"));
+        Assert.assertEquals("2048", arguments.get(arguments.indexOf("-mem") + 1));
+        Assert.assertEquals("lib", arguments.get(arguments.indexOf("-libraryPath") + 1));
+        Assert.assertTrue(arguments.contains("-heapdump"));
+        Assert.assertFalse(arguments.contains("-DCP=foo.jar"));
+        Assert.assertFalse(arguments.contains("-Dparallel_classes=4"));
+        Assert.assertTrue(arguments.contains("-Dshow_progress=false"));
+
+        // the memory of the budget wins
+        arguments = ParallelClassGeneration.getArguments(Strategy.MOSUITE, "a.Foo", options, 1000);
+        Assert.assertEquals(arguments.indexOf("-mem"), arguments.lastIndexOf("-mem"));
+        Assert.assertEquals("1000", arguments.get(arguments.indexOf("-mem") + 1));
+    }
+
+    @Test
+    public void testResultsRoundTrip() throws Exception {
+        File file = folder.newFile("results.ser");
+        List<List<TestGenerationResult>> results = new ArrayList<>();
+        results.add(Collections.singletonList(TestGenerationResultBuilder.buildErrorResult("foo")));
+
+        ParallelClassGeneration.writeResults(file, results);
+        List<List<TestGenerationResult>> read = ParallelClassGeneration.readResults(file);
+        Assert.assertEquals(1, read.size());
+        Assert.assertEquals("foo", read.get(0).get(0).getErrorMessage());
+    }
+
+    @Test
+    public void testMissingResults() {
+        List<List<TestGenerationResult>> read = ParallelClassGeneration.readResults(new File(folder.getRoot(), "none"));
+        Assert.assertEquals(1, read.size());
+        Assert.assertEquals(TestGenerationResult.Status.ERROR, read.get(0).get(0).getTestGenerationStatus());
+    }
+
+    @Test
+    public void testUnreadableResults() throws Exception {
+        File file = folder.newFile("results.ser");
+        Files.write(file.toPath(), new byte[]{1, 2, 3});
+
+        List<List<TestGenerationResult>> read = ParallelClassGeneration.readResults(file);
+        Assert.assertEquals(1, read.size());
+        Assert.assertEquals(TestGenerationResult.Status.ERROR, read.get(0).get(0).getTestGenerationStatus());
+        Assert.assertTrue(read.get(0).get(0).getErrorMessage().startsWith("Cannot read the results"));
+    }
+}
@@ -49,6 +49,13 @@ public class TestSuiteWriterSystemTest extends SystemTestBase {
         test();
     }
 
+    @Test
+    public void testSingleFileOnSeveralThreads() {
+        Properties.TEST_SCAFFOLDING = false;
+        Properties.WRITE_JUNIT_THREADS = 4;
+        test();
+    }
+
     @Test
     public void testWriteCoveredGoals() throws IOException {
         Properties.WRITE_COVERED_GOALS_FILE = true;
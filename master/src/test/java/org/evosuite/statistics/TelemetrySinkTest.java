@@ -0,0 +1,118 @@
+/**
+ * Copyright (C) 2010-2018 Gordon Fraser, Andrea Arcuri and EvoSuite
+ * contributors
+ * <p>
+ * This file is part of EvoSuite.
+ * <p>
+ * EvoSuite is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ * <p>
+ * EvoSuite is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with EvoSuite. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.evosuite.statistics;
+
+import org.evosuite.Properties;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+public class TelemetrySinkTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private String targetClass;
+
+    @Before
+    public void setTargetClass() {
+        targetClass = Properties.TARGET_CLASS;
+        Properties.TARGET_CLASS = "com.example.Foo";
+    }
+
+    @After
+    public void resetTargetClass() {
+        Properties.TARGET_CLASS = targetClass;
+    }
+
+    private static TelemetryBatch createBatch(long executions, long... latencies) {
+        TelemetryBatch batch = new TelemetryBatch(System.currentTimeMillis());
+        batch.addCounter("evosuite_test_executions_total", executions);
+        batch.addGauge("evosuite_heap_used_bytes", executions * 1000);
+        long[] buckets = new long[TelemetryBatch.NUM_BUCKETS];
+        long sum = 0;
+        for (long latency : latencies) {
+            buckets[TelemetryBatch.getBucket(latency)]++;
+            sum += latency;
+        }
+        batch.addHistogram("evosuite_test_execution_microseconds", buckets, sum);
+        return batch;
+    }
+
+    @Test
+    public void testBatchesAreAccumulated() {
+        TelemetrySink sink = new TelemetrySink(null);
+        sink.collect("ClientNode0", createBatch(2, 1, 3).toBytes());
+        sink.collect("ClientNode0", createBatch(5, 3).toBytes());
+
+        String text = sink.toPrometheusText();
+        String labels = "{client=\"ClientNode0\",class=\"com.example.Foo\"";
+        Assert.assertTrue(text, text.contains("# TYPE evosuite_test_executions_total counter\n"));
+        Assert.assertTrue(text, text.contains("evosuite_test_executions_total" + labels + "} 7\n"));
+        // gauges keep the last value
+        Assert.assertTrue(text, text.contains("evosuite_heap_used_bytes" + labels + "} 5000.000\n"));
+
+        Assert.assertTrue(text, text.contains("# TYPE evosuite_test_execution_microseconds histogram\n"));
+        Assert.assertTrue(text, text.contains("evosuite_test_execution_microseconds_bucket" + labels + ",le=\"1\"} 1\n"));
+        Assert.assertTrue(text, text.contains("evosuite_test_execution_microseconds_bucket" + labels + ",le=\"4\"} 3\n"));
+        Assert.assertTrue(text, text.contains("evosuite_test_execution_microseconds_bucket" + labels + ",le=\"+Inf\"} 3\n"));
+        Assert.assertTrue(text, text.contains("evosuite_test_execution_microseconds_sum" + labels + "} 7\n"));
+        Assert.assertTrue(text, text.contains("evosuite_test_execution_microseconds_count" + labels + "} 3\n"));
+    }
+
+    @Test
+    public void testClientsAreSeparate() {
+        TelemetrySink sink = new TelemetrySink(null);
+        sink.collect("ClientNode0", createBatch(2));
+        sink.collect("ClientNode1", createBatch(3));
+
+        String text = sink.toPrometheusText();
+        // a single type line for the series of all the clients
+        Assert.assertEquals(text.indexOf("# TYPE evosuite_test_executions_total"),
+                text.lastIndexOf("# TYPE evosuite_test_executions_total"));
+        Assert.assertTrue(text, text.contains("client=\"ClientNode0\",class=\"com.example.Foo\"} 2\n"));
+        Assert.assertTrue(text, text.contains("client=\"ClientNode1\",class=\"com.example.Foo\"} 3\n"));
+    }
+
+    @Test
+    public void testInvalidBatchIsDiscarded() {
+        TelemetrySink sink = new TelemetrySink(null);
+        sink.collect("ClientNode0", new byte[]{0, 1, 2});
+        Assert.assertEquals("", sink.toPrometheusText());
+    }
+
+    @Test
+    public void testFileIsWritten() throws Exception {
+        File file = new File(folder.getRoot(), "metrics" + File.separator + "telemetry.prom");
+        TelemetrySink sink = new TelemetrySink(file);
+        sink.collect("ClientNode0", createBatch(2, 10));
+
+        Assert.assertTrue(file.exists());
+        String text = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+        Assert.assertEquals(sink.toPrometheusText(), text);
+    }
+}
@@ -81,6 +81,12 @@ public class RuntimeSettings {
      */
     public static Sandbox.SandboxMode sandboxMode = Sandbox.SandboxMode.RECOMMENDED;
 
+    /**
+     * Should the sandbox intercept the sensitive calls in the instrumented SUT code,
+     * instead of using a security manager? Needed on JVMs without security managers
+     */
+    public static boolean sandboxWithInterception = false;
+
     /**
      * How many threads is each test allowed to start?
      * Note: such checks depend on RuntimeSettings#mockJVMNonDeterminism
@@ -129,6 +129,33 @@ public class MethodCallReplacement {
         mv.visitLabel(afterOrigCallLabel);
     }
 
+    /**
+     * Call the replacement method with the arguments of the original call, preceded by the
+     * callee if the replacement takes it as well, and leave the stack as it was for the
+     * original call. Used to check a call before it is executed
+     */
+    public void insertGuardCall(MethodCallReplacementMethodAdapter mv) {
+        Type[] args = Type.getArgumentTypes(desc);
+        boolean withCallee = Type.getArgumentTypes(replacementDesc).length > args.length;
+
+        int[] locals = new int[args.length];
+        for (int i = args.length - 1; i >= 0; i--) {
+            locals[i] = mv.newLocal(args[i]);
+            mv.storeLocal(locals[i]);
+        }
+        if (withCallee) {
+            mv.dup();
+        }
+        for (int i = 0; i < args.length; i++) {
+            mv.loadLocal(locals[i]);
+        }
+        mv.visitMethodInsn(Opcodes.INVOKESTATIC, replacementClassName, replacementMethodName,
+                replacementDesc, false);
+        for (int i = 0; i < args.length; i++) {
+            mv.loadLocal(locals[i]);
+        }
+    }
+
     public void insertInvokeSpecialForMockedSuperclass(MethodCallReplacementMethodAdapter mv) {
         int numArguments = Type.getArgumentTypes(replacementDesc).length;
         mv.push(numArguments);
@@ -23,6 +23,7 @@ import org.evosuite.PackageInfo;
 import org.evosuite.runtime.RuntimeSettings;
 import org.evosuite.runtime.mock.*;
 import org.evosuite.runtime.mock.java.lang.MockThrowable;
+import org.evosuite.runtime.sandbox.SandboxGuard;
 import org.evosuite.runtime.util.ReflectionUtils;
 import org.objectweb.asm.Opcodes;
 import org.objectweb.asm.Type;
@@ -63,6 +64,11 @@ public class MethodCallReplacementCache {
      */
     private final Map<String, Map<String, MethodCallReplacement>> specialReplacementCalls = new HashMap<>();
 
+    /**
+     * checks called before the original method, when the sandbox intercepts sensitive calls
+     */
+    private final Map<String, Map<String, MethodCallReplacement>> guardCalls = new HashMap<>();
+
     private MethodCallReplacementCache() {
 
         if (RuntimeSettings.mockJVMNonDeterminism) {
@@ -82,6 +88,9 @@ public class MethodCallReplacementCache {
 
         handleMockList();
 
+        if (RuntimeSettings.sandboxWithInterception) {
+            addSandboxGuardCalls();
+        }
     }
 
     public static MethodCallReplacementCache getInstance() {
@@ -109,6 +118,41 @@ public class MethodCallReplacementCache {
         specialReplacementCalls.get(replacement.getClassName()).put(replacement.getMethodNameWithDesc(), replacement);
     }
 
+    /**
+     * Guard the sensitive calls with the checks of {@link SandboxGuard}. Calls that are
+     * already replaced are left alone, as the mocks do not reach the real environment
+     */
+    private void addSandboxGuardCalls() {
+        String guard = PackageInfo.getNameWithSlash(SandboxGuard.class);
+        for (Map.Entry<String, Map<String, Method>> owner : SandboxGuard.getChecks().entrySet()) {
+            for (Map.Entry<String, Method> call : owner.getValue().entrySet()) {
+                String className = owner.getKey();
+                String methodNameWithDesc = call.getKey();
+                if (hasReplacementCall(className, methodNameWithDesc)
+                        || hasSpecialReplacementCall(className, methodNameWithDesc)) {
+                    continue;
+                }
+                int index = methodNameWithDesc.indexOf('(');
+                Method check = call.getValue();
+                MethodCallReplacement replacement = new MethodCallReplacement(className,
+                        methodNameWithDesc.substring(0, index), methodNameWithDesc.substring(index),
+                        Opcodes.INVOKESTATIC, guard, check.getName(), Type.getMethodDescriptor(check), false, false);
+                guardCalls.computeIfAbsent(className, k -> new HashMap<>()).put(methodNameWithDesc, replacement);
+            }
+        }
+    }
+
+    public boolean hasGuardCall(String className, String methodNameWithDesc) {
+        if (!guardCalls.containsKey(className))
+            return false;
+
+        return guardCalls.get(className).containsKey(methodNameWithDesc);
+    }
+
+    public MethodCallReplacement getGuardCall(String className, String methodNameWithDesc) {
+        return guardCalls.get(className).get(methodNameWithDesc);
+    }
+
     // private void addVirtualReplacementCall(MethodCallReplacement replacement)
     // {
     // virtualReplacementCalls.add(replacement);
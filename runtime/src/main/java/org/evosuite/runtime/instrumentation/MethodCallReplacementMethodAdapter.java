@@ -79,6 +79,14 @@ public class MethodCallReplacementMethodAdapter extends GeneratorAdapter {
     public void visitMethodInsn(int opcode, String owner, String name, String desc, boolean itf) {
 
         boolean isReplaced = false;
+
+        // Sandbox checks, which do not replace the call. Callees of constructors are
+        // not initialized yet, and super calls are not the SUT calling the environment
+        if (MethodCallReplacementCache.getInstance().hasGuardCall(owner, name + desc) &&
+                (opcode != Opcodes.INVOKESPECIAL || name.equals("<init>"))) {
+            MethodCallReplacementCache.getInstance().getGuardCall(owner, name + desc).insertGuardCall(this);
+            hasBeenInstrumented = true;
+        }
         // Static replacement methods
         // For invokespecial this can only be used if a constructor is called,
         // not for super calls because not all mock classes may be superclasses
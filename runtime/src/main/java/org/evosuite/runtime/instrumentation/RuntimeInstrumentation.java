@@ -127,7 +127,7 @@ public class RuntimeInstrumentation {
                 cv = resetClassAdapter;
             }
 
-            if (RuntimeSettings.isUsingAnyMocking()) {
+            if (RuntimeSettings.isUsingAnyMocking() || RuntimeSettings.sandboxWithInterception) {
                 cv = new MethodCallReplacementClassAdapter(cv, className, !retransformingMode);
             }
 
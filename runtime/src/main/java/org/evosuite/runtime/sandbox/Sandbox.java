@@ -19,6 +19,8 @@
  */
 package org.evosuite.runtime.sandbox;
 
+import org.evosuite.runtime.RuntimeSettings;
+import org.evosuite.runtime.instrumentation.MethodCallReplacementCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -26,7 +28,9 @@ import java.util.Set;
 
 /**
  * Class which controls enabling and disabling sandbox.
- * EvoSuite uses its own customized security manager.
+ * EvoSuite uses its own customized security manager or, if
+ * {@link RuntimeSettings#sandboxWithInterception} is on, the checks of
+ * {@link SandboxGuard} inserted in the SUT bytecode.
  */
 public class Sandbox {
 
@@ -51,6 +55,24 @@ public class Sandbox {
 
     private static boolean checkForInitialization = false;
 
+    /**
+     * Whether the sandbox is on without a security manager, ie by intercepting calls
+     */
+    private static volatile boolean intercepting = false;
+
+    /**
+     * Whether {@link RuntimeSettings#sandboxWithInterception} was turned on here, as no
+     * security manager could be installed, and so has to be turned off once the sandbox is reset
+     */
+    private static boolean interceptionTurnedOn = false;
+
+    private static volatile boolean executingSUTCode = false;
+
+    /**
+     * Thread executing SUT code outside of a test case, if any, when intercepting calls
+     */
+    private static volatile Thread unsafeCodeThread = null;
+
     public static void setCheckForInitialization(boolean checkForInitialization) {
         Sandbox.checkForInitialization = checkForInitialization;
     }
@@ -59,7 +81,21 @@ public class Sandbox {
      * Create and initialize security manager for SUT
      */
     public static synchronized void initializeSecurityManagerForSUT(Set<Thread> privileged) {
-        if (manager == null) {
+        if (RuntimeSettings.sandboxWithInterception || !isSecurityManagerSupported()) {
+            if (intercepting) {
+                logger.warn("Sandbox can be initalized only once");
+            }
+            if (!RuntimeSettings.sandboxWithInterception) {
+                /*
+                 * eg, a generated JUnit test run on JDK 18+: the classes of the SUT instrumented
+                 * from now on need the checks of SandboxGuard, otherwise nothing would be denied
+                 */
+                RuntimeSettings.sandboxWithInterception = true;
+                interceptionTurnedOn = true;
+                MethodCallReplacementCache.resetSingleton();
+            }
+            intercepting = true;
+        } else if (manager == null) {
             manager = new MSecurityManager();
 
             if (privileged == null) {
@@ -108,13 +144,53 @@ public class Sandbox {
                 manager.restoreDefaultManager();
             }
             manager = null;
+            intercepting = false;
+            if (interceptionTurnedOn) {
+                RuntimeSettings.sandboxWithInterception = false;
+                interceptionTurnedOn = false;
+                MethodCallReplacementCache.resetSingleton();
+            }
+            executingSUTCode = false;
+            unsafeCodeThread = null;
         }
 
         return privileged;
     }
 
+    /**
+     * @return whether the sandbox is on, with a security manager or by intercepting calls
+     */
     public static boolean isSecurityManagerInitialized() {
-        return manager != null;
+        return manager != null || intercepting;
+    }
+
+    /**
+     * @return whether a security manager can be installed, which is not the case from JDK 18
+     * on, unless explicitly allowed with -Djava.security.manager
+     */
+    public static boolean isSecurityManagerSupported() {
+        String allowed = System.getProperty("java.security.manager");
+        if (allowed != null && !allowed.equals("disallow")) {
+            return true;
+        }
+        String version = System.getProperty("java.specification.version", "1.8");
+        if (version.startsWith("1.")) {
+            return true;
+        }
+        try {
+            return Integer.parseInt(version) < 18;
+        } catch (NumberFormatException e) {
+            return true;
+        }
+    }
+
+    /**
+     * Used by {@link SandboxGuard} on every sensitive call in the SUT, so it must be cheap
+     *
+     * @return whether the sandbox intercepts calls, and SUT code is being executed
+     */
+    public static boolean isInterceptingSUTCalls() {
+        return intercepting && (executingSUTCode || unsafeCodeThread == Thread.currentThread());
     }
 
     public static void goingToExecuteSUTCode() {
@@ -124,7 +200,14 @@ public class Sandbox {
             }
             return;
         }
-        manager.goingToExecuteTestCase();
+        if (intercepting) {
+            if (executingSUTCode) {
+                throw new IllegalStateException("Trying to set up the sandbox while executing a test case");
+            }
+            executingSUTCode = true;
+        } else {
+            manager.goingToExecuteTestCase();
+        }
         PermissionStatistics.getInstance().getAndResetExceptionInfo();
     }
 
@@ -135,14 +218,23 @@ public class Sandbox {
             }
             return;
         }
-        manager.goingToEndTestCase();
+        if (intercepting) {
+            if (!executingSUTCode) {
+                throw new IllegalStateException("Trying to disable sandbox when not test case was run");
+            }
+            // as the security manager does, as properties could be used by EvoSuite as well
+            org.evosuite.runtime.System.restoreProperties();
+            executingSUTCode = false;
+        } else {
+            manager.goingToEndTestCase();
+        }
     }
 
     public static boolean isOnAndExecutingSUTCode() {
         if (!isSecurityManagerInitialized()) {
             return false;
         }
-        return manager.isExecutingTestCase();
+        return intercepting ? executingSUTCode : manager.isExecutingTestCase();
     }
 
     public static void goingToExecuteUnsafeCodeOnSameThread() throws SecurityException,
@@ -150,7 +242,14 @@ public class Sandbox {
         if (!isSecurityManagerInitialized()) {
             return;
         }
-        manager.goingToExecuteUnsafeCodeOnSameThread();
+        if (intercepting) {
+            if (unsafeCodeThread != null) {
+                throw new IllegalStateException("The thread is already executing unsafe code");
+            }
+            unsafeCodeThread = Thread.currentThread();
+        } else {
+            manager.goingToExecuteUnsafeCodeOnSameThread();
+        }
     }
 
     public static void doneWithExecutingUnsafeCodeOnSameThread()
@@ -158,7 +257,14 @@ public class Sandbox {
         if (!isSecurityManagerInitialized()) {
             return;
         }
-        manager.doneWithExecutingUnsafeCodeOnSameThread();
+        if (intercepting) {
+            if (unsafeCodeThread == null) {
+                throw new IllegalStateException("The thread was not executing unsafe code");
+            }
+            unsafeCodeThread = null;
+        } else {
+            manager.doneWithExecutingUnsafeCodeOnSameThread();
+        }
     }
 
 
@@ -166,6 +272,9 @@ public class Sandbox {
         if (!isSecurityManagerInitialized()) {
             return false;
         }
+        if (intercepting) {
+            return isInterceptingSUTCalls();
+        }
         return manager.isSafeToExecuteSUTCode();
     }
 }
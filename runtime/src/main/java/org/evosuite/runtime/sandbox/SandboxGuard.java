@@ -0,0 +1,633 @@
+/*
+ * Copyright (C) 2010-2018 Gordon Fraser, Andrea Arcuri and EvoSuite
+ * contributors
+ *
+ * This file is part of EvoSuite.
+ *
+ * EvoSuite is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * EvoSuite is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with EvoSuite. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.evosuite.runtime.sandbox;
+
+import org.evosuite.runtime.RuntimeSettings;
+import org.evosuite.runtime.mock.EvoSuiteMock;
+import org.objectweb.asm.Type;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.net.*;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.CopyOption;
+import java.nio.file.Files;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileAttribute;
+import java.security.Permission;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Checks of the sensitive calls in the instrumented SUT code, used by the sandbox instead of
+ * a security manager if {@link RuntimeSettings#sandboxWithInterception} is on.
+ *
+ * <p>
+ * A call to a check is inserted before each call to a guarded method or constructor. The check
+ * takes the arguments of the call, preceded by the callee for instance methods, and throws a
+ * {@link SecurityException} if the call is not allowed. As the call sites are known to be in
+ * the SUT there is no need to walk the stack: outside SUT code execution a check costs a
+ * volatile read.
+ *
+ * <p>
+ * Only the methods and constructors with a {@link GuardedCall} check below are intercepted,
+ * and for those the policy follows the one of {@link MSecurityManager}: files can be read, but
+ * not written (including temporary files, channels opened for writing, permissions and file
+ * descriptors), deleted or executed, and unless the sandbox is in {@link Sandbox.SandboxMode#IO}
+ * mode the SUT can neither open sockets nor stop the JVM. Calls on mocks, eg of the virtual file
+ * system, are allowed, and calls through reflection get the check of the invoked method. Any
+ * other way to reach the file system or the network, eg native code, is not intercepted.
+ */
+public class SandboxGuard {
+
+    private static final Logger logger = LoggerFactory.getLogger(SandboxGuard.class);
+
+    /**
+     * Marks a check, and the method or constructor it guards
+     */
+    @Retention(RetentionPolicy.RUNTIME)
+    @Target(ElementType.METHOD)
+    public @interface GuardedCall {
+
+        /**
+         * @return the class declaring the guarded method
+         */
+        Class<?> owner();
+
+        /**
+         * @return the name of the guarded method, a constructor if not specified
+         */
+        String method() default "<init>";
+
+        boolean isStatic() default false;
+    }
+
+    /**
+     * Checks by internal name of the owner, and name and descriptor of the guarded method
+     */
+    private static final Map<String, Map<String, Method>> checks = new HashMap<>();
+
+    static {
+        for (Method check : SandboxGuard.class.getMethods()) {
+            GuardedCall call = check.getAnnotation(GuardedCall.class);
+            if (call == null || !Modifier.isStatic(check.getModifiers())) {
+                continue;
+            }
+            try {
+                String desc = getGuardedDescriptor(check, call);
+                checks.computeIfAbsent(Type.getInternalName(call.owner()), k -> new HashMap<>())
+                        .put(call.method() + desc, check);
+            } catch (NoSuchMethodException e) {
+                // can happen if the guarded method is not in the API of this JVM
+                logger.debug("Cannot find method guarded by " + check + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private static String getGuardedDescriptor(Method check, GuardedCall call) throws NoSuchMethodException {
+        Class<?>[] parameters = check.getParameterTypes();
+        if (call.method().equals("<init>")) {
+            return Type.getConstructorDescriptor(call.owner().getConstructor(parameters));
+        }
+        if (!call.isStatic()) {
+            // the callee is not an argument of the guarded method
+            parameters = Arrays.copyOfRange(parameters, 1, parameters.length);
+        }
+        return Type.getMethodDescriptor(call.owner().getMethod(call.method(), parameters));
+    }
+
+    /**
+     * @return the checks by internal name of the owner, and name and descriptor of the guarded method
+     */
+    public static Map<String, Map<String, Method>> getChecks() {
+        return Collections.unmodifiableMap(checks);
+    }
+
+    // ------------------------------------------------------------------------------------------
+
+    private static boolean isOn() {
+        return RuntimeSettings.sandboxMode != Sandbox.SandboxMode.OFF && Sandbox.isInterceptingSUTCalls();
+    }
+
+    private static void deny(Permission perm) {
+        PermissionStatistics.getInstance().permissionDenied(perm);
+        logger.debug("Sandbox blocks permission " + perm);
+        throw new SecurityException("Sandbox blocks " + perm);
+    }
+
+    private static void checkFile(Object file, String action) {
+        if (!isOn() || file instanceof EvoSuiteMock) {
+            return;
+        }
+        deny(new FilePermission(String.valueOf(file), action));
+    }
+
+    private static void checkSocket(String host, String action) {
+        if (!isOn() || RuntimeSettings.sandboxMode == Sandbox.SandboxMode.IO) {
+            return;
+        }
+        deny(new SocketPermission(host == null ? "localhost" : host, action));
+    }
+
+    private static void checkExit(int status) {
+        if (!isOn() || RuntimeSettings.sandboxMode == Sandbox.SandboxMode.IO) {
+            return;
+        }
+        deny(new RuntimePermission("exitVM." + status));
+    }
+
+    private static void checkExec(String command) {
+        if (!isOn()) {
+            return;
+        }
+        deny(new FilePermission(command == null ? "<<ALL FILES>>" : command, "execute"));
+    }
+
+    private static void checkOpen(Path path, Collection<?> options) {
+        if (options == null) {
+            return;
+        }
+        if (options.contains(StandardOpenOption.WRITE) || options.contains(StandardOpenOption.APPEND)) {
+            checkFile(path, "write");
+        }
+        if (options.contains(StandardOpenOption.DELETE_ON_CLOSE)) {
+            checkFile(path, "delete");
+        }
+    }
+
+    private static Object getTempDirectory(Object directory) {
+        return directory == null ? System.getProperty("java.io.tmpdir") : directory;
+    }
+
+    private static String toCommand(String[] command) {
+        return command == null || command.length == 0 ? null : command[0];
+    }
+
+    // --- files --------------------------------------------------------------------------------
+
+    @GuardedCall(owner = File.class, method = "delete")
+    public static void delete(File file) {
+        checkFile(file, "delete");
+    }
+
+    @GuardedCall(owner = File.class, method = "deleteOnExit")
+    public static void deleteOnExit(File file) {
+        checkFile(file, "delete");
+    }
+
+    @GuardedCall(owner = File.class, method = "createNewFile")
+    public static void createNewFile(File file) {
+        checkFile(file, "write");
+    }
+
+    @GuardedCall(owner = File.class, method = "mkdir")
+    public static void mkdir(File file) {
+        checkFile(file, "write");
+    }
+
+    @GuardedCall(owner = File.class, method = "mkdirs")
+    public static void mkdirs(File file) {
+        checkFile(file, "write");
+    }
+
+    @GuardedCall(owner = File.class, method = "renameTo")
+    public static void renameTo(File file, File dest) {
+        checkFile(file, "write");
+    }
+
+    @GuardedCall(owner = File.class, method = "setLastModified")
+    public static void setLastModified(File file, long time) {
+        checkFile(file, "write");
+    }
+
+    @GuardedCall(owner = File.class, method = "setReadOnly")
+    public static void setReadOnly(File file) {
+        checkFile(file, "write");
+    }
+
+    @GuardedCall(owner = File.class, method = "setWritable")
+    public static void setWritable(File file, boolean writable) {
+        checkFile(file, "write");
+    }
+
+    @GuardedCall(owner = File.class, method = "setWritable")
+    public static void setWritable(File file, boolean writable, boolean ownerOnly) {
+        checkFile(file, "write");
+    }
+
+    @GuardedCall(owner = File.class, method = "setReadable")
+    public static void setReadable(File file, boolean readable) {
+        checkFile(file, "write");
+    }
+
+    @GuardedCall(owner = File.class, method = "setReadable")
+    public static void setReadable(File file, boolean readable, boolean ownerOnly) {
+        checkFile(file, "write");
+    }
+
+    @GuardedCall(owner = File.class, method = "setExecutable")
+    public static void setExecutable(File file, boolean executable) {
+        checkFile(file, "write");
+    }
+
+    @GuardedCall(owner = File.class, method = "setExecutable")
+    public static void setExecutable(File file, boolean executable, boolean ownerOnly) {
+        checkFile(file, "write");
+    }
+
+    @GuardedCall(owner = File.class, method = "createTempFile", isStatic = true)
+    public static void createTempFile(String prefix, String suffix) {
+        checkFile(getTempDirectory(null), "write");
+    }
+
+    @GuardedCall(owner = File.class, method = "createTempFile", isStatic = true)
+    public static void createTempFile(String prefix, String suffix, File directory) {
+        checkFile(getTempDirectory(directory), "write");
+    }
+
+    @GuardedCall(owner = FileOutputStream.class)
+    public static void FileOutputStream(FileDescriptor fd) {
+        if (isOn()) {
+            deny(new RuntimePermission("writeFileDescriptor"));
+        }
+    }
+
+    @GuardedCall(owner = FileOutputStream.class)
+    public static void FileOutputStream(String name) {
+        checkFile(name, "write");
+    }
+
+    @GuardedCall(owner = FileOutputStream.class)
+    public static void FileOutputStream(String name, boolean append) {
+        checkFile(name, "write");
+    }
+
+    @GuardedCall(owner = FileOutputStream.class)
+    public static void FileOutputStream(File file) {
+        checkFile(file, "write");
+    }
+
+    @GuardedCall(owner = FileOutputStream.class)
+    public static void FileOutputStream(File file, boolean append) {
+        checkFile(file, "write");
+    }
+
+    @GuardedCall(owner = FileWriter.class)
+    public static void FileWriter(String name) {
+        checkFile(name, "write");
+    }
+
+    @GuardedCall(owner = FileWriter.class)
+    public static void FileWriter(String name, boolean append) {
+        checkFile(name, "write");
+    }
+
+    @GuardedCall(owner = FileWriter.class)
+    public static void FileWriter(File file) {
+        checkFile(file, "write");
+    }
+
+    @GuardedCall(owner = FileWriter.class)
+    public static void FileWriter(File file, boolean append) {
+        checkFile(file, "write");
+    }
+
+    @GuardedCall(owner = PrintWriter.class)
+    public static void PrintWriter(String name) {
+        checkFile(name, "write");
+    }
+
+    @GuardedCall(owner = PrintWriter.class)
+    public static void PrintWriter(File file) {
+        checkFile(file, "write");
+    }
+
+    @GuardedCall(owner = PrintStream.class)
+    public static void PrintStream(String name) {
+        checkFile(name, "write");
+    }
+
+    @GuardedCall(owner = PrintStream.class)
+    public static void PrintStream(File file) {
+        checkFile(file, "write");
+    }
+
+    @GuardedCall(owner = RandomAccessFile.class)
+    public static void RandomAccessFile(String name, String mode) {
+        if (mode != null && !mode.equals("r")) {
+            checkFile(name, "write");
+        }
+    }
+
+    @GuardedCall(owner = RandomAccessFile.class)
+    public static void RandomAccessFile(File file, String mode) {
+        if (mode != null && !mode.equals("r")) {
+            checkFile(file, "write");
+        }
+    }
+
+    @GuardedCall(owner = Files.class, method = "delete", isStatic = true)
+    public static void delete(Path path) {
+        checkFile(path, "delete");
+    }
+
+    @GuardedCall(owner = Files.class, method = "deleteIfExists", isStatic = true)
+    public static void deleteIfExists(Path path) {
+        checkFile(path, "delete");
+    }
+
+    @GuardedCall(owner = Files.class, method = "createFile", isStatic = true)
+    public static void createFile(Path path, FileAttribute<?>[] attributes) {
+        checkFile(path, "write");
+    }
+
+    @GuardedCall(owner = Files.class, method = "createDirectory", isStatic = true)
+    public static void createDirectory(Path path, FileAttribute<?>[] attributes) {
+        checkFile(path, "write");
+    }
+
+    @GuardedCall(owner = Files.class, method = "createDirectories", isStatic = true)
+    public static void createDirectories(Path path, FileAttribute<?>[] attributes) {
+        checkFile(path, "write");
+    }
+
+    @GuardedCall(owner = Files.class, method = "write", isStatic = true)
+    public static void write(Path path, byte[] bytes, OpenOption[] options) {
+        checkFile(path, "write");
+    }
+
+    @GuardedCall(owner = Files.class, method = "write", isStatic = true)
+    public static void write(Path path, Iterable<? extends CharSequence> lines, OpenOption[] options) {
+        checkFile(path, "write");
+    }
+
+    @GuardedCall(owner = Files.class, method = "write", isStatic = true)
+    public static void write(Path path, Iterable<? extends CharSequence> lines, Charset cs, OpenOption[] options) {
+        checkFile(path, "write");
+    }
+
+    @GuardedCall(owner = Files.class, method = "writeString", isStatic = true)
+    public static void writeString(Path path, CharSequence csq, OpenOption[] options) {
+        checkFile(path, "write");
+    }
+
+    @GuardedCall(owner = Files.class, method = "writeString", isStatic = true)
+    public static void writeString(Path path, CharSequence csq, Charset cs, OpenOption[] options) {
+        checkFile(path, "write");
+    }
+
+    @GuardedCall(owner = Files.class, method = "createTempFile", isStatic = true)
+    public static void createTempFile(String prefix, String suffix, FileAttribute<?>[] attributes) {
+        checkFile(getTempDirectory(null), "write");
+    }
+
+    @GuardedCall(owner = Files.class, method = "createTempFile", isStatic = true)
+    public static void createTempFile(Path dir, String prefix, String suffix, FileAttribute<?>[] attributes) {
+        checkFile(getTempDirectory(dir), "write");
+    }
+
+    @GuardedCall(owner = Files.class, method = "createTempDirectory", isStatic = true)
+    public static void createTempDirectory(String prefix, FileAttribute<?>[] attributes) {
+        checkFile(getTempDirectory(null), "write");
+    }
+
+    @GuardedCall(owner = Files.class, method = "createTempDirectory", isStatic = true)
+    public static void createTempDirectory(Path dir, String prefix, FileAttribute<?>[] attributes) {
+        checkFile(getTempDirectory(dir), "write");
+    }
+
+    @GuardedCall(owner = Files.class, method = "newByteChannel", isStatic = true)
+    public static void newByteChannel(Path path, OpenOption[] options) {
+        checkOpen(path, options == null ? null : Arrays.asList(options));
+    }
+
+    @GuardedCall(owner = Files.class, method = "newByteChannel", isStatic = true)
+    public static void newByteChannel(Path path, Set<? extends OpenOption> options, FileAttribute<?>[] attributes) {
+        checkOpen(path, options);
+    }
+
+    @GuardedCall(owner = FileChannel.class, method = "open", isStatic = true)
+    public static void open(Path path, OpenOption[] options) {
+        checkOpen(path, options == null ? null : Arrays.asList(options));
+    }
+
+    @GuardedCall(owner = FileChannel.class, method = "open", isStatic = true)
+    public static void open(Path path, Set<? extends OpenOption> options, FileAttribute<?>[] attributes) {
+        checkOpen(path, options);
+    }
+
+    @GuardedCall(owner = Files.class, method = "newOutputStream", isStatic = true)
+    public static void newOutputStream(Path path, OpenOption[] options) {
+        checkFile(path, "write");
+    }
+
+    @GuardedCall(owner = Files.class, method = "newBufferedWriter", isStatic = true)
+    public static void newBufferedWriter(Path path, OpenOption[] options) {
+        checkFile(path, "write");
+    }
+
+    @GuardedCall(owner = Files.class, method = "newBufferedWriter", isStatic = true)
+    public static void newBufferedWriter(Path path, Charset cs, OpenOption[] options) {
+        checkFile(path, "write");
+    }
+
+    @GuardedCall(owner = Files.class, method = "copy", isStatic = true)
+    public static void copy(Path source, Path target, CopyOption[] options) {
+        checkFile(target, "write");
+    }
+
+    @GuardedCall(owner = Files.class, method = "copy", isStatic = true)
+    public static void copy(InputStream in, Path target, CopyOption[] options) {
+        checkFile(target, "write");
+    }
+
+    @GuardedCall(owner = Files.class, method = "move", isStatic = true)
+    public static void move(Path source, Path target, CopyOption[] options) {
+        checkFile(source, "delete");
+    }
+
+    // --- processes and exit -------------------------------------------------------------------
+
+    @GuardedCall(owner = Runtime.class, method = "exec")
+    public static void exec(Runtime runtime, String command) {
+        checkExec(command);
+    }
+
+    @GuardedCall(owner = Runtime.class, method = "exec")
+    public static void exec(Runtime runtime, String[] command) {
+        checkExec(toCommand(command));
+    }
+
+    @GuardedCall(owner = Runtime.class, method = "exec")
+    public static void exec(Runtime runtime, String command, String[] env) {
+        checkExec(command);
+    }
+
+    @GuardedCall(owner = Runtime.class, method = "exec")
+    public static void exec(Runtime runtime, String[] command, String[] env) {
+        checkExec(toCommand(command));
+    }
+
+    @GuardedCall(owner = Runtime.class, method = "exec")
+    public static void exec(Runtime runtime, String command, String[] env, File dir) {
+        checkExec(command);
+    }
+
+    @GuardedCall(owner = Runtime.class, method = "exec")
+    public static void exec(Runtime runtime, String[] command, String[] env, File dir) {
+        checkExec(toCommand(command));
+    }
+
+    @GuardedCall(owner = ProcessBuilder.class, method = "start")
+    public static void start(ProcessBuilder builder) {
+        checkExec(builder.command().isEmpty() ? null : builder.command().get(0));
+    }
+
+    @GuardedCall(owner = System.class, method = "exit", isStatic = true)
+    public static void exit(int status) {
+        checkExit(status);
+    }
+
+    @GuardedCall(owner = Runtime.class, method = "exit")
+    public static void exit(Runtime runtime, int status) {
+        checkExit(status);
+    }
+
+    @GuardedCall(owner = Runtime.class, method = "halt")
+    public static void halt(Runtime runtime, int status) {
+        checkExit(status);
+    }
+
+    // --- network ------------------------------------------------------------------------------
+
+    @GuardedCall(owner = Socket.class)
+    public static void Socket(String host, int port) {
+        checkSocket(host, "connect");
+    }
+
+    @GuardedCall(owner = Socket.class)
+    public static void Socket(InetAddress address, int port) {
+        checkSocket(address == null ? null : address.getHostAddress(), "connect");
+    }
+
+    @GuardedCall(owner = Socket.class, method = "connect")
+    public static void connect(Socket socket, SocketAddress endpoint) {
+        checkSocket(String.valueOf(endpoint), "connect");
+    }
+
+    @GuardedCall(owner = Socket.class, method = "connect")
+    public static void connect(Socket socket, SocketAddress endpoint, int timeout) {
+        checkSocket(String.valueOf(endpoint), "connect");
+    }
+
+    @GuardedCall(owner = ServerSocket.class)
+    public static void ServerSocket(int port) {
+        checkSocket("localhost:" + port, "listen");
+    }
+
+    @GuardedCall(owner = ServerSocket.class)
+    public static void ServerSocket(int port, int backlog) {
+        checkSocket("localhost:" + port, "listen");
+    }
+
+    @GuardedCall(owner = DatagramSocket.class)
+    public static void DatagramSocket(int port) {
+        checkSocket("localhost:" + port, "listen");
+    }
+
+    @GuardedCall(owner = URL.class, method = "openConnection")
+    public static void openConnection(URL url) {
+        checkSocket(url.getHost(), "connect");
+    }
+
+    @GuardedCall(owner = URL.class, method = "openStream")
+    public static void openStream(URL url) {
+        checkSocket(url.getHost(), "connect");
+    }
+
+    // --- reflection ---------------------------------------------------------------------------
+
+    @GuardedCall(owner = Method.class, method = "invoke")
+    public static void invoke(Method method, Object obj, Object[] args) {
+        if (!isOn()) {
+            return;
+        }
+        String desc = Type.getMethodDescriptor(method);
+        Method check = getCheck(method.getDeclaringClass(), method.getName() + desc);
+        if (check == null) {
+            return;
+        }
+        if (check.getAnnotation(GuardedCall.class).isStatic()) {
+            invokeCheck(check, args);
+        } else {
+            Object[] checkArgs = new Object[args == null ? 1 : args.length + 1];
+            checkArgs[0] = obj;
+            if (args != null) {
+                System.arraycopy(args, 0, checkArgs, 1, args.length);
+            }
+            invokeCheck(check, checkArgs);
+        }
+    }
+
+    @GuardedCall(owner = Constructor.class, method = "newInstance")
+    public static void newInstance(Constructor<?> constructor, Object[] args) {
+        if (!isOn()) {
+            return;
+        }
+        String desc = Type.getConstructorDescriptor(constructor);
+        Method check = getCheck(constructor.getDeclaringClass(), "<init>" + desc);
+        if (check != null) {
+            invokeCheck(check, args);
+        }
+    }
+
+    private static Method getCheck(Class<?> owner, String methodNameWithDesc) {
+        Map<String, Method> ownerChecks = checks.get(Type.getInternalName(owner));
+        return ownerChecks == null ? null : ownerChecks.get(methodNameWithDesc);
+    }
+
+    private static void invokeCheck(Method check, Object[] args) {
+        try {
+            check.invoke(null, args);
+        } catch (InvocationTargetException e) {
+            if (e.getCause() instanceof SecurityException) {
+                throw (SecurityException) e.getCause();
+            }
+        } catch (IllegalAccessException | IllegalArgumentException e) {
+            // wrong arguments, the reflective call will fail anyway
+        }
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright (C) 2010-2018 Gordon Fraser, Andrea Arcuri and EvoSuite
+ * contributors
+ *
+ * This file is part of EvoSuite.
+ *
+ * EvoSuite is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * EvoSuite is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with EvoSuite. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.evosuite.runtime.sandbox;
+
+import org.evosuite.runtime.RuntimeSettings;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileDescriptor;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileAttribute;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Map;
+
+public class SandboxGuardTest {
+
+    private boolean interception;
+
+    @Before
+    public void init() {
+        interception = RuntimeSettings.sandboxWithInterception;
+        RuntimeSettings.sandboxWithInterception = true;
+    }
+
+    @After
+    public void reset() {
+        if (Sandbox.isSecurityManagerInitialized()) {
+            Sandbox.resetDefaultSecurityManager();
+        }
+        RuntimeSettings.sandboxWithInterception = interception;
+    }
+
+    @Test
+    public void testChecksOfGuardedMethods() {
+        Assert.assertTrue(SandboxGuard.getChecks().get("java/io/File").containsKey("delete()Z"));
+        Assert.assertTrue(SandboxGuard.getChecks().get("java/lang/System").containsKey("exit(I)V"));
+        Assert.assertTrue(SandboxGuard.getChecks().get("java/io/FileOutputStream").containsKey("<init>(Ljava/lang/String;)V"));
+    }
+
+    @Test
+    public void testNoSecurityManagerWithInterception() {
+        Sandbox.initializeSecurityManagerForSUT();
+        Assert.assertTrue(Sandbox.isSecurityManagerInitialized());
+        Assert.assertNull(System.getSecurityManager());
+    }
+
+    @Test
+    public void testChecksOfWritesBesidesStreams() throws Exception {
+        Map<String, Map<String, Method>> checks = SandboxGuard.getChecks();
+        Assert.assertTrue(checks.get("java/io/File").containsKey("createTempFile(Ljava/lang/String;Ljava/lang/String;)Ljava/io/File;"));
+        Assert.assertTrue(checks.get("java/io/File").containsKey("setWritable(Z)Z"));
+        Assert.assertTrue(checks.get("java/io/File").containsKey("setExecutable(ZZ)Z"));
+        Assert.assertTrue(checks.get("java/io/File").containsKey("setReadable(Z)Z"));
+        Assert.assertTrue(checks.get("java/io/FileOutputStream").containsKey("<init>(Ljava/io/FileDescriptor;)V"));
+        Assert.assertTrue(checks.get("java/nio/channels/FileChannel").containsKey("open(Ljava/nio/file/Path;[Ljava/nio/file/OpenOption;)Ljava/nio/channels/FileChannel;"));
+        Assert.assertTrue(checks.get("java/nio/file/Files").containsKey("newByteChannel(Ljava/nio/file/Path;Ljava/util/Set;[Ljava/nio/file/attribute/FileAttribute;)Ljava/nio/channels/SeekableByteChannel;"));
+        Assert.assertTrue(checks.get("java/nio/file/Files").containsKey("write(Ljava/nio/file/Path;Ljava/lang/Iterable;Ljava/nio/charset/Charset;[Ljava/nio/file/OpenOption;)Ljava/nio/file/Path;"));
+        Assert.assertTrue(checks.get("java/nio/file/Files").containsKey("copy(Ljava/io/InputStream;Ljava/nio/file/Path;[Ljava/nio/file/CopyOption;)J"));
+        try {
+            Files.class.getMethod("writeString", Path.class, CharSequence.class, OpenOption[].class);
+            Assert.assertTrue(checks.get("java/nio/file/Files").containsKey("writeString(Ljava/nio/file/Path;Ljava/lang/CharSequence;[Ljava/nio/file/OpenOption;)Ljava/nio/file/Path;"));
+        } catch (NoSuchMethodException e) {
+            //only from Java 11
+        }
+    }
+
+    @Test
+    public void testWritesBesidesStreamsDenied() {
+        Sandbox.initializeSecurityManagerForSUT();
+        File file = new File("foo");
+        Path path = Paths.get("foo");
+        OpenOption[] write = new OpenOption[]{StandardOpenOption.WRITE};
+
+        Runnable[] calls = new Runnable[]{
+                () -> SandboxGuard.createTempFile("foo", ".tmp"),
+                () -> SandboxGuard.createTempFile("foo", ".tmp", file),
+                () -> SandboxGuard.createTempFile("foo", ".tmp", new FileAttribute<?>[0]),
+                () -> SandboxGuard.setWritable(file, true),
+                () -> SandboxGuard.setReadable(file, false, false),
+                () -> SandboxGuard.setExecutable(file, true),
+                () -> SandboxGuard.FileOutputStream(FileDescriptor.out),
+                () -> SandboxGuard.newByteChannel(path, write),
+                () -> SandboxGuard.newByteChannel(path, EnumSet.of(StandardOpenOption.APPEND), null),
+                () -> SandboxGuard.open(path, new OpenOption[]{StandardOpenOption.DELETE_ON_CLOSE}),
+                () -> SandboxGuard.write(path, Collections.singletonList("foo"), StandardCharsets.UTF_8, write),
+                () -> SandboxGuard.writeString(path, "foo", write),
+                () -> SandboxGuard.copy(new ByteArrayInputStream(new byte[0]), path, null)
+        };
+
+        for (int i = 0; i < calls.length; i++) {
+            Sandbox.goingToExecuteSUTCode();
+            try {
+                calls[i].run();
+                Assert.fail("Call " + i + " was not denied");
+            } catch (SecurityException e) {
+                //expected
+            } finally {
+                Sandbox.doneWithExecutingSUTCode();
+            }
+        }
+    }
+
+    @Test
+    public void testChannelForReadingAllowed() {
+        Sandbox.initializeSecurityManagerForSUT();
+        Path path = Paths.get("foo");
+        Sandbox.goingToExecuteSUTCode();
+        try {
+            SandboxGuard.open(path, new OpenOption[]{StandardOpenOption.READ});
+            SandboxGuard.newByteChannel(path, new OpenOption[0]);
+            SandboxGuard.newByteChannel(path, EnumSet.of(StandardOpenOption.READ), null);
+        } finally {
+            Sandbox.doneWithExecutingSUTCode();
+        }
+    }
+
+    @Test(expected = SecurityException.class)
+    public void testDeniedWhenExecutingSUTCode() {
+        Sandbox.initializeSecurityManagerForSUT();
+        Sandbox.goingToExecuteSUTCode();
+        try {
+            SandboxGuard.delete(new File("foo"));
+        } finally {
+            Sandbox.doneWithExecutingSUTCode();
+        }
+    }
+
+    @Test
+    public void testAllowedOutsideSUTCode() {
+        Sandbox.initializeSecurityManagerForSUT();
+        SandboxGuard.delete(new File("foo"));
+        SandboxGuard.exit(0);
+    }
+}
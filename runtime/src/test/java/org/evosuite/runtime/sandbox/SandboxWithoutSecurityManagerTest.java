@@ -0,0 +1,115 @@
+/*
+ * Copyright (C) 2010-2018 Gordon Fraser, Andrea Arcuri and EvoSuite
+ * contributors
+ *
+ * This file is part of EvoSuite.
+ *
+ * EvoSuite is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3.0 of the License, or
+ * (at your option) any later version.
+ *
+ * EvoSuite is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with EvoSuite. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.evosuite.runtime.sandbox;
+
+import org.evosuite.runtime.RuntimeSettings;
+import org.evosuite.runtime.instrumentation.EvoClassLoader;
+import org.evosuite.runtime.instrumentation.MethodCallReplacementCache;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+/**
+ * Runs like a generated JUnit test on a JDK (18+) that does not allow to install a
+ * security manager, where the sandbox has to intercept the calls of the SUT
+ */
+public class SandboxWithoutSecurityManagerTest {
+
+    private static final String SPECIFICATION_VERSION = "java.specification.version";
+    private static final String SECURITY_MANAGER = "java.security.manager";
+
+    private String version;
+    private String securityManager;
+    private boolean interception;
+    private File file;
+
+    @Before
+    public void init() throws Exception {
+        version = System.getProperty(SPECIFICATION_VERSION);
+        securityManager = System.getProperty(SECURITY_MANAGER);
+        interception = RuntimeSettings.sandboxWithInterception;
+
+        System.setProperty(SPECIFICATION_VERSION, "18");
+        System.clearProperty(SECURITY_MANAGER);
+        RuntimeSettings.sandboxWithInterception = false;
+        MethodCallReplacementCache.resetSingleton();
+
+        file = File.createTempFile("sandbox", ".txt");
+        Assert.assertTrue(file.delete());
+    }
+
+    @After
+    public void reset() {
+        Sandbox.resetDefaultSecurityManager();
+        System.setProperty(SPECIFICATION_VERSION, version);
+        if (securityManager != null) {
+            System.setProperty(SECURITY_MANAGER, securityManager);
+        }
+        RuntimeSettings.sandboxWithInterception = interception;
+        MethodCallReplacementCache.resetSingleton();
+        file.delete();
+    }
+
+    @Test
+    public void testWriteOfSUTIsDenied() throws Exception {
+        Assert.assertFalse(Sandbox.isSecurityManagerSupported());
+
+        //as done in the scaffolding, before the classes of the SUT are loaded
+        Sandbox.initializeSecurityManagerForSUT();
+        Assert.assertTrue(RuntimeSettings.sandboxWithInterception);
+        Assert.assertNull(System.getSecurityManager());
+
+        Method write = new EvoClassLoader()
+                .loadClass("com.examples.with.different.packagename.sandbox.WriteFile")
+                .getMethod("write", String.class);
+
+        Sandbox.goingToExecuteSUTCode();
+        try {
+            write.invoke(null, file.getAbsolutePath());
+            Assert.fail();
+        } catch (InvocationTargetException e) {
+            Assert.assertTrue(e.getCause() instanceof SecurityException);
+        } finally {
+            Sandbox.doneWithExecutingSUTCode();
+        }
+        Assert.assertFalse(file.exists());
+
+        //the test code itself is not restricted
+        write.invoke(null, file.getAbsolutePath());
+        Assert.assertTrue(file.exists());
+    }
+
+    @Test
+    public void testInterceptionTurnedOffOnReset() {
+        Sandbox.initializeSecurityManagerForSUT();
+        Assert.assertTrue(RuntimeSettings.sandboxWithInterception);
+        Sandbox.resetDefaultSecurityManager();
+        Assert.assertFalse(RuntimeSettings.sandboxWithInterception);
+        Assert.assertFalse(Sandbox.isSecurityManagerInitialized());
+
+        //balance the reset done after each test
+        Sandbox.initializeSecurityManagerForSUT();
+    }
+}